@@ -0,0 +1,95 @@
+package benchmark;
+
+// Java imports
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JMH imports
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Project imports
+import model.Inventory;
+import model.Part;
+import model.Product;
+
+/**
+ * <p>Measures asking for the number of units that could be built of every Product shown in a page of the Product
+ * table, as happens each time the rows are rendered, through the Buildability against computing it from the
+ * associated Parts on every render.</p>
+ *
+ * <p>renderAfterStockChange changes the stock level of one Part associated with a Product on the page before
+ * rendering, so it includes forgetting and recomputing the results that change affects.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class BuildabilityBenchmark {
+    // Number of Product rows rendered
+    private static final int PAGE = 50;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    // The Products on the page, and the two versions of the Part whose stock level is changed
+    private final Product[] page = new Product[PAGE];
+    private final Part[] versions = new Part[2];
+    private int current;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        InventoryGenerator.populate(size);
+
+        List<Product> products = Inventory.getAllProducts();
+        for(int i = 0; i < PAGE; i++)
+            page[i] = products.get(i);
+
+        versions[0] = page[0].getAssociatedPartsView().get(0);
+        versions[1] = InventoryGenerator.newPart(versions[0].getId());
+        versions[1].setStock(versions[0].getStock() + 1);
+        index = Inventory.getAllParts().indexOf(versions[0]);
+    }
+
+    @Benchmark
+    public int render() {
+        int units = 0;
+        for(Product product : page)
+            units += Inventory.getBuildability().getBuildableUnits(product);
+        return units;
+    }
+
+    @Benchmark
+    public int renderAfterStockChange() {
+        current ^= 1;
+        Inventory.updatePart(index, versions[current]);
+        return render();
+    }
+
+    @Benchmark
+    public int computeOnRender() {
+        int units = 0;
+        for(Product product : page) {
+            List<Part> associatedParts = product.getAssociatedPartsView();
+            int productUnits = Integer.MAX_VALUE;
+            for(int i = 0; i < associatedParts.size(); i++)
+                productUnits = Math.min(productUnits,
+                                        associatedParts.get(i).getStock() / product.getAssociatedPartQuantityAt(i));
+            units += productUnits;
+        }
+        return units;
+    }
+}
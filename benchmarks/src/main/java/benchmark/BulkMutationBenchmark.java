@@ -0,0 +1,80 @@
+package benchmark;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JavaFX imports
+import javafx.collections.ListChangeListener;
+
+// JMH imports
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Project imports
+import model.Inventory;
+import model.Part;
+
+/**
+ * <p>Measures adding a batch of new Parts to an inventory of 10000 Parts and deleting them again, either one at a time
+ * or with the bulk addParts and deleteParts methods. A listener on allParts stands in for a bound TableView and walks
+ * every change it receives, so the per-change cost a table would pay is included.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class BulkMutationBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int batchSize;
+
+    // The number of changes received by the listener, returned so the listener is not optimized away
+    private long changes;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        InventoryGenerator.populate(10000);
+        Inventory.getAllParts().addListener((ListChangeListener<Part>) change -> {
+            while(change.next())
+                changes++;
+        });
+    }
+
+    @Benchmark
+    public long addAndDeleteEach() {
+        List<Part> parts = newParts();
+        for(Part part : parts)
+            Inventory.addPart(part);
+        for(Part part : parts)
+            Inventory.deletePart(part);
+        return changes;
+    }
+
+    @Benchmark
+    public long addAndDeleteBulk() {
+        List<Part> parts = newParts();
+        Inventory.addParts(parts);
+        Inventory.deleteParts(parts);
+        return changes;
+    }
+
+    private List<Part> newParts() {
+        List<Part> parts = new ArrayList<>(batchSize);
+        for(int i = 0; i < batchSize; i++)
+            parts.add(InventoryGenerator.newPart(Inventory.generatePartID()));
+        return parts;
+    }
+}
@@ -0,0 +1,79 @@
+package benchmark;
+
+// Java imports
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// JMH imports
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Project imports
+import model.Inventory;
+import model.Part;
+
+/**
+ * <p>Measures looking up Parts by ID on reader threads while a writer thread commits changes to the Inventory at the
+ * same time. The writer adds a new Part and then deletes it, so the inventory stays the same size. The lists are not
+ * bound to a list thread, so the writer also applies each change to the ObservableLists itself.</p>
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ConcurrentBenchmark {
+    // Number of distinct IDs looked up (a power of two so the next ID can be chosen with a mask)
+    private static final int KEY_COUNT = 1024;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private final int[] partIds = new int[KEY_COUNT];
+
+    @Setup(Level.Trial)
+    public void populate() {
+        InventoryGenerator.populate(size);
+
+        Random random = new Random(size);
+        for(int i = 0; i < KEY_COUNT; i++)
+            partIds[i] = 1 + random.nextInt(size);
+    }
+
+    /**
+     * The position of each reader thread in the list of IDs to look up.
+     */
+    @State(Scope.Thread)
+    public static class ReaderState {
+        private int next;
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(3)
+    public Part lookupPartById(ReaderState reader) {
+        return Inventory.lookupPart(partIds[reader.next++ & (KEY_COUNT - 1)]);
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public boolean addAndDeletePart() {
+        Part part = InventoryGenerator.newPart(Inventory.generatePartID());
+        Inventory.addPart(part);
+        return Inventory.deletePart(part);
+    }
+}
@@ -0,0 +1,86 @@
+package benchmark;
+
+// Java imports
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JMH imports
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Project imports
+import model.Inventory;
+import model.Part;
+import model.Product;
+
+/**
+ * <p>Measures refreshing a margin dashboard (the margin of every Product row and the total margin) from the
+ * CostRollup, against adding up the bill of materials of every Product on each refresh.</p>
+ *
+ * <p>repricePart alternates the price of a Part associated with a Product, so it measures Inventory.updatePart
+ * together with adding the price difference to the cost of the Products associated with the Part.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class CostRollupBenchmark {
+    @Param({"10000", "100000"})
+    public int size;
+
+    // The two versions of the repriced Part, the version currently in inventory, and its position in allParts
+    private final Part[] versions = new Part[2];
+    private int current;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        InventoryGenerator.populate(size);
+
+        versions[0] = Inventory.getAllProducts().get(0).getAssociatedPartsView().get(0);
+        versions[1] = InventoryGenerator.newPart(versions[0].getId());
+        versions[1].setPrice(versions[0].getPrice() + 1);
+        index = Inventory.getAllParts().indexOf(versions[0]);
+    }
+
+    @Benchmark
+    public double readMargins() {
+        double margins = 0;
+        for(Product product : Inventory.getAllProducts())
+            margins += Inventory.getCostRollup().getMargin(product);
+        return margins + Inventory.getCostRollup().getTotalMargin();
+    }
+
+    @Benchmark
+    public double addUpMargins() {
+        double margins = 0;
+        double totalMargin = 0;
+        for(Product product : Inventory.getAllProducts()) {
+            List<Part> associatedParts = product.getAssociatedPartsView();
+            double cost = 0;
+            for(int i = 0; i < associatedParts.size(); i++)
+                cost += associatedParts.get(i).getPrice() * product.getAssociatedPartQuantityAt(i);
+            margins += product.getPrice() - cost;
+            totalMargin += product.getPrice() - cost;
+        }
+        return margins + totalMargin;
+    }
+
+    @Benchmark
+    public void repricePart() {
+        current ^= 1;
+        Inventory.updatePart(index, versions[current]);
+    }
+}
@@ -0,0 +1,61 @@
+package benchmark;
+
+// Java imports
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// JMH imports
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Project imports
+import model.InventoryExporter;
+
+/**
+ * <p>Measures exporting a generated inventory to a file in each InventoryExporter format. Run with the GC profiler
+ * (-prof gc) to see the allocation per export.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ExportBenchmark {
+    @Param({"10000", "100000"})
+    public int size;
+
+    @Param({"CSV", "JSON_LINES"})
+    public InventoryExporter.Format format;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void populate() throws IOException {
+        InventoryGenerator.populate(size);
+        file = Files.createTempFile("export", ".txt");
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        return InventoryExporter.export(file, format);
+    }
+}
@@ -0,0 +1,107 @@
+package benchmark;
+
+// Java imports
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// JMH imports
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Project imports
+import model.CsvImporter;
+import model.InHouse;
+import model.Inventory;
+import model.Outsourced;
+import model.Part;
+import model.Product;
+
+/**
+ * <p>Measures importing a CSV file of generated Parts, Products, and associations into an empty Inventory with the
+ * CsvImporter, parsing on the calling thread alone or on a pool of parsing threads. The file has the same shape as the
+ * inventory built by InventoryGenerator.populate. Everything imported is deleted again after each import, so every
+ * import starts from an empty Inventory and reuses the same IDs.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ImportBenchmark {
+    @Param({"10000", "100000"})
+    public int size;
+
+    @Param({"100", "1000", "10000"})
+    public int batchSize;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        file = Files.createTempFile("import", ".csv");
+        try(BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("type,id,name,price,stock,min,max,machine or company\n");
+            for(int id = 1; id <= size; id++) {
+                Part part = InventoryGenerator.newPart(id);
+                writer.write(part instanceof InHouse ? "InHouse," : "Outsourced,");
+                writer.write(id + "," + part.getName() + "," + part.getPrice() + "," + part.getStock() + "," +
+                             part.getMin() + "," + part.getMax() + ",");
+                writer.write(part instanceof InHouse ? String.valueOf(((InHouse) part).getMachineId())
+                                                     : ((Outsourced) part).getCompanyName());
+                writer.write('\n');
+            }
+
+            Random random = new Random(size);
+            for(int id = 1; id <= Math.max(1, size / InventoryGenerator.PARTS_PER_PRODUCT); id++) {
+                Product product = InventoryGenerator.newProduct(id);
+                writer.write("Product," + id + "," + product.getName() + "," + product.getPrice() + "," +
+                             product.getStock() + "," + product.getMin() + "," + product.getMax() + "\n");
+                for(int j = 0; j < InventoryGenerator.ASSOCIATIONS_PER_PRODUCT; j++)
+                    writer.write("Association," + id + "," + (1 + random.nextInt(size)) + "\n");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearInventory() {
+        // Products can only be deleted once they have no associated Parts
+        Inventory.applyBatch(() -> {
+            for(Product product : Inventory.getAllProducts()) {
+                for(Part part : new ArrayList<>(product.getAssociatedPartsView()))
+                    product.deleteAssociatedPart(part);
+            }
+        });
+        Inventory.deleteProducts(new ArrayList<>(Inventory.getAllProducts()));
+        Inventory.deleteParts(new ArrayList<>(Inventory.getAllParts()));
+    }
+
+    @Benchmark
+    public CsvImporter.Result importFile() throws IOException {
+        return new CsvImporter(file, null).setBatchSize(batchSize).setParallelism(parallelism).importAll();
+    }
+}
@@ -0,0 +1,107 @@
+package benchmark;
+
+// Java imports
+import java.util.Random;
+
+// Project imports
+import model.InHouse;
+import model.Inventory;
+import model.Outsourced;
+import model.Part;
+import model.Product;
+
+/**
+ * <p>The InventoryGenerator class fills the Inventory with synthetic Parts and Products for the benchmarks. The data
+ * has the same shape as Main.populateTestData(): the same Part names, suppliers, and Product names, a mix of InHouse
+ * and Outsourced Parts, and a few Parts associated with each Product.</p>
+ *
+ * <p>Every generated name ends with the object's ID so that lookups by name have exactly one match. The data only
+ * depends on the requested sizes, so every benchmark fork sees the same inventory.</p>
+ */
+public class InventoryGenerator {
+    // Part names, suppliers, and Product names from Main.populateTestData()
+    private static final String[] PART_NAMES = {
+            "Prefabulated amulite base plate", "Maleable logarithmic casing", "Spurving bearings",
+            "Stator with pandermic semi-boloid slots", "Differential girdle springs", "Grammeters",
+            "Lotus-o-deltoid winding", "Non-reversible tremie pipe"
+    };
+    private static final String[] COMPANY_NAMES = {
+            "North Bearing Co.", "Stator the Union LLC", "Wound Windings Winders Co."
+    };
+    private static final String[] PRODUCT_NAMES = {"Turboencabulator", "Microencabulator"};
+
+    // One Product is generated for every four Parts, each associated with four Parts (populateTestData associates
+    // eight Parts with two Products using five and three Parts)
+    public static final int PARTS_PER_PRODUCT = 4;
+    public static final int ASSOCIATIONS_PER_PRODUCT = 4;
+
+    // Seed for choosing associated Parts
+    private static final long SEED = 482;
+
+    /**
+     * Adds the supplied number of Parts to the Inventory, with one Product for every four Parts.
+     *
+     * @param partCount The number of Parts to add.
+     */
+    public static void populate(int partCount) {
+        for(int i = 0; i < partCount; i++)
+            Inventory.addPart(newPart(Inventory.generatePartID()));
+
+        Random random = new Random(SEED);
+        int productCount = Math.max(1, partCount / PARTS_PER_PRODUCT);
+        for(int i = 0; i < productCount; i++) {
+            Product product = newProduct(Inventory.generateProductID());
+            for(int j = 0; j < ASSOCIATIONS_PER_PRODUCT && j < partCount; j++)
+                product.addAssociatedPart(Inventory.lookupPart(1 + random.nextInt(partCount)));
+            Inventory.addProduct(product);
+        }
+    }
+
+    /**
+     * Creates a Part with the supplied ID. Every third Part is Outsourced and the rest are InHouse.
+     *
+     * @param id The ID of the Part.
+     * @return The new Part.
+     */
+    public static Part newPart(int id) {
+        String name = partName(id);
+        double price = 10 + (id * 7919 % 100000) / 100.0;
+        int min = 1 + id % 5;
+        int max = min + 10 + id % 40;
+        int stock = min + id % (max - min + 1);
+
+        if(id % 3 == 0)
+            return new Outsourced(id, name, price, stock, min, max, COMPANY_NAMES[id % COMPANY_NAMES.length]);
+        return new InHouse(id, name, price, stock, min, max, 100 + id % 500);
+    }
+
+    /**
+     * Creates a Product with the supplied ID and no associated Parts.
+     *
+     * @param id The ID of the Product.
+     * @return The new Product.
+     */
+    public static Product newProduct(int id) {
+        return new Product(id, productName(id), 1000 + (id * 104729 % 500000) / 100.0, 2, 1, 5);
+    }
+
+    /**
+     * Returns the name given to the generated Part with the supplied ID.
+     *
+     * @param id The ID of the Part.
+     * @return The name of the Part.
+     */
+    public static String partName(int id) {
+        return PART_NAMES[id % PART_NAMES.length] + " " + id;
+    }
+
+    /**
+     * Returns the name given to the generated Product with the supplied ID.
+     *
+     * @param id The ID of the Product.
+     * @return The name of the Product.
+     */
+    public static String productName(int id) {
+        return PRODUCT_NAMES[id % PRODUCT_NAMES.length] + " " + id;
+    }
+}
@@ -0,0 +1,93 @@
+package benchmark;
+
+// Java imports
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// JMH imports
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Project imports
+import model.Inventory;
+import model.Part;
+import model.Product;
+
+/**
+ * Measures looking up Parts and Products in the Inventory by ID and by name. Each invocation looks up the next of a
+ * fixed set of randomly chosen existing IDs or names, so the lookups are not always for the same object.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class LookupBenchmark {
+    // Number of distinct keys looked up (a power of two so the next key can be chosen with a mask)
+    private static final int KEY_COUNT = 1024;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private final int[] partIds = new int[KEY_COUNT];
+    private final int[] productIds = new int[KEY_COUNT];
+    private final String[] partNames = new String[KEY_COUNT];
+    private final String[] productNames = new String[KEY_COUNT];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        InventoryGenerator.populate(size);
+
+        Random random = new Random(size);
+        int productCount = Inventory.getAllProducts().size();
+        for(int i = 0; i < KEY_COUNT; i++) {
+            partIds[i] = 1 + random.nextInt(size);
+            productIds[i] = 1 + random.nextInt(productCount);
+            partNames[i] = InventoryGenerator.partName(partIds[i]);
+            productNames[i] = InventoryGenerator.productName(productIds[i]);
+        }
+    }
+
+    @Benchmark
+    public Part lookupPartById() {
+        return Inventory.lookupPart(partIds[next++ & (KEY_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public Product lookupProductById() {
+        return Inventory.lookupProduct(productIds[next++ & (KEY_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public Part lookupPartByName() {
+        return Inventory.lookupPart(partNames[next++ & (KEY_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public Product lookupProductByName() {
+        return Inventory.lookupProduct(productNames[next++ & (KEY_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public List<Part> lookupAllPartsByName() {
+        return Inventory.lookupParts(partNames[next++ & (KEY_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public List<Part> lookupAllPartsByNormalizedName() {
+        return Inventory.lookupParts(partNames[next++ & (KEY_COUNT - 1)], true);
+    }
+}
@@ -0,0 +1,99 @@
+package benchmark;
+
+// Java imports
+import java.util.concurrent.TimeUnit;
+
+// JMH imports
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Project imports
+import model.Inventory;
+import model.Part;
+import model.Product;
+
+/**
+ * <p>Measures updating and deleting a Part that is associated with a varying number of Products (the association
+ * fan-out). The Part is added after the generated inventory, and fanOut extra Products are associated with it.</p>
+ *
+ * <p>updatePart alternates between two versions of the Part with the same ID, so every invocation replaces the Part
+ * in inventory and in every Product associated with it. updateFirstPart does the same for the Part at the start of
+ * the list, whose position is furthest from the end. deletePart deletes the Part and adds it back when it has no
+ * associations; when it is associated with a Product the deletion is refused, so the benchmark measures the
+ * association check.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PartMutationBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"0", "1", "10", "100"})
+    public int fanOut;
+
+    // The two versions of the benchmarked Part, the version currently in inventory, and its position in allParts
+    private final Part[] versions = new Part[2];
+    private int current;
+    private int index;
+
+    // The two versions of the first Part in allParts, and the version currently in inventory
+    private final Part[] firstVersions = new Part[2];
+    private int currentFirst;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        InventoryGenerator.populate(size);
+
+        int id = Inventory.generatePartID();
+        versions[0] = InventoryGenerator.newPart(id);
+        versions[1] = InventoryGenerator.newPart(id);
+        Inventory.addPart(versions[0]);
+        index = Inventory.getAllParts().size() - 1;
+
+        firstVersions[0] = Inventory.getAllParts().get(0);
+        firstVersions[1] = InventoryGenerator.newPart(firstVersions[0].getId());
+
+        for(int i = 0; i < fanOut; i++) {
+            Product product = InventoryGenerator.newProduct(Inventory.generateProductID());
+            product.addAssociatedPart(versions[0]);
+            Inventory.addProduct(product);
+        }
+    }
+
+    @Benchmark
+    public void updatePart() {
+        current ^= 1;
+        Inventory.updatePart(index, versions[current]);
+    }
+
+    @Benchmark
+    public void updateFirstPart() {
+        currentFirst ^= 1;
+        Inventory.updatePart(0, firstVersions[currentFirst]);
+    }
+
+    @Benchmark
+    public boolean deletePart() {
+        Part part = versions[current];
+        boolean deleted = Inventory.deletePart(part);
+
+        // Restore the Part so every invocation deletes the same Part from the same position
+        if(deleted)
+            Inventory.addPart(part);
+        return deleted;
+    }
+}
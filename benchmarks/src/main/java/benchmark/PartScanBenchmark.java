@@ -0,0 +1,104 @@
+package benchmark;
+
+// Java imports
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JMH imports
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Project imports
+import model.CsvImporter;
+import model.InHouse;
+import model.Inventory;
+import model.Outsourced;
+import model.Part;
+
+/**
+ * <p>Measures scans over the price and stock of every Part in inventory, with the Parts held as Part objects (added
+ * with Inventory.addParts) or as rows of the columnar part store (imported with the CsvImporter). Each scan is run
+ * through Inventory.forEachPartRow and, for comparison, through the getters of the Parts in getAllParts.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PartScanBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"OBJECTS", "COLUMNS"})
+    public String store;
+
+    @Setup(Level.Trial)
+    public void populate() throws IOException {
+        if(store.equals("OBJECTS")) {
+            List<Part> parts = new ArrayList<>(size);
+            for(int id = 1; id <= size; id++)
+                parts.add(InventoryGenerator.newPart(id));
+            Inventory.addParts(parts);
+            return;
+        }
+
+        Path file = Files.createTempFile("parts", ".csv");
+        try {
+            try(BufferedWriter writer = Files.newBufferedWriter(file)) {
+                for(int id = 1; id <= size; id++) {
+                    Part part = InventoryGenerator.newPart(id);
+                    writer.write(part instanceof InHouse ? "InHouse," : "Outsourced,");
+                    writer.write(id + "," + part.getName() + "," + part.getPrice() + "," + part.getStock() + "," +
+                                 part.getMin() + "," + part.getMax() + ",");
+                    writer.write(part instanceof InHouse ? String.valueOf(((InHouse) part).getMachineId())
+                                                         : ((Outsourced) part).getCompanyName());
+                    writer.write('\n');
+                }
+            }
+            new CsvImporter(file, null).setBatchSize(10000).importAll();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public double stockValue() {
+        double[] total = new double[1];
+        Inventory.forEachPartRow((id, price, stock, min, max) -> total[0] += price * stock);
+        return total[0];
+    }
+
+    @Benchmark
+    public int belowMin() {
+        int[] count = new int[1];
+        Inventory.forEachPartRow((id, price, stock, min, max) -> {
+            if(stock < min)
+                count[0]++;
+        });
+        return count[0];
+    }
+
+    @Benchmark
+    public double stockValueThroughParts() {
+        double total = 0;
+        for(Part part : Inventory.getAllParts())
+            total += part.getPrice() * part.getStock();
+        return total;
+    }
+}
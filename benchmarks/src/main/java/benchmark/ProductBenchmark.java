@@ -0,0 +1,80 @@
+package benchmark;
+
+// Java imports
+import java.util.concurrent.TimeUnit;
+
+// JMH imports
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// JavaFX imports
+import javafx.collections.ObservableList;
+
+// Project imports
+import model.Inventory;
+import model.Part;
+import model.Product;
+
+/**
+ * Measures reading the associated Parts of a Product with a varying number of associated Parts, in an inventory of
+ * varying size: copying them with getAllAssociatedParts, iterating the live view, checking membership by ID, and
+ * looking up the quantity of a Part the Product needs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ProductBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"1", "10", "100", "1000"})
+    public int associatedParts;
+
+    private Product product;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        InventoryGenerator.populate(size);
+
+        product = InventoryGenerator.newProduct(Inventory.generateProductID());
+        for(int i = 0; i < associatedParts; i++)
+            product.addAssociatedPart(Inventory.lookupPart(1 + i % size));
+        Inventory.addProduct(product);
+    }
+
+    @Benchmark
+    public ObservableList<Part> getAllAssociatedParts() {
+        return product.getAllAssociatedParts();
+    }
+
+    @Benchmark
+    public int iterateAssociatedPartsView() {
+        int stock = 0;
+        for(Part part : product.getAssociatedPartsView())
+            stock += part.getStock();
+        return stock;
+    }
+
+    @Benchmark
+    public boolean containsAssociatedPart() {
+        return product.containsAssociatedPart(associatedParts);
+    }
+
+    @Benchmark
+    public int getAssociatedPartQuantity() {
+        return product.getAssociatedPartQuantity(associatedParts);
+    }
+}
@@ -0,0 +1,91 @@
+package benchmark;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JMH imports
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Project imports
+import model.InHouse;
+import model.Inventory;
+import model.Part;
+
+/**
+ * <p>Measures listing the Parts below their minimum stock level from the ReorderAlerts, against scanning every Part
+ * in inventory for them. The generated inventory has no Parts below their minimum, so the alerts are the lowStock
+ * Parts added after it.</p>
+ *
+ * <p>updatePart alternates one Part between a version below its minimum and a version within its limits, so every
+ * invocation adds or removes an alert.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ReorderAlertsBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"10", "1000"})
+    public int lowStock;
+
+    // The two versions of the updated Part, the version currently in inventory, and its position in allParts
+    private final Part[] versions = new Part[2];
+    private int current;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        InventoryGenerator.populate(size);
+
+        List<Part> lowParts = new ArrayList<>(lowStock);
+        for(int i = 0; i < lowStock; i++) {
+            int id = Inventory.generatePartID();
+            lowParts.add(new InHouse(id, InventoryGenerator.partName(id), 10, 0, 5, 20, 100));
+        }
+        Inventory.addParts(lowParts);
+
+        int id = Inventory.generatePartID();
+        versions[0] = new InHouse(id, InventoryGenerator.partName(id), 10, 0, 5, 20, 100);
+        versions[1] = new InHouse(id, InventoryGenerator.partName(id), 10, 10, 5, 20, 100);
+        Inventory.addPart(versions[0]);
+        index = Inventory.getAllParts().size() - 1;
+    }
+
+    @Benchmark
+    public List<Part> partsBelowMin() {
+        return Inventory.getReorderAlerts().getPartsBelowMin();
+    }
+
+    @Benchmark
+    public List<Part> scanForPartsBelowMin() {
+        List<Part> found = new ArrayList<>();
+        for(Part part : Inventory.getAllParts()) {
+            if(part.getStock() < part.getMin())
+                found.add(part);
+        }
+        return found;
+    }
+
+    @Benchmark
+    public void updatePart() {
+        current ^= 1;
+        Inventory.updatePart(index, versions[current]);
+    }
+}
@@ -0,0 +1,63 @@
+package benchmark;
+
+// Java imports
+import java.util.concurrent.TimeUnit;
+
+// JMH imports
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// JavaFX imports
+import javafx.collections.ObservableList;
+
+// Project imports
+import controller.InventorySearch;
+import model.Inventory;
+import model.Part;
+
+/**
+ * Measures searching Parts by name with InventorySearch.searchParts for search strings of different lengths. The
+ * search strings are prefixes of one of the generated Part names, so longer search strings match fewer Parts until
+ * only the Parts with that name remain. Searches of one or two characters are shorter than a trigram and check every
+ * Part name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SearchBenchmark {
+    // The generated Part name the search strings are taken from
+    private static final String SEARCHED_NAME = "Prefabulated amulite base plate";
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"1", "2", "3", "5", "8", "13", "21"})
+    public int queryLength;
+
+    private String query;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        InventoryGenerator.populate(size);
+        Inventory.getPartNameIndex().ensureBuilt();
+        query = SEARCHED_NAME.substring(0, queryLength);
+    }
+
+    @Benchmark
+    public ObservableList<Part> searchParts() {
+        return InventorySearch.searchParts(query);
+    }
+}
@@ -0,0 +1,96 @@
+package benchmark;
+
+// Java imports
+import java.util.concurrent.TimeUnit;
+
+// JMH imports
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Project imports
+import model.Inventory;
+import model.Part;
+import model.Product;
+
+/**
+ * <p>Measures a report totalling the stock value of every Part while another thread commits changes. In the
+ * lockedScan group the report reads through Inventory.forEachPartRow, which holds the commit lock for the whole scan,
+ * so each change waits for the scan in progress. In the snapshotScan group it reads the latest InventorySnapshot,
+ * which takes no lock. The groups sample the time of each call, so the percentiles of the change method show how long
+ * a commit can be held up while the report runs.</p>
+ *
+ * <p>Each change associates a Part with a Product and removes it again, two commits that only touch the Product and
+ * the Part, so the time measured is the commit itself. toggleAssociation measures the change with no report running,
+ * including publishing the two snapshots it commits.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SnapshotBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    // The Product and Part associated and dissociated by each change
+    private Product product;
+    private Part part;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        InventoryGenerator.populate(size);
+
+        product = Inventory.getAllProducts().get(0);
+        part = Inventory.getAllParts().get(size - 1);
+    }
+
+    @Benchmark
+    public void toggleAssociation() {
+        product.addAssociatedPart(part);
+        product.deleteAssociatedPart(part);
+    }
+
+    @Benchmark
+    @Group("lockedScan")
+    @BenchmarkMode(Mode.SampleTime)
+    public double lockedReport() {
+        double[] total = {0};
+        Inventory.forEachPartRow((id, price, stock, min, max) -> total[0] += price * stock);
+        return total[0];
+    }
+
+    @Benchmark
+    @Group("lockedScan")
+    @BenchmarkMode(Mode.SampleTime)
+    public void lockedChange() {
+        toggleAssociation();
+    }
+
+    @Benchmark
+    @Group("snapshotScan")
+    @BenchmarkMode(Mode.SampleTime)
+    public double snapshotReport() {
+        double[] total = {0};
+        Inventory.getSnapshot().forEachPartRow((id, price, stock, min, max) -> total[0] += price * stock);
+        return total[0];
+    }
+
+    @Benchmark
+    @Group("snapshotScan")
+    @BenchmarkMode(Mode.SampleTime)
+    public void snapshotChange() {
+        toggleAssociation();
+    }
+}
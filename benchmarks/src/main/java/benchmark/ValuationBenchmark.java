@@ -0,0 +1,65 @@
+package benchmark;
+
+// Java imports
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// JMH imports
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Project imports
+import model.Inventory;
+import model.Outsourced;
+import model.Part;
+
+/**
+ * <p>Measures reading the stock value totals a dashboard shows from the InventoryValuation, against computing the
+ * same totals by iterating every Part in inventory on each refresh.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ValuationBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        InventoryGenerator.populate(size);
+    }
+
+    @Benchmark
+    public Object readTotals() {
+        return new Object[] {Inventory.getValuation().getPartStockValue(),
+                             Inventory.getValuation().getProductStockValue(),
+                             Inventory.getValuation().getSupplierStockValues()};
+    }
+
+    @Benchmark
+    public Object computeTotals() {
+        double partValue = 0;
+        Map<String, Double> supplierValues = new HashMap<>();
+        for(Part part : Inventory.getAllParts()) {
+            double value = part.getPrice() * part.getStock();
+            partValue += value;
+            if(part instanceof Outsourced)
+                supplierValues.merge(((Outsourced) part).getCompanyName(), value, Double::sum);
+        }
+        return new Object[] {partValue, supplierValues};
+    }
+}
@@ -0,0 +1,109 @@
+package controller;
+
+// JavaFX imports
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+// Java imports
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Project imports
+import model.Part;
+import model.Product;
+
+/**
+ * The AssociatedPartList class holds the Parts shown in the Associated Parts table view of the Product screen and the
+ * quantity of each, so that changes are only made to the Product being added or modified when save is clicked. As
+ * in a Product, each Part is held once however many of it are needed.
+ */
+public class AssociatedPartList {
+    private final ObservableList<Part> parts = FXCollections.observableArrayList();
+    private final ObservableList<Part> partsView = FXCollections.unmodifiableObservableList(parts);
+
+    // The quantity of each Part in the list, by Part ID
+    private final Map<Integer, Integer> quantities = new HashMap<>();
+
+    /**
+     * Returns an unmodifiable live view of the Parts in the list, in the order they were added.
+     *
+     * @return The Parts in the list.
+     */
+    public ObservableList<Part> getParts() {
+        return partsView;
+    }
+
+    /**
+     * Returns the quantity of a Part in the list.
+     *
+     * @param part The Part.
+     * @return The quantity of the Part, or 0 if no Part with its ID is in the list.
+     */
+    public int getQuantity(Part part) {
+        return quantities.getOrDefault(part.getId(), 0);
+    }
+
+    /**
+     * Adds one of a Part to the list. If a Part with the same ID is already in the list, its quantity is increased by
+     * one and the Part already in the list is kept.
+     *
+     * @param part The Part to add.
+     */
+    public void addPart(Part part) {
+        if(quantities.merge(part.getId(), 1, Integer::sum) == 1)
+            parts.add(part);
+    }
+
+    /**
+     * Sets the quantity of a Part in the list.
+     *
+     * @param part The Part.
+     * @param quantity The quantity of the Part.
+     * @return True if a Part with its ID is in the list and its quantity has been set.
+     * @throws IllegalArgumentException If the quantity is less than 1.
+     */
+    public boolean setQuantity(Part part, int quantity) {
+        if(quantity < 1)
+            throw new IllegalArgumentException("Associated part quantity must be at least 1: " + quantity);
+
+        return quantities.replace(part.getId(), quantity) != null;
+    }
+
+    /**
+     * Removes a Part from the list, whatever its quantity.
+     *
+     * @param part The Part to remove.
+     * @return True if the Part was in the list and has been removed.
+     */
+    public boolean removePart(Part part) {
+        if(part == null || quantities.remove(part.getId()) == null)
+            return false;
+
+        parts.removeIf(listed -> listed.getId() == part.getId());
+        return true;
+    }
+
+    /**
+     * Replaces the contents of the list with the Parts associated with a Product and their quantities.
+     *
+     * @param product The Product to copy the associated Parts from.
+     */
+    public void copyFrom(Product product) {
+        List<Part> associatedParts = product.getAssociatedPartsView();
+        quantities.clear();
+        for(int i = 0; i < associatedParts.size(); i++)
+            quantities.put(associatedParts.get(i).getId(), product.getAssociatedPartQuantityAt(i));
+        parts.setAll(associatedParts);
+    }
+
+    /**
+     * Associates every Part in the list with a Product, with the quantities held in the list.
+     *
+     * @param product The Product to associate the Parts with.
+     */
+    public void copyTo(Product product) {
+        for(Part part : parts)
+            product.addAssociatedPart(part, quantities.get(part.getId()));
+    }
+}
@@ -0,0 +1,170 @@
+package controller;
+
+// JavaFX imports
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+
+// Java imports
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Project imports
+import model.Inventory;
+
+/**
+ * <p>The AsyncSearch class runs the searches for a search text field on a background thread so that typing into the
+ * field never blocks the JavaFX Application Thread. It is used by the main screen and product screen controllers in
+ * place of calling InventorySearch directly from their key typed handlers.</p>
+ *
+ * <p>Each call to submit() restarts a short debounce delay, so a burst of keystrokes only results in one search for
+ * the final text. Any search that is still waiting when a newer one is submitted is cancelled, and the results of a
+ * search that was overtaken while it was running are discarded. Only the results of the latest search are passed to
+ * the result handler, which is always called on the JavaFX Application Thread using Platform.runLater.</p>
+ *
+ * <p>Inventory may be modified on any thread while a search runs: each change is committed under the Inventory commit
+ * lock, which searches never take, and the indexes searched may be changed part way through a search. After publishing,
+ * the results are checked against the inventory modification count sampled when the search started. If inventory
+ * changed while the search was running, the search is run once more after the debounce delay to pick up the change. The
+ * results are published first, and a search run again is not repeated however much inventory changes meanwhile, so a
+ * stream of changes (such as a long import) can never keep results from being shown or keep the search thread busy. A
+ * search that fails is reported to the failure handler on the JavaFX Application Thread in place of its results,
+ * unless a newer search has been submitted since.</p>
+ *
+ * @param <T> The type of object searched (Part or Product).
+ */
+public class AsyncSearch<T> {
+    // Delay between the last keystroke and the start of the search
+    private static final long DEBOUNCE_MILLIS = 150;
+
+    // A single background thread shared by all searches. It is a daemon thread so it never keeps the application
+    // running after the primary stage is closed.
+    private static final ScheduledExecutorService searchExecutor =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "inventory-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    // The search session (only ever used on the search thread), the handlers receiving the results and failures, and
+    // the thread the handlers are called on
+    private final InventorySearch.Session<T> session;
+    private final Consumer<ObservableList<T>> resultHandler;
+    private final Consumer<RuntimeException> failureHandler;
+    private final Executor applicationThread;
+
+    // Incremented for every submitted or cancelled search - results are only published for the latest generation
+    private volatile long generation;
+    private ScheduledFuture<?> pendingSearch;
+
+    /**
+     * The AsyncSearch class constructor.
+     *
+     * @param session The search session used to perform the searches.
+     * @param resultHandler The handler called on the JavaFX Application Thread with the results of the latest search.
+     * @param failureHandler The handler called on the JavaFX Application Thread if the latest search fails.
+     */
+    public AsyncSearch(InventorySearch.Session<T> session, Consumer<ObservableList<T>> resultHandler,
+                       Consumer<RuntimeException> failureHandler) {
+        this(session, resultHandler, failureHandler, Platform::runLater);
+    }
+
+    /**
+     * The AsyncSearch class constructor, calling the handlers on the supplied thread rather than the JavaFX
+     * Application Thread. Used by the tests, which run without the JavaFX runtime.
+     *
+     * @param session The search session used to perform the searches.
+     * @param resultHandler The handler called with the results of the latest search.
+     * @param failureHandler The handler called if the latest search fails.
+     * @param applicationThread Runs the handlers, and must be the thread submit and cancel are called on.
+     */
+    AsyncSearch(InventorySearch.Session<T> session, Consumer<ObservableList<T>> resultHandler,
+                Consumer<RuntimeException> failureHandler, Executor applicationThread) {
+        this.session = session;
+        this.resultHandler = resultHandler;
+        this.failureHandler = failureHandler;
+        this.applicationThread = applicationThread;
+    }
+
+    /**
+     * Schedules a search for the supplied search string once the debounce delay has passed, cancelling any search
+     * submitted before it. Must be called on the JavaFX Application Thread.
+     *
+     * @param searchString The search string to be used to look up objects by ID or name.
+     */
+    public void submit(String searchString) {
+        schedule(searchString, false);
+    }
+
+    /**
+     * Cancels any submitted search so that its results are never published. Must be called on the JavaFX
+     * Application Thread.
+     */
+    public void cancel() {
+        generation++;
+        if(pendingSearch != null) {
+            pendingSearch.cancel(false);
+            pendingSearch = null;
+        }
+    }
+
+    /**
+     * Cancels any submitted search and schedules a new one after the debounce delay.
+     *
+     * @param searchString The search string to be used to look up objects by ID or name.
+     * @param rerun True if the search is being run again because inventory changed while it was running.
+     */
+    private void schedule(String searchString, boolean rerun) {
+        cancel();
+        long searchGeneration = generation;
+        pendingSearch = searchExecutor.schedule(() -> runSearch(searchString, searchGeneration, rerun),
+                                                DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs a search on the search thread and publishes its results on the JavaFX Application Thread if no newer
+     * search has been submitted.
+     *
+     * @param searchString The search string to be used to look up objects by ID or name.
+     * @param searchGeneration The generation of the search when it was submitted.
+     * @param rerun True if the search is being run again because inventory changed while it was running.
+     */
+    private void runSearch(String searchString, long searchGeneration, boolean rerun) {
+        // Skip the search entirely if it has already been overtaken
+        if(searchGeneration != generation)
+            return;
+
+        long modificationCount = Inventory.getModificationCount();
+        ObservableList<T> results;
+        try {
+            results = session.search(searchString);
+        } catch (RuntimeException e) {
+            // Report the failure rather than showing results that may be incomplete, and start the next search from
+            // scratch since the session may have been left part way through refining its results
+            session.reset();
+            applicationThread.execute(() -> {
+                if(searchGeneration != generation)
+                    return;
+
+                pendingSearch = null;
+                failureHandler.accept(e);
+            });
+            return;
+        }
+
+        applicationThread.execute(() -> {
+            if(searchGeneration != generation)
+                return;
+
+            pendingSearch = null;
+            resultHandler.accept(results);
+
+            // Inventory changed while the search was running, so search once more to pick up the change
+            if(!rerun && modificationCount != Inventory.getModificationCount())
+                schedule(searchString, true);
+        });
+    }
+}
@@ -4,10 +4,18 @@ package controller;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+// Java imports
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
 // Project imports
 import model.Inventory;
 import model.Part;
 import model.Product;
+import model.TrigramIndex;
 
 /**
  * This InventorySearch class provides methods supporting the part/product search functionality of the main screen
@@ -24,43 +32,217 @@ public class InventorySearch{
      * resolved with a try-catch block, but it seemed simpler to instead parse the part's ID to a string to compare
      * against the search string.</p>
      *
+     * <p>Name matches are found through the Inventory's Part name trigram index rather than by lower casing and
+     * checking every Part name, and an ID match is found with a direct ID lookup. The results are ordered by ID.</p>
+     *
      * @param searchString The search string to be used to look up a part by ID or name.
      * @return An ObservableList of Part object references whose ID equals or name contains a substring of the search
      * string passed to the method.
      */
     public static ObservableList<Part> searchParts(String searchString) {
-        ObservableList<Part> returnList = FXCollections.observableArrayList();
-
-        // Iterate through each Part object in inventory and test if its parsed ID equals or name contains a substring
-        // of the search string
-        for(Part item : Inventory.getAllParts()) {
-            if(Integer.toString(item.getId()).contentEquals(searchString) ||
-                    item.getName().toLowerCase().contains(searchString.toLowerCase()))
-                returnList.add(item);
-        }
+        List<Part> nameMatches = Inventory.getPartNameIndex().search(searchString);
+        int searchId = parseSearchId(searchString);
+        Part idMatch = searchId < 0 ? null : Inventory.lookupPart(searchId);
 
-        return returnList;
+        return mergeIdMatch(nameMatches, idMatch, searchId, Part::getId);
     }
 
     /**
-     * Returns an ObservableList containing references to all Product objects whose ID equals or name contains a
-     * substring of the search string passed to the method.
+     * <p>Returns an ObservableList containing references to all Product objects whose ID equals or name contains a
+     * substring of the search string passed to the method.</p>
+     *
+     * <p>Name matches are found through the Inventory's Product name trigram index and an ID match is found with a
+     * direct ID lookup. The results are ordered by ID.</p>
      *
      * @param searchString The search string to be used to look up a part by ID or name.
      * @return An ObservableList of Product object references whose ID equals or name contains a substring of the search
      * string passed to the method.
      */
     public static ObservableList<Product> searchProducts(String searchString) {
-        ObservableList<Product> returnList = FXCollections.observableArrayList();
-
-        // Iterate through each Product object in inventory and test if its parsed ID equals or name contains a
-        // substring of the search string
-        for(Product item : Inventory.getAllProducts()) {
-            if(Integer.toString(item.getId()).contentEquals(searchString) ||
-                    item.getName().toLowerCase().contains(searchString.toLowerCase()))
-                returnList.add(item);
-        }
+        List<Product> nameMatches = Inventory.getProductNameIndex().search(searchString);
+        int searchId = parseSearchId(searchString);
+        Product idMatch = searchId < 0 ? null : Inventory.lookupProduct(searchId);
+
+        return mergeIdMatch(nameMatches, idMatch, searchId, Product::getId);
+    }
+
+    /**
+     * Returns a test of whether a single Part matches a search string, matching the same Parts as searchParts. Used
+     * to check a Part added to inventory while search results are shown without searching again.
+     *
+     * @param searchString The search string to be used to match a part by ID or name.
+     * @return A predicate that is true for a Part whose ID equals or name contains the search string.
+     */
+    public static Predicate<Part> partQuery(String searchString) {
+        return query(searchString, Part::getId, Part::getName);
+    }
+
+    /**
+     * Returns a test of whether a single Product matches a search string, matching the same Products as
+     * searchProducts.
+     *
+     * @param searchString The search string to be used to match a product by ID or name.
+     * @return A predicate that is true for a Product whose ID equals or name contains the search string.
+     */
+    public static Predicate<Product> productQuery(String searchString) {
+        return query(searchString, Product::getId, Product::getName);
+    }
+
+    /**
+     * Returns a new search session for Part searches.
+     *
+     * @return A new Part search session.
+     */
+    public static Session<Part> newPartSearchSession() {
+        return new Session<>(Inventory.getPartNameIndex(), Inventory::lookupPart, Part::getId);
+    }
+
+    /**
+     * Returns a new search session for Product searches.
+     *
+     * @return A new Product search session.
+     */
+    public static Session<Product> newProductSearchSession() {
+        return new Session<>(Inventory.getProductNameIndex(), Inventory::lookupProduct, Product::getId);
+    }
+
+    /**
+     * Returns the ID the search string represents, or -1 if the search string is not exactly the text of an ID. The
+     * characters are checked before parsing so that Integer.parseInt never throws for ordinary search text, and a
+     * search string such as "007" is not treated as ID 7 (matching the original Integer.toString comparison).
+     *
+     * @param searchString The search string to be parsed.
+     * @return The ID represented by the search string, or -1 if there is none.
+     */
+    private static int parseSearchId(String searchString) {
+        if(searchString.isEmpty() || searchString.length() > 9 || (searchString.charAt(0) == '0' && searchString.length() > 1))
+            return -1;
+
+        for(int i = 0; i < searchString.length(); i++)
+            if(searchString.charAt(i) < '0' || searchString.charAt(i) > '9')
+                return -1;
+
+        return Integer.parseInt(searchString);
+    }
+
+    /**
+     * Returns a test of whether an object's ID equals or lower case name contains a search string, as the name index
+     * and the ID lookup find them.
+     *
+     * @param searchString The search string.
+     * @param idOf A function returning the ID of a Part or Product object.
+     * @param nameOf A function returning the name of a Part or Product object.
+     * @param <T> The type of object searched (Part or Product).
+     * @return A predicate that is true for an object matching the search string.
+     */
+    private static <T> Predicate<T> query(String searchString, ToIntFunction<T> idOf, Function<T, String> nameOf) {
+        String lowerSearch = searchString.toLowerCase();
+        int searchId = parseSearchId(searchString);
+        return object -> (searchId >= 0 && idOf.applyAsInt(object) == searchId)
+                || nameOf.apply(object).toLowerCase().contains(lowerSearch);
+    }
+
+    /**
+     * Returns an ObservableList of the name matches with the ID match (if any) inserted in ID order. The ID match is
+     * not added twice if its name also matched.
+     *
+     * @param nameMatches The objects whose names matched the search string, ordered by ID.
+     * @param idMatch The object whose ID matched the search string, or null if there is none.
+     * @param searchId The ID represented by the search string.
+     * @param idOf A function returning the ID of a Part or Product object.
+     * @param <T> The type of object searched (Part or Product).
+     * @return An ObservableList of all matching objects ordered by ID.
+     */
+    private static <T> ObservableList<T> mergeIdMatch(List<T> nameMatches, T idMatch, int searchId,
+                                                     ToIntFunction<T> idOf) {
+        ObservableList<T> returnList = FXCollections.observableArrayList(nameMatches);
+        if(idMatch == null || returnList.contains(idMatch))
+            return returnList;
+
+        // Insert the ID match ahead of the first name match with a larger ID
+        int position = 0;
+        while(position < returnList.size() && idOf.applyAsInt(returnList.get(position)) < searchId)
+            position++;
+        returnList.add(position, idMatch);
 
         return returnList;
     }
+
+    /**
+     * <p>The Session class performs the same search as searchParts/searchProducts but remembers the search string
+     * and name matches of its previous search. It is intended to be kept by a screen for the lifetime of a search
+     * text field.</p>
+     *
+     * <p>When the user types another character, every name that contains the new search string must also contain
+     * the previous search string, so only the previous name matches need to be checked. A full search is performed
+     * instead when characters are deleted, the search string is replaced with something unrelated, or inventory has
+     * been modified since the previous search.</p>
+     *
+     * @param <T> The type of object searched (Part or Product).
+     */
+    public static class Session<T> {
+        private final TrigramIndex<T> nameIndex;
+        private final IntFunction<T> lookupById;
+        private final ToIntFunction<T> idOf;
+
+        // The previous lower case search string, its name matches, and the inventory modification count at the time
+        private String lastLowerSearch;
+        private List<T> lastNameMatches;
+        private long lastModificationCount;
+
+        /**
+         * The Session class constructor.
+         *
+         * @param nameIndex The name trigram index to search.
+         * @param lookupById A function returning the object with the supplied ID, or null if there is none.
+         * @param idOf A function returning the ID of an object.
+         */
+        private Session(TrigramIndex<T> nameIndex, IntFunction<T> lookupById, ToIntFunction<T> idOf) {
+            this.nameIndex = nameIndex;
+            this.lookupById = lookupById;
+            this.idOf = idOf;
+        }
+
+        /**
+         * Returns an ObservableList containing references to all objects whose ID equals or name contains a
+         * substring of the search string, narrowing the previous results where possible.
+         *
+         * @param searchString The search string to be used to look up an object by ID or name.
+         * @return An ObservableList of all matching objects ordered by ID.
+         */
+        public ObservableList<T> search(String searchString) {
+            String lowerSearch = searchString.toLowerCase();
+            long modificationCount = Inventory.getModificationCount();
+            List<T> nameMatches;
+
+            // Narrow the previous name matches if the new search string extends the previous one and inventory has
+            // not changed. Otherwise, search the whole index.
+            if(lastNameMatches != null && lastModificationCount == modificationCount &&
+                    lowerSearch.contains(lastLowerSearch))
+                nameMatches = nameIndex.refine(lastNameMatches, searchString);
+            else
+                nameMatches = nameIndex.search(searchString);
+
+            // Remember the modification count from before the search, so a change made while the search was running
+            // forces the next search to cover the whole inventory
+            lastLowerSearch = lowerSearch;
+            lastNameMatches = nameMatches;
+            lastModificationCount = modificationCount;
+
+            // The ID match is looked up separately because an ID match for the new search string does not have to
+            // be among the previous results
+            int searchId = parseSearchId(searchString);
+            T idMatch = searchId < 0 ? null : lookupById.apply(searchId);
+
+            return mergeIdMatch(nameMatches, idMatch, searchId, idOf);
+        }
+
+        /**
+         * Discards the remembered search so that the next search covers the whole inventory.
+         */
+        public void reset() {
+            lastLowerSearch = null;
+            lastNameMatches = null;
+        }
+    }
 }
@@ -0,0 +1,172 @@
+package controller;
+
+// JavaFX imports
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.WeakListChangeListener;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.scene.control.TableView;
+
+// Java imports
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * <p>The LiveSearchView class provides a filtered and sorted live view over one of the Inventory ObservableLists
+ * (allParts or allProducts) for a TableView. The table is bound to the view once, and each search only swaps the
+ * view's filter predicate rather than handing the table a newly built ObservableList.</p>
+ *
+ * <p>Because the view is backed by the Inventory list itself, deleting an object from inventory removes it from the
+ * table immediately, without running the search again and without the table holding on to stale object references.
+ * Objects added to inventory while a search is shown (including an updated Part or Product replacing the old object)
+ * are checked against the search text on their own and added to the matches if they match, so a change to inventory
+ * never runs the whole search again.</p>
+ *
+ * <p>While every object is shown unsorted, the table shows the Inventory list directly. Filtering and sorting read
+ * every object in the list, which would materialize every Part of a memory-mapped part catalog, so the filtered and
+ * sorted lists are only created while a search is shown or a sort order is chosen, and are released again
+ * afterwards.</p>
+ *
+ * @param <T> The type of object shown in the view (Part or Product).
+ */
+public class LiveSearchView<T> {
+    private final ObservableList<T> source;
+    private TableView<T> table;
+
+    // The search filter, or null if every object is shown. It tests membership of the matches, and objects added to
+    // the source while the search is shown are added to the matches if they pass the search query.
+    private Predicate<T> predicate;
+    private Set<T> matches;
+    private Predicate<T> query;
+
+    // The filtered and sorted lists shown in the table, or null while the table shows the source list directly
+    private FilteredList<T> filteredItems;
+    private SortedList<T> sortedItems;
+
+    // Listener watching the source for added objects. The source only holds a weak reference to it, so a view
+    // belonging to a closed screen does not stay registered with the Inventory list. It is registered before the
+    // filtered list is created, so it is told about each change first and the filtered list tests the added objects
+    // against the updated matches.
+    private final ListChangeListener<T> sourceListener;
+
+    /**
+     * The LiveSearchView class constructor.
+     *
+     * @param source The Inventory ObservableList to be viewed.
+     */
+    public LiveSearchView(ObservableList<T> source) {
+        this.source = source;
+
+        sourceListener = change -> {
+            if(predicate == null)
+                return;
+
+            // Each added object is checked again, since a Part or Product saved again as the same object may no
+            // longer match. Removed objects are left in the matches until the next search, as they are no longer in
+            // the source to be shown.
+            while(change.next()) {
+                for(T added : change.getAddedSubList()) {
+                    if(query.test(added))
+                        matches.add(added);
+                    else
+                        matches.remove(added);
+                }
+            }
+        };
+        source.addListener(new WeakListChangeListener<>(sourceListener));
+    }
+
+    /**
+     * Binds the view to a TableView. The view's sort order follows the table's column sort order.
+     *
+     * @param table The TableView to show the view in.
+     */
+    public void bindTo(TableView<T> table) {
+        this.table = table;
+        if(sortedItems != null)
+            bindSortedItems();
+
+        // Sorting is done by the sorted list rather than by sorting the table items, which would reorder the
+        // Inventory list itself while the table shows it directly
+        table.setSortPolicy(sortedTable -> {
+            updateItems();
+            return true;
+        });
+        updateItems();
+    }
+
+    /**
+     * Shows every object in the source list.
+     */
+    public void showAll() {
+        predicate = null;
+        matches = null;
+        query = null;
+        updateItems();
+    }
+
+    /**
+     * Shows only the supplied objects (typically the results of a search). Membership is tested by object identity,
+     * so applying the filter costs one hash lookup per object in the source list. Objects added to the source while
+     * the matches are shown are tested against the query, which should match the same objects as the search.
+     *
+     * @param matches The objects to be shown.
+     * @param query The search the matches were found by, as a test of a single object.
+     */
+    public void showMatches(Collection<T> matches, Predicate<T> query) {
+        Set<T> matchSet = Collections.newSetFromMap(new IdentityHashMap<>(matches.size()));
+        matchSet.addAll(matches);
+        this.matches = matchSet;
+        this.query = query;
+        predicate = matchSet::contains;
+        updateItems();
+    }
+
+    /**
+     * Returns the list shown in the table: the source list itself, or the sorted list over the filtered source list.
+     * Used by the tests, which cannot create a TableView without a graphics toolkit.
+     *
+     * @return The list of objects shown.
+     */
+    ObservableList<T> getItems() {
+        return sortedItems != null ? sortedItems : source;
+    }
+
+    /**
+     * Shows the source list directly in the table if every object is shown unsorted. Otherwise, shows the filtered
+     * and sorted lists, creating them if needed.
+     */
+    private void updateItems() {
+        if(predicate == null && (table == null || table.getComparator() == null)) {
+            if(sortedItems != null) {
+                sortedItems.comparatorProperty().unbind();
+                sortedItems = null;
+                filteredItems = null;
+            }
+            if(table != null && table.getItems() != source)
+                table.setItems(source);
+            return;
+        }
+
+        if(filteredItems == null) {
+            filteredItems = new FilteredList<>(source, predicate);
+            sortedItems = new SortedList<>(filteredItems);
+            if(table != null)
+                bindSortedItems();
+        } else {
+            filteredItems.setPredicate(predicate);
+        }
+    }
+
+    /**
+     * Shows the sorted list in the table, sorted by the table's column sort order.
+     */
+    private void bindSortedItems() {
+        sortedItems.comparatorProperty().bind(table.comparatorProperty());
+        table.setItems(sortedItems);
+    }
+}
@@ -1,7 +1,9 @@
 package controller;
 
 // JavaFX imports
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.application.Platform;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -30,6 +32,20 @@ public class MainScreen {
     // JavaFX stage for the Parts and Products add/modification screens
     private static Stage childScreenStage;
 
+    // Background searches for the Part and Product search text fields. Each uses its own search session, so that
+    // typing another character only narrows the previous results.
+    private final AsyncSearch<Part> partSearch =
+            new AsyncSearch<>(InventorySearch.newPartSearchSession(), this::showPartSearchResults,
+                              this::showSearchFailure);
+    private final AsyncSearch<Product> productSearch =
+            new AsyncSearch<>(InventorySearch.newProductSearchSession(), this::showProductSearchResults,
+                              this::showSearchFailure);
+
+    // Live filtered views over the Inventory Part and Product lists shown in the table views. A search only swaps
+    // the filter of a view, and objects added while results are shown are checked against the search text.
+    private LiveSearchView<Part> partsView;
+    private LiveSearchView<Product> productsView;
+
     // MainScreen controls
     @FXML
     private TextField partSearchField;
@@ -68,14 +84,17 @@ public class MainScreen {
         partsTable.setPlaceholder(new Label("No parts in inventory.\nClick Add below to populate inventory."));
         productsTable.setPlaceholder(new Label("No products in inventory.\nClick Add below to populate inventory."));
 
-        // Bind the Part TableView columns to the Part object members
-        partId.setCellValueFactory(new PropertyValueFactory<Part, Integer>("id"));
-        partName.setCellValueFactory(new PropertyValueFactory<Part, String>("name"));
-        partPrice.setCellValueFactory(new PropertyValueFactory<Part, Double>("price"));
-        partStock.setCellValueFactory(new PropertyValueFactory<Part, Integer>("stock"));
+        // Bind the Part TableView columns to the Part object members. The getters are called directly rather than
+        // through a PropertyValueFactory, which looks the getter up again by reflection whenever the class of the row
+        // changes, as it does between Part objects and the views over columnar Parts.
+        partId.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getId()));
+        partName.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getName()));
+        partPrice.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getPrice()));
+        partStock.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getStock()));
 
-        // Associate the Part TableView with the allParts ObservableList in the Inventory object
-        partsTable.setItems(Inventory.getAllParts());
+        // Associate the Part TableView with the live view over the allParts ObservableList in the Inventory object
+        partsView = new LiveSearchView<>(Inventory.getAllParts());
+        partsView.bindTo(partsTable);
 
         // Bind the Product TableView columns to the Product object members
         productId.setCellValueFactory(new PropertyValueFactory<Product, Integer>("id"));
@@ -83,8 +102,10 @@ public class MainScreen {
         productPrice.setCellValueFactory(new PropertyValueFactory<Product, Double>("price"));
         productStock.setCellValueFactory(new PropertyValueFactory<Product, Integer>("stock"));
 
-        // Associate the Product TableView with the allProducts ObservableList in the Inventory object
-        productsTable.setItems(Inventory.getAllProducts());
+        // Associate the Product TableView with the live view over the allProducts ObservableList in the Inventory
+        // object
+        productsView = new LiveSearchView<>(Inventory.getAllProducts());
+        productsView.bindTo(productsTable);
     }
 
     /**
@@ -133,6 +154,8 @@ public class MainScreen {
      * ObservableList that was returned as a result of the user's search. The part displayed no longer had a valid
      * reference and so if the user tried to act on the part in any way an exception would occur. The method was
      * modified to rerun the search so the object deletion would be reflected in the table view.</p>
+     * <p>The table view now shows a live filtered view over the Inventory.allParts ObservableList, so the deletion
+     * is reflected in the table view straight away without rerunning the search.</p>
      */
     @FXML
     private void onPartDeleteButtonClick() {
@@ -165,12 +188,7 @@ public class MainScreen {
             alert.setTitle("Delete part");
             alert.setHeaderText("Could not delete the selected part.\nIt may be associated with a product in inventory.");
             alert.showAndWait();
-            return;
         }
-
-        // Call the onPartSearchChange method to requery the search and update the Part table view to reflect the
-        // production deletion
-        onPartSearchChange();
     }
 
     /**
@@ -206,7 +224,8 @@ public class MainScreen {
     /**
      * Handles the user clicking on the product Delete button. Will display an error if the user has not selected a
      * Product in the list to delete. Will also display an error if the part cannot be deleted (for example, if it
-     * contains associated parts).
+     * contains associated parts). The Product table view shows a live view over the Inventory products, so a
+     * deletion is reflected without rerunning the search.
      */
     @FXML
     private void onProductDeleteButtonClick() {
@@ -239,53 +258,80 @@ public class MainScreen {
             alert.setTitle("Delete product");
             alert.setHeaderText("Could not delete the selected product.\nIt may have associated parts which must be removed first.");
             alert.showAndWait();
-            return;
         }
-
-        // Call the onProductSearchChange method to requery the search and update the Product table view to reflect the
-        // deletion
-        onProductSearchChange();
     }
 
     /**
-     * This method is called any time the user changes the text in the product search text field. It will call the
-     * searchProducts method in the InventorySearch class which returns an ObservableList containing any products
-     * whose ID or name matches the text in the text field. If no matches are returned then the table placeholder
-     * text will be set to inform the user.
+     * This method is called any time the user changes the text in the product search text field. It will submit the
+     * text to the Product background search, which calls showProductSearchResults once the user stops typing. If the
+     * text field is empty then any pending search is cancelled and all products are shown straight away.
      */
     @FXML
     private void onProductSearchChange() {
-        productsTable.setPlaceholder(new Label("No products in inventory.\nClick Add below to populate inventory."));
-
         if(productSearchField.getText().isEmpty()) {
-            productsTable.setItems(Inventory.getAllProducts());
+            productSearch.cancel();
+            productsTable.setPlaceholder(new Label("No products in inventory.\nClick Add below to populate inventory."));
+            productsView.showAll();
         }
         else {
-            productsTable.setItems(InventorySearch.searchProducts(productSearchField.getText()));
-            if(productsTable.getItems().size() == 0)
-                productsTable.setPlaceholder(new Label("No results."));
+            productSearch.submit(productSearchField.getText());
         }
     }
 
     /**
-     * This method is called any time the user changes the text in the part search text field. It will call the
-     * searchParts method in the InventorySearch class which returns an ObservableList containing any part
-     * whose ID or name matches the text in the text field. If no matches are returned then the table placeholder
-     * text will be set to inform the user.
+     * Shows the results of the latest Product search in the Products table view by swapping the filter of the live
+     * Product view. If no matches are returned then the table placeholder text will be set to inform the user.
+     *
+     * @param results An ObservableList containing any products whose ID or name matches the search text.
+     */
+    private void showProductSearchResults(ObservableList<Product> results) {
+        productsTable.setPlaceholder(new Label(results.isEmpty() ? "No results." :
+                "No products in inventory.\nClick Add below to populate inventory."));
+        productsView.showMatches(results, InventorySearch.productQuery(productSearchField.getText()));
+    }
+
+    /**
+     * This method is called any time the user changes the text in the part search text field. It will submit the
+     * text to the Part background search, which calls showPartSearchResults once the user stops typing. If the
+     * text field is empty then any pending search is cancelled and all parts are shown straight away.
      */
     @FXML
     private void onPartSearchChange() {
-        partsTable.setPlaceholder(new Label("No parts in inventory.\nClick Add below to populate inventory."));
-
-        if(partSearchField.getText().isEmpty())
-            partsTable.setItems(Inventory.getAllParts());
+        if(partSearchField.getText().isEmpty()) {
+            partSearch.cancel();
+            partsTable.setPlaceholder(new Label("No parts in inventory.\nClick Add below to populate inventory."));
+            partsView.showAll();
+        }
         else {
-            partsTable.setItems(InventorySearch.searchParts(partSearchField.getText()));
-            if(partsTable.getItems().size() == 0)
-                partsTable.setPlaceholder(new Label("No results."));
+            partSearch.submit(partSearchField.getText());
         }
     }
 
+    /**
+     * Shows the results of the latest Part search in the Parts table view by swapping the filter of the live Part
+     * view. If no matches are returned then the table placeholder text will be set to inform the user.
+     *
+     * @param results An ObservableList containing any parts whose ID or name matches the search text.
+     */
+    private void showPartSearchResults(ObservableList<Part> results) {
+        partsTable.setPlaceholder(new Label(results.isEmpty() ? "No results." :
+                "No parts in inventory.\nClick Add below to populate inventory."));
+        partsView.showMatches(results, InventorySearch.partQuery(partSearchField.getText()));
+    }
+
+    /**
+     * Displays an error when a Part or Product search fails. The table views keep showing what they showed before the
+     * search.
+     *
+     * @param e The error the search ran into.
+     */
+    private void showSearchFailure(RuntimeException e) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Search");
+        alert.setHeaderText("The search could not be completed.\n" + e);
+        alert.showAndWait();
+    }
+
     /**
      * Handles the user clicking on the Exit button. A dialog box will appear asking for the user's confirmation and
      * their exit request will be cancelled if they click NO.
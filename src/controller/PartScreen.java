@@ -156,23 +156,21 @@ public class PartScreen {
             else if (partScreenFunction == Function.MODIFY_PART)
                 // Update part as an InHouse object
                 if (inhouseRadioButton.isSelected())
-                   Inventory.updatePart(Inventory.getAllParts().indexOf(partScreenPart),
-                                        new InHouse(partScreenPart.getId(),
-                                                nameField.getText(),
-                                                Double.parseDouble(priceField.getText()),
-                                                Integer.parseInt(stockField.getText()),
-                                                Integer.parseInt(minField.getText()),
-                                                Integer.parseInt(maxField.getText()),
-                                                Integer.parseInt(machOrCompField.getText())));
+                    Inventory.updatePart(new InHouse(partScreenPart.getId(),
+                            nameField.getText(),
+                            Double.parseDouble(priceField.getText()),
+                            Integer.parseInt(stockField.getText()),
+                            Integer.parseInt(minField.getText()),
+                            Integer.parseInt(maxField.getText()),
+                            Integer.parseInt(machOrCompField.getText())));
                 else
-                    Inventory.updatePart(Inventory.getAllParts().indexOf(partScreenPart),
-                            new Outsourced(partScreenPart.getId(),
-                                    nameField.getText(),
-                                    Double.parseDouble(priceField.getText()),
-                                    Integer.parseInt(stockField.getText()),
-                                    Integer.parseInt(minField.getText()),
-                                    Integer.parseInt(maxField.getText()),
-                                    machOrCompField.getText()));
+                    Inventory.updatePart(new Outsourced(partScreenPart.getId(),
+                            nameField.getText(),
+                            Double.parseDouble(priceField.getText()),
+                            Integer.parseInt(stockField.getText()),
+                            Integer.parseInt(minField.getText()),
+                            Integer.parseInt(maxField.getText()),
+                            machOrCompField.getText()));
         MainScreen.closeChildScreen();
         }
     }
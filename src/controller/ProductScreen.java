@@ -1,9 +1,10 @@
 package controller;
 
 // JavaFX imports
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 
 // Java imports
 import java.util.Optional;
@@ -24,6 +25,19 @@ public class ProductScreen {
     private static ProductScreen.Function productScreenFunction;
     private static Product productScreenProduct;
 
+    // Background search for the part search text field. It uses its own search session, so that typing another
+    // character only narrows the previous results.
+    private final AsyncSearch<Part> partSearch =
+            new AsyncSearch<>(InventorySearch.newPartSearchSession(), this::showPartSearchResults,
+                              this::showSearchFailure);
+
+    // Live filtered view over the Inventory Part list shown in the All Parts table view
+    private LiveSearchView<Part> allPartsView;
+
+    // Holds the Parts shown in the Associated Parts table view and the quantity of each, so that changes are only made
+    // to the Product being added or modified when save is clicked
+    private final AssociatedPartList associatedParts = new AssociatedPartList();
+
     // Product form controls and labels
     @FXML
     private Label actionPlaceholder;
@@ -41,6 +55,8 @@ public class ProductScreen {
     private TextField minField;
     @FXML
     private TextField partSearchField;
+    @FXML
+    private TextField quantityField;
 
     // All Parts table view and columns
     @FXML
@@ -65,6 +81,8 @@ public class ProductScreen {
     private TableColumn<Part, Integer> associatedPartsStock;
     @FXML
     private TableColumn<Part, Double> associatedPartsPrice;
+    @FXML
+    private TableColumn<Part, Integer> associatedPartsQuantity;
 
     /**
      * Initializes the scene components. This includes setting the label placeholder text and updating the screen
@@ -77,20 +95,28 @@ public class ProductScreen {
         allPartsTable.setPlaceholder(new Label("No parts in inventory."));
         associatedPartsTable.setPlaceholder(new Label("No parts associated with this product."));
 
-        // All Parts table columns bindings
-        allPartsId.setCellValueFactory(new PropertyValueFactory<Part, Integer>("id"));
-        allPartsName.setCellValueFactory(new PropertyValueFactory<Part, String>("name"));
-        allPartsStock.setCellValueFactory(new PropertyValueFactory<Part, Integer>("stock"));
-        allPartsPrice.setCellValueFactory(new PropertyValueFactory<Part, Double>("price"));
+        // All Parts table columns bindings, calling the getters directly as MainScreen does
+        allPartsId.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getId()));
+        allPartsName.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getName()));
+        allPartsStock.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getStock()));
+        allPartsPrice.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getPrice()));
 
-        // Fill All Parts data with all Parts objects in Inventory
-        allPartsTable.setItems(Inventory.getAllParts());
+        // Fill All Parts data with a live view over all Parts objects in Inventory
+        allPartsView = new LiveSearchView<>(Inventory.getAllParts());
+        allPartsView.bindTo(allPartsTable);
 
         // Associated Parts table columns bindings
-        associatedPartsId.setCellValueFactory(new PropertyValueFactory<Part, Integer>("id"));
-        associatedPartsName.setCellValueFactory(new PropertyValueFactory<Part, String>("name"));
-        associatedPartsStock.setCellValueFactory(new PropertyValueFactory<Part, Integer>("stock"));
-        associatedPartsPrice.setCellValueFactory(new PropertyValueFactory<Part, Double>("price"));
+        associatedPartsId.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getId()));
+        associatedPartsName.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getName()));
+        associatedPartsStock.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getStock()));
+        associatedPartsPrice.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getPrice()));
+        associatedPartsQuantity.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(
+                associatedParts.getQuantity(cell.getValue())));
+        associatedPartsTable.setItems(associatedParts.getParts());
+
+        // Show the quantity of the selected associated Part in the quantity field, ready to be changed
+        associatedPartsTable.getSelectionModel().selectedItemProperty().addListener((observable, oldPart, newPart) ->
+                quantityField.setText(newPart == null ? "" : Integer.toString(associatedParts.getQuantity(newPart))));
 
         // Update window title and form label based on selected screen function
         if(productScreenFunction == Function.ADD_PRODUCT) {
@@ -101,10 +127,10 @@ public class ProductScreen {
             MainScreen.setChildScreenTitle("Modify Product");
             actionPlaceholder.setText("Modify Product");
 
-            // Fill Associated Parts table with all Part objects associated with the current Product object
-            // The ObservableList returned from the Product object is a copy of the object's internal list, therefore
-            // any changes in the view will not immediately change the object's data until save is clicked.
-            associatedPartsTable.setItems(productScreenProduct.getAllAssociatedParts());
+            // Fill Associated Parts table with all Part objects associated with the current Product object, and their
+            // quantities. They are copied into the associated part list, therefore any changes in the view will not
+            // immediately change the object's data until save is clicked.
+            associatedParts.copyFrom(productScreenProduct);
             fillProductDetails();
         }
     }
@@ -143,7 +169,8 @@ public class ProductScreen {
 
     /**
      * Handles when the user clicks the Add part button. It will display a warning if the user has not selected a
-     * part from the list, or if the selected part is already associated with the Product.
+     * part from the list. Adding a part that is already associated with the Product adds one to the quantity of it the
+     * Product needs.
      */
     @FXML
     private void onAddPartButtonClick() {
@@ -158,24 +185,45 @@ public class ProductScreen {
             return;
         }
 
-        // Check if the selected Part is already associated with the Product
-        for(Part partToCheck : associatedPartsTable.getItems()) {
-            if(partToCheck == partToAdd) {
-                Alert alert = new Alert(Alert.AlertType.WARNING);
-                alert.setTitle("Add Part");
-                alert.setHeaderText("Selected part is already associated with this product.");
-                alert.showAndWait();
-                return;
-            }
+        // Add the selected Part to the Associated Parts list. The table is refreshed so that the quantity shown for a
+        // Part that was already in the list is updated.
+        associatedParts.addPart(partToAdd);
+        associatedPartsTable.refresh();
+    }
+
+    /**
+     * Handles when the user clicks the Set quantity button. It will display a warning if the user has not selected a
+     * part from the Associated Parts list, and an error if the quantity is not a whole number of at least 1.
+     */
+    @FXML
+    private void onSetQuantityButtonClick() {
+        Part selectedPart = associatedPartsTable.getSelectionModel().getSelectedItem();
+        if(selectedPart == null) {
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle("Set Quantity");
+            alert.setHeaderText("Select a part from the list to set its quantity.");
+            alert.showAndWait();
+            return;
         }
 
-        // Add the selected Part to the Associated Parts list
-        associatedPartsTable.getItems().add(partToAdd);
+        if(!FieldValidation.CheckFieldConstraint(quantityField,
+                FieldValidation.FieldConstraint.NOT_NULL_OR_EMPTY,
+                FieldValidation.FieldConstraint.IS_NUMBER,
+                FieldValidation.FieldConstraint.IS_INT)
+                || Integer.parseInt(quantityField.getText()) < 1) {
+            FieldValidation.ValidationAlert("Quantity", "Invalid input.\nValue must be a whole number of at least 1.");
+            return;
+        }
+
+        // Set the quantity and refresh the table so that the Quantity column shows it
+        associatedParts.setQuantity(selectedPart, Integer.parseInt(quantityField.getText()));
+        associatedPartsTable.refresh();
     }
 
     /**
      * Handles when the user clicks the Remove associated part button. It will display a warning if the user has not
-     * selected a part from the list.
+     * selected a part from the list. The part is removed whatever its quantity; use Set Quantity to change how many of
+     * it are needed instead.
      */
     @FXML
     private void onRemovePartButtonClick() {
@@ -188,7 +236,7 @@ public class ProductScreen {
         }
 
         // Remove the selected Part from the Associated Parts list
-        associatedPartsTable.getItems().remove(associatedPartsTable.getSelectionModel().getSelectedItem());
+        associatedParts.removePart(associatedPartsTable.getSelectionModel().getSelectedItem());
     }
 
     /**
@@ -208,8 +256,7 @@ public class ProductScreen {
                         Integer.parseInt(minField.getText()),
                         Integer.parseInt(maxField.getText()));
 
-                for (Part item : associatedPartsTable.getItems())
-                    productToAdd.addAssociatedPart(item);
+                associatedParts.copyTo(productToAdd);
 
                 Inventory.addProduct(productToAdd);
             }
@@ -221,10 +268,9 @@ public class ProductScreen {
                         Integer.parseInt(minField.getText()),
                         Integer.parseInt(maxField.getText()));
 
-                for (Part item : associatedPartsTable.getItems())
-                    updatedProduct.addAssociatedPart(item);
+                associatedParts.copyTo(updatedProduct);
 
-                Inventory.updateProduct(Inventory.getAllProducts().indexOf(productScreenProduct), updatedProduct);
+                Inventory.updateProduct(updatedProduct);
             }
             MainScreen.closeChildScreen();
         }
@@ -248,24 +294,46 @@ public class ProductScreen {
     }
 
     /**
-     * This method is called any time the user changes the text in the product search text field. It will call the
-     * searchProducts method in the InventorySearch class which returns an ObservableList containing any products
-     * whose ID or name matches the text in the text field. If no matches are returned then the table placeholder
-     * text will be set to inform the user.
+     * This method is called any time the user changes the text in the part search text field. It will submit the
+     * text to the background part search, which calls showPartSearchResults once the user stops typing. If the text
+     * field is empty then any pending search is cancelled and all parts are shown straight away.
      */
     @FXML
     private void onPartSearchFieldChange() {
-        allPartsTable.setPlaceholder(new Label("No parts in inventory."));
-
-        if(partSearchField.getText().isEmpty())
-            allPartsTable.setItems(Inventory.getAllParts());
+        if(partSearchField.getText().isEmpty()) {
+            partSearch.cancel();
+            allPartsTable.setPlaceholder(new Label("No parts in inventory."));
+            allPartsView.showAll();
+        }
         else {
-            allPartsTable.setItems(InventorySearch.searchParts(partSearchField.getText()));
-            if(allPartsTable.getItems().size() == 0)
-                allPartsTable.setPlaceholder(new Label("No results."));
+            partSearch.submit(partSearchField.getText());
         }
     }
 
+    /**
+     * Shows the results of the latest part search in the All Parts table view by swapping the filter of the live
+     * part view. If no matches are returned then the table placeholder text will be set to inform the user.
+     *
+     * @param results An ObservableList containing any parts whose ID or name matches the search text.
+     */
+    private void showPartSearchResults(ObservableList<Part> results) {
+        allPartsTable.setPlaceholder(new Label(results.isEmpty() ? "No results." : "No parts in inventory."));
+        allPartsView.showMatches(results, InventorySearch.partQuery(partSearchField.getText()));
+    }
+
+    /**
+     * Displays an error when a part search fails. The All Parts table view keeps showing what it showed before the
+     * search.
+     *
+     * @param e The error the search ran into.
+     */
+    private void showSearchFailure(RuntimeException e) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Search");
+        alert.setHeaderText("The part search could not be completed.\n" + e);
+        alert.showAndWait();
+    }
+
     /**
      * Performs a validation of all text fields by passing the text field and the desired constraints as defined in
      * the FieldConstraint enum in the FieldValidation class. Returns true if all validation tests are successful. Will
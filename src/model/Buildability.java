@@ -0,0 +1,293 @@
+package model;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>The Buildability class answers how many units of a Product could be built from the Parts in stock, treating the
+ * Parts associated with the Product, and the quantity of each the Product needs, as its bill of materials. The number
+ * of units that can be built is the smallest number of units any one of the associated Parts covers (its stock level
+ * divided by the quantity needed), and the Parts covering the fewest units are the limiting Parts. A Product with no
+ * associated Parts has no bill of materials and is reported as buildable 0 times.</p>
+ *
+ * <p>The result for each Product in inventory is computed when it is first asked for and remembered, so asking again
+ * (for example each time a Product table row is rendered) only takes a hash lookup. A remembered result is forgotten
+ * when it may have changed: when the stock level of one of the Product's Parts changes or the Part is saved again as
+ * the same object (the Products affected are found through the Inventory reverse association index, so no other
+ * result is touched), when a Part is associated with or removed from the Product, and when the Product itself is
+ * updated or deleted. Results for Products that are not in inventory are computed every time, since changes to their
+ * associations are not reported.</p>
+ *
+ * <p>Like the ReorderAlerts, the results follow the stock levels of the Parts committed to inventory, so changing the
+ * stock level of a Part through its setters without committing it through Inventory.updatePart is not seen until a
+ * result is next computed. Results are computed from the latest InventorySnapshot rather than while holding the
+ * Inventory commit lock, so asking for one (for example from a table row on the JavaFX Application Thread) never waits
+ * for a long batch of changes to be committed; until the batch ends, the results are those from before it. A result is
+ * only remembered if no result has been forgotten since its snapshot was published, so a result is never remembered
+ * after a change that should have made it be forgotten.</p>
+ */
+public class Buildability {
+    // The remembered results, by Product ID
+    private final IntHashMap<Result> results = new IntHashMap<>();
+
+    // The version of the latest snapshot when a result was last forgotten. The change that made the result be
+    // forgotten is only included in later snapshots, so results computed from this snapshot or an older one are not
+    // remembered. Guarded by this, like the results.
+    private long forgottenAtVersion = -1;
+
+    // Forgets the results each committed change may affect. Only registered by the Inventory.
+    private final InventoryListener updater = new InventoryListener() {
+        @Override
+        public void partUpdated(Part oldPart, Part newPart) {
+            // Only the stock level is used, and the limiting Parts are remembered by ID, so other changes keep every
+            // result. A Part saved again as the same object already holds its new stock level, so whether it changed
+            // cannot be told and the results are forgotten.
+            if(oldPart == newPart || oldPart.getStock() != newPart.getStock()) {
+                for(Product product : Inventory.getAllPartAssociations(newPart))
+                    forget(product.getId());
+            }
+        }
+
+        @Override
+        public void productAdded(Product product) {
+            forget(product.getId());
+        }
+
+        @Override
+        public void productUpdated(Product oldProduct, Product newProduct) {
+            forget(oldProduct.getId());
+            forget(newProduct.getId());
+        }
+
+        @Override
+        public void productDeleted(Product product) {
+            forget(product.getId());
+        }
+
+        @Override
+        public void partAssociated(Product product, Part part) {
+            forget(product.getId());
+        }
+
+        @Override
+        public void partDissociated(Product product, Part part) {
+            forget(product.getId());
+        }
+
+        @Override
+        public void inventoryReplaced() {
+            forgetAll();
+        }
+    };
+
+    /**
+     * The Buildability class constructor.
+     */
+    Buildability() {
+    }
+
+    /**
+     * Returns the listener the Inventory passes every committed change to.
+     * @return The listener forgetting the results affected by each change.
+     */
+    InventoryListener getUpdater() {
+        return updater;
+    }
+
+    /**
+     * Returns the number of units of a Product that could be built from the stock of its associated Parts.
+     *
+     * @param product The Product.
+     * @return The number of units that could be built, or 0 if the Product has no associated Parts.
+     */
+    public int getBuildableUnits(Product product) {
+        return resultFor(product).units;
+    }
+
+    /**
+     * Returns the Parts limiting the number of units of a Product that could be built: the associated Parts whose
+     * stock covers the fewest units.
+     *
+     * @param product The Product.
+     * @return A new list of the limiting Parts, in the order they are associated with the Product, or an empty list if
+     * the Product has no associated Parts.
+     */
+    public List<Part> getLimitingParts(Product product) {
+        int[] limitingPartIds = resultFor(product).limitingPartIds;
+        if(limitingPartIds.length == 0)
+            return Collections.emptyList();
+
+        // Look the Parts up by ID, taking Parts that are not in inventory from the Product itself
+        List<Part> limitingParts = new ArrayList<>(limitingPartIds.length);
+        for(int partId : limitingPartIds) {
+            Part part = Inventory.lookupPart(partId);
+            if(part == null)
+                part = findAssociatedPart(product, partId);
+            if(part != null)
+                limitingParts.add(part);
+        }
+        return limitingParts;
+    }
+
+    /**
+     * Returns the remembered result for a Product, computing it first if there is none.
+     *
+     * @param product The Product.
+     * @return The result for the Product.
+     */
+    private Result resultFor(Product product) {
+        Result result = remembered(product);
+        if(result != null)
+            return result;
+
+        // Products that are not in the latest snapshot are not in inventory, or not yet committed by the operation or
+        // batch adding them, so they are worked out from their own associations and not remembered
+        InventorySnapshot snapshot = Inventory.getSnapshot();
+        InventorySnapshot.ProductRecord record = snapshot.getProductRecord(product.getId());
+        if(record == null || record.getProduct() != product)
+            return compute(product);
+
+        result = compute(record, snapshot);
+        rememberIfCurrent(result, snapshot.getVersion());
+        return result;
+    }
+
+    /**
+     * Returns the remembered result for a Product, if it is the Product the result was computed for.
+     *
+     * @param product The Product.
+     * @return The remembered result, or null if there is none.
+     */
+    private synchronized Result remembered(Product product) {
+        Result result = results.get(product.getId());
+        return result != null && result.product == product ? result : null;
+    }
+
+    /**
+     * Remembers a result for the Product it was computed for, unless a result has been forgotten since the snapshot it
+     * was computed from was published.
+     *
+     * @param result The result.
+     * @param snapshotVersion The version of the snapshot the result was computed from.
+     */
+    private synchronized void rememberIfCurrent(Result result, long snapshotVersion) {
+        if(snapshotVersion > forgottenAtVersion)
+            results.put(result.product.getId(), result);
+    }
+
+    /**
+     * Forgets the result for a Product, if one is remembered. Called while holding the Inventory commit lock, before
+     * the snapshot including the change is published.
+     * @param productId The Product ID.
+     */
+    private synchronized void forget(int productId) {
+        results.remove(productId);
+        forgottenAtVersion = Inventory.getSnapshot().getVersion();
+    }
+
+    /**
+     * Forgets every remembered result.
+     */
+    private synchronized void forgetAll() {
+        results.clear();
+        forgottenAtVersion = Inventory.getSnapshot().getVersion();
+    }
+
+    /**
+     * Computes the number of units of a Product that could be built and the Parts limiting it from the Product's own
+     * associations.
+     *
+     * @param product The Product.
+     * @return The result for the Product.
+     */
+    private static Result compute(Product product) {
+        List<Part> associatedParts = product.getAssociatedPartsView();
+        int[] partIds = new int[associatedParts.size()];
+        int[] covered = new int[partIds.length];
+        for(int i = 0; i < partIds.length; i++) {
+            partIds[i] = associatedParts.get(i).getId();
+            covered[i] = Math.max(0, associatedParts.get(i).getStock()) / product.getAssociatedPartQuantityAt(i);
+        }
+        return limit(product, partIds, covered);
+    }
+
+    /**
+     * Computes the number of units of a Product that could be built and the Parts limiting it from the Product's
+     * associations and the Parts in a snapshot.
+     *
+     * @param record The Product's record in the snapshot.
+     * @param snapshot The snapshot.
+     * @return The result for the Product.
+     */
+    private static Result compute(InventorySnapshot.ProductRecord record, InventorySnapshot snapshot) {
+        int[] partIds = new int[record.getAssociatedPartCount()];
+        int[] covered = new int[partIds.length];
+        for(int i = 0; i < partIds.length; i++) {
+            partIds[i] = record.getAssociatedPartId(i);
+            Part part = snapshot.lookupPart(partIds[i]);
+            int stock = part != null ? Math.max(0, part.getStock()) : 0;
+            covered[i] = stock / record.getAssociatedPartQuantity(i);
+        }
+        return limit(record.getProduct(), partIds, covered);
+    }
+
+    /**
+     * Finds the fewest units of a Product covered by any of its associated Parts, then the Parts covering that many.
+     *
+     * @param product The Product.
+     * @param partIds The IDs of the associated Parts.
+     * @param covered The number of units covered by each associated Part, at the same positions as partIds.
+     * @return The result for the Product.
+     */
+    private static Result limit(Product product, int[] partIds, int[] covered) {
+        if(partIds.length == 0)
+            return new Result(product, 0, new int[0]);
+
+        int units = Integer.MAX_VALUE;
+        for(int coveredUnits : covered)
+            units = Math.min(units, coveredUnits);
+
+        int limitingCount = 0;
+        int[] limitingPartIds = new int[covered.length];
+        for(int i = 0; i < covered.length; i++) {
+            if(covered[i] == units)
+                limitingPartIds[limitingCount++] = partIds[i];
+        }
+
+        return new Result(product, units, Arrays.copyOf(limitingPartIds, limitingCount));
+    }
+
+    /**
+     * Returns the Part associated with a Product that has the supplied ID.
+     *
+     * @param product The Product.
+     * @param partId The Part ID.
+     * @return The associated Part, or null if there is none.
+     */
+    private static Part findAssociatedPart(Product product, int partId) {
+        for(Part part : product.getAssociatedPartsView()) {
+            if(part.getId() == partId)
+                return part;
+        }
+        return null;
+    }
+
+    /**
+     * The number of units of a Product that could be built and the IDs of the Parts limiting it, together with the
+     * Product they were computed for.
+     */
+    private static class Result {
+        final Product product;
+        final int units;
+        final int[] limitingPartIds;
+
+        Result(Product product, int units, int[] limitingPartIds) {
+            this.product = product;
+            this.units = units;
+            this.limitingPartIds = limitingPartIds;
+        }
+    }
+}
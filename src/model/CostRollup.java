@@ -0,0 +1,262 @@
+package model;
+
+// Java imports
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>The CostRollup class keeps the material cost of every Product in inventory: the sum of the price of each Part
+ * associated with the Product times the quantity of it the Product needs. The margin of a Product is its price less
+ * its material cost. Costs are kept up to date by the Inventory as part of every change it commits, so a margin
+ * dashboard reads them without adding up any bill of materials.</p>
+ *
+ * <p>When the price of a Part changes, Inventory.updatePart reports it as a single partUpdated, and the difference in
+ * price times the quantity is added to the cost of each Product associated with the Part, found through the Inventory
+ * reverse association index. Only the cost of a Product whose associations change, or one of whose Parts is saved again
+ * as the same object (whose old price is then no longer known), is added up again. Costs are kept in whole cents, with
+ * each line of a bill of materials rounded once, so adding the difference for a price change gives exactly the cost
+ * adding up the bill of materials again would.</p>
+ *
+ * <p>Like the InventoryValuation, the costs follow the prices of the Parts committed to inventory, and every method is
+ * synchronized. Asking for the cost of a Product that is not in inventory adds up its bill of materials.</p>
+ */
+public class CostRollup {
+    // The material cost of each Product in inventory, by Product ID, and the total of them all and of their prices,
+    // in cents
+    private final IntHashMap<Cost> costs = new IntHashMap<>();
+    private long totalCost;
+    private long totalPrice;
+
+    // Updates the costs for each change committed to inventory. Only registered by the Inventory.
+    private final InventoryListener updater = new InventoryListener() {
+        @Override
+        public void partUpdated(Part oldPart, Part newPart) {
+            // A Part saved again as the same object already holds its new price, so the price it was added up with
+            // is not known and the cost of each of its Products is added up again
+            if(oldPart == newPart)
+                addUpAgain(newPart);
+            else if(oldPart.getPrice() != newPart.getPrice())
+                repricePart(oldPart, newPart);
+        }
+
+        @Override
+        public void productAdded(Product product) {
+            addProduct(product);
+        }
+
+        @Override
+        public void productUpdated(Product oldProduct, Product newProduct) {
+            removeProduct(oldProduct);
+            addProduct(newProduct);
+        }
+
+        @Override
+        public void productDeleted(Product product) {
+            removeProduct(product);
+        }
+
+        @Override
+        public void partAssociated(Product product, Part part) {
+            removeProduct(product);
+            addProduct(product);
+        }
+
+        @Override
+        public void partDissociated(Product product, Part part) {
+            removeProduct(product);
+            addProduct(product);
+        }
+
+        @Override
+        public void inventoryReplaced() {
+            rebuild();
+        }
+    };
+
+    /**
+     * The CostRollup class constructor.
+     */
+    CostRollup() {
+    }
+
+    /**
+     * Returns the listener the Inventory passes every committed change to.
+     * @return The listener updating the costs.
+     */
+    InventoryListener getUpdater() {
+        return updater;
+    }
+
+    /**
+     * Returns the material cost of a Product: the price of each associated Part times the quantity of it the Product
+     * needs, added up.
+     *
+     * @param product The Product.
+     * @return The material cost of one of the Product.
+     */
+    public synchronized double getMaterialCost(Product product) {
+        Cost cost = costOf(product);
+        return (cost != null ? cost.cost : addUp(product)) / 100.0;
+    }
+
+    /**
+     * Returns the margin of a Product: its price less its material cost.
+     *
+     * @param product The Product.
+     * @return The margin on one of the Product, negative if its material cost is above its price.
+     */
+    public synchronized double getMargin(Product product) {
+        Cost cost = costOf(product);
+        if(cost != null)
+            return (cost.price - cost.cost) / 100.0;
+        return (cents(product.getPrice(), 1) - addUp(product)) / 100.0;
+    }
+
+    /**
+     * Returns the total material cost of one of every Product in inventory.
+     * @return The sum of the material costs of all Products.
+     */
+    public synchronized double getTotalMaterialCost() {
+        return totalCost / 100.0;
+    }
+
+    /**
+     * Returns the total margin on one of every Product in inventory.
+     * @return The sum of the prices of all Products less the sum of their material costs.
+     */
+    public synchronized double getTotalMargin() {
+        return (totalPrice - totalCost) / 100.0;
+    }
+
+    /**
+     * Returns the margin of every Product in inventory.
+     * @return A new map from Product ID to margin, in Product ID order.
+     */
+    public synchronized Map<Integer, Double> getMargins() {
+        Map<Integer, Double> margins = new TreeMap<>();
+        costs.forEach((productId, cost) -> margins.put(productId, (cost.price - cost.cost) / 100.0));
+        return margins;
+    }
+
+    /**
+     * Returns the cost kept for a Product, if it is in inventory.
+     *
+     * @param product The Product.
+     * @return The cost, or null if no cost is kept for the Product.
+     */
+    private Cost costOf(Product product) {
+        Cost cost = costs.get(product.getId());
+        return cost != null && cost.product == product ? cost : null;
+    }
+
+    /**
+     * Adds the cost of a Product to the costs.
+     * @param product The Product.
+     */
+    private synchronized void addProduct(Product product) {
+        Cost cost = new Cost(product, addUp(product), cents(product.getPrice(), 1));
+        costs.put(product.getId(), cost);
+        totalCost += cost.cost;
+        totalPrice += cost.price;
+    }
+
+    /**
+     * Removes the cost of a Product from the costs, if it is the Product the cost is kept for.
+     * @param product The Product.
+     */
+    private synchronized void removeProduct(Product product) {
+        Cost cost = costOf(product);
+        if(cost == null)
+            return;
+
+        costs.remove(product.getId());
+        totalCost -= cost.cost;
+        totalPrice -= cost.price;
+    }
+
+    /**
+     * Adds the difference between the old and new price of a Part to the cost of every Product associated with it,
+     * times the quantity of it each Product needs.
+     *
+     * @param oldPart The Part before the change.
+     * @param newPart The Part after the change.
+     */
+    private synchronized void repricePart(Part oldPart, Part newPart) {
+        for(Product product : Inventory.getAllPartAssociations(newPart)) {
+            Cost cost = costOf(product);
+            if(cost == null)
+                continue;
+
+            int quantity = product.getAssociatedPartQuantity(newPart.getId());
+            long difference = cents(newPart.getPrice(), quantity) - cents(oldPart.getPrice(), quantity);
+            cost.cost += difference;
+            totalCost += difference;
+        }
+    }
+
+    /**
+     * Adds up the cost of every Product associated with a Part again.
+     * @param part The Part.
+     */
+    private synchronized void addUpAgain(Part part) {
+        for(Product product : Inventory.getAllPartAssociations(part)) {
+            if(costOf(product) != null) {
+                removeProduct(product);
+                addProduct(product);
+            }
+        }
+    }
+
+    /**
+     * Recalculates every cost from the contents of inventory after the whole inventory has been replaced. Called
+     * while the Inventory commit lock is held.
+     */
+    private synchronized void rebuild() {
+        costs.clear();
+        totalCost = 0;
+        totalPrice = 0;
+        for(Product product : Inventory.getProductList())
+            addProduct(product);
+    }
+
+    /**
+     * Adds up the bill of materials of a Product.
+     *
+     * @param product The Product.
+     * @return The material cost of the Product in cents.
+     */
+    private static long addUp(Product product) {
+        List<Part> associatedParts = product.getAssociatedPartsView();
+        long cost = 0;
+        for(int i = 0; i < associatedParts.size(); i++)
+            cost += cents(associatedParts.get(i).getPrice(), product.getAssociatedPartQuantityAt(i));
+        return cost;
+    }
+
+    /**
+     * Returns the cost of a quantity at a price, in whole cents.
+     *
+     * @param price The price.
+     * @param quantity The quantity.
+     * @return The cost in cents.
+     */
+    private static long cents(double price, int quantity) {
+        return Math.round(price * quantity * 100);
+    }
+
+    /**
+     * The material cost and price of a Product in cents, together with the Product they are kept for.
+     */
+    private static class Cost {
+        final Product product;
+        long cost;
+        final long price;
+
+        Cost(Product product, long cost, long price) {
+            this.product = product;
+            this.cost = cost;
+            this.price = price;
+        }
+    }
+}
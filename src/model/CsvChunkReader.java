@@ -0,0 +1,243 @@
+package model;
+
+// Java imports
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * <p>The CsvChunkReader class reads one or more CSV files, in order, as a sequence of chunks that each hold a whole
+ * number of rows. A chunk can then be split into fields and checked on any thread without looking at the chunks
+ * around it, which lets the CsvImporter parse several chunks at once.</p>
+ *
+ * <p>A chunk ends after the last line break in it that is not inside a quoted field, found by tracking quotes from
+ * the start of the chunk (which is always the start of a row). The bytes after that line break are carried over to
+ * the start of the next chunk. Chunk buffers are handed back with recycle once they have been parsed, so reading a
+ * file of any size only ever uses the buffers of the chunks being parsed at the same time.</p>
+ */
+class CsvChunkReader implements Closeable {
+    // The longest row a chunk may grow to hold
+    static final int MAX_ROW_LENGTH = 1 << 20;
+
+    private final List<Path> paths;
+    private final int chunkSize;
+    private final long totalBytes;
+
+    // Buffers returned by recycle, ready to be reused for new chunks
+    private final Queue<byte[]> freeBuffers = new ConcurrentLinkedQueue<>();
+
+    // The file being read, and the bytes of its next row read with the previous chunk
+    private int nextPath;
+    private FileChannel channel;
+    private boolean startOfFile;
+    private long nextLineNumber;
+    private byte[] carry = new byte[0];
+    private int carryLength;
+
+    // Bytes of all files handed out in chunks so far
+    private long bytesRead;
+
+    /**
+     * The CsvChunkReader class constructor.
+     *
+     * @param paths The files to read, in order.
+     * @param chunkSize The usual size of a chunk in bytes. A chunk is larger if a single row does not fit.
+     * @throws IOException If the size of a file could not be read.
+     */
+    CsvChunkReader(List<Path> paths, int chunkSize) throws IOException {
+        this.paths = paths;
+        this.chunkSize = chunkSize;
+
+        long total = 0;
+        for(Path path : paths)
+            total += Files.size(path);
+        this.totalBytes = total;
+    }
+
+    /**
+     * Returns the combined size of the files.
+     *
+     * @return The size of all files in bytes.
+     */
+    long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Reads the next chunk of rows.
+     *
+     * @return The next chunk, or null after the last row of the last file.
+     * @throws IOException If a file could not be read, or holds a row longer than MAX_ROW_LENGTH.
+     */
+    Chunk next() throws IOException {
+        while(true) {
+            if(channel == null) {
+                if(nextPath == paths.size())
+                    return null;
+                channel = FileChannel.open(paths.get(nextPath++), StandardOpenOption.READ);
+                startOfFile = true;
+                nextLineNumber = 1;
+                carryLength = 0;
+            }
+
+            // Start the chunk with the bytes carried over from the previous chunk and fill the rest from the file
+            byte[] data = takeBuffer(Math.max(chunkSize, carryLength * 2));
+            System.arraycopy(carry, 0, data, 0, carryLength);
+            int length = carryLength;
+            int end;
+            boolean endOfFile = false;
+            ByteBuffer target = ByteBuffer.wrap(data);
+            while(true) {
+                target.limit(data.length).position(length);
+                int read = channel.read(target);
+                if(read < 0) {
+                    // The end of the file ends the last row even without a line break
+                    endOfFile = true;
+                    end = length;
+                    break;
+                }
+                length += read;
+
+                if(length < data.length)
+                    continue;
+                end = lastRowEnd(data, length);
+                if(end > 0)
+                    break;
+
+                // No row ends in the buffer, so grow it until one does
+                if(data.length >= MAX_ROW_LENGTH)
+                    throw new IOException("The row at line " + nextLineNumber + " of " + paths.get(nextPath - 1) +
+                                          " is longer than " + MAX_ROW_LENGTH + " bytes.");
+                byte[] grown = new byte[data.length * 2];
+                System.arraycopy(data, 0, grown, 0, length);
+                data = grown;
+                target = ByteBuffer.wrap(data);
+            }
+
+            carryLength = length - end;
+            if(carry.length < carryLength)
+                carry = new byte[Math.max(carryLength, carry.length * 2)];
+            System.arraycopy(data, end, carry, 0, carryLength);
+
+            if(endOfFile) {
+                channel.close();
+                channel = null;
+            }
+            if(end == 0) {
+                recycle(data);
+                continue;
+            }
+
+            bytesRead += end;
+            Chunk chunk = new Chunk(data, end, nextLineNumber, startOfFile, bytesRead);
+            startOfFile = false;
+            for(int index = 0; index < end; index++) {
+                if(data[index] == '\n')
+                    nextLineNumber++;
+            }
+            return chunk;
+        }
+    }
+
+    /**
+     * Hands back the buffer of a chunk that is no longer needed, so it can be reused for a later chunk.
+     *
+     * @param data The buffer of the chunk.
+     */
+    void recycle(byte[] data) {
+        if(data.length == chunkSize)
+            freeBuffers.add(data);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Returns a buffer of at least the requested size, reusing a recycled buffer if one is free.
+     *
+     * @param size The minimum size.
+     * @return The buffer.
+     */
+    private byte[] takeBuffer(int size) {
+        if(size == chunkSize) {
+            byte[] free = freeBuffers.poll();
+            if(free != null)
+                return free;
+        }
+        return new byte[size];
+    }
+
+    /**
+     * Returns the position after the last line break in the buffer that is not inside a quoted field. Quotes are
+     * tracked the same way CsvRowParser splits fields: a quote only opens a quoted field at the start of a field, so a
+     * quote in the middle of an unquoted field (such as an inch mark) does not hide the line breaks after it.
+     *
+     * @param data The buffer, starting at the start of a row.
+     * @param length The number of bytes in the buffer.
+     * @return The position after the last row that ends in the buffer, or 0 if no row ends in it.
+     */
+    private static int lastRowEnd(byte[] data, int length) {
+        boolean quoted = false;
+        boolean fieldStart = true;
+        int end = 0;
+        for(int index = 0; index < length; index++) {
+            byte b = data[index];
+            if(quoted) {
+                // A quote written twice stays inside the field
+                if(b == '"') {
+                    if(index + 1 < length && data[index + 1] == '"')
+                        index++;
+                    else
+                        quoted = false;
+                }
+            } else if(b == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else if(b == ',') {
+                fieldStart = true;
+            } else if(b == '\n') {
+                end = index + 1;
+                fieldStart = true;
+            } else {
+                fieldStart = false;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * The Chunk class holds a whole number of rows from one file.
+     */
+    static class Chunk {
+        // The buffer holding the rows, and the number of bytes of rows in it
+        final byte[] data;
+        final int length;
+
+        // The line of the file the first row starts on, and true if the chunk is the first of its file
+        final long firstLineNumber;
+        final boolean startOfFile;
+
+        // The bytes of all files read up to the end of this chunk
+        final long endOffset;
+
+        Chunk(byte[] data, int length, long firstLineNumber, boolean startOfFile, long endOffset) {
+            this.data = data;
+            this.length = length;
+            this.firstLineNumber = firstLineNumber;
+            this.startOfFile = startOfFile;
+            this.endOffset = endOffset;
+        }
+    }
+}
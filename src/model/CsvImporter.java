@@ -0,0 +1,460 @@
+package model;
+
+// Java imports
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * <p>The CsvImporter class streams Parts, Products, and associations between Products and Parts from one or more CSV
+ * files into the Inventory. Each import runs as a pipeline of four stages:</p>
+ * <ol>
+ *     <li><b>Read:</b> a CsvChunkReader reads the files, in order, as chunks of whole rows.</li>
+ *     <li><b>Parse and validate:</b> a CsvRowParser splits each chunk into rows and checks every row against the same
+ *     rules the Part and Product screens apply (see ItemValidation). With a parallelism above one, chunks are parsed
+ *     on a ForkJoinPool while later chunks are read and earlier chunks are committed.</li>
+ *     <li><b>Resolve:</b> the parsed rows are taken in file order. Parts and Products with a blank ID are given the
+ *     next generated ID, supplied IDs are checked against inventory, and associations are resolved to their Product
+ *     and Part.</li>
+ *     <li><b>Commit:</b> the resolved rows are committed to inventory in batches (see Inventory.applyBatch), so a
+ *     bound TableView refreshes once per batch. Parts are stored as rows of the Inventory's columnar part store (see
+ *     Inventory.addPartRows) rather than as the Part objects parsed from the files.</li>
+ * </ol>
+ *
+ * <p>Only parsing runs in parallel. IDs are generated and rows are committed by the thread calling importAll, in the
+ * order the rows appear in the files, so an import gives every row the same ID however many threads parse it (as long
+ * as no other thread generates IDs during the import). The number of chunks being parsed at once is limited to twice
+ * the parallelism, so the memory used by the importer stays the same however large the files are.</p>
+ *
+ * <p>A row that breaks a rule is reported to the ImportListener and skipped, and the import carries on with the next
+ * row. The Inventory can be changed from any thread, so an import should be run on a background thread rather than the
+ * JavaFX Application Thread.</p>
+ *
+ * <p>Each row starts with its type (matched ignoring case), and an optional header row starting with "type" is
+ * skipped at the start of each file. Fields may be quoted, with a quote inside a quoted field written twice. The rows
+ * are:</p>
+ * <ul>
+ *     <li><b>InHouse:</b> InHouse, ID, name, price, stock, min, max, machine ID</li>
+ *     <li><b>Outsourced:</b> Outsourced, ID, name, price, stock, min, max, company name</li>
+ *     <li><b>Product:</b> Product, ID, name, price, stock, min, max</li>
+ *     <li><b>Association:</b> Association, Product ID, Part ID, and optionally the quantity of the Part the Product
+ *     needs (1 if left out). Associating a Part with a Product again adds to its quantity.</li>
+ * </ul>
+ *
+ * <p>A Part or Product with a blank ID is given a generated ID. An ID supplied in a file must not already be in use,
+ * and later generated IDs are kept above it, so association rows can refer to Parts and Products earlier in the same
+ * file or an earlier file, as well as to those already in inventory.</p>
+ */
+public class CsvImporter {
+    // Number of rows committed to inventory in each batch unless setBatchSize is called
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    // Size of the chunks the files are read in
+    private static final int CHUNK_SIZE = 1 << 18;
+
+    private final List<Path> paths;
+    private final ImportListener listener;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    // The rows waiting to be committed in the next batch. Associations are kept as the Product and the ID and quantity
+    // of the Part, since a Part in the batch is only stored in inventory (as a row, see Inventory.addPartRows) when the
+    // batch is committed.
+    private final List<Part> pendingParts = new ArrayList<>();
+    private final List<Product> pendingProducts = new ArrayList<>();
+    private final List<Product> pendingAssociationProducts = new ArrayList<>();
+    private int[] pendingAssociationPartIds = new int[16];
+    private int[] pendingAssociationQuantities = new int[16];
+    private final IntHashMap<Part> pendingPartsById = new IntHashMap<>();
+    private final IntHashMap<Product> pendingProductsById = new IntHashMap<>();
+    private int pendingAssociations;
+
+    // Counts of rows imported and rejected, and the bytes of the files committed so far
+    private long partsImported;
+    private long productsImported;
+    private long associationsImported;
+    private long rowsRejected;
+    private long bytesCommitted;
+    private long totalBytes;
+
+    /**
+     * The CsvImporter class constructor for a single file.
+     *
+     * @param path The CSV file to import.
+     * @param listener The listener notified of progress and rejected rows, or null if none.
+     */
+    public CsvImporter(Path path, ImportListener listener) {
+        this(List.of(path), listener);
+    }
+
+    /**
+     * The CsvImporter class constructor for several files, imported in order as if they were one file.
+     *
+     * @param paths The CSV files to import.
+     * @param listener The listener notified of progress and rejected rows, or null if none.
+     */
+    public CsvImporter(List<Path> paths, ImportListener listener) {
+        this.paths = List.copyOf(paths);
+        this.listener = listener != null ? listener : new ImportListener() {};
+    }
+
+    /**
+     * Sets the number of rows committed to inventory in each batch. Larger batches mean fewer TableView refreshes
+     * while the import runs; smaller batches make progress visible sooner.
+     *
+     * @param batchSize The number of rows in each batch.
+     * @return This importer.
+     */
+    public CsvImporter setBatchSize(int batchSize) {
+        if(batchSize < 1)
+            throw new IllegalArgumentException("Batch size must be at least 1: " + batchSize);
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of threads that parse and validate rows. With a parallelism of one, every stage runs on the
+     * thread calling importAll. The default is the number of available processors.
+     *
+     * @param parallelism The number of parsing threads.
+     * @return This importer.
+     */
+    public CsvImporter setParallelism(int parallelism) {
+        if(parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Imports every row of the files into inventory. Rows committed before an exception is thrown remain in
+     * inventory. If the thread running the import is interrupted, the import stops after committing the current
+     * batch.
+     *
+     * @return The number of Parts, Products, and associations imported and rows rejected.
+     * @throws InterruptedIOException If the thread was interrupted before the import finished.
+     * @throws IOException If a file could not be read, or holds a row longer than the importer can buffer.
+     */
+    public Result importAll() throws IOException {
+        try(CsvChunkReader reader = new CsvChunkReader(paths, CHUNK_SIZE)) {
+            totalBytes = reader.getTotalBytes();
+
+            if(parallelism == 1)
+                importSequentially(reader);
+            else
+                importInParallel(reader);
+
+            commitBatch();
+            listener.progress(totalBytes, totalBytes, rowsImported());
+        } finally {
+            clearPending();
+        }
+
+        return new Result(partsImported, productsImported, associationsImported, rowsRejected);
+    }
+
+    /**
+     * Reads, parses, and commits each chunk in turn on the calling thread.
+     *
+     * @param reader The reader to take chunks from.
+     * @throws IOException If a file could not be read or the thread was interrupted.
+     */
+    private void importSequentially(CsvChunkReader reader) throws IOException {
+        CsvRowParser parser = new CsvRowParser();
+        CsvChunkReader.Chunk chunk;
+        while((chunk = reader.next()) != null) {
+            CsvRowParser.Rows rows = parser.parse(chunk);
+            reader.recycle(chunk.data);
+            applyRows(rows, chunk.endOffset);
+        }
+    }
+
+    /**
+     * Parses chunks on a ForkJoinPool while the calling thread reads the next chunks and commits the parsed chunks in
+     * the order they were read.
+     *
+     * @param reader The reader to take chunks from.
+     * @throws IOException If a file could not be read or the thread was interrupted.
+     */
+    private void importInParallel(CsvChunkReader reader) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        // Each parsing thread keeps its own parser, since a parser reuses its field positions between rows
+        ThreadLocal<CsvRowParser> parsers = ThreadLocal.withInitial(CsvRowParser::new);
+        Queue<ForkJoinTask<CsvRowParser.Rows>> parsing = new ArrayDeque<>();
+        Queue<CsvChunkReader.Chunk> chunks = new ArrayDeque<>();
+
+        try {
+            CsvChunkReader.Chunk chunk;
+            while((chunk = reader.next()) != null) {
+                CsvChunkReader.Chunk parsedChunk = chunk;
+                parsing.add(pool.submit(() -> parsers.get().parse(parsedChunk)));
+                chunks.add(chunk);
+
+                if(parsing.size() >= parallelism * 2)
+                    applyParsedChunk(reader, parsing, chunks);
+            }
+
+            while(!parsing.isEmpty())
+                applyParsedChunk(reader, parsing, chunks);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for the oldest chunk being parsed and applies its rows.
+     *
+     * @param reader The reader the chunk was taken from.
+     * @param parsing The chunks being parsed, oldest first.
+     * @param chunks The chunks matching each task in parsing.
+     * @throws InterruptedIOException If the thread was interrupted.
+     */
+    private void applyParsedChunk(CsvChunkReader reader, Queue<ForkJoinTask<CsvRowParser.Rows>> parsing,
+                                  Queue<CsvChunkReader.Chunk> chunks) throws InterruptedIOException {
+        CsvRowParser.Rows rows = parsing.remove().join();
+        CsvChunkReader.Chunk chunk = chunks.remove();
+        reader.recycle(chunk.data);
+        applyRows(rows, chunk.endOffset);
+    }
+
+    /**
+     * Resolves the parsed rows of a chunk in order and adds them to the pending batch, committing the batch whenever
+     * it is full.
+     *
+     * @param rows The parsed rows.
+     * @param endOffset The bytes of the files read up to the end of the chunk.
+     * @throws InterruptedIOException If the thread was interrupted.
+     */
+    private void applyRows(CsvRowParser.Rows rows, long endOffset) throws InterruptedIOException {
+        for(int row = 0; row < rows.size(); row++) {
+            try {
+                switch(rows.kind(row)) {
+                    case CsvRowParser.Rows.PART:
+                        resolvePart(rows.part(row));
+                        break;
+                    case CsvRowParser.Rows.PRODUCT:
+                        resolveProduct(rows.product(row));
+                        break;
+                    case CsvRowParser.Rows.ASSOCIATION:
+                        resolveAssociation(rows.productId(row), rows.partId(row), rows.quantity(row));
+                        break;
+                    default:
+                        throw new CsvRowParser.RejectedRowException(rows.rejection(row));
+                }
+            } catch (CsvRowParser.RejectedRowException e) {
+                rowsRejected++;
+                listener.rowRejected(rows.lineNumber(row), e.getMessage());
+                continue;
+            }
+
+            if(pendingRows() == batchSize) {
+                commitBatch();
+                listener.progress(bytesCommitted, totalBytes, rowsImported());
+
+                if(Thread.currentThread().isInterrupted())
+                    throw new InterruptedIOException("Import interrupted at line " + rows.lineNumber(row) + ".");
+            }
+        }
+
+        bytesCommitted = endOffset;
+    }
+
+    /**
+     * Gives a parsed Part its ID and adds it to the pending batch. Only rows that passed validation get a generated
+     * ID, so rejected rows do not use up IDs.
+     *
+     * @param part The parsed Part, with an ID of 0 if the row left it blank.
+     * @throws CsvRowParser.RejectedRowException If the supplied ID is already in use.
+     */
+    private void resolvePart(Part part) throws CsvRowParser.RejectedRowException {
+        int id = part.getId();
+        if(id == 0) {
+            id = Inventory.generatePartID();
+            part.setId(id);
+        } else {
+            if(pendingPartsById.containsKey(id) || Inventory.lookupPart(id) != null)
+                throw new CsvRowParser.RejectedRowException("ID: Part ID " + id + " is already in use.");
+            Inventory.reserveIDs(id, 0);
+        }
+
+        pendingParts.add(part);
+        pendingPartsById.put(id, part);
+    }
+
+    /**
+     * Gives a parsed Product its ID and adds it to the pending batch.
+     *
+     * @param product The parsed Product, with an ID of 0 if the row left it blank.
+     * @throws CsvRowParser.RejectedRowException If the supplied ID is already in use.
+     */
+    private void resolveProduct(Product product) throws CsvRowParser.RejectedRowException {
+        int id = product.getId();
+        if(id == 0) {
+            id = Inventory.generateProductID();
+            product.setId(id);
+        } else {
+            if(pendingProductsById.containsKey(id) || Inventory.lookupProduct(id) != null)
+                throw new CsvRowParser.RejectedRowException("ID: Product ID " + id + " is already in use.");
+            Inventory.reserveIDs(0, id);
+        }
+
+        pendingProducts.add(product);
+        pendingProductsById.put(id, product);
+    }
+
+    /**
+     * Resolves an association to its Product and Part and adds it to the pending batch. The Product and Part may be
+     * in inventory or earlier in the files.
+     *
+     * @param productId The ID of the Product.
+     * @param partId The ID of the Part to associate with the Product.
+     * @param quantity The quantity of the Part the Product needs.
+     * @throws CsvRowParser.RejectedRowException If there is no Product or Part with the ID.
+     */
+    private void resolveAssociation(int productId, int partId, int quantity) throws CsvRowParser.RejectedRowException {
+        Product product = pendingProductsById.get(productId);
+        if(product == null)
+            product = Inventory.lookupProduct(productId);
+        if(product == null)
+            throw new CsvRowParser.RejectedRowException("Product ID: No Product has ID " + productId + ".");
+        if(!pendingPartsById.containsKey(partId) && Inventory.lookupPart(partId) == null)
+            throw new CsvRowParser.RejectedRowException("Part ID: No Part has ID " + partId + ".");
+
+        pendingAssociationProducts.add(product);
+        if(pendingAssociations == pendingAssociationPartIds.length) {
+            pendingAssociationPartIds = Arrays.copyOf(pendingAssociationPartIds, pendingAssociations * 2);
+            pendingAssociationQuantities = Arrays.copyOf(pendingAssociationQuantities, pendingAssociations * 2);
+        }
+        pendingAssociationPartIds[pendingAssociations] = partId;
+        pendingAssociationQuantities[pendingAssociations++] = quantity;
+    }
+
+    /**
+     * Commits the pending batch to inventory. Parts are added first, so that every association refers to a Part in
+     * inventory. Associations with a Product in the batch are made before the Product is added, so it is added
+     * together with its Parts; associations with a Product already in inventory are made last.
+     */
+    private void commitBatch() {
+        if(pendingRows() == 0)
+            return;
+
+        Inventory.applyBatch(() -> {
+            Inventory.addPartRows(pendingParts);
+            for(int i = 0; i < pendingAssociations; i++) {
+                Product product = pendingAssociationProducts.get(i);
+                if(pendingProductsById.get(product.getId()) == product)
+                    associate(product, pendingAssociationPartIds[i], pendingAssociationQuantities[i]);
+            }
+            Inventory.addProducts(pendingProducts);
+            for(int i = 0; i < pendingAssociations; i++) {
+                Product product = pendingAssociationProducts.get(i);
+                if(pendingProductsById.get(product.getId()) != product)
+                    associate(product, pendingAssociationPartIds[i], pendingAssociationQuantities[i]);
+            }
+        });
+
+        partsImported += pendingParts.size();
+        productsImported += pendingProducts.size();
+        clearPending();
+    }
+
+    /**
+     * Associates a Part in inventory with a Product and counts the association, unless another thread has deleted
+     * the Part since the association was resolved.
+     *
+     * @param product The Product.
+     * @param partId The ID of the Part.
+     * @param quantity The quantity of the Part the Product needs.
+     */
+    private void associate(Product product, int partId, int quantity) {
+        Part part = Inventory.lookupPart(partId);
+        if(part != null) {
+            product.addAssociatedPart(part, quantity);
+            associationsImported++;
+        }
+    }
+
+    /**
+     * Returns the number of rows in the pending batch.
+     *
+     * @return The number of pending rows.
+     */
+    private int pendingRows() {
+        return pendingParts.size() + pendingProducts.size() + pendingAssociations;
+    }
+
+    /**
+     * Returns the number of rows committed to inventory so far.
+     *
+     * @return The number of rows imported.
+     */
+    private long rowsImported() {
+        return partsImported + productsImported + associationsImported;
+    }
+
+    /**
+     * Empties the pending batch, keeping the capacity of the lists and maps for the next batch.
+     */
+    private void clearPending() {
+        pendingParts.clear();
+        pendingProducts.clear();
+        pendingAssociationProducts.clear();
+        pendingPartsById.clear();
+        pendingProductsById.clear();
+        pendingAssociations = 0;
+    }
+
+    /**
+     * The Result class holds the number of Parts, Products, and associations imported, and the number of rows that
+     * were rejected.
+     */
+    public static class Result {
+        private final long partsImported;
+        private final long productsImported;
+        private final long associationsImported;
+        private final long rowsRejected;
+
+        private Result(long partsImported, long productsImported, long associationsImported, long rowsRejected) {
+            this.partsImported = partsImported;
+            this.productsImported = productsImported;
+            this.associationsImported = associationsImported;
+            this.rowsRejected = rowsRejected;
+        }
+
+        /**
+         * @return The number of Parts added to inventory.
+         */
+        public long getPartsImported() {
+            return partsImported;
+        }
+
+        /**
+         * @return The number of Products added to inventory.
+         */
+        public long getProductsImported() {
+            return productsImported;
+        }
+
+        /**
+         * @return The number of associations made between Products and Parts.
+         */
+        public long getAssociationsImported() {
+            return associationsImported;
+        }
+
+        /**
+         * @return The number of rows skipped because they broke a rule.
+         */
+        public long getRowsRejected() {
+            return rowsRejected;
+        }
+    }
+}
@@ -0,0 +1,563 @@
+package model;
+
+// Java imports
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * <p>The CsvRowParser class splits a chunk of CSV rows read by a CsvChunkReader into fields and turns each row into a
+ * Part, a Product, or an association, checking it against the rules in ItemValidation. Each row is split in place in
+ * the chunk buffer, so numbers are parsed straight from the bytes of the file and only names are copied into
+ * Strings.</p>
+ *
+ * <p>A chunk is parsed without looking at inventory or at any other chunk, so chunks can be parsed on several threads
+ * at once. The checks that do depend on inventory (whether an ID is in use, and which Product and Part an association
+ * refers to) are left to the CsvImporter, which applies the parsed rows to inventory in file order.</p>
+ *
+ * <p>See CsvImporter for the rows the parser accepts.</p>
+ */
+class CsvRowParser {
+    // The most fields any row type has
+    private static final int MAX_FIELDS = 8;
+
+    // Row types, in lower case
+    private static final byte[] IN_HOUSE = ascii("inhouse");
+    private static final byte[] OUTSOURCED = ascii("outsourced");
+    private static final byte[] PRODUCT = ascii("product");
+    private static final byte[] ASSOCIATION = ascii("association");
+    private static final byte[] HEADER = ascii("type");
+
+    // Powers of ten that are exactly representable as doubles, used to parse short decimals without rounding error
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // The chunk being parsed
+    private byte[] buffer;
+    private int limit;
+
+    // The fields of the current row, as positions in the buffer
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    private final boolean[] fieldQuoted = new boolean[MAX_FIELDS];
+    private int fieldCount;
+    private boolean unterminatedQuote;
+
+    // Reused when unescaping a quoted field
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Parses every row of a chunk.
+     *
+     * @param chunk The chunk to parse.
+     * @return The parsed rows, in the order they appear in the chunk.
+     */
+    Rows parse(CsvChunkReader.Chunk chunk) {
+        buffer = chunk.data;
+        limit = chunk.length;
+        Rows rows = new Rows(Math.max(16, chunk.length / 48));
+
+        try {
+            int rowStart = 0;
+            long lineNumber = chunk.firstLineNumber;
+            while(rowStart < limit) {
+                int rowEnd = scanRow(rowStart);
+                try {
+                    parseRow(rows, lineNumber, chunk.startOfFile && rowStart == 0);
+                } catch (RejectedRowException e) {
+                    rows.add(Rows.REJECTED, lineNumber, e.getMessage(), 0, 0, 0);
+                }
+
+                for(int index = rowStart; index < rowEnd; index++) {
+                    if(buffer[index] == '\n')
+                        lineNumber++;
+                }
+                rowStart = rowEnd;
+            }
+        } finally {
+            buffer = null;
+        }
+
+        return rows;
+    }
+
+    /**
+     * Checks the current row and adds it to the parsed rows.
+     *
+     * @param rows The parsed rows of the chunk.
+     * @param lineNumber The line the row starts on.
+     * @param firstRow True if the row is the first of its file, and so may be a header row.
+     * @throws RejectedRowException If the row breaks a rule.
+     */
+    private void parseRow(Rows rows, long lineNumber, boolean firstRow) throws RejectedRowException {
+        if(unterminatedQuote)
+            throw new RejectedRowException("A quoted field is not closed before the end of the file.");
+        if(fieldCount == 1 && isBlank(0))
+            return;
+
+        if(fieldEquals(0, IN_HOUSE) || fieldEquals(0, OUTSOURCED)) {
+            rows.add(Rows.PART, lineNumber, parsePart(fieldEquals(0, IN_HOUSE)), 0, 0, 0);
+        } else if(fieldEquals(0, PRODUCT)) {
+            rows.add(Rows.PRODUCT, lineNumber, parseProduct(), 0, 0, 0);
+        } else if(fieldEquals(0, ASSOCIATION)) {
+            // The quantity is optional and defaults to one of the Part
+            if(fieldCount != 4)
+                checkFieldCount(3);
+            rows.add(Rows.ASSOCIATION, lineNumber, null, idField(1, "Product ID"), idField(2, "Part ID"),
+                     fieldCount == 4 ? idField(3, "Quantity") : 1);
+        } else if(!firstRow || !fieldEquals(0, HEADER)) {
+            throw new RejectedRowException("Unknown row type: " + text(0));
+        }
+    }
+
+    /**
+     * Checks the current row as an InHouse or Outsourced Part.
+     *
+     * @param inHouse True for an InHouse Part, false for an Outsourced Part.
+     * @return The Part, with an ID of 0 if the row leaves the ID blank.
+     * @throws RejectedRowException If the row breaks a rule.
+     */
+    private Part parsePart(boolean inHouse) throws RejectedRowException {
+        checkFieldCount(8);
+
+        String name = text(2);
+        double price = decimalField(3, "Price");
+        int stock = intField(4, "Inv");
+        int min = intField(5, "Min");
+        int max = intField(6, "Max");
+        check(ItemValidation.checkItem(name, price, stock, min, max));
+
+        int id = isBlank(1) ? 0 : idField(1, "ID");
+        if(inHouse) {
+            int machineId = intField(7, "Machine ID");
+            check(ItemValidation.checkMachineId(machineId));
+            return new InHouse(id, name, price, stock, min, max, machineId);
+        }
+
+        String companyName = text(7);
+        check(ItemValidation.checkCompanyName(companyName));
+        return new Outsourced(id, name, price, stock, min, max, companyName);
+    }
+
+    /**
+     * Checks the current row as a Product.
+     *
+     * @return The Product, with an ID of 0 if the row leaves the ID blank.
+     * @throws RejectedRowException If the row breaks a rule.
+     */
+    private Product parseProduct() throws RejectedRowException {
+        checkFieldCount(7);
+
+        String name = text(2);
+        double price = decimalField(3, "Price");
+        int stock = intField(4, "Inv");
+        int min = intField(5, "Min");
+        int max = intField(6, "Max");
+        check(ItemValidation.checkItem(name, price, stock, min, max));
+
+        return new Product(isBlank(1) ? 0 : idField(1, "ID"), name, price, stock, min, max);
+    }
+
+    /**
+     * Finds the fields of the row starting at the supplied position. The chunk always ends at the end of a row.
+     *
+     * @param index The position the row starts at.
+     * @return The position after the end of the row.
+     */
+    private int scanRow(int index) {
+        int field = 0;
+        unterminatedQuote = false;
+
+        while(true) {
+            int start;
+            int end;
+            boolean quoted = index < limit && buffer[index] == '"';
+
+            if(quoted) {
+                // Find the closing quote, skipping quotes written twice
+                start = ++index;
+                while(true) {
+                    if(index >= limit) {
+                        unterminatedQuote = true;
+                        break;
+                    }
+                    if(buffer[index] == '"') {
+                        if(index + 1 < limit && buffer[index + 1] == '"') {
+                            index += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    index++;
+                }
+                end = index;
+
+                // Ignore anything between the closing quote and the next separator
+                while(index < limit && buffer[index] != ',' && buffer[index] != '\n')
+                    index++;
+            } else {
+                start = index;
+                while(index < limit && buffer[index] != ',' && buffer[index] != '\n')
+                    index++;
+                end = index;
+            }
+
+            // A row ending in CR LF leaves the CR at the end of the last unquoted field
+            boolean lastField = index >= limit || buffer[index] == '\n';
+            if(lastField && !quoted && end > start && buffer[end - 1] == '\r')
+                end--;
+
+            if(field < MAX_FIELDS) {
+                fieldStart[field] = start;
+                fieldEnd[field] = end;
+                fieldQuoted[field] = quoted;
+            }
+            field++;
+
+            if(lastField) {
+                fieldCount = field;
+                return index < limit ? index + 1 : limit;
+            }
+            index++;
+        }
+    }
+
+    /**
+     * Checks the current row has the expected number of fields.
+     *
+     * @param expected The number of fields the row type has.
+     * @throws RejectedRowException If the row has a different number of fields.
+     */
+    private void checkFieldCount(int expected) throws RejectedRowException {
+        if(fieldCount != expected)
+            throw new RejectedRowException("Expected " + expected + " fields but found " + fieldCount + ".");
+    }
+
+    /**
+     * Rejects the current row if a validation rule returned a message.
+     *
+     * @param message The message returned by an ItemValidation rule, or null if the rule passed.
+     * @throws RejectedRowException If the message is not null.
+     */
+    private static void check(String message) throws RejectedRowException {
+        if(message != null)
+            throw new RejectedRowException(message);
+    }
+
+    /**
+     * Returns true if the field is empty or only holds spaces and tabs.
+     *
+     * @param field The field index.
+     * @return True if the field is blank.
+     */
+    private boolean isBlank(int field) {
+        for(int index = fieldStart[field]; index < fieldEnd[field]; index++) {
+            if(buffer[index] != ' ' && buffer[index] != '\t')
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Compares a field to a row type without copying the field.
+     *
+     * @param field The field index.
+     * @param lowerCase The row type in lower case ASCII.
+     * @return True if the field matches the row type, ignoring case and surrounding spaces.
+     */
+    private boolean fieldEquals(int field, byte[] lowerCase) {
+        int start = skipSpaces(fieldStart[field], fieldEnd[field]);
+        int end = trimSpaces(start, fieldEnd[field]);
+        if(end - start != lowerCase.length)
+            return false;
+
+        for(int i = 0; i < lowerCase.length; i++) {
+            byte b = buffer[start + i];
+            if(b >= 'A' && b <= 'Z')
+                b += 'a' - 'A';
+            if(b != lowerCase[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Decodes a field as a String, removing the doubled quotes from a quoted field.
+     *
+     * @param field The field index.
+     * @return The field text.
+     */
+    private String text(int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        if(!fieldQuoted[field])
+            return new String(buffer, start, end - start, StandardCharsets.UTF_8);
+
+        if(scratch.length < end - start)
+            scratch = new byte[Math.max(end - start, scratch.length * 2)];
+        int length = 0;
+        for(int index = start; index < end; index++) {
+            scratch[length++] = buffer[index];
+            if(buffer[index] == '"')
+                index++;
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a positive ID from a field.
+     *
+     * @param field The field index.
+     * @param name The field name used in the rejection message.
+     * @return The ID.
+     * @throws RejectedRowException If the field is not a whole number greater than zero.
+     */
+    private int idField(int field, String name) throws RejectedRowException {
+        int id = intField(field, name);
+        if(id < 1)
+            throw new RejectedRowException(name + ": " + ItemValidation.NOT_A_POSITIVE_INT);
+        return id;
+    }
+
+    /**
+     * Parses a whole number from a field without copying it, accepting the same text as Integer.parseInt apart from
+     * surrounding spaces, which are ignored.
+     *
+     * @param field The field index.
+     * @param name The field name used in the rejection message.
+     * @return The number.
+     * @throws RejectedRowException If the field is blank or not a whole number.
+     */
+    private int intField(int field, String name) throws RejectedRowException {
+        int index = skipSpaces(fieldStart[field], fieldEnd[field]);
+        int end = trimSpaces(index, fieldEnd[field]);
+        if(index == end)
+            throw new RejectedRowException(name + ": " + ItemValidation.EMPTY);
+
+        boolean negative = buffer[index] == '-';
+        if(negative || buffer[index] == '+')
+            index++;
+        if(index == end)
+            throw new RejectedRowException(name + ": " + ItemValidation.NOT_A_POSITIVE_INT);
+
+        // Accumulate as a negative number so Integer.MIN_VALUE can be parsed
+        long value = 0;
+        for(; index < end; index++) {
+            int digit = buffer[index] - '0';
+            if(digit < 0 || digit > 9)
+                throw new RejectedRowException(name + ": " + ItemValidation.NOT_A_POSITIVE_INT);
+            value = value * 10 - digit;
+            if(value < Integer.MIN_VALUE)
+                throw new RejectedRowException(name + ": " + ItemValidation.NOT_A_POSITIVE_INT);
+        }
+
+        if(!negative && value == Integer.MIN_VALUE)
+            throw new RejectedRowException(name + ": " + ItemValidation.NOT_A_POSITIVE_INT);
+        return (int) (negative ? value : -value);
+    }
+
+    /**
+     * Parses a decimal number such as 12.50 or 1.5e3 from a field. Numbers with at most 15 significant digits and a
+     * small exponent are converted exactly from the bytes of the field; anything longer is passed to
+     * Double.parseDouble.
+     *
+     * @param field The field index.
+     * @param name The field name used in the rejection message.
+     * @return The number.
+     * @throws RejectedRowException If the field is blank or not a finite decimal number.
+     */
+    private double decimalField(int field, String name) throws RejectedRowException {
+        int start = skipSpaces(fieldStart[field], fieldEnd[field]);
+        int end = trimSpaces(start, fieldEnd[field]);
+        if(start == end)
+            throw new RejectedRowException(name + ": " + ItemValidation.EMPTY);
+
+        int index = start;
+        boolean negative = buffer[index] == '-';
+        if(negative || buffer[index] == '+')
+            index++;
+
+        // Read the digits into a mantissa, counting the digits after the decimal point as a negative exponent
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean point = false;
+        for(; index < end; index++) {
+            byte b = buffer[index];
+            if(b == '.' && !point) {
+                point = true;
+                continue;
+            }
+            if(b < '0' || b > '9')
+                break;
+
+            digits++;
+            if(mantissa != 0 || b != '0')
+                significantDigits++;
+            if(significantDigits <= 18)
+                mantissa = mantissa * 10 + (b - '0');
+            else if(!point)
+                exponent++;
+            if(point && significantDigits <= 18)
+                exponent--;
+        }
+        if(digits == 0)
+            throw new RejectedRowException(name + ": " + ItemValidation.NOT_A_POSITIVE_NUMBER);
+
+        // Optional exponent
+        if(index < end && (buffer[index] == 'e' || buffer[index] == 'E')) {
+            index++;
+            boolean negativeExponent = index < end && buffer[index] == '-';
+            if(index < end && (buffer[index] == '-' || buffer[index] == '+'))
+                index++;
+            if(index == end)
+                throw new RejectedRowException(name + ": " + ItemValidation.NOT_A_POSITIVE_NUMBER);
+
+            int exponentValue = 0;
+            for(; index < end; index++) {
+                int digit = buffer[index] - '0';
+                if(digit < 0 || digit > 9)
+                    throw new RejectedRowException(name + ": " + ItemValidation.NOT_A_POSITIVE_NUMBER);
+                exponentValue = Math.min(exponentValue * 10 + digit, 100000);
+            }
+            exponent += negativeExponent ? -exponentValue : exponentValue;
+        }
+        if(index != end)
+            throw new RejectedRowException(name + ": " + ItemValidation.NOT_A_POSITIVE_NUMBER);
+
+        double value;
+        if(significantDigits <= 15 && exponent >= -22 && exponent <= 22) {
+            // Both the mantissa and the power of ten are exact doubles, so one multiplication or division gives the
+            // correctly rounded result
+            value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        } else {
+            value = Double.parseDouble(new String(buffer, start, end - start, StandardCharsets.US_ASCII));
+        }
+
+        if(Double.isInfinite(value))
+            throw new RejectedRowException(name + ": " + ItemValidation.NOT_A_POSITIVE_NUMBER);
+        return negative ? -value : value;
+    }
+
+    /**
+     * Returns the position of the first byte that is not a space or tab.
+     */
+    private int skipSpaces(int start, int end) {
+        while(start < end && (buffer[start] == ' ' || buffer[start] == '\t'))
+            start++;
+        return start;
+    }
+
+    /**
+     * Returns the position after the last byte that is not a space or tab.
+     */
+    private int trimSpaces(int start, int end) {
+        while(end > start && (buffer[end - 1] == ' ' || buffer[end - 1] == '\t'))
+            end--;
+        return end;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * The Rows class holds the parsed rows of a chunk in parallel arrays: the kind of each row, the line it starts on,
+     * its Part or Product (or the reason it was rejected), and the Product and Part IDs and Part quantity of an
+     * association.
+     */
+    static class Rows {
+        // Row kinds
+        static final byte PART = 0;
+        static final byte PRODUCT = 1;
+        static final byte ASSOCIATION = 2;
+        static final byte REJECTED = 3;
+
+        private int count;
+        private byte[] kinds;
+        private long[] lineNumbers;
+        private Object[] items;
+        private int[] productIds;
+        private int[] partIds;
+        private int[] quantities;
+
+        Rows(int capacity) {
+            kinds = new byte[capacity];
+            lineNumbers = new long[capacity];
+            items = new Object[capacity];
+            productIds = new int[capacity];
+            partIds = new int[capacity];
+            quantities = new int[capacity];
+        }
+
+        private void add(byte kind, long lineNumber, Object item, int productId, int partId, int quantity) {
+            if(count == kinds.length) {
+                int capacity = count * 2;
+                kinds = Arrays.copyOf(kinds, capacity);
+                lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+                items = Arrays.copyOf(items, capacity);
+                productIds = Arrays.copyOf(productIds, capacity);
+                partIds = Arrays.copyOf(partIds, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+            }
+
+            kinds[count] = kind;
+            lineNumbers[count] = lineNumber;
+            items[count] = item;
+            productIds[count] = productId;
+            partIds[count] = partId;
+            quantities[count] = quantity;
+            count++;
+        }
+
+        int size() {
+            return count;
+        }
+
+        byte kind(int row) {
+            return kinds[row];
+        }
+
+        long lineNumber(int row) {
+            return lineNumbers[row];
+        }
+
+        Part part(int row) {
+            return (Part) items[row];
+        }
+
+        Product product(int row) {
+            return (Product) items[row];
+        }
+
+        String rejection(int row) {
+            return (String) items[row];
+        }
+
+        int productId(int row) {
+            return productIds[row];
+        }
+
+        int partId(int row) {
+            return partIds[row];
+        }
+
+        int quantity(int row) {
+            return quantities[row];
+        }
+    }
+
+    /**
+     * Thrown when a row breaks a rule. The row is reported to the import listener and skipped. Rejections are
+     * expected in normal use, so no stack trace is captured.
+     */
+    static class RejectedRowException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        RejectedRowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
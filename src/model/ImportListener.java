@@ -0,0 +1,27 @@
+package model;
+
+/**
+ * <p>The ImportListener interface is implemented by classes that follow the progress of a CsvImporter, for example to
+ * update a progress bar or list the rows that could not be imported. Its methods are called on the thread running the
+ * import, so a listener updating JavaFX controls must pass the update to the JavaFX Application Thread itself. Every
+ * method has an empty default implementation so a listener only needs to implement the methods it is interested
+ * in.</p>
+ */
+public interface ImportListener {
+    /**
+     * Called after each batch of rows has been committed to inventory, and once more when the import finishes.
+     *
+     * @param bytesRead The number of bytes of the file read so far.
+     * @param totalBytes The size of the file in bytes.
+     * @param rowsImported The number of rows committed to inventory so far.
+     */
+    default void progress(long bytesRead, long totalBytes, long rowsImported) {}
+
+    /**
+     * Called for each row that could not be imported. The row is skipped and the import carries on.
+     *
+     * @param lineNumber The line of the file the row starts on, counting from 1.
+     * @param message A description of the problem with the row.
+     */
+    default void rowRejected(long lineNumber, String message) {}
+}
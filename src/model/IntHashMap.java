@@ -0,0 +1,218 @@
+package model;
+
+/**
+ * <p>The IntHashMap class is a hash map keyed by primitive int values. It is used by the Inventory to index Part and
+ * Product objects by their unique IDs without boxing every key into an Integer object.</p>
+ *
+ * <p>Entries are stored in parallel key/value arrays using open addressing with linear probing. An empty slot is
+ * identified by a null value, therefore null values cannot be stored in the map.</p>
+ *
+ * @param <V> The type of value stored in the map.
+ */
+class IntHashMap<V> {
+    // Smallest table size the map will allocate (must be a power of two)
+    private static final int MIN_CAPACITY = 16;
+
+    // Parallel key/value arrays - a slot is empty when its value is null
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+
+    /**
+     * The IntHashMap class constructor. Creates an empty map with the default capacity.
+     */
+    IntHashMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     * @return The number of entries in the map.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value mapped to the supplied key, or null if the key is not in the map.
+     *
+     * @param key The key to look up.
+     * @return The value mapped to the key, or null if there is no mapping.
+     */
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        int slot = slotOf(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * Returns true if the map contains an entry for the supplied key.
+     *
+     * @param key The key to look up.
+     * @return True if the key is mapped to a value.
+     */
+    boolean containsKey(int key) {
+        return slotOf(key) >= 0;
+    }
+
+    /**
+     * Maps the supplied key to the supplied value, replacing any existing mapping.
+     *
+     * @param key The key to map.
+     * @param value The value to map to the key. Cannot be null.
+     * @return The value previously mapped to the key, or null if there was no mapping.
+     */
+    @SuppressWarnings("unchecked")
+    V put(int key, V value) {
+        if(value == null)
+            throw new NullPointerException("IntHashMap does not support null values.");
+
+        // Walk the probe sequence until the key or an empty slot is found
+        int slot = mix(key) & mask;
+        while(values[slot] != null) {
+            if(keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+
+        // Keep the load factor at or below one half so probe sequences stay short
+        if(++size > (mask + 1) >> 1)
+            allocate((mask + 1) << 1);
+
+        return null;
+    }
+
+    /**
+     * Removes the entry for the supplied key from the map.
+     *
+     * @param key The key to remove.
+     * @return The value that was mapped to the key, or null if there was no mapping.
+     */
+    @SuppressWarnings("unchecked")
+    V remove(int key) {
+        int slot = slotOf(key);
+        if(slot < 0)
+            return null;
+
+        V previous = (V) values[slot];
+        values[slot] = null;
+        size--;
+
+        // Shift any following entries of the probe run back into the freed slot so that lookups never stop early
+        // at a hole. An entry may only move back if its home slot does not lie cyclically between the hole and itself.
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while(values[next] != null) {
+            int home = mix(keys[next]) & mask;
+            if(((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                values[next] = null;
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        return previous;
+    }
+
+    /**
+     * Calls the supplied action for every entry in the map, in no particular order. The map must not be modified
+     * by the action.
+     *
+     * @param action The action to call with each key and value.
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(EntryConsumer<? super V> action) {
+        for(int slot = 0; slot < values.length; slot++)
+            if(values[slot] != null)
+                action.accept(keys[slot], (V) values[slot]);
+    }
+
+    /**
+     * Removes all entries from the map and shrinks it back to its default capacity.
+     */
+    void clear() {
+        keys = null;
+        values = null;
+        size = 0;
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Returns the slot holding the supplied key, or -1 if the key is not in the map.
+     *
+     * @param key The key to look up.
+     * @return The slot index holding the key, or -1 if not found.
+     */
+    private int slotOf(int key) {
+        int slot = mix(key) & mask;
+        while(values[slot] != null) {
+            if(keys[slot] == key)
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Allocates new key/value arrays of the supplied capacity and re-inserts any existing entries into them.
+     *
+     * @param capacity The new table capacity (must be a power of two).
+     */
+    private void allocate(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+
+        if(oldValues == null)
+            return;
+
+        // Re-insert the existing entries into their new home slots
+        for(int i = 0; i < oldValues.length; i++) {
+            if(oldValues[i] != null) {
+                int slot = mix(oldKeys[i]) & mask;
+                while(values[slot] != null)
+                    slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Scrambles the bits of a key so that every bit of the key affects the low bits used to pick a slot. Without this,
+     * sequential IDs and keys that differ only in their high bits would crowd into long probe runs.
+     *
+     * @param key The key to scramble.
+     * @return The scrambled hash of the key.
+     */
+    static int mix(int key) {
+        int h = key;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * An action called with the key and value of a map entry, without boxing the key.
+     *
+     * @param <V> The type of value stored in the map.
+     */
+    interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+}
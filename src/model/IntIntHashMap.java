@@ -0,0 +1,171 @@
+package model;
+
+// Java imports
+import java.util.Arrays;
+
+/**
+ * <p>The IntIntHashMap class is a hash map from primitive int keys to non-negative int values. It is used by the
+ * Inventory to hold the position of each Part and Product in the committed lists without boxing either the ID or the
+ * position.</p>
+ *
+ * <p>Entries are stored in parallel key/value arrays using open addressing with linear probing, as in IntHashMap. An
+ * empty slot is identified by a value of -1, therefore negative values cannot be stored in the map.</p>
+ */
+class IntIntHashMap {
+    // Smallest table size the map will allocate (must be a power of two)
+    private static final int MIN_CAPACITY = 16;
+
+    // Value of an empty slot, and the value returned for a key that is not in the map
+    static final int NO_VALUE = -1;
+
+    // Parallel key/value arrays - a slot is empty when its value is NO_VALUE
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    /**
+     * The IntIntHashMap class constructor. Creates an empty map with the default capacity.
+     */
+    IntIntHashMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     * @return The number of entries in the map.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value mapped to the supplied key, or NO_VALUE if the key is not in the map.
+     *
+     * @param key The key to look up.
+     * @return The value mapped to the key, or NO_VALUE if there is no mapping.
+     */
+    int get(int key) {
+        int slot = slotOf(key);
+        return slot < 0 ? NO_VALUE : values[slot];
+    }
+
+    /**
+     * Maps the supplied key to the supplied value, replacing any existing mapping.
+     *
+     * @param key The key to map.
+     * @param value The value to map to the key. Cannot be negative.
+     * @return The value previously mapped to the key, or NO_VALUE if there was no mapping.
+     */
+    int put(int key, int value) {
+        if(value < 0)
+            throw new IllegalArgumentException("IntIntHashMap does not support negative values.");
+
+        // Walk the probe sequence until the key or an empty slot is found
+        int slot = IntHashMap.mix(key) & mask;
+        while(values[slot] != NO_VALUE) {
+            if(keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+
+        // Keep the load factor at or below one half so probe sequences stay short
+        if(++size > (mask + 1) >> 1)
+            allocate((mask + 1) << 1);
+
+        return NO_VALUE;
+    }
+
+    /**
+     * Removes the entry for the supplied key from the map.
+     *
+     * @param key The key to remove.
+     * @return The value that was mapped to the key, or NO_VALUE if there was no mapping.
+     */
+    int remove(int key) {
+        int slot = slotOf(key);
+        if(slot < 0)
+            return NO_VALUE;
+
+        int previous = values[slot];
+        values[slot] = NO_VALUE;
+        size--;
+
+        // Shift any following entries of the probe run back into the freed slot, as IntHashMap.remove does
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while(values[next] != NO_VALUE) {
+            int home = IntHashMap.mix(keys[next]) & mask;
+            if(((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                values[next] = NO_VALUE;
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        return previous;
+    }
+
+    /**
+     * Removes all entries from the map and shrinks it back to its default capacity.
+     */
+    void clear() {
+        values = null;
+        size = 0;
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Returns the slot holding the supplied key, or -1 if the key is not in the map.
+     *
+     * @param key The key to look up.
+     * @return The slot index holding the key, or -1 if not found.
+     */
+    private int slotOf(int key) {
+        int slot = IntHashMap.mix(key) & mask;
+        while(values[slot] != NO_VALUE) {
+            if(keys[slot] == key)
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Allocates new key/value arrays of the supplied capacity and re-inserts any existing entries into them.
+     *
+     * @param capacity The new table capacity (must be a power of two).
+     */
+    private void allocate(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, NO_VALUE);
+        mask = capacity - 1;
+
+        if(oldValues == null)
+            return;
+
+        // Re-insert the existing entries into their new home slots
+        for(int i = 0; i < oldValues.length; i++) {
+            if(oldValues[i] != NO_VALUE) {
+                int slot = IntHashMap.mix(oldKeys[i]) & mask;
+                while(values[slot] != NO_VALUE)
+                    slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -5,29 +5,138 @@ import javafx.collections.ObservableList;
 import javafx.collections.FXCollections;
 
 // Java imports
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 /**
- * The Inventory class stores Part and Product objects for the application and provides methods for adding,
- * modifying, deleting, looking up, and tracking Part and Product objects.
+ * <p>The Inventory class stores Part and Product objects for the application and provides methods for adding,
+ * modifying, deleting, looking up, and tracking Part and Product objects.</p>
+ *
+ * <p>Every method may be called from any thread. Changes are committed one at a time while holding a single commit
+ * lock, so each change updates every index together and listeners are notified in commit order. Lookups by ID and
+ * name do not take the commit lock, so searches and importers reading the inventory are not held up by changes
+ * being committed. The ObservableLists returned by getAllParts and getAllProducts are bound to TableViews, so once
+ * bindListsToThread has been called they are only modified on the JavaFX Application Thread, which replays each
+ * committed change onto them in order.</p>
+ *
+ * <p>Readers that need the whole inventory to stay consistent while they read it, such as exporters and reports,
+ * read the immutable InventorySnapshot returned by getSnapshot instead of holding the commit lock. A new snapshot is
+ * published at the end of every operation and batch, sharing everything the operation did not change with the one
+ * before it.</p>
  *
  * @author Billy Daniel
  */
 public class Inventory {
-    // Part and Product object reference arrays
-    private static ObservableList<Part> allParts = FXCollections.observableArrayList();
-    private static ObservableList<Product> allProducts = FXCollections.observableArrayList();
+    // Part and Product object reference arrays shown by the application. The Parts may be backed by a part catalog
+    // (a memory-mapped catalog, or columns holding Parts added in bulk), in which case catalog Parts are only
+    // materialized when they are used. These lists are only
+    // modified through listBridge, so they can lag behind the committed lists below until the list thread catches up.
+    private static PartList allParts = new PartList();
+    private static ProductList allProducts = new ProductList();
+
+    // The committed Part and Product lists. Every change is made to these lists first (while holding commitLock) and
+    // then replayed onto allParts and allProducts in the same order, so both pairs hold the same objects in the same
+    // positions once every change has been replayed. Only accessed while holding commitLock.
+    private static PartList committedParts = new PartList();
+    private static ProductList committedProducts = new ProductList();
+
+    // Held while a change is committed. Reentrant because a batch commits its changes through the other methods.
+    private static final ReentrantLock commitLock = new ReentrantLock();
+
+    // Replays committed changes onto allParts and allProducts on the list thread. Changes replayed together are
+    // reported to each list's listeners as a single change.
+    private static final ListBridge listBridge = new ListBridge(Inventory::beginListBatch, Inventory::endListBatch);
+
+    // The list changes committed by the batch in progress (see applyBatch) and the batch nesting depth. The changes
+    // are passed to listBridge together when the outermost batch ends. Only used while holding commitLock.
+    private static List<Runnable> batchedListChanges;
+    private static int batchDepth = 0;
+
+    // Primary key indexes mapping each Part and Product ID to the object stored in inventory. These must be kept in
+    // sync with the lists on every add, update, and delete. Parts that are still in the part catalog are not held in
+    // partsById and are looked up in the catalog instead, unless they have been deleted, in which case partsById maps
+    // their ID to REMOVED_PART.
+    private static StripedIntMap<Part> partsById = new StripedIntMap<>();
+    private static StripedIntMap<Product> productsById = new StripedIntMap<>();
+    private static volatile PartCatalog partCatalog;
+    private static final Part REMOVED_PART = new InHouse(0, "", 0, 0, 0, 0, 0);
+
+    // Reverse association index mapping each Part ID to the set of Products in inventory that are associated with
+    // the Part. Maintained by Product.addAssociatedPart/deleteAssociatedPart and by adding, updating, and deleting
+    // Products so that association checks do not need to scan every Product. Each set is only read or modified while
+    // holding the stripe lock of its Part ID.
+    private static StripedIntMap<Set<Product>> productsByPartId = new StripedIntMap<>();
+
+    // Position index mapping each Part and Product ID to its position in the committed list, so that an update or
+    // delete finds its object without searching the list. Parts and Products are only ever added to the end of the
+    // lists, and a deletion moves the last object into the deleted object's position (see PartList.swapRemove), so a
+    // change moves at most one other object and every position held is exact. A catalog Part at the position of its
+    // catalog record is not indexed, since the record number is its position; every other Part is. Only used while
+    // holding commitLock.
+    private static final IntIntHashMap partPositions = new IntIntHashMap();
+    private static final IntIntHashMap productPositions = new IntIntHashMap();
+
+    // Trigram indexes over the Part and Product names used by InventorySearch for substring searches
+    private static TrigramIndex<Part> partNameIndex = new TrigramIndex<>(Part::getId, Part::getName,
+                                                                         Inventory::lookupPart);
+    private static TrigramIndex<Product> productNameIndex = new TrigramIndex<>(Product::getId, Product::getName,
+                                                                               Inventory::lookupProduct);
+
+    // Exact name indexes used by lookupPart(String), lookupProduct(String), lookupParts, and lookupProducts
+    private static NameIndex<Part> partNames = new NameIndex<>(Part::getId, Part::getName, Inventory::lookupPart);
+    private static NameIndex<Product> productNames = new NameIndex<>(Product::getId, Product::getName,
+                                                                     Inventory::lookupProduct);
+
+    // Part and Product indexes to assist with assigning unique IDs to all Part and Product objects in Inventory.
+    // Atomic so that threads generating IDs at the same time never receive the same ID.
+    private static final AtomicInteger partIndex = new AtomicInteger(1);
+    private static final AtomicInteger productIndex = new AtomicInteger(1);
 
-    // Part and Product indexes to assist with assigning unique IDs to all Part and Product objects in Inventory
-    private static int partIndex = 1;
-    private static int productIndex = 1;
+    // Incremented every time a Part or Product is added, updated, or deleted so that cached search results can tell
+    // whether inventory has changed since they were computed. Volatile so background searches see every change.
+    private static volatile long modificationCount = 0;
+
+    // Listeners notified of every committed change
+    private static List<InventoryListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Parts and Products below their minimum or above their maximum stock level, running totals of the value of the
+    // stock in inventory, the number of units of each Product that could be built, and the material cost of each
+    // Product, kept up to date by the updaters below
+    private static final ReorderAlerts reorderAlerts = new ReorderAlerts();
+    private static final InventoryValuation valuation = new InventoryValuation();
+    private static final Buildability buildability = new Buildability();
+    private static final CostRollup costRollup = new CostRollup();
+
+    // Follows the changes committed to the Part and Product indexes, and the immutable snapshot of inventory published
+    // from them at the end of each operation or batch, with the modification count it was published at. Readers take
+    // the snapshot without locking, so it is volatile.
+    private static final InventorySnapshot.Builder snapshotBuilder = new InventorySnapshot.Builder(REMOVED_PART);
+    private static volatile InventorySnapshot snapshot = snapshotBuilder.publish(null, 0, id -> null);
+    private static long snapshotModificationCount = 0;
+
+    // Views derived from inventory that are updated from the change notifications. They are notified before the
+    // registered listeners, so a listener reading them sees the change it is notified of.
+    private static final List<InventoryListener> updaters = List.of(reorderAlerts.getUpdater(),
+                                                                    valuation.getUpdater(),
+                                                                    buildability.getUpdater(),
+                                                                    costRollup.getUpdater());
 
     /**
      * Returns the next available Part object index and then increments the index by one.
      * @return The next available Part object index.
      */
     public static int generatePartID() {
-        return partIndex++;
+        return partIndex.getAndIncrement();
     }
 
     /**
@@ -35,7 +144,287 @@ public class Inventory {
      * @return The next available Product object index.
      */
     public static int generateProductID() {
-        return productIndex++;
+        return productIndex.getAndIncrement();
+    }
+
+    /**
+     * Returns the next Part ID that will be generated without incrementing the index.
+     * @return The next Part ID.
+     */
+    static int getNextPartID() {
+        return partIndex.get();
+    }
+
+    /**
+     * Returns the next Product ID that will be generated without incrementing the index.
+     * @return The next Product ID.
+     */
+    static int getNextProductID() {
+        return productIndex.get();
+    }
+
+    /**
+     * Replaces the entire contents of inventory with the Parts in a part catalog and the supplied Products, for
+     * example when a snapshot is loaded from disk. Each ObservableList is replaced in a single change so any bound
+     * table views only refresh once. The catalog Parts are only materialized when they are used, so this takes the
+     * same time however many Parts the catalog holds. The Products may already be associated with Parts from the
+     * catalog.
+     *
+     * @param partCatalog The catalog holding the Parts to be stored in inventory.
+     * @param products The Products to be stored in inventory.
+     * @param nextPartId The next Part ID to be generated.
+     * @param nextProductId The next Product ID to be generated.
+     */
+    static void replaceAll(PartCatalog partCatalog, Collection<Product> products, int nextPartId,
+                           int nextProductId) {
+        commitLock.lock();
+        try {
+            Inventory.partCatalog = partCatalog;
+            partsById.clear();
+            partPositions.clear();
+            snapshotBuilder.clearParts();
+
+            // Building the name indexes is the slowest part of loading a large inventory, so it is deferred until the
+            // indexes are first used
+            partNameIndex.replaceAllDeferred(partCatalog.size(), partCatalog::idAt, partCatalog::nameAt);
+            partNames.replaceAllDeferred(partCatalog.size(), partCatalog::idAt, partCatalog::nameAt);
+
+            committedParts.setCatalog(partCatalog);
+            applyToLists(() -> allParts.setCatalog(partCatalog));
+            replaceProducts(products, nextPartId, nextProductId);
+        } finally {
+            publishAndUnlock();
+        }
+    }
+
+    /**
+     * Replaces all Products in inventory and completes a replacement of the entire inventory contents. Must be called
+     * while holding commitLock.
+     *
+     * @param products The Products to be stored in inventory.
+     * @param nextPartId The next Part ID to be generated.
+     * @param nextProductId The next Product ID to be generated.
+     */
+    private static void replaceProducts(Collection<Product> products, int nextPartId, int nextProductId) {
+        productsById.clear();
+        productsByPartId.clear();
+        productPositions.clear();
+        snapshotBuilder.clearProducts();
+        List<Product> indexedProducts = new ArrayList<>(products);
+        productNameIndex.replaceAllDeferred(indexedProducts);
+        productNames.replaceAllDeferred(indexedProducts);
+
+        int position = 0;
+        for(Product product : products) {
+            productsById.put(product.getId(), product);
+            productPositions.put(product.getId(), position++);
+            snapshotBuilder.productChanged(product.getId());
+            for(Part associatedPart : product.getAssociatedPartsView())
+                indexAssociation(product, associatedPart);
+        }
+
+        partIndex.set(nextPartId);
+        productIndex.set(nextProductId);
+
+        committedProducts.setAll(indexedProducts);
+        applyToLists(() -> allProducts.setAll(indexedProducts));
+        modificationCount++;
+        notifyListeners(InventoryListener::inventoryReplaced);
+    }
+
+    /**
+     * Ensures that the next generated Part and Product IDs are greater than the supplied IDs, for example after
+     * Parts or Products with previously generated IDs have been restored.
+     *
+     * @param usedPartId A Part ID that is already in use, or 0 if none.
+     * @param usedProductId A Product ID that is already in use, or 0 if none.
+     */
+    static void reserveIDs(int usedPartId, int usedProductId) {
+        partIndex.accumulateAndGet(usedPartId + 1, Math::max);
+        productIndex.accumulateAndGet(usedProductId + 1, Math::max);
+    }
+
+    /**
+     * Binds the ObservableLists returned by getAllParts and getAllProducts to the thread allowed to modify them
+     * (normally the JavaFX Application Thread). Changes committed on any other thread are then replayed onto the
+     * lists by a task run on that thread. Until this is called, every change is applied to the lists directly by the
+     * thread committing it.
+     *
+     * @param isListThread Returns true if called on the list thread, for example Platform::isFxApplicationThread.
+     * @param listThread Runs a task on the list thread, for example Platform::runLater.
+     */
+    public static void bindListsToThread(BooleanSupplier isListThread, Executor listThread) {
+        commitLock.lock();
+        try {
+            listBridge.bind(isListThread, listThread);
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * <p>Runs a batch of changes to inventory as one unit. The changes are committed as the batch runs, but the
+     * ObservableLists returned by getAllParts and getAllProducts only receive them once the batch ends, as a single
+     * change to each list, so bound TableViews refresh once for the whole batch rather than once for each change.
+     * Batches may be nested, in which case the outermost batch reports the changes.</p>
+     *
+     * <p>No other thread can commit a change while the batch runs. The batch is not a transaction: if it throws an
+     * exception, the changes it committed before the exception remain committed and are still passed to the lists.</p>
+     *
+     * @param batch The changes to run, typically calls to the other Inventory methods.
+     */
+    public static void applyBatch(Runnable batch) {
+        beginBatch();
+        try {
+            batch.run();
+        } finally {
+            endBatch();
+        }
+    }
+
+    /**
+     * Starts a batch of changes as applyBatch does, for callers that cannot pass the batch as a Runnable. Takes the
+     * commit lock, which is held until the matching call to endBatch.
+     */
+    static void beginBatch() {
+        commitLock.lock();
+        if(batchDepth++ == 0)
+            batchedListChanges = new ArrayList<>();
+    }
+
+    /**
+     * Ends a batch started by beginBatch, passing the batch's list changes to the lists if it is the outermost batch,
+     * and releases the commit lock.
+     */
+    static void endBatch() {
+        try {
+            if(--batchDepth == 0) {
+                List<Runnable> changes = batchedListChanges;
+                batchedListChanges = null;
+                if(!changes.isEmpty()) {
+                    listBridge.apply(() -> {
+                        beginListBatch();
+                        try {
+                            for(Runnable change : changes)
+                                change.run();
+                        } finally {
+                            endListBatch();
+                        }
+                    });
+                }
+            }
+        } finally {
+            publishAndUnlock();
+        }
+    }
+
+    /**
+     * Publishes a snapshot holding the changes committed while commitLock was held, then releases the lock. The
+     * snapshot is held back while the lock is released inside a batch, so readers of getSnapshot only ever see whole
+     * operations and whole batches.
+     */
+    private static void publishAndUnlock() {
+        try {
+            if(batchDepth == 0 && (snapshotBuilder.hasChanges() || snapshotModificationCount != modificationCount)) {
+                snapshot = snapshotBuilder.publish(partCatalog, committedParts.size(), productsById::get);
+                snapshotModificationCount = modificationCount;
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Passes a committed change to the ObservableLists, holding it back until the end of the batch if a batch is in
+     * progress. Must be called while holding commitLock.
+     *
+     * @param change The change to apply to allParts or allProducts.
+     */
+    private static void applyToLists(Runnable change) {
+        if(batchedListChanges != null)
+            batchedListChanges.add(change);
+        else
+            listBridge.apply(change);
+    }
+
+    /**
+     * Starts grouping the changes made to allParts and allProducts into a single change for each list.
+     */
+    private static void beginListBatch() {
+        allParts.beginBatch();
+        allProducts.beginBatch();
+    }
+
+    /**
+     * Reports the changes grouped since beginListBatch to the listeners of allParts and allProducts.
+     */
+    private static void endListBatch() {
+        try {
+            allProducts.endBatch();
+        } finally {
+            allParts.endBatch();
+        }
+    }
+
+    /**
+     * Returns the lock held while changes are committed. Holding it keeps the inventory from changing, for example
+     * while a snapshot is written.
+     *
+     * @return The inventory commit lock.
+     */
+    static ReentrantLock getCommitLock() {
+        return commitLock;
+    }
+
+    /**
+     * Registers a listener to be notified of every change committed to inventory.
+     *
+     * @param listener The listener to be registered.
+     */
+    public static void addInventoryListener(InventoryListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener previously registered with addInventoryListener.
+     *
+     * @param listener The listener to be unregistered.
+     */
+    public static void removeInventoryListener(InventoryListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Passes a notification to the updaters of the derived views and then to every registered listener.
+     *
+     * @param notification The notification to be passed to each listener.
+     */
+    private static void notifyListeners(Consumer<InventoryListener> notification) {
+        for(InventoryListener updater : updaters)
+            notification.accept(updater);
+        for(InventoryListener listener : listeners)
+            notification.accept(listener);
+    }
+
+    /**
+     * Returns the latest snapshot of inventory: an immutable picture of every Part, Product, and association as they
+     * stood after the last operation or batch committed. Taking and reading a snapshot never locks, so a long read
+     * such as an export sees a consistent inventory without holding up changes.
+     *
+     * @return The latest inventory snapshot.
+     */
+    public static InventorySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns the number of times a Part or Product has been added, updated, or deleted. The count only ever
+     * increases, so a cached result computed at one count is still valid if the count has not changed.
+     *
+     * @return The inventory modification count.
+     */
+    public static long getModificationCount() {
+        return modificationCount;
     }
 
     /**
@@ -43,7 +432,119 @@ public class Inventory {
      * @param newPart The Part object to be added to the inventory.
      */
     public static void addPart(Part newPart) {
-        allParts.add(newPart);
+        commitLock.lock();
+        try {
+            appendPart(newPart);
+        } finally {
+            publishAndUnlock();
+        }
+    }
+
+    /**
+     * Adds a Part to the end of the Part lists, indexes it, and reports the addition. Must be called while holding
+     * commitLock.
+     *
+     * @param newPart The Part object to be added to the inventory.
+     */
+    private static void appendPart(Part newPart) {
+        int position = committedParts.size();
+        committedParts.add(newPart);
+        applyToLists(() -> allParts.add(newPart));
+        partsById.put(newPart.getId(), newPart);
+        partPositions.put(newPart.getId(), position);
+        snapshotBuilder.putPart(newPart.getId(), newPart);
+        partNameIndex.add(newPart);
+        partNames.add(newPart);
+        modificationCount++;
+        notifyListeners(listener -> listener.partAdded(newPart));
+    }
+
+    /**
+     * Adds every Part in a collection to inventory as a single batch (see applyBatch), so the allParts ObservableList
+     * reports one change for the whole collection.
+     *
+     * @param newParts The Part objects to be added to the inventory.
+     */
+    public static void addParts(Collection<? extends Part> newParts) {
+        applyBatch(() -> {
+            for(Part newPart : newParts)
+                addPart(newPart);
+        });
+    }
+
+    /**
+     * <p>Adds the values of every Part in a collection to inventory as rows of the columnar part store (see
+     * PartColumns), as a single batch. The Part objects themselves are not kept: lookupPart, getAllParts, and the
+     * name indexes return a view of each stored row instead, which takes a fraction of the heap space of a Part object
+     * and is only created while it is being used. Used by bulk imports, where the caller does not need the Part
+     * objects it parsed to be the objects stored in inventory.</p>
+     *
+     * <p>If the Parts in inventory are backed by a read-only catalog loaded from a snapshot, the columns are layered
+     * over it. Listeners are passed the supplied Part objects, which hold the values that were stored. Every Part
+     * must have an ID that is not in use.</p>
+     *
+     * @param newParts The Parts whose values are to be added to the inventory.
+     */
+    static void addPartRows(Collection<? extends Part> newParts) {
+        if(newParts.isEmpty())
+            return;
+
+        commitLock.lock();
+        try {
+            PartCatalog catalog = partCatalog;
+            PartColumns columns = catalog instanceof PartColumns ? (PartColumns) catalog : new PartColumns(catalog);
+            int first = columns.size();
+            for(Part newPart : newParts) {
+                columns.add(newPart);
+
+                // A deleted catalog Part is marked as removed, which would hide a new row with the same ID
+                if(partsById.get(newPart.getId()) == REMOVED_PART) {
+                    partsById.remove(newPart.getId());
+                    snapshotBuilder.removePart(newPart.getId());
+                }
+            }
+            int last = columns.size();
+            partCatalog = columns;
+
+            // The rows are appended after the Parts already in the list, which is only the position of their
+            // records while no Part has been added or deleted since the catalog was loaded
+            int position = committedParts.size();
+            for(Part newPart : newParts) {
+                if(columns.recordOf(newPart.getId()) != position)
+                    partPositions.put(newPart.getId(), position);
+                position++;
+            }
+
+            committedParts.appendCatalogRecords(columns, first, last);
+            applyToLists(() -> allParts.appendCatalogRecords(columns, first, last));
+            for(Part newPart : newParts) {
+                partNameIndex.add(newPart.getId(), newPart.getName());
+                partNames.add(newPart);
+            }
+            modificationCount++;
+            for(Part newPart : newParts)
+                notifyListeners(listener -> listener.partAdded(newPart));
+        } finally {
+            publishAndUnlock();
+        }
+    }
+
+    /**
+     * Passes the ID, price, stock, min, and max of every Part in inventory to a consumer, in the order of the
+     * committed Part list. Parts held in a part catalog are read straight from the catalog's columns or records without
+     * creating Part objects, so a scan such as totalling the value of all stock reads consecutive memory for them.
+     * The commit lock is held during the scan, so the consumer sees a consistent inventory and must not wait for
+     * another thread that may be committing a change.
+     *
+     * @param consumer The consumer.
+     */
+    public static void forEachPartRow(PartRowConsumer consumer) {
+        commitLock.lock();
+        try {
+            committedParts.forEachRow(consumer);
+        } finally {
+            commitLock.unlock();
+        }
     }
 
     /**
@@ -51,32 +552,161 @@ public class Inventory {
      * the Part and ensure their object references are updated so the Part object details are consistent between
      * the Inventory Parts list and any associated Product Parts list.
      *
-     * @param index The location of the Part object in the allParts ObservableList that is to be updated.
+     * <p>The Part being updated is the Part in inventory with the same ID as the updated Part; the index is only
+     * checked to be a position in the list the caller can see. If that Part has been deleted on another thread then
+     * the updated Part is added to the end of the inventory instead. See updatePart(Part).</p>
+     *
+     * @param index The location of the Part object in the allParts ObservableList that is to be updated. If called
+     *              on a thread other than the list thread or inside a batch, the location in the committed Part list.
      * @param selectedPart The updated Part object which will replace the existing Part object.
      */
     public static void updatePart(int index, Part selectedPart) {
-        // Throw an IndexOutOfBoundsException if index supplied is negative or larger than size of allParts list
-        if(index < 0 || index >= allParts.size()) {
-            throw new IndexOutOfBoundsException();
+        commitLock.lock();
+        try {
+            // Throw an IndexOutOfBoundsException if index supplied is negative or larger than size of allParts list
+            List<Part> visibleParts = visibleList(allParts, committedParts);
+            if(index < 0 || index >= visibleParts.size()) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            replacePart(selectedPart);
+        } finally {
+            publishAndUnlock();
         }
+    }
 
+    /**
+     * <p>Replaces the Part in inventory with the same ID as the supplied Part, or adds the supplied Part to the end of
+     * the inventory if no Part has its ID.</p>
+     *
+     * <p>The Part is replaced in place: its position is read from the position index, the Part lists report a single
+     * replacement at that position, each associated Product swaps its reference to the Part keeping its position and
+     * quantity, and listeners receive a single partUpdated notification. The Products are found through the reverse
+     * association index, so the work done depends on how many Products use the Part rather than on the size of the
+     * inventory.</p>
+     *
+     * <p>The updated Part may be the Part already in inventory, saved again after changing it through its setters.
+     * Listeners are then passed it as both the old and the updated Part, and the values it had before are not kept
+     * anywhere in inventory, so each listener needing them keeps what it was told about the Part by ID (see
+     * InventoryListener).</p>
+     *
+     * @param selectedPart The updated Part object which will replace the existing Part object.
+     */
+    public static void updatePart(Part selectedPart) {
+        commitLock.lock();
+        try {
+            replacePart(selectedPart);
+        } finally {
+            publishAndUnlock();
+        }
+    }
+
+    /**
+     * Replaces the Part in inventory with the same ID as the supplied Part, or adds the supplied Part if no Part has
+     * its ID. Must be called while holding commitLock.
+     *
+     * @param selectedPart The updated Part object which will replace the existing Part object.
+     */
+    private static void replacePart(Part selectedPart) {
         // Store a reference to the existing Part which is going to be replaced by the Part supplied to the method
-        Part partToDelete = Inventory.lookupPart(selectedPart.getId());
+        Part partToReplace = Inventory.lookupPart(selectedPart.getId());
+        if(partToReplace == null) {
+            appendPart(selectedPart);
+            return;
+        }
+
+        // Replace the Part in the lists and indexes
+        int position = partPosition(selectedPart.getId());
+        committedParts.set(position, selectedPart);
+        applyToLists(() -> allParts.set(position, selectedPart));
+        partsById.put(selectedPart.getId(), selectedPart);
+        partPositions.put(selectedPart.getId(), position);
+        snapshotBuilder.putPart(selectedPart.getId(), selectedPart);
+
+        // The name indexes hold IDs and look the Parts up by ID, so they only change if the name has changed. A
+        // Part committed again after changing it through its setters may have been indexed under an older name.
+        if(selectedPart == partToReplace || !Objects.equals(partToReplace.getName(), selectedPart.getName())) {
+            partNameIndex.remove(partToReplace);
+            partNameIndex.add(selectedPart);
+            partNames.remove(partToReplace);
+            partNames.add(selectedPart);
+        }
+        modificationCount++;
+
+        // Swap the updated Part into the Product(s) associated with it. The associations themselves do not
+        // change, so the reverse association index is left as it is.
+        for(Product productToUpdate : Inventory.getAllPartAssociations(partToReplace))
+            productToUpdate.replaceAssociatedPart(selectedPart);
+
+        notifyListeners(listener -> listener.partUpdated(partToReplace, selectedPart));
+    }
+
+    /**
+     * Returns the list whose positions the caller of updatePart or updateProduct refers to: the ObservableList shown
+     * on the list thread, or the committed list on any other thread and inside a batch (where the ObservableLists do
+     * not receive the batch's changes until it ends). Must be called while holding commitLock.
+     *
+     * @param shown allParts or allProducts.
+     * @param committed The matching committed list.
+     * @param <T> The type of object in the lists.
+     * @return The list the caller can see.
+     */
+    private static <T> List<T> visibleList(List<T> shown, List<T> committed) {
+        return listBridge.isListThread() && batchedListChanges == null ? shown : committed;
+    }
+
+    /**
+     * Returns the position in the committed Product list of the Product a caller found at the supplied position of
+     * the list it can see. On the list thread the caller sees allProducts, which may not have caught up with changes
+     * committed on other threads, so the Product found there is looked up in the position index. Must be called
+     * while holding commitLock.
+     *
+     * @param visible The list the caller can see.
+     * @param index The position of the Product in the visible list.
+     * @return The position of the Product in the committed list, or the size of the committed list if the Product
+     * has been removed from it.
+     */
+    private static int committedIndex(List<Product> visible, int index) {
+        if(visible == committedProducts)
+            return index;
 
-        // Get an array of all Product objects that are associated with the Part object to be updated
-        ObservableList<Product> productsWithDependency = Inventory.getAllPartAssociations(partToDelete);
+        Product target = visible.get(index);
+        return productsById.get(target.getId()) == target ? productPosition(target.getId()) : committedProducts.size();
+    }
 
-        // Remove dependencies from Product(s)
-        for(Product productToUpdate : productsWithDependency)
-            productToUpdate.deleteAssociatedPart(partToDelete);
+    /**
+     * Returns the position of the Product with the supplied ID in the committed Product list, from the position
+     * index. The Product must be in inventory. Must be called while holding commitLock.
+     *
+     * @param productId The ID of a Product in inventory.
+     * @return The position of the Product.
+     */
+    static int productPosition(int productId) {
+        return productPositions.get(productId);
+    }
 
-        // Update the Part in Inventory
-        Inventory.deletePart(partToDelete);
-        Inventory.getAllParts().add(index, selectedPart);
+    /**
+     * Returns the position of the Part with the supplied ID in the committed Part list, from the position index or
+     * the Part's catalog record. The Part must be in inventory. Must be called while holding commitLock.
+     *
+     * @param partId The ID of a Part in inventory.
+     * @return The position of the Part.
+     */
+    static int partPosition(int partId) {
+        int position = partPositions.get(partId);
+        return position >= 0 ? position : partCatalog.recordOf(partId);
+    }
 
-        // Re-establish dependencies in Product(s) with updated Part
-        for(Product productToUpdate : productsWithDependency)
-            productToUpdate.addAssociatedPart(selectedPart);
+    /**
+     * Removes the Part at a position of the committed Part list by moving the last Part into its place, and records
+     * the moved Part's new position. Must be called while holding commitLock.
+     *
+     * @param position The position of the Part.
+     */
+    private static void removePartAt(int position) {
+        int movedId = committedParts.swapRemove(position);
+        if(movedId >= 0)
+            partPositions.put(movedId, position);
     }
 
     /**
@@ -88,24 +718,119 @@ public class Inventory {
      * iterating through it using a for-loop because it can produce undefined behavior. However, an Iterator may be
      * utilized which allows the list to be updated as you are iterating through it using the Iterator.</p>
      *
+     * <p>The Part is now found through lookupPart rather than by iterating through allParts, so a Part that is not in
+     * inventory is rejected without scanning the list. Its position is read from the position index and the last Part
+     * is moved into it, so the list is neither scanned nor shifted to remove it.</p>
+     *
      * @param selectedPart The Part to be deleted from inventory.
      * @return Returns true if the deletion was completed successfully.
      */
     public static boolean deletePart(Part selectedPart) {
-        Iterator<Part> iterator = allParts.iterator();
-
-        // Iterate through the Part objects in allParts using an Iterator to avoid a ConcurrentModificationException
-        // if a Part is removed from the collection. Check any matches for a Product -> Part dependency for all Products
-        // in Inventory. If no dependencies are found then delete the Part and return true. Otherwise, return false.
-        while(iterator.hasNext()) {
-            Part lookupPart = iterator.next();
-            if(lookupPart == selectedPart && !isPartAssociated(lookupPart)) {
-                iterator.remove();
-                return true;
+        commitLock.lock();
+        try {
+            // The Part must be the exact object stored in inventory under its ID and must not be associated with any
+            // Product. Otherwise, return false.
+            if(selectedPart == null || lookupPart(selectedPart.getId()) != selectedPart ||
+                    isPartAssociated(selectedPart))
+                return false;
+
+            int position = partPosition(selectedPart.getId());
+            removePartAt(position);
+            applyToLists(() -> allParts.swapRemove(position));
+            unindexPart(selectedPart);
+            releaseEmptyCatalog();
+            return true;
+        } finally {
+            publishAndUnlock();
+        }
+    }
+
+    /**
+     * Deletes every Part in a collection that could be deleted by deletePart: Parts that are not in inventory or are
+     * associated with a Product are skipped. Each Part is removed as deletePart removes it, and the allParts
+     * ObservableList reports one change for the whole collection.
+     *
+     * @param selectedParts The Parts to be deleted from inventory.
+     * @return The number of Parts deleted.
+     */
+    public static int deleteParts(Collection<? extends Part> selectedParts) {
+        commitLock.lock();
+        try {
+            // Remove the Parts that may be deleted from the committed list in the order they were supplied, keeping
+            // the position each was removed from. A Part supplied more than once is only removed once.
+            IntHashMap<Part> removedParts = new IntHashMap<>();
+            List<Part> deletedParts = new ArrayList<>();
+            int[] positions = new int[selectedParts.size()];
+            for(Part selectedPart : selectedParts) {
+                if(selectedPart != null && !removedParts.containsKey(selectedPart.getId()) &&
+                        lookupPart(selectedPart.getId()) == selectedPart && !isPartAssociated(selectedPart)) {
+                    int position = partPosition(selectedPart.getId());
+                    removePartAt(position);
+                    removedParts.put(selectedPart.getId(), selectedPart);
+                    positions[deletedParts.size()] = position;
+                    deletedParts.add(selectedPart);
+                }
             }
+            if(deletedParts.isEmpty())
+                return 0;
+
+            int removed = deletedParts.size();
+            applyToLists(() -> {
+                allParts.beginBatch();
+                try {
+                    for(int i = 0; i < removed; i++)
+                        allParts.swapRemove(positions[i]);
+                } finally {
+                    allParts.endBatch();
+                }
+            });
+
+            // Unindex and report the Parts in the order they were supplied
+            for(Part deletedPart : deletedParts)
+                unindexPart(deletedPart);
+            releaseEmptyCatalog();
+            return removed;
+        } finally {
+            publishAndUnlock();
+        }
+    }
+
+    /**
+     * Removes a Part that has been removed from the committed Part list from the indexes, and reports the deletion.
+     * Must be called while holding commitLock.
+     *
+     * @param deletedPart The deleted Part.
+     */
+    private static void unindexPart(Part deletedPart) {
+        partPositions.remove(deletedPart.getId());
+
+        // A deleted catalog Part stays in the catalog, so it is marked as removed rather than unindexed
+        PartCatalog catalog = partCatalog;
+        if(catalog != null && catalog.recordOf(deletedPart.getId()) >= 0) {
+            partsById.put(deletedPart.getId(), REMOVED_PART);
+            snapshotBuilder.putPart(deletedPart.getId(), REMOVED_PART);
+        } else {
+            partsById.remove(deletedPart.getId());
+            snapshotBuilder.removePart(deletedPart.getId());
         }
 
-        return false;
+        partNameIndex.remove(deletedPart);
+        partNames.remove(deletedPart);
+        modificationCount++;
+        notifyListeners(listener -> listener.partDeleted(deletedPart));
+    }
+
+    /**
+     * Stops using the part catalog once every Part has been deleted, so that deleted catalog Parts are no longer
+     * marked as removed and later rows start a new catalog. Must be called while holding commitLock.
+     */
+    private static void releaseEmptyCatalog() {
+        if(partCatalog != null && committedParts.isEmpty()) {
+            partCatalog = null;
+            partsById.clear();
+            partPositions.clear();
+            snapshotBuilder.clearParts();
+        }
     }
 
     /**
@@ -115,15 +840,9 @@ public class Inventory {
      * @return True if the specified Part is associated with a Product in inventory.
      */
     public static boolean isPartAssociated(Part partToCheck) {
-        // Iterate through all Product objects in Inventory and check if a reference to the specified object
-        // exists in the AssociatedParts list of the Products. If an association is found then return true;
-        for(Product productToCheck : Inventory.getAllProducts())
-            for(Part associatedPart : productToCheck.getAllAssociatedParts()) {
-                if (associatedPart == partToCheck)
-                    return true;
-            }
-
-        return false;
+        // Check the reverse association index for any Product associated with the Part's ID. Empty sets are removed
+        // from the index, so any entry means the Part is associated.
+        return partToCheck != null && productsByPartId.containsKey(partToCheck.getId());
     }
 
     /**
@@ -137,17 +856,93 @@ public class Inventory {
     public static ObservableList<Product> getAllPartAssociations(Part partToCheck) {
         ObservableList<Product> productsWithPart = FXCollections.observableArrayList();
 
-        // Iterate through all Product objects in Inventory and check if a reference to the specified object
-        // exists in the AssociatedParts list of the Products.
-        for(Product productToCheck : Inventory.getAllProducts())
-            for(Part associatedPart : productToCheck.getAllAssociatedParts()) {
-                if (associatedPart == partToCheck)
-                    productsWithPart.add(productToCheck);
-            }
+        // Copy the Products associated with the Part's ID from the reverse association index, while holding the
+        // index stripe lock so the set cannot change during the copy
+        if(partToCheck != null) {
+            productsByPartId.compute(partToCheck.getId(), associatedProducts -> {
+                if(associatedProducts != null)
+                    productsWithPart.addAll(associatedProducts);
+                return associatedProducts;
+            });
+        }
 
         return productsWithPart;
     }
 
+    /**
+     * Records in the reverse association index that the specified Product is associated with the specified Part.
+     * Called by Product.addAssociatedPart, which holds commitLock while it changes the associations of a Product in
+     * inventory. Products that are not in inventory are ignored because they cannot block a Part deletion until they
+     * are added.
+     *
+     * @param product The Product the Part was associated with.
+     * @param part The Part that was associated.
+     */
+    static void onPartAssociated(Product product, Part part) {
+        commitLock.lock();
+        try {
+            if(productsById.get(product.getId()) != product)
+                return;
+
+            indexAssociation(product, part);
+            snapshotBuilder.productChanged(product.getId());
+            notifyListeners(listener -> listener.partAssociated(product, part));
+        } finally {
+            publishAndUnlock();
+        }
+    }
+
+    /**
+     * Removes the specified Product from the reverse association index entry of the specified Part. Called by
+     * Product.deleteAssociatedPart, which holds commitLock while it changes the associations of a Product in
+     * inventory. Products that are not in inventory are ignored.
+     *
+     * @param product The Product the Part was removed from.
+     * @param part The Part that was removed.
+     */
+    static void onPartDissociated(Product product, Part part) {
+        commitLock.lock();
+        try {
+            if(productsById.get(product.getId()) != product)
+                return;
+
+            unindexAssociation(product, part);
+            snapshotBuilder.productChanged(product.getId());
+            notifyListeners(listener -> listener.partDissociated(product, part));
+        } finally {
+            publishAndUnlock();
+        }
+    }
+
+    /**
+     * Adds the specified Product to the reverse association index entry of the specified Part.
+     *
+     * @param product The Product associated with the Part.
+     * @param part The associated Part.
+     */
+    private static void indexAssociation(Product product, Part part) {
+        productsByPartId.compute(part.getId(), associatedProducts -> {
+            if(associatedProducts == null)
+                associatedProducts = new LinkedHashSet<>();
+            associatedProducts.add(product);
+            return associatedProducts;
+        });
+    }
+
+    /**
+     * Removes the specified Product from the reverse association index entry of the specified Part.
+     *
+     * @param product The Product no longer associated with the Part.
+     * @param part The Part that is no longer associated.
+     */
+    private static void unindexAssociation(Product product, Part part) {
+        productsByPartId.compute(part.getId(), associatedProducts -> {
+            if(associatedProducts != null)
+                associatedProducts.remove(product);
+            return associatedProducts == null || associatedProducts.isEmpty() ? null : associatedProducts;
+        });
+    }
+
     /**
      * Searches for a Part in inventory whose ID matches the supplied ID. If a matching Part is found then a reference
      * to the object is returned. Otherwise, null is returned.
@@ -156,92 +951,366 @@ public class Inventory {
      * @return A reference to a Part object if a Part is found. Otherwise, null.
      */
     public static Part lookupPart(int partId) {
-        // Iterate through the Parts objects in allParts using the enhanced for-loop and test if the object's id
-        // member variable is equal to the supplied argument. If a match is found, then return a reference to the
-        // object via foundPart. Otherwise, return a null reference.
-        for(Part lookupPart : allParts) {
-            if(lookupPart.getId() == partId) {
-                return lookupPart;
-            }
-        }
+        // Look up the Part in the partsById index, then in the part catalog (materializing the Part if needed) unless
+        // the index marks the catalog Part as deleted. Both return null if no Part has the supplied ID.
+        Part part = partsById.get(partId);
+        if(part == REMOVED_PART)
+            return null;
+        if(part != null)
+            return part;
 
-        return null;
+        PartCatalog catalog = partCatalog;
+        int record = catalog != null ? catalog.recordOf(partId) : -1;
+        return record >= 0 ? catalog.get(record) : null;
     }
 
     /**
      * Searches for a Part in inventory whose name matches the supplied name. If a matching Part is found then a
-     * reference to the object is returned. Otherwise, null is returned.
+     * reference to the object is returned. Otherwise, null is returned. If several Parts share the name, the Part
+     * with the lowest ID is returned.
      *
      * @param partName The Part name to look up.
      * @return A reference to a Part object if a Part is found. Otherwise, null.
      */
     public static Part lookupPart(String partName) {
-        // Iterate through the Parts objects in allParts using the enhanced for-loop and test if the object's name
-        // member variable is equal to the supplied argument. If a match is found, then return a reference to the
-        // object via foundPart. Otherwise, return a null reference.
-        for(Part lookupPart : allParts) {
-            if(lookupPart.getName().equals(partName)) {
-                return lookupPart;
-            }
-        }
+        // Look up the name in the partNames index rather than comparing the name of every Part in allParts
+        return partNames.lookupFirst(partName);
+    }
+
+    /**
+     * Returns every Part in inventory whose name exactly matches the supplied name, ordered by ID.
+     *
+     * @param partName The Part name to look up.
+     * @return An unmodifiable list of the matching Parts, which is empty if no Part has the name.
+     */
+    public static List<Part> lookupParts(String partName) {
+        return partNames.lookupAll(partName, false);
+    }
+
+    /**
+     * Returns every Part in inventory whose name matches the supplied name, ordered by ID. If normalized is true then
+     * names are compared ignoring case, Unicode compatibility differences (such as full width letters), leading and
+     * trailing whitespace, and repeated whitespace. The normalized names are indexed the first time they are used.
+     *
+     * @param partName The Part name to look up.
+     * @param normalized True to compare normalized names, false to compare exact names.
+     * @return An unmodifiable list of the matching Parts, which is empty if no Part has the name.
+     */
+    public static List<Part> lookupParts(String partName, boolean normalized) {
+        return partNames.lookupAll(partName, normalized);
+    }
+
+    /**
+     * Returns the trigram index over the names of all Part objects in inventory.
+     * @return The Part name trigram index.
+     */
+    public static TrigramIndex<Part> getPartNameIndex() {
+        return partNameIndex;
+    }
+
+    /**
+     * Returns the reorder alerts, which list the Parts and Products whose stock level is below their minimum or above
+     * their maximum.
+     * @return The reorder alerts.
+     */
+    public static ReorderAlerts getReorderAlerts() {
+        return reorderAlerts;
+    }
+
+    /**
+     * Returns the running totals of the value of the stock in inventory.
+     * @return The inventory valuation.
+     */
+    public static InventoryValuation getValuation() {
+        return valuation;
+    }
+
+    /**
+     * Returns the number of units of each Product that could be built from the Parts in stock.
+     * @return The buildability of the Products.
+     */
+    public static Buildability getBuildability() {
+        return buildability;
+    }
 
-        return null;
+    /**
+     * Returns the material cost and margin of each Product.
+     * @return The cost roll-up of the Products.
+     */
+    public static CostRollup getCostRollup() {
+        return costRollup;
     }
 
     /**
-     * Returns an ObservableList containing references to all Part objects in inventory.
+     * Returns an ObservableList containing references to all Part objects in inventory. The list must only be used on
+     * the list thread (see bindListsToThread).
      * @return An ObservableList containing references to all Part objects in inventory.
      */
     public static ObservableList<Part> getAllParts() {
         return allParts;
     }
 
+    /**
+     * Returns the committed list of all Parts in inventory as a PartList, which can read Parts without caching them.
+     * Must only be used while holding the commit lock.
+     * @return The PartList holding all Parts committed to inventory.
+     */
+    static PartList getPartList() {
+        return committedParts;
+    }
+
+    /**
+     * Returns the committed list of all Products in inventory. Must only be used while holding the commit lock.
+     * @return The list holding all Products committed to inventory.
+     */
+    static List<Product> getProductList() {
+        return committedProducts;
+    }
+
     /**
      * Adds a Product object to inventory.
      *
      * @param newProduct The Product object to be added to inventory.
      */
     public static void addProduct(Product newProduct) {
-        allProducts.add(newProduct);
+        commitLock.lock();
+        try {
+            appendProduct(newProduct);
+        } finally {
+            publishAndUnlock();
+        }
+    }
+
+    /**
+     * Adds a Product to the end of the Product lists, indexes it and its associations, and reports the addition. Must
+     * be called while holding commitLock.
+     *
+     * @param newProduct The Product object to be added to inventory.
+     */
+    private static void appendProduct(Product newProduct) {
+        committedProducts.add(newProduct);
+        applyToLists(() -> allProducts.add(newProduct));
+        productsById.put(newProduct.getId(), newProduct);
+        productPositions.put(newProduct.getId(), committedProducts.size() - 1);
+        snapshotBuilder.productChanged(newProduct.getId());
+        productNameIndex.add(newProduct);
+        productNames.add(newProduct);
+        modificationCount++;
+
+        // Index the Parts the Product was associated with before it was added to inventory
+        for(Part associatedPart : newProduct.getAssociatedPartsView())
+            indexAssociation(newProduct, associatedPart);
+
+        notifyListeners(listener -> listener.productAdded(newProduct));
+    }
+
+    /**
+     * Adds every Product in a collection to inventory as a single batch (see applyBatch), so the allProducts
+     * ObservableList reports one change for the whole collection.
+     *
+     * @param newProducts The Product objects to be added to inventory.
+     */
+    public static void addProducts(Collection<? extends Product> newProducts) {
+        applyBatch(() -> {
+            for(Product newProduct : newProducts)
+                addProduct(newProduct);
+        });
     }
 
     /**
-     * Updates an existing Product in inventory.
+     * Updates an existing Product in inventory. The updated Product may be the Product already in inventory, saved
+     * again after changing it through its setters, in which case listeners are passed it as both the old and the
+     * updated Product.
      *
-     * @param index The location of the Product object in the allProducts ObservableList that is to be updated.
+     * @param index The location of the Product object in the allProducts ObservableList that is to be updated. If
+     *              called on a thread other than the list thread or inside a batch, the location in the committed
+     *              Product list.
      * @param selectedProduct The updated Product object which will replace the existing Product object.
      */
     public static void updateProduct(int index, Product selectedProduct) {
-        // Throw an IndexOutOfBoundsException if index supplied is negative or larger than size of allParts list
-        if(index < 0 || index >= allProducts.size()) {
-            throw new IndexOutOfBoundsException();
+        commitLock.lock();
+        try {
+            // Throw an IndexOutOfBoundsException if index supplied is negative or larger than size of allParts list
+            List<Product> visibleProducts = visibleList(allProducts, committedProducts);
+            if(index < 0 || index >= visibleProducts.size()) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            // Replace the Product at its committed position. If it has already been deleted on another thread then
+            // the updated Product is added instead.
+            replaceProduct(committedIndex(visibleProducts, index), visibleProducts.get(index), selectedProduct);
+        } finally {
+            publishAndUnlock();
         }
+    }
 
-        Inventory.getAllProducts().set(index, selectedProduct);
+    /**
+     * Replaces the Product in inventory with the same ID as the supplied Product, or adds the supplied Product to the
+     * end of the inventory if no Product has its ID. The Product's position is read from the position index, so the
+     * Product list is not searched. The updated Product may be the Product already in inventory, as for
+     * updateProduct(int, Product).
+     *
+     * @param selectedProduct The updated Product object which will replace the existing Product object.
+     */
+    public static void updateProduct(Product selectedProduct) {
+        commitLock.lock();
+        try {
+            Product replacedProduct = productsById.get(selectedProduct.getId());
+            if(replacedProduct == null)
+                appendProduct(selectedProduct);
+            else
+                replaceProduct(productPosition(selectedProduct.getId()), replacedProduct, selectedProduct);
+        } finally {
+            publishAndUnlock();
+        }
     }
 
     /**
-     * Deletes an existing Product from inventory if it does not have any associated Part objects.
+     * Replaces a Product in the Product lists and indexes and reports the update. Must be called while holding
+     * commitLock.
+     *
+     * @param position The position of the replaced Product in the committed Product list, or the size of the list if
+     *                 the replaced Product has been deleted, in which case the updated Product is added to the end.
+     * @param replacedProduct The Product being replaced.
+     * @param selectedProduct The updated Product object which will replace the existing Product object.
+     */
+    private static void replaceProduct(int position, Product replacedProduct, Product selectedProduct) {
+        if(position < committedProducts.size()) {
+            committedProducts.set(position, selectedProduct);
+            applyToLists(() -> allProducts.set(position, selectedProduct));
+        } else {
+            committedProducts.add(selectedProduct);
+            applyToLists(() -> allProducts.add(selectedProduct));
+        }
+
+        // Remove the old Product's associations from the reverse association index
+        for(Part associatedPart : replacedProduct.getAssociatedPartsView())
+            unindexAssociation(replacedProduct, associatedPart);
+
+        // Replace the index entry for the old Product (its ID may differ from the updated Product's ID)
+        if(productsById.get(replacedProduct.getId()) == replacedProduct) {
+            productsById.remove(replacedProduct.getId());
+            productPositions.remove(replacedProduct.getId());
+            snapshotBuilder.productChanged(replacedProduct.getId());
+            productNameIndex.remove(replacedProduct);
+            productNames.remove(replacedProduct);
+        }
+        productsById.put(selectedProduct.getId(), selectedProduct);
+        productPositions.put(selectedProduct.getId(), Math.min(position, committedProducts.size() - 1));
+        snapshotBuilder.productChanged(selectedProduct.getId());
+        productNameIndex.add(selectedProduct);
+        productNames.add(selectedProduct);
+        modificationCount++;
+
+        // Index the updated Product's associations
+        for(Part associatedPart : selectedProduct.getAssociatedPartsView())
+            indexAssociation(selectedProduct, associatedPart);
+
+        notifyListeners(listener -> listener.productUpdated(replacedProduct, selectedProduct));
+    }
+
+    /**
+     * Deletes an existing Product from inventory if it does not have any associated Part objects. The Product's
+     * position is read from the position index and the last Product is moved into it, as deletePart does for Parts.
      *
      * @param selectedProduct The Product to be deleted from inventory.
      * @return Returns true if the Product was successfully deleted. Otherwise, false.
      */
     public static boolean deleteProduct(Product selectedProduct) {
-        Iterator<Product> iterator = allProducts.iterator();
-
-        // Iterate through the Products objects in allProducts using an Iterator to avoid a
-        // ConcurrentModificationException if a match is removed from the collection. If the Product object is the same
-        // object referenced in the supplied argument and it has no associated Part objects then remove it using
-        // the iterator and return true. Otherwise, return false.
-        while(iterator.hasNext()) {
-            Product lookupProduct = iterator.next();
-            if(lookupProduct == selectedProduct && lookupProduct.getAllAssociatedParts().size() == 0) {
-                iterator.remove();
-                return true;
+        commitLock.lock();
+        try {
+            // The Product must be the exact object stored in inventory under its ID and it must have no associated
+            // Part objects. Otherwise, return false.
+            if(selectedProduct == null || productsById.get(selectedProduct.getId()) != selectedProduct ||
+                    selectedProduct.associatedPartCount() != 0)
+                return false;
+
+            int position = productPosition(selectedProduct.getId());
+            removeProductAt(position);
+            applyToLists(() -> allProducts.swapRemove(position));
+            unindexProduct(selectedProduct);
+            return true;
+        } finally {
+            publishAndUnlock();
+        }
+    }
+
+    /**
+     * Deletes every Product in a collection that could be deleted by deleteProduct: Products that are not in
+     * inventory or still have associated Parts are skipped. Each Product is removed as deleteProduct removes it, and
+     * the allProducts ObservableList reports one change for the whole collection.
+     *
+     * @param selectedProducts The Products to be deleted from inventory.
+     * @return The number of Products deleted.
+     */
+    public static int deleteProducts(Collection<? extends Product> selectedProducts) {
+        commitLock.lock();
+        try {
+            // Remove the Products that may be deleted from the committed list in the order they were supplied, as
+            // deleteParts does
+            IntHashMap<Product> removedProducts = new IntHashMap<>();
+            List<Product> deletedProducts = new ArrayList<>();
+            int[] positions = new int[selectedProducts.size()];
+            for(Product selectedProduct : selectedProducts) {
+                if(selectedProduct != null && !removedProducts.containsKey(selectedProduct.getId()) &&
+                        productsById.get(selectedProduct.getId()) == selectedProduct &&
+                        selectedProduct.associatedPartCount() == 0) {
+                    int position = productPosition(selectedProduct.getId());
+                    removeProductAt(position);
+                    removedProducts.put(selectedProduct.getId(), selectedProduct);
+                    positions[deletedProducts.size()] = position;
+                    deletedProducts.add(selectedProduct);
+                }
             }
+            if(deletedProducts.isEmpty())
+                return 0;
+
+            int removed = deletedProducts.size();
+            applyToLists(() -> {
+                allProducts.beginBatch();
+                try {
+                    for(int i = 0; i < removed; i++)
+                        allProducts.swapRemove(positions[i]);
+                } finally {
+                    allProducts.endBatch();
+                }
+            });
+
+            // Unindex and report the Products in the order they were supplied
+            for(Product deletedProduct : deletedProducts)
+                unindexProduct(deletedProduct);
+            return removed;
+        } finally {
+            publishAndUnlock();
         }
+    }
 
-        return false;
+    /**
+     * Removes the Product at a position of the committed Product list by moving the last Product into its place, and
+     * records the moved Product's new position. Must be called while holding commitLock.
+     *
+     * @param position The position of the Product.
+     */
+    private static void removeProductAt(int position) {
+        Product moved = committedProducts.swapRemove(position);
+        if(moved != null)
+            productPositions.put(moved.getId(), position);
+    }
+
+    /**
+     * Removes a Product that has been removed from the committed Product list from the indexes, and reports the
+     * deletion. Must be called while holding commitLock.
+     *
+     * @param deletedProduct The deleted Product.
+     */
+    private static void unindexProduct(Product deletedProduct) {
+        productsById.remove(deletedProduct.getId());
+        productPositions.remove(deletedProduct.getId());
+        snapshotBuilder.productChanged(deletedProduct.getId());
+        productNameIndex.remove(deletedProduct);
+        productNames.remove(deletedProduct);
+        modificationCount++;
+        notifyListeners(listener -> listener.productDeleted(deletedProduct));
     }
 
     /**
@@ -252,42 +1321,57 @@ public class Inventory {
      * @return A reference to a Product object if it is found. Otherwise, null.
      */
     public static Product lookupProduct(int productId) {
-        Product foundProduct = null;
-
-        // Iterate through the Product objects in allProducts using the enhanced for-loop and test if the object's id
-        // member variable is equal to the supplied argument. If a match is found, then return a reference to the
-        // object. Otherwise, return a null reference.
-        for(Product lookupProduct : allProducts) {
-            if(lookupProduct.getId() == productId) {
-                return lookupProduct;
-            }
-        }
-
-        return null;
+        // Look up the Product in the productsById index. The index returns null if no Product has the supplied ID.
+        return productsById.get(productId);
     }
 
     /**
      * Searches for a Product in inventory whose name matches the supplied name. If a matching Product is found then a
-     * reference to the object is returned. Otherwise, null is returned.
+     * reference to the object is returned. Otherwise, null is returned. If several Products share the name, the
+     * Product with the lowest ID is returned.
      *
      * @param productName The Product name to look up.
      * @return A reference to a Product object if it is found. Otherwise, null.
      */
     public static Product lookupProduct(String productName) {
-        // Iterate through the Product objects in allProducts using the enhanced for-loop and test if the object's name
-        // member variable is equal to the supplied argument. If a match is found, then return a reference to the
-        // object via foundProduct. Otherwise, return a null reference.
-        for(Product lookupProduct : allProducts) {
-            if (lookupProduct.getName().equals(productName)) {
-                return lookupProduct;
-            }
-        }
+        // Look up the name in the productNames index rather than comparing the name of every Product in allProducts
+        return productNames.lookupFirst(productName);
+    }
+
+    /**
+     * Returns every Product in inventory whose name exactly matches the supplied name, ordered by ID.
+     *
+     * @param productName The Product name to look up.
+     * @return An unmodifiable list of the matching Products, which is empty if no Product has the name.
+     */
+    public static List<Product> lookupProducts(String productName) {
+        return productNames.lookupAll(productName, false);
+    }
 
-        return null;
+    /**
+     * Returns every Product in inventory whose name matches the supplied name, ordered by ID. If normalized is true
+     * then names are compared the same way as by lookupParts(String, boolean).
+     *
+     * @param productName The Product name to look up.
+     * @param normalized True to compare normalized names, false to compare exact names.
+     * @return An unmodifiable list of the matching Products, which is empty if no Product has the name.
+     */
+    public static List<Product> lookupProducts(String productName, boolean normalized) {
+        return productNames.lookupAll(productName, normalized);
+    }
+
+    /**
+     * Returns the trigram index over the names of all Product objects in inventory.
+     *
+     * @return The Product name trigram index.
+     */
+    public static TrigramIndex<Product> getProductNameIndex() {
+        return productNameIndex;
     }
 
     /**
-     * Returns an ObservableList containing references to all Product objects in inventory.
+     * Returns an ObservableList containing references to all Product objects in inventory. The list must only be used
+     * on the list thread (see bindListsToThread).
      *
      * @return An ObservableList containing references to all Product objects in inventory.
      */
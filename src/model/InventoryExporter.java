@@ -0,0 +1,437 @@
+package model;
+
+// Java imports
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * <p>The InventoryExporter class writes every Part, every Product, and the Parts associated with each Product to a
+ * text file, for other systems to read. Two formats are supported:</p>
+ * <ul>
+ *     <li><b>CSV:</b> the rows read by CsvImporter (a header row, then an InHouse or Outsourced row for each Part, a
+ *     Product row for each Product, and an Association row with the quantity for each Part associated with a
+ *     Product), so an export can be imported again.</li>
+ *     <li><b>JSON Lines:</b> one JSON object per line for each Part and each Product, with a "type" member naming
+ *     the kind of object. Each Product lists the IDs of its associated Parts in an "associatedPartIds" array and the
+ *     quantity of each in an "associatedPartQuantities" array at the same positions.</li>
+ * </ul>
+ *
+ * <p>The export is streamed through a FileChannel from a single reusable buffer. Text is encoded into the buffer one
+ * character at a time and numbers are written without building a String where possible, and Parts still in the part
+ * catalog are read without being cached, so exporting a large inventory does not need more heap than exporting a
+ * small one.</p>
+ *
+ * <p>The export writes the latest InventorySnapshot (see Inventory.getSnapshot), so it is a consistent picture of the
+ * inventory without taking the commit lock, and changes committed while a long export runs are not held up. Parts
+ * still in the part catalog are written first, then the other Parts and the Products in ID order. The export should
+ * still be run on a background thread so the JavaFX Application Thread is not held up. A file is written to a
+ * temporary file first, which then replaces any existing file, so a failed export never leaves a partially written
+ * file behind.</p>
+ */
+public class InventoryExporter {
+    /**
+     * The formats an inventory can be exported in.
+     */
+    public enum Format {
+        CSV,
+        JSON_LINES
+    }
+
+    // Size of the write buffer
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Space always kept free in the buffer, enough for any single number or encoded character
+    private static final int MAX_TOKEN_SIZE = 32;
+
+    private static final byte[] HEX_DIGITS = {
+            '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+    };
+
+    /**
+     * Writes the entire inventory to the supplied file, replacing any existing file.
+     *
+     * @param path The file to write.
+     * @param format The format to write.
+     * @return The number of lines written, not counting a CSV header row.
+     * @throws IOException If the file could not be written.
+     */
+    public static long export(Path path, Format format) throws IOException {
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        long lines;
+        try(FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                   StandardOpenOption.TRUNCATE_EXISTING)) {
+            lines = export(channel, format);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return lines;
+    }
+
+    /**
+     * Writes the entire inventory to the supplied channel. The channel is not closed.
+     *
+     * @param channel The channel to write to.
+     * @param format The format to write.
+     * @return The number of lines written, not counting a CSV header row.
+     * @throws IOException If the channel could not be written.
+     */
+    public static long export(WritableByteChannel channel, Format format) throws IOException {
+        TextWriter writer = new TextWriter(channel);
+
+        // Write the latest snapshot, so the export is consistent without holding up changes committed while it runs
+        InventorySnapshot snapshot = Inventory.getSnapshot();
+        long lines = snapshot.getPartCount() + snapshot.getProductCount();
+        try {
+            if(format == Format.CSV) {
+                writer.putAscii("type,id,name,price,stock,min,max,machineId/companyName\n");
+                snapshot.forEachPart(unchecked(part -> writeCsvPart(writer, part)));
+                snapshot.forEachProduct(unchecked(record -> writeCsvProduct(writer, record.getProduct())));
+
+                // Associations come after every Product and Part so an import can resolve them
+                long[] associations = {0};
+                snapshot.forEachProduct(unchecked(record -> {
+                    for(int i = 0; i < record.getAssociatedPartCount(); i++) {
+                        writer.putAscii("Association,");
+                        writer.putInt(record.getProduct().getId());
+                        writer.putByte(',');
+                        writer.putInt(record.getAssociatedPartId(i));
+                        writer.putByte(',');
+                        writer.putInt(record.getAssociatedPartQuantity(i));
+                        writer.putByte('\n');
+                        associations[0]++;
+                    }
+                }));
+                lines += associations[0];
+            } else {
+                snapshot.forEachPart(unchecked(part -> writeJsonPart(writer, part)));
+                snapshot.forEachProduct(unchecked(record -> writeJsonProduct(writer, record)));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        return lines;
+    }
+
+    /**
+     * Wraps an action that writes an item in a Consumer that can be passed to the snapshot, rethrowing an IOException
+     * as an UncheckedIOException to be unwrapped by export.
+     *
+     * @param action The action.
+     * @param <T> The type of item written.
+     * @return The Consumer.
+     */
+    private static <T> Consumer<T> unchecked(ItemWriter<T> action) {
+        return item -> {
+            try {
+                action.write(item);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private static void writeCsvPart(TextWriter writer, Part part) throws IOException {
+        writer.putAscii(part instanceof InHouse ? "InHouse," : "Outsourced,");
+        writeCsvItem(writer, part.getId(), part.getName(), part.getPrice(), part.getStock(), part.getMin(),
+                     part.getMax());
+        writer.putByte(',');
+        if(part instanceof InHouse)
+            writer.putInt(((InHouse) part).getMachineId());
+        else
+            writer.putCsvText(((Outsourced) part).getCompanyName());
+        writer.putByte('\n');
+    }
+
+    private static void writeCsvProduct(TextWriter writer, Product product) throws IOException {
+        writer.putAscii("Product,");
+        writeCsvItem(writer, product.getId(), product.getName(), product.getPrice(), product.getStock(),
+                     product.getMin(), product.getMax());
+        writer.putByte('\n');
+    }
+
+    private static void writeCsvItem(TextWriter writer, int id, String name, double price, int stock, int min,
+                                     int max) throws IOException {
+        writer.putInt(id);
+        writer.putByte(',');
+        writer.putCsvText(name);
+        writer.putByte(',');
+        writer.putDouble(price);
+        writer.putByte(',');
+        writer.putInt(stock);
+        writer.putByte(',');
+        writer.putInt(min);
+        writer.putByte(',');
+        writer.putInt(max);
+    }
+
+    private static void writeJsonPart(TextWriter writer, Part part) throws IOException {
+        writer.putAscii(part instanceof InHouse ? "{\"type\":\"InHouse\"," : "{\"type\":\"Outsourced\",");
+        writeJsonItem(writer, part.getId(), part.getName(), part.getPrice(), part.getStock(), part.getMin(),
+                      part.getMax());
+        if(part instanceof InHouse) {
+            writer.putAscii(",\"machineId\":");
+            writer.putInt(((InHouse) part).getMachineId());
+        } else {
+            writer.putAscii(",\"companyName\":");
+            writer.putJsonText(((Outsourced) part).getCompanyName());
+        }
+        writer.putAscii("}\n");
+    }
+
+    private static void writeJsonProduct(TextWriter writer, InventorySnapshot.ProductRecord record)
+            throws IOException {
+        Product product = record.getProduct();
+        writer.putAscii("{\"type\":\"Product\",");
+        writeJsonItem(writer, product.getId(), product.getName(), product.getPrice(), product.getStock(),
+                      product.getMin(), product.getMax());
+
+        // The IDs and quantities of the associated Parts, as parallel arrays
+        writer.putAscii(",\"associatedPartIds\":[");
+        for(int i = 0; i < record.getAssociatedPartCount(); i++) {
+            if(i > 0)
+                writer.putByte(',');
+            writer.putInt(record.getAssociatedPartId(i));
+        }
+        writer.putAscii("],\"associatedPartQuantities\":[");
+        for(int i = 0; i < record.getAssociatedPartCount(); i++) {
+            if(i > 0)
+                writer.putByte(',');
+            writer.putInt(record.getAssociatedPartQuantity(i));
+        }
+        writer.putAscii("]}\n");
+    }
+
+    private static void writeJsonItem(TextWriter writer, int id, String name, double price, int stock, int min,
+                                      int max) throws IOException {
+        writer.putAscii("\"id\":");
+        writer.putInt(id);
+        writer.putAscii(",\"name\":");
+        writer.putJsonText(name);
+        writer.putAscii(",\"price\":");
+        if(Double.isFinite(price))
+            writer.putDouble(price);
+        else
+            writer.putAscii("null");
+        writer.putAscii(",\"stock\":");
+        writer.putInt(stock);
+        writer.putAscii(",\"min\":");
+        writer.putInt(min);
+        writer.putAscii(",\"max\":");
+        writer.putInt(max);
+    }
+
+    /**
+     * The TextWriter class encodes text and numbers as UTF-8 into a buffer that is written to a channel whenever it
+     * fills up.
+     */
+    private static class TextWriter {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        // Digits of an int, written backwards
+        private final byte[] digits = new byte[11];
+
+        TextWriter(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void putByte(char value) throws IOException {
+            ensureRemaining();
+            buffer.put((byte) value);
+        }
+
+        /**
+         * Writes a string known to only hold ASCII characters.
+         */
+        void putAscii(String value) throws IOException {
+            for(int i = 0; i < value.length(); i++) {
+                ensureRemaining();
+                buffer.put((byte) value.charAt(i));
+            }
+        }
+
+        void putInt(int value) throws IOException {
+            ensureRemaining();
+            if(value < 0) {
+                buffer.put((byte) '-');
+            } else {
+                value = -value;
+            }
+
+            // Work with the negative value so Integer.MIN_VALUE does not overflow
+            int count = 0;
+            do {
+                digits[count++] = (byte) ('0' - value % 10);
+                value /= 10;
+            } while(value != 0);
+
+            while(count > 0)
+                buffer.put(digits[--count]);
+        }
+
+        /**
+         * Writes a double in a form that reads back as the same value. Whole numbers up to 2^53 are written without
+         * building a String; anything else is written as Double.toString does.
+         */
+        void putDouble(double value) throws IOException {
+            if(value == (long) value && Math.abs(value) <= (1L << 53) && !(value == 0 && 1 / value < 0)) {
+                putLong((long) value);
+                putAscii(".0");
+            } else {
+                putAscii(Double.toString(value));
+            }
+        }
+
+        /**
+         * Writes a String as a CSV field, quoting it if it holds a separator, a quote, or a line break.
+         */
+        void putCsvText(String value) throws IOException {
+            if(value == null)
+                return;
+
+            boolean quote = false;
+            for(int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+
+            if(!quote) {
+                putText(value, false);
+                return;
+            }
+
+            putByte('"');
+            for(int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if(c == '"')
+                    putByte('"');
+                putChar(value, i, c);
+                if(Character.isHighSurrogate(c) && i + 1 < value.length() &&
+                        Character.isLowSurrogate(value.charAt(i + 1)))
+                    i++;
+            }
+            putByte('"');
+        }
+
+        /**
+         * Writes a String as a quoted JSON string.
+         */
+        void putJsonText(String value) throws IOException {
+            if(value == null) {
+                putAscii("null");
+                return;
+            }
+
+            putByte('"');
+            putText(value, true);
+            putByte('"');
+        }
+
+        /**
+         * Writes the characters of a String, escaping them for a JSON string if requested.
+         */
+        private void putText(String value, boolean json) throws IOException {
+            for(int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if(json && (c == '"' || c == '\\' || c < 0x20)) {
+                    putJsonEscape(c);
+                    continue;
+                }
+
+                putChar(value, i, c);
+                if(Character.isHighSurrogate(c) && i + 1 < value.length() &&
+                        Character.isLowSurrogate(value.charAt(i + 1)))
+                    i++;
+            }
+        }
+
+        private void putJsonEscape(char c) throws IOException {
+            ensureRemaining();
+            buffer.put((byte) '\\');
+            switch(c) {
+                case '"': buffer.put((byte) '"'); break;
+                case '\\': buffer.put((byte) '\\'); break;
+                case '\n': buffer.put((byte) 'n'); break;
+                case '\r': buffer.put((byte) 'r'); break;
+                case '\t': buffer.put((byte) 't'); break;
+                default:
+                    buffer.put((byte) 'u').put((byte) '0').put((byte) '0');
+                    buffer.put(HEX_DIGITS[c >> 4]).put(HEX_DIGITS[c & 0xF]);
+            }
+        }
+
+        /**
+         * Encodes the character at the supplied position as UTF-8, combining it with the next character if the two
+         * form a surrogate pair. An unpaired surrogate is written as '?', as String.getBytes does.
+         */
+        private void putChar(String value, int index, char c) throws IOException {
+            ensureRemaining();
+            if(c < 0x80) {
+                buffer.put((byte) c);
+            } else if(c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if(!Character.isSurrogate(c)) {
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if(Character.isHighSurrogate(c) && index + 1 < value.length() &&
+                    Character.isLowSurrogate(value.charAt(index + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+                buffer.put((byte) (0xF0 | codePoint >> 18));
+                buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint & 0x3F));
+            } else {
+                buffer.put((byte) '?');
+            }
+        }
+
+        private void putLong(long value) throws IOException {
+            if(value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE)
+                putInt((int) value);
+            else
+                putAscii(Long.toString(value));
+        }
+
+        /**
+         * Writes everything in the buffer to the channel.
+         *
+         * @throws IOException If the buffer could not be written.
+         */
+        void flush() throws IOException {
+            buffer.flip();
+            while(buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.clear();
+        }
+
+        private void ensureRemaining() throws IOException {
+            if(buffer.remaining() < MAX_TOKEN_SIZE)
+                flush();
+        }
+    }
+
+    /**
+     * Writes one item of an export.
+     *
+     * @param <T> The type of item written.
+     */
+    @FunctionalInterface
+    private interface ItemWriter<T> {
+        void write(T item) throws IOException;
+    }
+}
@@ -0,0 +1,431 @@
+package model;
+
+// Java imports
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ * <p>The InventoryFile class saves the entire Inventory to a compact binary snapshot file and loads it back again.
+ * The snapshot holds every Part (including the InHouse machine ID or Outsourced company name), every Product with the
+ * IDs and quantities of its associated Parts, the next Part and Product IDs to be generated, and the sequence number
+ * of the last InventoryJournal record the snapshot includes.</p>
+ *
+ * <p>Files are read and written through a FileChannel using a single reusable buffer, so records are streamed to and
+ * from disk without building the file in memory first. A snapshot is written to a temporary file which then replaces
+ * the previous snapshot, so a failed save never leaves a partially written snapshot behind.</p>
+ *
+ * <p>From version 3 the Parts are stored in a separate MappedPartCatalog file next to the snapshot, which is
+ * memory-mapped when the snapshot is loaded so that Parts are only materialized when they are used. Every save writes
+ * a catalog file with a new name before the snapshot that refers to it replaces the previous snapshot, so a catalog
+ * file is never replaced while it is mapped. Catalog files no longer referred to are deleted after the save, or on a
+ * later save if they are still mapped and the platform does not allow them to be deleted.</p>
+ *
+ * <p>File layout (all numbers big-endian, strings are an int byte length followed by UTF-8 bytes):</p>
+ * <ul>
+ *     <li><b>Header:</b> magic number, format version, next Part ID, next Product ID, journal sequence number
+ *     (version 2 onwards)</li>
+ *     <li><b>Parts:</b> version 3 onwards: name of the part catalog file. Earlier versions: Part count, then per
+ *     Part: type, ID, name, price, stock, min, max, machine ID or company name</li>
+ *     <li><b>Products:</b> Product count, then per Product: ID, name, price, stock, min, max, associated Part count,
+ *     then per associated Part: ID, quantity (version 4 onwards). Earlier versions list one ID per unit of the Part
+ *     the Product needs, without quantities.</li>
+ * </ul>
+ */
+public class InventoryFile {
+    // Identifies a snapshot file ("INV1") and the version of its layout
+    private static final int MAGIC = 0x494E5631;
+    private static final short VERSION = 4;
+
+    // Suffix of the part catalog files written next to a snapshot
+    private static final String CATALOG_SUFFIX = ".parts";
+
+    // Part type markers
+    static final byte IN_HOUSE = 0;
+    static final byte OUTSOURCED = 1;
+
+    // Size of the buffer used to stream records to and from the file channel
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Writes a snapshot of the entire Inventory to the supplied file, replacing any existing file.
+     *
+     * @param path The file to write the snapshot to.
+     * @throws IOException If the snapshot could not be written.
+     */
+    public static void save(Path path) throws IOException {
+        save(path, 0);
+    }
+
+    /**
+     * Writes a snapshot of the entire Inventory to the supplied file, replacing any existing file, and records the
+     * sequence number of the last journal record the snapshot includes.
+     *
+     * @param path The file to write the snapshot to.
+     * @param journalSequence The sequence number of the last journal record applied to the Inventory.
+     * @throws IOException If the snapshot could not be written.
+     */
+    static void save(Path path, long journalSequence) throws IOException {
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        Path directory = path.toAbsolutePath().getParent();
+        String catalogPrefix = path.getFileName() + ".";
+
+        // Hold the commit lock so no change is committed while the snapshot is written
+        Path catalogPath = Files.createTempFile(directory, catalogPrefix, CATALOG_SUFFIX);
+        ReentrantLock commitLock = Inventory.getCommitLock();
+        commitLock.lock();
+        try {
+            // Copy the Parts to a new catalog file without materializing the Parts that are still in the current
+            // catalog
+            PartList parts = Inventory.getPartList();
+            MappedPartCatalog.write(catalogPath, parts.size(), parts::readPart);
+
+            try(FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                       StandardOpenOption.TRUNCATE_EXISTING)) {
+                Writer writer = new Writer(channel);
+                writer.putInt(MAGIC);
+                writer.putShort(VERSION);
+                writer.putInt(Inventory.getNextPartID());
+                writer.putInt(Inventory.getNextProductID());
+                writer.putLong(journalSequence);
+                writer.putString(catalogPath.getFileName().toString());
+
+                List<Product> products = Inventory.getProductList();
+                writer.putInt(products.size());
+                for(Product product : products)
+                    writer.putProduct(product);
+
+                writer.flush();
+                channel.force(true);
+            }
+
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(catalogPath);
+            throw e;
+        } finally {
+            commitLock.unlock();
+        }
+
+        // Delete the catalog files of earlier snapshots. A catalog that is still mapped may not be deletable on some
+        // platforms, in which case it is left for a later save to delete.
+        try(DirectoryStream<Path> catalogs = Files.newDirectoryStream(directory, catalogPrefix + "*" + CATALOG_SUFFIX)) {
+            for(Path oldCatalogPath : catalogs) {
+                if(!oldCatalogPath.getFileName().equals(catalogPath.getFileName())) {
+                    try {
+                        Files.deleteIfExists(oldCatalogPath);
+                    } catch (IOException e) {
+                        // Left for a later save
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the entire Inventory with the contents of the supplied snapshot file. The Parts of a version 3 or later
+     * snapshot stay in the mapped part catalog; the Parts of an older snapshot are read into PartColumns.
+     *
+     * @param path The snapshot file to load.
+     * @return The sequence number of the last journal record included in the snapshot.
+     * @throws IOException If the file could not be read or is not a valid snapshot.
+     */
+    public static long load(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Reader reader = new Reader(channel);
+            if(reader.getInt() != MAGIC)
+                throw new IOException("Not an inventory snapshot file: " + path);
+
+            short version = reader.getShort();
+            if(version < 1 || version > VERSION)
+                throw new IOException("Unsupported inventory snapshot version " + version + ": " + path);
+
+            int nextPartId = reader.getInt();
+            int nextProductId = reader.getInt();
+            long journalSequence = version >= 2 ? reader.getLong() : 0;
+
+            // Map the part catalog, or read the Parts of an older snapshot into columns, and materialize only the Parts
+            // associated with Products
+            PartCatalog partCatalog;
+            if(version >= 3) {
+                partCatalog = MappedPartCatalog.open(path.resolveSibling(reader.getString()));
+            } else {
+                int partCount = reader.getInt();
+                PartColumns partColumns = new PartColumns();
+                for(int i = 0; i < partCount; i++)
+                    partColumns.add(reader.getPart());
+                partCatalog = partColumns;
+            }
+            IntFunction<Part> lookupPart = id -> {
+                int record = partCatalog.recordOf(id);
+                return record < 0 ? null : partCatalog.get(record);
+            };
+
+            int productCount = reader.getInt();
+            List<Product> products = new ArrayList<>(productCount);
+            for(int i = 0; i < productCount; i++)
+                products.add(reader.getProduct(lookupPart, version >= 4));
+
+            Inventory.replaceAll(partCatalog, products, nextPartId, nextProductId);
+            return journalSequence;
+        }
+    }
+
+    /**
+     * The Writer class encodes primitive values, strings, Parts, and Products into a buffer that is written to a
+     * channel whenever it fills up. It is shared with the InventoryJournal, which uses the same record encoding.
+     */
+    static class Writer {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        Writer(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void putByte(byte value) throws IOException {
+            ensureRemaining(Byte.BYTES);
+            buffer.put(value);
+        }
+
+        void putShort(short value) throws IOException {
+            ensureRemaining(Short.BYTES);
+            buffer.putShort(value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensureRemaining(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensureRemaining(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensureRemaining(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        /**
+         * Writes a string as its UTF-8 byte length followed by its UTF-8 bytes.
+         *
+         * @param value The string to write.
+         * @return The number of bytes written.
+         * @throws IOException If the buffer could not be written.
+         */
+        int putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+
+            // Strings longer than the buffer are written in buffer sized pieces
+            int offset = 0;
+            while(offset < bytes.length) {
+                ensureRemaining(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+
+            return Integer.BYTES + bytes.length;
+        }
+
+        void putPart(Part part) throws IOException {
+            putByte(part instanceof InHouse ? IN_HOUSE : OUTSOURCED);
+            putInt(part.getId());
+            putString(part.getName());
+            putDouble(part.getPrice());
+            putInt(part.getStock());
+            putInt(part.getMin());
+            putInt(part.getMax());
+
+            if(part instanceof InHouse)
+                putInt(((InHouse) part).getMachineId());
+            else
+                putString(((Outsourced) part).getCompanyName());
+        }
+
+        void putProduct(Product product) throws IOException {
+            putInt(product.getId());
+            putString(product.getName());
+            putDouble(product.getPrice());
+            putInt(product.getStock());
+            putInt(product.getMin());
+            putInt(product.getMax());
+
+            List<Part> associatedParts = product.getAssociatedPartsView();
+            putInt(associatedParts.size());
+            for(int i = 0; i < associatedParts.size(); i++) {
+                putInt(associatedParts.get(i).getId());
+                putInt(product.getAssociatedPartQuantityAt(i));
+            }
+        }
+
+        /**
+         * Writes everything in the buffer to the file channel.
+         *
+         * @throws IOException If the buffer could not be written.
+         */
+        void flush() throws IOException {
+            buffer.flip();
+            while(buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.clear();
+        }
+
+        private void ensureRemaining(int bytes) throws IOException {
+            if(buffer.remaining() < bytes)
+                flush();
+        }
+    }
+
+    /**
+     * The Reader class decodes primitive values, strings, Parts, and Products from a buffer that is refilled from a
+     * channel whenever it runs out. It is shared with the InventoryJournal, which uses the same record encoding.
+     */
+    static class Reader {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer;
+
+        /**
+         * Creates a Reader that streams from a channel.
+         *
+         * @param channel The channel to read from.
+         */
+        Reader(ReadableByteChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.flip();
+        }
+
+        /**
+         * Creates a Reader over bytes that are already in memory.
+         *
+         * @param bytes The bytes to read.
+         */
+        Reader(ByteBuffer bytes) {
+            this.channel = null;
+            this.buffer = bytes;
+        }
+
+        byte getByte() throws IOException {
+            ensureAvailable(Byte.BYTES);
+            return buffer.get();
+        }
+
+        short getShort() throws IOException {
+            ensureAvailable(Short.BYTES);
+            return buffer.getShort();
+        }
+
+        int getInt() throws IOException {
+            ensureAvailable(Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        long getLong() throws IOException {
+            ensureAvailable(Long.BYTES);
+            return buffer.getLong();
+        }
+
+        double getDouble() throws IOException {
+            ensureAvailable(Double.BYTES);
+            return buffer.getDouble();
+        }
+
+        String getString() throws IOException {
+            int length = getInt();
+            if(length < 0)
+                throw new IOException("Invalid string length: " + length);
+
+            // Strings longer than the buffer are read in buffer sized pieces
+            byte[] bytes = new byte[length];
+            int offset = 0;
+            while(offset < length) {
+                ensureAvailable(1);
+                int count = Math.min(buffer.remaining(), length - offset);
+                buffer.get(bytes, offset, count);
+                offset += count;
+            }
+
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        Part getPart() throws IOException {
+            byte type = getByte();
+            int id = getInt();
+            String name = getString();
+            double price = getDouble();
+            int stock = getInt();
+            int min = getInt();
+            int max = getInt();
+
+            if(type == IN_HOUSE)
+                return new InHouse(id, name, price, stock, min, max, getInt());
+            if(type == OUTSOURCED)
+                return new Outsourced(id, name, price, stock, min, max, getString());
+
+            throw new IOException("Unknown part type: " + type);
+        }
+
+        /**
+         * Reads a Product and associates it with its Parts.
+         *
+         * @param lookupPart A function returning the Part with the supplied ID, or null if there is none.
+         * @param withQuantities True if each associated Part ID is followed by its quantity, as written from snapshot
+         *                       version 4 and journal version 2. Otherwise each ID is one unit of the Part.
+         * @return The Product read.
+         * @throws IOException If the Product could not be read or refers to an unknown Part ID.
+         */
+        Product getProduct(IntFunction<Part> lookupPart, boolean withQuantities) throws IOException {
+            Product product = new Product(getInt(), getString(), getDouble(), getInt(), getInt(), getInt());
+
+            int associatedPartCount = getInt();
+            for(int i = 0; i < associatedPartCount; i++) {
+                int partId = getInt();
+                int quantity = withQuantities ? getInt() : 1;
+                Part associatedPart = lookupPart.apply(partId);
+                if(associatedPart == null)
+                    throw new IOException("Product " + product.getId() + " is associated with unknown part ID " + partId);
+                if(quantity < 1)
+                    throw new IOException("Product " + product.getId() + " needs " + quantity + " of part ID " +
+                                          partId);
+                product.addAssociatedPart(associatedPart, quantity);
+            }
+
+            return product;
+        }
+
+        private void ensureAvailable(int bytes) throws IOException {
+            if(buffer.remaining() >= bytes)
+                return;
+
+            if(channel == null)
+                throw new EOFException("Unexpected end of inventory record.");
+
+            // Move the unread bytes to the start of the buffer and fill the rest from the channel
+            buffer.compact();
+            while(buffer.position() < bytes) {
+                if(channel.read(buffer) < 0) {
+                    buffer.flip();
+                    throw new EOFException("Unexpected end of inventory file.");
+                }
+            }
+            buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,668 @@
+package model;
+
+// Java imports
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * <p>The InventoryJournal class makes every change to the Inventory durable without rewriting the whole snapshot
+ * file. Each committed change is appended to a write-ahead journal file as a small record, and the journal is folded
+ * into a new InventoryFile snapshot once it has grown large enough (compaction). Compaction saves the whole inventory,
+ * so it is run by the background thread writing the journal rather than by the thread committing the change that
+ * took the journal past the threshold. When the application starts, the snapshot is loaded and the journal records
+ * written after it are replayed on top of it.</p>
+ *
+ * <p>Changes are reported to the journal through the InventoryListener interface, so each record is encoded by the
+ * thread that committed the change (the JavaFX Application Thread, an importer, or any other thread) while it holds the
+ * Inventory commit lock. The lock makes the records arrive one at a time in commit order, so they are encoded without
+ * further locking and their sequence numbers follow the order of the changes. No thread committing a change writes to
+ * the file: records are collected in a pending buffer which a background thread writes and forces to disk every few
+ * milliseconds, so a burst of changes costs a single write and a single sync (group commit). A change is therefore
+ * durable shortly after it is made rather than immediately; at most the last FLUSH_INTERVAL_MILLIS of changes can be
+ * lost if the process is killed.</p>
+ *
+ * <p>Journal layout (all numbers big-endian, using the InventoryFile record encoding):</p>
+ * <ul>
+ *     <li><b>Header:</b> magic number, format version</li>
+ *     <li><b>Records:</b> payload length, CRC-32 of the payload, then the payload: sequence number, operation,
+ *     operation data</li>
+ * </ul>
+ *
+ * <p>From version 2, Products are encoded with the quantity of each associated Part and an association record holds
+ * the quantity of the Part the Product needs after the change. A version 1 journal is still replayed, and is then
+ * compacted so that later records are appended to a journal in the current version.</p>
+ *
+ * <p>Sequence numbers increase with every record and the snapshot stores the sequence number of the last record it
+ * includes, so records that were already compacted into the snapshot are skipped if the application stopped between
+ * writing the snapshot and truncating the journal. A torn or corrupt record at the end of the journal (for example
+ * from a power failure during a write) ends the replay and is truncated.</p>
+ */
+public class InventoryJournal implements InventoryListener, AutoCloseable {
+    // Identifies a journal file ("INVJ") and the version of its layout
+    private static final int MAGIC = 0x494E564A;
+    private static final short VERSION = 2;
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES;
+
+    // Record operations
+    private static final byte PART_ADDED = 1;
+    private static final byte PART_UPDATED = 2;
+    private static final byte PART_DELETED = 3;
+    private static final byte PRODUCT_ADDED = 4;
+    private static final byte PRODUCT_UPDATED = 5;
+    private static final byte PRODUCT_DELETED = 6;
+    private static final byte PART_ASSOCIATED = 7;
+    private static final byte PART_DISSOCIATED = 8;
+
+    // Records larger than this are treated as corrupt rather than allocating a buffer for them
+    private static final int MAX_RECORD_SIZE = 1 << 26;
+
+    // How often pending records are written and forced to disk
+    private static final long FLUSH_INTERVAL_MILLIS = 20;
+
+    // The journal is compacted into a new snapshot once it holds this many bytes of records
+    private static final long COMPACTION_THRESHOLD = 16L << 20;
+
+    private final Path snapshotPath;
+    private final FileChannel channel;
+
+    // Reusable encoder for record payloads (only used while holding the Inventory commit lock)
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    private final InventoryFile.Writer payloadWriter = new InventoryFile.Writer(Channels.newChannel(payload));
+    private final CRC32 crc = new CRC32();
+
+    // Records waiting to be written by the flush thread. Guarded by this.
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private ByteArrayOutputStream writing = new ByteArrayOutputStream();
+    private boolean closed;
+
+    // Serializes writes to the journal file between the flush thread and compaction
+    private final Object fileLock = new Object();
+
+    // The sequence number of the last record, only changed while holding the Inventory commit lock, and the size of
+    // the records in the journal including the pending records (guarded by this)
+    private long sequence;
+    private long journalSize;
+    private final Thread flushThread;
+
+    // The first error the flush thread ran into. The flush thread stops writing after an error and the records are
+    // kept in memory until the next compaction saves them in the snapshot instead. The failure handler is told about
+    // the error, and both are guarded by this.
+    private IOException failure;
+    private Consumer<IOException> failureHandler;
+
+    /**
+     * Loads the Inventory from the supplied snapshot and journal files, replays the journal, and starts recording
+     * every further change to the Inventory in the journal. Either file may be missing, in which case it is created.
+     * If the files could not be loaded, the Inventory is left empty rather than holding the part of them that was
+     * loaded before the error, and no change is recorded.
+     *
+     * @param snapshotPath The snapshot file the journal is compacted into.
+     * @param journalPath The journal file.
+     * @return The open journal.
+     * @throws IOException If the snapshot or journal could not be read.
+     */
+    public static InventoryJournal open(Path snapshotPath, Path journalPath) throws IOException {
+        FileChannel channel = null;
+        try {
+            long snapshotSequence = Files.exists(snapshotPath) ? InventoryFile.load(snapshotPath) : 0;
+
+            channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                       StandardOpenOption.WRITE);
+            InventoryJournal journal = new InventoryJournal(snapshotPath, channel, snapshotSequence);
+            Inventory.addInventoryListener(journal);
+            journal.flushThread.start();
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            if(channel != null)
+                channel.close();
+            Inventory.replaceAll(new PartColumns(), Collections.emptyList(), 1, 1);
+            throw e;
+        }
+    }
+
+    /**
+     * The InventoryJournal class constructor. Replays the journal on top of the Inventory loaded from the snapshot.
+     *
+     * @param snapshotPath The snapshot file the journal is compacted into.
+     * @param channel The open journal file.
+     * @param snapshotSequence The sequence number of the last record included in the snapshot.
+     * @throws IOException If the journal could not be read.
+     */
+    private InventoryJournal(Path snapshotPath, FileChannel channel, long snapshotSequence) throws IOException {
+        this.snapshotPath = snapshotPath;
+        this.channel = channel;
+        this.sequence = snapshotSequence;
+
+        if(channel.size() == 0) {
+            writeHeader();
+        } else {
+            // Replay the records as one batch so the inventory lists report a single change
+            short version;
+            Inventory.beginBatch();
+            try {
+                version = replay(snapshotSequence);
+            } finally {
+                Inventory.endBatch();
+            }
+
+            // Fold a journal in an older version into the snapshot and start it again in the current version
+            if(version < VERSION) {
+                compact();
+                channel.truncate(0);
+                writeHeader();
+            }
+        }
+
+        flushThread = new Thread(this::runFlushThread, "inventory-journal");
+        flushThread.setDaemon(true);
+    }
+
+    /**
+     * Stops recording changes and compacts the journal into the snapshot. Must not be called while holding the
+     * Inventory commit lock, since it waits for the flush thread, which takes the lock to compact the journal.
+     *
+     * @throws IOException If the snapshot could not be saved.
+     */
+    @Override
+    public void close() throws IOException {
+        Inventory.removeInventoryListener(this);
+
+        synchronized(this) {
+            closed = true;
+            notifyAll();
+        }
+
+        try {
+            flushThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            compact();
+        } finally {
+            channel.close();
+        }
+    }
+
+    @Override
+    public void partAdded(Part part) {
+        try {
+            beginRecord(PART_ADDED);
+            payloadWriter.putPart(part);
+            endRecord();
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    @Override
+    public void partUpdated(Part oldPart, Part newPart) {
+        try {
+            beginRecord(PART_UPDATED);
+            payloadWriter.putInt(oldPart.getId());
+            payloadWriter.putPart(newPart);
+            endRecord();
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    @Override
+    public void partDeleted(Part part) {
+        try {
+            beginRecord(PART_DELETED);
+            payloadWriter.putInt(part.getId());
+            endRecord();
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    @Override
+    public void productAdded(Product product) {
+        try {
+            beginRecord(PRODUCT_ADDED);
+            payloadWriter.putProduct(product);
+            endRecord();
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    @Override
+    public void productUpdated(Product oldProduct, Product newProduct) {
+        try {
+            beginRecord(PRODUCT_UPDATED);
+            payloadWriter.putInt(oldProduct.getId());
+            payloadWriter.putProduct(newProduct);
+            endRecord();
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    @Override
+    public void productDeleted(Product product) {
+        try {
+            beginRecord(PRODUCT_DELETED);
+            payloadWriter.putInt(product.getId());
+            endRecord();
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    @Override
+    public void partAssociated(Product product, Part part) {
+        try {
+            beginRecord(PART_ASSOCIATED);
+            payloadWriter.putInt(product.getId());
+            payloadWriter.putInt(part.getId());
+            payloadWriter.putInt(product.getAssociatedPartQuantity(part.getId()));
+            endRecord();
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    @Override
+    public void partDissociated(Product product, Part part) {
+        try {
+            beginRecord(PART_DISSOCIATED);
+            payloadWriter.putInt(product.getId());
+            payloadWriter.putInt(part.getId());
+            endRecord();
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * The whole Inventory was replaced, so the journal no longer describes it. Compacts straight away so the
+     * snapshot holds the new contents.
+     */
+    @Override
+    public void inventoryReplaced() {
+        try {
+            compact();
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * Starts encoding a new record payload.
+     *
+     * @param operation The record operation.
+     * @throws IOException If the payload could not be encoded.
+     */
+    private void beginRecord(byte operation) throws IOException {
+        payload.reset();
+        payloadWriter.putLong(++sequence);
+        payloadWriter.putByte(operation);
+    }
+
+    /**
+     * Frames the encoded payload with its length and checksum, and adds it to the pending records.
+     *
+     * @throws IOException If the payload could not be encoded.
+     */
+    private void endRecord() throws IOException {
+        payloadWriter.flush();
+        byte[] bytes = payload.toByteArray();
+        crc.reset();
+        crc.update(bytes);
+
+        synchronized(this) {
+            ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES * 2);
+            frame.putInt(bytes.length).putInt((int) crc.getValue());
+            pending.write(frame.array(), 0, frame.capacity());
+            pending.write(bytes, 0, bytes.length);
+            journalSize += frame.capacity() + bytes.length;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Body of the flush thread. Waits for pending records, then writes and forces everything that was added within
+     * the flush interval in one go, and compacts the journal once it has grown past the compaction threshold.
+     */
+    private void runFlushThread() {
+        while(true) {
+            synchronized(this) {
+                while(pending.size() == 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if(pending.size() == 0)
+                    return;
+            }
+
+            // Give the reporting thread a moment to add more records to the same write
+            try {
+                Thread.sleep(FLUSH_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            if(getFailure() != null)
+                return;
+
+            try {
+                flush();
+                if(isCompactionDue())
+                    compact();
+            } catch (IOException e) {
+                failed(e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the journal has grown past the compaction threshold.
+     * @return True if the journal should be compacted.
+     */
+    private synchronized boolean isCompactionDue() {
+        return journalSize >= COMPACTION_THRESHOLD;
+    }
+
+    /**
+     * Writes all pending records to the end of the journal and forces them to disk. Called by the flush thread, and
+     * by the tests to put the journal in a known state without waiting for the flush interval.
+     *
+     * @throws IOException If the records could not be written.
+     */
+    void flush() throws IOException {
+        synchronized(fileLock) {
+            // Swap the pending buffer so records can keep being added while this batch is written
+            ByteArrayOutputStream batch;
+            synchronized(this) {
+                batch = pending;
+                pending = writing;
+                writing = batch;
+            }
+
+            if(batch.size() > 0) {
+                ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+                channel.position(channel.size());
+                while(buffer.hasRemaining())
+                    channel.write(buffer);
+                channel.force(false);
+            }
+            batch.reset();
+        }
+    }
+
+    /**
+     * Saves a new snapshot including every record so far and empties the journal. Records that are still pending are
+     * discarded since the snapshot already includes them. The Inventory commit lock is held throughout so the
+     * snapshot is consistent with the sequence number, and it is taken before the file lock because changes are
+     * reported to the journal while it is held.
+     *
+     * @throws IOException If the snapshot could not be saved.
+     */
+    private void compact() throws IOException {
+        ReentrantLock commitLock = Inventory.getCommitLock();
+        commitLock.lock();
+        try {
+            synchronized(fileLock) {
+                synchronized(this) {
+                    pending.reset();
+                    journalSize = 0;
+                }
+
+                // If the application stops between these two steps, the records are skipped on the next replay
+                // because the snapshot records the sequence number they were compacted up to
+                InventoryFile.save(snapshotPath, sequence);
+                channel.truncate(HEADER_SIZE);
+                channel.force(true);
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the first error writing the journal. Once an error has occurred, changes are no longer written to the
+     * journal and are only saved by the compaction when the journal is closed.
+     *
+     * @return The error, or null if the journal has been written without errors.
+     */
+    public synchronized IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Sets the handler told about the first error writing the journal. The handler is called once, on the thread that
+     * ran into the error, which may be holding the Inventory commit lock, so it must not block or change the
+     * Inventory. If an error has already occurred, the handler is called straight away.
+     *
+     * @param handler The failure handler, or null to report the error on the console.
+     */
+    public void setFailureHandler(Consumer<IOException> handler) {
+        IOException error;
+        synchronized(this) {
+            failureHandler = handler;
+            error = failure;
+        }
+
+        if(error != null && handler != null)
+            handler.accept(error);
+    }
+
+    /**
+     * Remembers the first error writing the journal and tells the failure handler about it, since the listener
+     * methods cannot pass it back to the Inventory operation that made the change. Called by the tests to simulate
+     * an error.
+     *
+     * @param e The error.
+     */
+    void failed(IOException e) {
+        Consumer<IOException> handler;
+        synchronized(this) {
+            if(failure != null)
+                return;
+
+            failure = e;
+            handler = failureHandler;
+        }
+
+        if(handler != null)
+            handler.accept(e);
+        else
+            System.err.println("Could not write inventory journal: " + e.getMessage());
+    }
+
+    /**
+     * Writes the journal header to an empty journal file.
+     *
+     * @throws IOException If the header could not be written.
+     */
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).flip();
+        while(header.hasRemaining())
+            channel.write(header);
+        channel.force(true);
+    }
+
+    /**
+     * Applies every intact record in the journal that is newer than the snapshot to the Inventory, and truncates any
+     * torn or corrupt record at the end of the journal.
+     *
+     * @param snapshotSequence The sequence number of the last record included in the snapshot.
+     * @return The version of the journal.
+     * @throws IOException If the journal could not be read or a record could not be applied.
+     */
+    private short replay(long snapshotSequence) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if(!readFully(header, 0) || header.getInt() != MAGIC)
+            throw new IOException("Not an inventory journal file.");
+        short version = header.getShort();
+        if(version < 1 || version > VERSION)
+            throw new IOException("Unsupported inventory journal version " + version + ".");
+
+        ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES * 2);
+        long position = HEADER_SIZE;
+        while(true) {
+            frame.clear();
+            if(!readFully(frame, position))
+                break;
+
+            int length = frame.getInt();
+            int checksum = frame.getInt();
+            if(length <= 0 || length > MAX_RECORD_SIZE)
+                break;
+
+            ByteBuffer bytes = ByteBuffer.allocate(length);
+            if(!readFully(bytes, position + frame.capacity()))
+                break;
+
+            crc.reset();
+            crc.update(bytes.array());
+            if((int) crc.getValue() != checksum)
+                break;
+
+            InventoryFile.Reader reader = new InventoryFile.Reader(bytes);
+            long recordSequence = reader.getLong();
+            if(recordSequence > snapshotSequence) {
+                apply(reader.getByte(), reader, version);
+                sequence = recordSequence;
+            }
+
+            position += frame.capacity() + length;
+        }
+
+        // Anything after the last intact record was never fully written
+        if(position < channel.size()) {
+            channel.truncate(position);
+            channel.force(true);
+        }
+        journalSize = position - HEADER_SIZE;
+        return version;
+    }
+
+    /**
+     * Applies a single journal record to the Inventory.
+     *
+     * @param operation The record operation.
+     * @param reader A reader positioned at the operation data.
+     * @param version The version of the journal.
+     * @throws IOException If the record could not be decoded or does not match the Inventory.
+     */
+    private static void apply(byte operation, InventoryFile.Reader reader, short version) throws IOException {
+        switch(operation) {
+            case PART_ADDED: {
+                Part part = reader.getPart();
+                Inventory.addPart(part);
+                Inventory.reserveIDs(part.getId(), 0);
+                break;
+            }
+            case PART_UPDATED: {
+                requirePart(reader.getInt());
+                Part part = reader.getPart();
+                Inventory.updatePart(part);
+                Inventory.reserveIDs(part.getId(), 0);
+                break;
+            }
+            case PART_DELETED: {
+                if(!Inventory.deletePart(requirePart(reader.getInt())))
+                    throw new IOException("Journal deletes a part that is still associated with a product.");
+                break;
+            }
+            case PRODUCT_ADDED: {
+                Product product = reader.getProduct(Inventory::lookupPart, version >= 2);
+                Inventory.addProduct(product);
+                Inventory.reserveIDs(0, product.getId());
+                break;
+            }
+            case PRODUCT_UPDATED: {
+                Product oldProduct = requireProduct(reader.getInt());
+                Product product = reader.getProduct(Inventory::lookupPart, version >= 2);
+                Inventory.updateProduct(Inventory.productPosition(oldProduct.getId()), product);
+                Inventory.reserveIDs(0, product.getId());
+                break;
+            }
+            case PRODUCT_DELETED: {
+                if(!Inventory.deleteProduct(requireProduct(reader.getInt())))
+                    throw new IOException("Journal deletes a product that still has associated parts.");
+                break;
+            }
+            case PART_ASSOCIATED: {
+                Product product = requireProduct(reader.getInt());
+                Part part = requirePart(reader.getInt());
+
+                // A version 1 record associates one more of the Part; later records hold the new quantity
+                int added = version >= 2 ? reader.getInt() - product.getAssociatedPartQuantity(part.getId()) : 1;
+                if(added < 1)
+                    throw new IOException("Journal reduces the quantity of a part associated with product " +
+                                          product.getId() + ".");
+                product.addAssociatedPart(part, added);
+                break;
+            }
+            case PART_DISSOCIATED: {
+                Product product = requireProduct(reader.getInt());
+                Part part = requirePart(reader.getInt());
+                int quantity = product.getAssociatedPartQuantity(part.getId());
+                if(!product.deleteAssociatedPart(part))
+                    throw new IOException("Journal removes a part that is not associated with product " +
+                                          product.getId() + ".");
+
+                // A version 1 record only removed one of the Part
+                if(version < 2 && quantity > 1)
+                    product.addAssociatedPart(part, quantity - 1);
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal operation: " + operation);
+        }
+    }
+
+    private static Part requirePart(int id) throws IOException {
+        Part part = Inventory.lookupPart(id);
+        if(part == null)
+            throw new IOException("Journal refers to unknown part ID " + id + ".");
+        return part;
+    }
+
+    private static Product requireProduct(int id) throws IOException {
+        Product product = Inventory.lookupProduct(id);
+        if(product == null)
+            throw new IOException("Journal refers to unknown product ID " + id + ".");
+        return product;
+    }
+
+    /**
+     * Reads from the journal file at the supplied position until the buffer is full.
+     *
+     * @param buffer The buffer to fill. It is flipped ready for reading if it was filled.
+     * @param position The file position to read from.
+     * @return False if the end of the file was reached before the buffer was filled.
+     * @throws IOException If the file could not be read.
+     */
+    private boolean readFully(ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) {
+            int count = channel.read(buffer, position);
+            if(count < 0)
+                return false;
+            position += count;
+        }
+        buffer.flip();
+        return true;
+    }
+}
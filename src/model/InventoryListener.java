@@ -0,0 +1,89 @@
+package model;
+
+/**
+ * <p>The InventoryListener interface is implemented by classes that need to be notified of every change committed to
+ * the Inventory, such as the InventoryJournal. Listeners are registered with Inventory.addInventoryListener and are
+ * called after the change has been applied.</p>
+ *
+ * <p>Each public Inventory operation results in exactly one notification. For example, updatePart only reports
+ * partUpdated: the Products associated with the Part swap their reference to the updated Part, but their associations
+ * do not change, so no association change is reported. Association changes are only reported for Products that are
+ * in inventory. Every method has an empty default implementation so a listener only needs to implement the
+ * notifications it is interested in.</p>
+ *
+ * <p>An updated Part or Product may be the object that was already in inventory, saved again after changing it
+ * through its setters. partUpdated and productUpdated are then passed the same object twice, already holding its new
+ * values, so a listener that needs the values an item had before a change must keep them itself, by ID, when it is
+ * told about the item.</p>
+ *
+ * <p>Listeners are called on the thread that committed the change, while the Inventory commit lock is still held, so
+ * notifications are never concurrent and always arrive in commit order. A listener must not wait for another thread
+ * that may be committing a change.</p>
+ */
+public interface InventoryListener {
+    /**
+     * Called after a Part has been added to inventory.
+     * @param part The Part that was added.
+     */
+    default void partAdded(Part part) {}
+
+    /**
+     * Called after a Part in inventory has been replaced by an updated Part. Any Products that were associated with
+     * the old Part are now associated with the updated Part. The old Part is the updated Part itself if the Part was
+     * saved again as the same object, in which case it already holds its new values.
+     *
+     * @param oldPart The Part that was replaced.
+     * @param newPart The updated Part.
+     */
+    default void partUpdated(Part oldPart, Part newPart) {}
+
+    /**
+     * Called after a Part has been deleted from inventory.
+     * @param part The Part that was deleted.
+     */
+    default void partDeleted(Part part) {}
+
+    /**
+     * Called after a Product (together with any Parts it was already associated with) has been added to inventory.
+     * @param product The Product that was added.
+     */
+    default void productAdded(Product product) {}
+
+    /**
+     * Called after a Product in inventory has been replaced by an updated Product. The old Product is the updated
+     * Product itself if the Product was saved again as the same object, in which case it already holds its new
+     * values.
+     *
+     * @param oldProduct The Product that was replaced.
+     * @param newProduct The updated Product.
+     */
+    default void productUpdated(Product oldProduct, Product newProduct) {}
+
+    /**
+     * Called after a Product has been deleted from inventory.
+     * @param product The Product that was deleted.
+     */
+    default void productDeleted(Product product) {}
+
+    /**
+     * Called after a Part has been associated with a Product in inventory, or the quantity of an associated Part the
+     * Product needs has been increased.
+     *
+     * @param product The Product the Part was associated with.
+     * @param part The Part that was associated.
+     */
+    default void partAssociated(Product product, Part part) {}
+
+    /**
+     * Called after a Part has been removed from a Product in inventory.
+     *
+     * @param product The Product the Part was removed from.
+     * @param part The Part that was removed.
+     */
+    default void partDissociated(Product product, Part part) {}
+
+    /**
+     * Called after the entire contents of inventory have been replaced, for example by loading a snapshot file.
+     */
+    default void inventoryReplaced() {}
+}
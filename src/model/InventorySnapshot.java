@@ -0,0 +1,341 @@
+package model;
+
+// Java imports
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * <p>The InventorySnapshot class is an immutable picture of the inventory as it stood after a committed change: every
+ * Part, every Product, and the IDs and quantities of the Parts associated with each Product. The Inventory publishes
+ * a new snapshot at the end of each operation (or each batch, see Inventory.applyBatch) through a volatile reference
+ * returned by Inventory.getSnapshot, so a reader such as an exporter or a report takes no lock, never sees an
+ * operation or batch half done (for example some of the Products added by an import but not the associations between
+ * them and their Parts), and never holds up the changes committed while it runs.</p>
+ *
+ * <p>The Parts and Products are kept in PersistentIntMaps keyed by ID, so publishing a snapshot after a change copies
+ * only the few nodes leading to the changed IDs and shares the rest with the previous snapshot. Parts held in the part
+ * catalog are not copied at all: the snapshot keeps the catalog and the number of records it held, which are never
+ * changed once appended, together with the Parts that override or delete catalog records.</p>
+ *
+ * <p>The snapshot holds the Part and Product objects that were committed. Changing one of them through its setters
+ * without committing it is seen by every snapshot holding the object, as it is by the rest of the application, but
+ * the associations of each Product are copied when it is committed, so they always match the snapshot.</p>
+ */
+public final class InventorySnapshot {
+    // Increases by one with each snapshot published
+    private final long version;
+
+    // The part catalog and the number of its records in the snapshot, the Parts held in the Inventory's index by ID
+    // (with the Inventory's marker for deleted catalog Parts), and the number of Parts in all
+    private final PartCatalog catalog;
+    private final int catalogSize;
+    private final PersistentIntMap<Part> parts;
+    private final Part removedPart;
+    private final int partCount;
+
+    // The Products and their associations, by Product ID
+    private final PersistentIntMap<ProductRecord> products;
+
+    /**
+     * The InventorySnapshot class constructor.
+     *
+     * @param version The version of the snapshot.
+     * @param catalog The part catalog, or null if there is none.
+     * @param parts The Parts held by ID.
+     * @param removedPart The marker for a deleted catalog Part.
+     * @param partCount The number of Parts in inventory.
+     * @param products The Products by ID.
+     */
+    private InventorySnapshot(long version, PartCatalog catalog, PersistentIntMap<Part> parts, Part removedPart,
+                              int partCount, PersistentIntMap<ProductRecord> products) {
+        this.version = version;
+        this.catalog = catalog;
+        this.catalogSize = catalog != null ? catalog.size() : 0;
+        this.parts = parts;
+        this.removedPart = removedPart;
+        this.partCount = partCount;
+        this.products = products;
+    }
+
+    /**
+     * Returns the version of the snapshot. Each snapshot published has a higher version than the one before it.
+     * @return The snapshot version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the number of Parts in the snapshot.
+     * @return The number of Parts.
+     */
+    public int getPartCount() {
+        return partCount;
+    }
+
+    /**
+     * Returns the number of Products in the snapshot.
+     * @return The number of Products.
+     */
+    public int getProductCount() {
+        return products.size();
+    }
+
+    /**
+     * Returns the Part in the snapshot with the supplied ID.
+     *
+     * @param partId The Part ID to look up.
+     * @return The Part, or null if the snapshot holds no Part with the ID.
+     */
+    public Part lookupPart(int partId) {
+        Part part = parts.get(partId);
+        if(part == removedPart)
+            return null;
+        if(part != null)
+            return part;
+
+        int record = catalog != null ? catalog.recordOf(partId) : -1;
+        return record >= 0 && record < catalogSize ? catalog.get(record) : null;
+    }
+
+    /**
+     * Returns the Product in the snapshot with the supplied ID.
+     *
+     * @param productId The Product ID to look up.
+     * @return The Product, or null if the snapshot holds no Product with the ID.
+     */
+    public Product lookupProduct(int productId) {
+        ProductRecord record = products.get(productId);
+        return record != null ? record.product : null;
+    }
+
+    /**
+     * Returns the Product in the snapshot with the supplied ID together with its associations.
+     *
+     * @param productId The Product ID to look up.
+     * @return The Product's record, or null if the snapshot holds no Product with the ID.
+     */
+    public ProductRecord getProductRecord(int productId) {
+        return products.get(productId);
+    }
+
+    /**
+     * Passes every Part in the snapshot to a consumer: the Parts still held in the part catalog, in catalog order,
+     * then the other Parts in ID order. Catalog Parts are passed as new objects that are not cached (see
+     * PartCatalog.read), so passing over a large catalog does not fill the heap; look a Part up with lookupPart where
+     * the object stored in inventory is needed.
+     *
+     * @param consumer The consumer.
+     */
+    public void forEachPart(Consumer<? super Part> consumer) {
+        for(int record = 0; record < catalogSize; record++) {
+            if(isCatalogPart(record))
+                consumer.accept(catalog.read(record));
+        }
+        parts.forEach((id, part) -> {
+            if(part != removedPart)
+                consumer.accept(part);
+        });
+    }
+
+    /**
+     * Passes the ID, price, stock, min, and max of every Part in the snapshot to a consumer, in the same order as
+     * forEachPart. Parts held in the part catalog are read from the catalog without creating Part objects.
+     *
+     * @param consumer The consumer.
+     */
+    public void forEachPartRow(PartRowConsumer consumer) {
+        for(int record = 0; record < catalogSize; record++) {
+            if(isCatalogPart(record))
+                catalog.scanRecord(record, consumer);
+        }
+        parts.forEach((id, part) -> {
+            if(part != removedPart)
+                consumer.accept(part.getId(), part.getPrice(), part.getStock(), part.getMin(), part.getMax());
+        });
+    }
+
+    /**
+     * Passes the record of every Product in the snapshot to a consumer, in ID order.
+     *
+     * @param consumer The consumer.
+     */
+    public void forEachProduct(Consumer<? super ProductRecord> consumer) {
+        products.forEach((id, record) -> consumer.accept(record));
+    }
+
+    /**
+     * Returns true if a catalog record holds a Part in the snapshot: the record is the latest holding its ID, and the
+     * Part has not been replaced or deleted.
+     *
+     * @param record The record number.
+     * @return True if the Part in the record is in the snapshot.
+     */
+    private boolean isCatalogPart(int record) {
+        int id = catalog.idAt(record);
+        return !parts.containsKey(id) && catalog.recordOf(id) == record;
+    }
+
+    /**
+     * <p>The ProductRecord class holds a Product in a snapshot together with the IDs of the Parts associated with it
+     * and the quantity of each, as they were when the snapshot was published. The associated Parts themselves are
+     * looked up in the snapshot by ID.</p>
+     */
+    public static final class ProductRecord {
+        private final Product product;
+        private final int[] partIds;
+        private final int[] quantities;
+
+        /**
+         * The ProductRecord class constructor. Copies the Product's associations.
+         * @param product The Product.
+         */
+        private ProductRecord(Product product) {
+            this.product = product;
+            this.partIds = product.copyAssociatedPartIds();
+            this.quantities = product.copyAssociatedPartQuantities();
+        }
+
+        /**
+         * Returns the Product.
+         * @return The Product.
+         */
+        public Product getProduct() {
+            return product;
+        }
+
+        /**
+         * Returns the number of different Parts associated with the Product.
+         * @return The number of associated Parts.
+         */
+        public int getAssociatedPartCount() {
+            return partIds.length;
+        }
+
+        /**
+         * Returns the ID of the associated Part at a position, in the order the Parts are associated with the Product.
+         *
+         * @param index The position of the Part.
+         * @return The Part ID.
+         * @throws IndexOutOfBoundsException If there is no associated Part at the position.
+         */
+        public int getAssociatedPartId(int index) {
+            return partIds[index];
+        }
+
+        /**
+         * Returns the quantity the Product needs of the associated Part at a position.
+         *
+         * @param index The position of the Part.
+         * @return The number of the Part needed to build one of the Product.
+         * @throws IndexOutOfBoundsException If there is no associated Part at the position.
+         */
+        public int getAssociatedPartQuantity(int index) {
+            return quantities[index];
+        }
+    }
+
+    /**
+     * <p>The Builder class follows the changes the Inventory commits and publishes a new InventorySnapshot from them.
+     * Parts are passed to it as the Inventory's index by ID changes. Products are only marked as changed, and their
+     * associations are copied when the snapshot is published, so a Product whose associations change several times in
+     * one operation is copied once.</p>
+     *
+     * <p>Only used by the Inventory while holding its commit lock.</p>
+     */
+    static final class Builder {
+        private final Part removedPart;
+        private final PersistentIntMap.Editor<Part> parts = PersistentIntMap.<Part>empty().edit();
+        private final PersistentIntMap.Editor<ProductRecord> products = PersistentIntMap.<ProductRecord>empty().edit();
+
+        // The IDs of the Products changed since the last snapshot, and whether anything has changed since then
+        private final IntHashMap<Boolean> changedProductIds = new IntHashMap<>();
+        private boolean changed;
+        private long version;
+
+        /**
+         * The Builder class constructor.
+         * @param removedPart The marker the Inventory's index by ID holds for a deleted catalog Part.
+         */
+        Builder(Part removedPart) {
+            this.removedPart = removedPart;
+        }
+
+        /**
+         * Records that the Inventory's index by ID maps a Part ID to a Part (or to the marker for a deleted catalog
+         * Part).
+         *
+         * @param partId The Part ID.
+         * @param part The Part.
+         */
+        void putPart(int partId, Part part) {
+            parts.put(partId, part);
+            changed = true;
+        }
+
+        /**
+         * Records that the Inventory's index by ID no longer maps a Part ID.
+         * @param partId The Part ID.
+         */
+        void removePart(int partId) {
+            parts.remove(partId);
+            changed = true;
+        }
+
+        /**
+         * Records that the Inventory's index by ID has been cleared.
+         */
+        void clearParts() {
+            parts.clear();
+            changed = true;
+        }
+
+        /**
+         * Records that the Product with an ID, or its associations, may have changed.
+         * @param productId The Product ID.
+         */
+        void productChanged(int productId) {
+            changedProductIds.put(productId, Boolean.TRUE);
+            changed = true;
+        }
+
+        /**
+         * Records that every Product has been removed.
+         */
+        void clearProducts() {
+            products.clear();
+            changedProductIds.clear();
+            changed = true;
+        }
+
+        /**
+         * Returns true if anything has been recorded since the last snapshot was published.
+         * @return True if there are changes to publish.
+         */
+        boolean hasChanges() {
+            return changed;
+        }
+
+        /**
+         * Publishes a snapshot holding every change recorded so far.
+         *
+         * @param catalog The part catalog, or null if there is none.
+         * @param partCount The number of Parts in inventory.
+         * @param lookupProduct Returns the Product in inventory with an ID, or null if there is none.
+         * @return The new snapshot.
+         */
+        InventorySnapshot publish(PartCatalog catalog, int partCount, IntFunction<Product> lookupProduct) {
+            changedProductIds.forEach((productId, ignored) -> {
+                Product product = lookupProduct.apply(productId);
+                if(product != null)
+                    products.put(productId, new ProductRecord(product));
+                else
+                    products.remove(productId);
+            });
+            changedProductIds.clear();
+            changed = false;
+
+            return new InventorySnapshot(version++, catalog, parts.toMap(), removedPart, partCount, products.toMap());
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package model;
+
+// Java imports
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>The InventoryValuation class keeps running totals of the value of the stock in inventory (price times stock
+ * level): for all Parts, for all Products, for the Outsourced Parts of each supplier (company name), and for the
+ * InHouse Parts of each machine (machine ID). Like the ReorderAlerts, the totals are updated by the Inventory as part
+ * of every change it commits, so reading a total takes constant time and the inventory is only scanned when it is
+ * replaced as a whole.</p>
+ *
+ * <p>Each value is added to the totals in whole cents, rounded once per Part or Product. Totals held as doubles would
+ * drift as values are added and subtracted again; in cents, subtracting the value of a deleted Part always exactly
+ * undoes adding it. The totals follow the values of the objects committed to inventory, so changing a Part through its
+ * setters without committing it through Inventory.updatePart is not seen.</p>
+ *
+ * <p>The value each Part and Product added to the totals, and the supplier or machine it was counted for, are kept by
+ * ID, and that is what is subtracted again when it is updated or deleted. A Part saved again as the same object after
+ * changing it through its setters already holds its new values when the update is reported, so the values it was
+ * counted with cannot be read back from it.</p>
+ *
+ * <p>Every method is synchronized, since the totals are read by the JavaFX Application Thread while changes are
+ * committed on other threads.</p>
+ */
+public class InventoryValuation {
+    // Total stock value of all Parts and all Products, in cents
+    private long partValue;
+    private long productValue;
+
+    // Stock value and number of Parts for each supplier and machine. An entry is removed along with the last Part
+    // counted in it.
+    private final Map<String, Totals> supplierValues = new HashMap<>();
+    private final IntHashMap<Totals> machineValues = new IntHashMap<>();
+
+    // What each Part was counted with, and the value in cents each Product was counted with, by ID
+    private final IntHashMap<CountedPart> countedParts = new IntHashMap<>();
+    private final IntHashMap<Long> countedProducts = new IntHashMap<>();
+
+    // Updates the totals for each change committed to inventory. Only registered by the Inventory.
+    private final InventoryListener updater = new InventoryListener() {
+        @Override
+        public void partAdded(Part part) {
+            addPart(part);
+        }
+
+        @Override
+        public void partUpdated(Part oldPart, Part newPart) {
+            removePart(oldPart.getId());
+            addPart(newPart);
+        }
+
+        @Override
+        public void partDeleted(Part part) {
+            removePart(part.getId());
+        }
+
+        @Override
+        public void productAdded(Product product) {
+            addProduct(product);
+        }
+
+        @Override
+        public void productUpdated(Product oldProduct, Product newProduct) {
+            removeProduct(oldProduct.getId());
+            addProduct(newProduct);
+        }
+
+        @Override
+        public void productDeleted(Product product) {
+            removeProduct(product.getId());
+        }
+
+        @Override
+        public void inventoryReplaced() {
+            rebuild();
+        }
+    };
+
+    /**
+     * The InventoryValuation class constructor.
+     */
+    InventoryValuation() {
+    }
+
+    /**
+     * Returns the listener the Inventory passes every committed change to.
+     * @return The listener updating the totals.
+     */
+    InventoryListener getUpdater() {
+        return updater;
+    }
+
+    /**
+     * Returns the total stock value of every Part in inventory.
+     * @return The sum of price times stock level over all Parts.
+     */
+    public synchronized double getPartStockValue() {
+        return partValue / 100.0;
+    }
+
+    /**
+     * Returns the total stock value of every Product in inventory.
+     * @return The sum of price times stock level over all Products.
+     */
+    public synchronized double getProductStockValue() {
+        return productValue / 100.0;
+    }
+
+    /**
+     * Returns the total stock value of the Outsourced Parts supplied by a company.
+     *
+     * @param companyName The company name.
+     * @return The sum of price times stock level over the company's Parts, or 0 if there are none.
+     */
+    public synchronized double getSupplierStockValue(String companyName) {
+        Totals totals = supplierValues.get(companyName);
+        return totals == null ? 0 : totals.value / 100.0;
+    }
+
+    /**
+     * Returns the total stock value of the InHouse Parts made by a machine.
+     *
+     * @param machineId The machine ID.
+     * @return The sum of price times stock level over the machine's Parts, or 0 if there are none.
+     */
+    public synchronized double getMachineStockValue(int machineId) {
+        Totals totals = machineValues.get(machineId);
+        return totals == null ? 0 : totals.value / 100.0;
+    }
+
+    /**
+     * Returns the total stock value of the Outsourced Parts of every supplier.
+     * @return A new map from company name to stock value, in company name order.
+     */
+    public synchronized Map<String, Double> getSupplierStockValues() {
+        Map<String, Double> values = new TreeMap<>();
+        supplierValues.forEach((companyName, totals) -> values.put(companyName, totals.value / 100.0));
+        return values;
+    }
+
+    /**
+     * Returns the total stock value of the InHouse Parts of every machine.
+     * @return A new map from machine ID to stock value, in machine ID order.
+     */
+    public synchronized Map<Integer, Double> getMachineStockValues() {
+        Map<Integer, Double> values = new TreeMap<>();
+        machineValues.forEach((machineId, totals) -> values.put(machineId, totals.value / 100.0));
+        return values;
+    }
+
+    /**
+     * Adds the stock value of a Part to the totals and remembers what it was counted with. A Part already counted
+     * under the same ID is subtracted first.
+     *
+     * @param part The Part.
+     */
+    private synchronized void addPart(Part part) {
+        removePart(part.getId());
+
+        Totals totals = null;
+        if(part instanceof Outsourced) {
+            totals = supplierValues.computeIfAbsent(((Outsourced) part).getCompanyName(), Totals::new);
+        } else if(part instanceof InHouse) {
+            int machineId = ((InHouse) part).getMachineId();
+            totals = machineValues.get(machineId);
+            if(totals == null) {
+                totals = new Totals(machineId);
+                machineValues.put(machineId, totals);
+            }
+        }
+
+        long value = cents(part.getPrice(), part.getStock());
+        partValue += value;
+        if(totals != null) {
+            totals.value += value;
+            totals.count++;
+        }
+        countedParts.put(part.getId(), new CountedPart(value, totals));
+    }
+
+    /**
+     * Subtracts the stock value a Part was counted with from the totals.
+     *
+     * @param partId The ID of the Part.
+     */
+    private synchronized void removePart(int partId) {
+        CountedPart counted = countedParts.remove(partId);
+        if(counted == null)
+            return;
+
+        partValue -= counted.value;
+        Totals totals = counted.totals;
+        if(totals != null) {
+            totals.value -= counted.value;
+            if(--totals.count == 0) {
+                if(totals.supplier)
+                    supplierValues.remove(totals.companyName);
+                else
+                    machineValues.remove(totals.machineId);
+            }
+        }
+    }
+
+    /**
+     * Adds the stock value of a Product to the totals and remembers it. A Product already counted under the same ID
+     * is subtracted first.
+     *
+     * @param product The Product.
+     */
+    private synchronized void addProduct(Product product) {
+        removeProduct(product.getId());
+
+        long value = cents(product.getPrice(), product.getStock());
+        productValue += value;
+        countedProducts.put(product.getId(), value);
+    }
+
+    /**
+     * Subtracts the stock value a Product was counted with from the totals.
+     *
+     * @param productId The ID of the Product.
+     */
+    private synchronized void removeProduct(int productId) {
+        Long value = countedProducts.remove(productId);
+        if(value != null)
+            productValue -= value;
+    }
+
+    /**
+     * Recalculates every total from the contents of inventory after the whole inventory has been replaced. Catalog
+     * Parts are read without being cached, so the scan does not keep every Part in memory. Called while the Inventory
+     * commit lock is held.
+     */
+    private synchronized void rebuild() {
+        partValue = 0;
+        productValue = 0;
+        supplierValues.clear();
+        machineValues.clear();
+        countedParts.clear();
+        countedProducts.clear();
+
+        PartList parts = Inventory.getPartList();
+        for(int i = 0; i < parts.size(); i++)
+            addPart(parts.readPart(i));
+        for(Product product : Inventory.getProductList())
+            addProduct(product);
+    }
+
+    /**
+     * Returns the value of a stock level at a price, in whole cents.
+     *
+     * @param price The price.
+     * @param stock The stock level.
+     * @return The value in cents.
+     */
+    private static long cents(double price, int stock) {
+        return Math.round(price * stock * 100);
+    }
+
+    /**
+     * The stock value in cents and number of Parts counted for a supplier or a machine, together with the company
+     * name or machine ID they are kept for.
+     */
+    private static class Totals {
+        final boolean supplier;
+        final String companyName;
+        final int machineId;
+        long value;
+        int count;
+
+        Totals(String companyName) {
+            this.supplier = true;
+            this.companyName = companyName;
+            this.machineId = 0;
+        }
+
+        Totals(int machineId) {
+            this.supplier = false;
+            this.companyName = null;
+            this.machineId = machineId;
+        }
+    }
+
+    /**
+     * The stock value in cents a Part was counted with, together with the supplier or machine totals it was counted
+     * in (null if neither).
+     */
+    private static class CountedPart {
+        final long value;
+        final Totals totals;
+
+        CountedPart(long value, Totals totals) {
+            this.value = value;
+            this.totals = totals;
+        }
+    }
+}
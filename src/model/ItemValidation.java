@@ -0,0 +1,71 @@
+package model;
+
+/**
+ * <p>The ItemValidation class holds the rules a Part or Product must satisfy before it is added to inventory. They are
+ * the same rules the Part and Product screens apply to their text fields with FieldValidation, expressed over parsed
+ * values so they can be checked on any thread, for example by the CsvImporter.</p>
+ *
+ * <p>Each method returns null if the values are valid, or a message naming the field and the rule it breaks in the
+ * same words as the alert shown by the screens.</p>
+ */
+final class ItemValidation {
+    // Messages shared with the Part and Product screen alerts
+    static final String EMPTY = "Value cannot be empty or blank.";
+    static final String NOT_A_POSITIVE_NUMBER = "Invalid input. Value must be a positive number.";
+    static final String NOT_A_POSITIVE_INT = "Invalid input. Value must be a positive number without a decimal.";
+
+    private ItemValidation() {
+    }
+
+    /**
+     * Checks the fields shared by Parts and Products: the name must not be blank, the price must be a positive
+     * number, the stock, min, and max must be positive whole numbers, max must be greater than or equal to min, and the
+     * stock must be between min and max.
+     *
+     * @param name The name.
+     * @param price The price.
+     * @param stock The stock level.
+     * @param min The minimum stock level.
+     * @param max The maximum stock level.
+     * @return Null if the fields are valid, otherwise a description of the first invalid field.
+     */
+    static String checkItem(String name, double price, int stock, int min, int max) {
+        if(name == null || name.isBlank())
+            return "Name: " + EMPTY;
+        if(!(price >= 0) || Double.isInfinite(price))
+            return "Price: " + NOT_A_POSITIVE_NUMBER;
+        if(stock < 0)
+            return "Inv: " + NOT_A_POSITIVE_INT;
+        if(max < 0)
+            return "Max: " + NOT_A_POSITIVE_INT;
+        if(min < 0)
+            return "Min: " + NOT_A_POSITIVE_INT;
+        if(max < min)
+            return "Max: Max must be greater than Min.";
+        if(stock < min)
+            return "Inv: Inv must be greater than or equal to Min.";
+        if(stock > max)
+            return "Inv: Inv must be less than or equal to Max.";
+        return null;
+    }
+
+    /**
+     * Checks the machine ID of an InHouse Part, which must be a positive whole number.
+     *
+     * @param machineId The machine ID.
+     * @return Null if the machine ID is valid, otherwise a description of the problem.
+     */
+    static String checkMachineId(int machineId) {
+        return machineId < 0 ? "Machine ID: " + NOT_A_POSITIVE_INT : null;
+    }
+
+    /**
+     * Checks the company name of an Outsourced Part, which must not be blank.
+     *
+     * @param companyName The company name.
+     * @return Null if the company name is valid, otherwise a description of the problem.
+     */
+    static String checkCompanyName(String companyName) {
+        return companyName == null || companyName.isBlank() ? "Company Name: " + EMPTY : null;
+    }
+}
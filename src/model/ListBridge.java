@@ -0,0 +1,111 @@
+package model;
+
+// Java imports
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * <p>The ListBridge class replays the changes committed to inventory onto the ObservableLists returned by
+ * Inventory.getAllParts() and getAllProducts(). Those lists are bound to TableViews, so they must only be modified on
+ * the JavaFX Application Thread, while changes may be committed on any thread.</p>
+ *
+ * <p>A change committed on the list thread is applied at once, after any changes still waiting to be applied, so the
+ * lists are up to date as soon as the inventory method returns. A change committed on any other thread is queued, and
+ * the queue is drained by a single task run on the list thread. The changes are queued while the inventory commit
+ * lock is held, so they are always applied in the order they were committed.</p>
+ *
+ * <p>Until bind is called every thread counts as the list thread, so each change is applied directly by the thread
+ * committing it. This is how the inventory is used before the JavaFX toolkit starts and by the benchmarks.</p>
+ */
+class ListBridge {
+    // Changes committed but not yet applied to the lists
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+    // True while a drain task is waiting to run on the list thread
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+
+    // Tests whether the current thread is the list thread, and runs a task on the list thread
+    private volatile BooleanSupplier isListThread = () -> true;
+    private volatile Executor listThread = Runnable::run;
+
+    // Start and end grouping the changes made to the lists into a single change for each list
+    private final Runnable beginBatch;
+    private final Runnable endBatch;
+
+    /**
+     * The ListBridge class constructor.
+     *
+     * @param beginBatch Starts grouping the changes made to the lists into a single change for each list.
+     * @param endBatch Reports the changes grouped since beginBatch to the listeners of each list.
+     */
+    ListBridge(Runnable beginBatch, Runnable endBatch) {
+        this.beginBatch = beginBatch;
+        this.endBatch = endBatch;
+    }
+
+    /**
+     * Binds the bridge to the thread allowed to modify the lists.
+     *
+     * @param isListThread Returns true if called on the list thread.
+     * @param listThread Runs a task on the list thread.
+     */
+    void bind(BooleanSupplier isListThread, Executor listThread) {
+        this.listThread = listThread;
+        this.isListThread = isListThread;
+    }
+
+    /**
+     * Returns true if the current thread may modify the lists.
+     *
+     * @return True if called on the list thread.
+     */
+    boolean isListThread() {
+        return isListThread.getAsBoolean();
+    }
+
+    /**
+     * Applies a committed change to the lists, or queues it for the list thread. Must be called while holding the
+     * inventory commit lock.
+     *
+     * @param change The change to apply to the lists.
+     */
+    void apply(Runnable change) {
+        if(isListThread()) {
+            drain();
+            change.run();
+            return;
+        }
+
+        pending.add(change);
+        if(drainQueued.compareAndSet(false, true))
+            listThread.execute(this::drainQueued);
+    }
+
+    /**
+     * Applies every queued change. Must be called on the list thread.
+     */
+    void drain() {
+        Runnable change;
+        while((change = pending.poll()) != null)
+            change.run();
+    }
+
+    /**
+     * The task run on the list thread to drain the queue. The flag is cleared before draining, so a change queued
+     * while the queue is being drained either gets drained now or queues a new task. Every change drained by one task
+     * is reported as a single change to each list, so a bound TableView refreshes once however many changes were
+     * committed on other threads since the last task.
+     */
+    private void drainQueued() {
+        drainQueued.set(false);
+        beginBatch.run();
+        try {
+            drain();
+        } finally {
+            endBatch.run();
+        }
+    }
+}
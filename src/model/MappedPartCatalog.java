@@ -0,0 +1,308 @@
+package model;
+
+// Java imports
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntFunction;
+
+/**
+ * <p>The MappedPartCatalog class is a read-only store of Parts kept in a memory-mapped file instead of on the heap.
+ * Every Part is stored as a fixed-width record, so the Part at any position can be read straight from the mapped file
+ * without reading the records before it. Opening a catalog only maps the file, so it takes the same time and heap
+ * space however many Parts the catalog holds.</p>
+ *
+ * <p>InHouse and Outsourced objects are only created (materialized) when a Part is asked for, for example when a
+ * TableView row showing it is rendered or the Part is looked up by ID, and are kept in a PartCache so that a Part
+ * that is still referenced elsewhere is always returned as the same object.</p>
+ *
+ * <p>File layout (all numbers big-endian):</p>
+ * <ul>
+ *     <li><b>Header (16 bytes):</b> magic number, format version, flags, Part count, reserved</li>
+ *     <li><b>Records (40 bytes each):</b> type, ID, price, stock, min, max, machine ID, name offset, company name
+ *     offset</li>
+ *     <li><b>Strings:</b> names and company names, each an int byte length followed by UTF-8 bytes. Records refer to
+ *     them by their offset from the start of this section (-1 if the Part has no company name).</li>
+ * </ul>
+ */
+class MappedPartCatalog implements PartCatalog {
+    // Identifies a catalog file ("INVP") and the version of its layout
+    private static final int MAGIC = 0x494E5650;
+    private static final short VERSION = 1;
+
+    // Set in the header flags if the records are in ascending ID order
+    private static final byte SORTED_BY_ID = 1;
+
+    private static final int HEADER_SIZE = 16;
+
+    // Record layout
+    private static final int RECORD_SIZE = 40;
+    private static final int TYPE = 0;
+    private static final int ID = 4;
+    private static final int PRICE = 8;
+    private static final int STOCK = 16;
+    private static final int MIN = 20;
+    private static final int MAX = 24;
+    private static final int MACHINE_ID = 28;
+    private static final int NAME = 32;
+    private static final int COMPANY_NAME = 36;
+
+    // Number of materialized Parts kept in the LRU cache
+    private static final int CACHE_SIZE = 4096;
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+    private final boolean sortedById;
+    private final int stringsStart;
+
+    // Record numbers by ID, only built if the records are not in ID order. Guarded by this.
+    private IntHashMap<Integer> recordsById;
+
+    // The Parts materialized from the records
+    private final PartCache cache = new PartCache(CACHE_SIZE);
+
+    /**
+     * The MappedPartCatalog class constructor.
+     *
+     * @param buffer The mapped catalog file.
+     * @throws IOException If the file is not a valid catalog.
+     */
+    private MappedPartCatalog(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+
+        if(buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION)
+            throw new IOException("Not a part catalog file.");
+
+        sortedById = (buffer.get(6) & SORTED_BY_ID) != 0;
+        size = buffer.getInt(8);
+        if(size < 0 || HEADER_SIZE + (long) size * RECORD_SIZE > buffer.capacity())
+            throw new IOException("Part catalog file is truncated.");
+        stringsStart = HEADER_SIZE + size * RECORD_SIZE;
+    }
+
+    /**
+     * Maps a catalog file into memory. Nothing is read from the file apart from its header.
+     *
+     * @param path The catalog file.
+     * @return The catalog.
+     * @throws IOException If the file could not be mapped or is not a valid catalog.
+     */
+    static MappedPartCatalog open(Path path) throws IOException {
+        // The mapping stays valid after the channel is closed
+        try(FileChannel channel = FileChannel.open(path)) {
+            if(channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Part catalog file is too large to map: " + path);
+            return new MappedPartCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes Parts to a new catalog file, replacing the contents of the file.
+     *
+     * @param path The catalog file.
+     * @param count The number of Parts.
+     * @param partAt A function returning the Part at each position from 0 to count - 1.
+     * @throws IOException If the file could not be written.
+     */
+    static void write(Path path, int count, IntFunction<Part> partAt) throws IOException {
+        if(count > (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE)
+            throw new IOException("Too many parts for a part catalog: " + count);
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                   StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Records and strings are written to their own sections of the file at the same time
+            long recordsStart = HEADER_SIZE;
+            long stringsStart = recordsStart + (long) count * RECORD_SIZE;
+            InventoryFile.Writer records = new InventoryFile.Writer(new SectionChannel(channel, recordsStart));
+            InventoryFile.Writer strings = new InventoryFile.Writer(new SectionChannel(channel, stringsStart));
+
+            long stringOffset = 0;
+            boolean sortedById = true;
+            int previousId = Integer.MIN_VALUE;
+            for(int i = 0; i < count; i++) {
+                Part part = partAt.apply(i);
+                sortedById &= part.getId() > previousId;
+                previousId = part.getId();
+
+                int nameOffset = (int) stringOffset;
+                stringOffset += strings.putString(part.getName());
+                int companyNameOffset = -1;
+                if(part instanceof Outsourced) {
+                    companyNameOffset = (int) stringOffset;
+                    stringOffset += strings.putString(((Outsourced) part).getCompanyName());
+                }
+                if(stringsStart + stringOffset > Integer.MAX_VALUE)
+                    throw new IOException("Part names are too large for a part catalog.");
+
+                records.putByte(part instanceof InHouse ? InventoryFile.IN_HOUSE : InventoryFile.OUTSOURCED);
+                records.putByte((byte) 0);
+                records.putShort((short) 0);
+                records.putInt(part.getId());
+                records.putDouble(part.getPrice());
+                records.putInt(part.getStock());
+                records.putInt(part.getMin());
+                records.putInt(part.getMax());
+                records.putInt(part instanceof InHouse ? ((InHouse) part).getMachineId() : 0);
+                records.putInt(nameOffset);
+                records.putInt(companyNameOffset);
+            }
+            records.flush();
+            strings.flush();
+
+            // The header is written last, once it is known whether the records are in ID order
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).put(sortedById ? SORTED_BY_ID : 0).put((byte) 0).putInt(count);
+            header.clear();
+            while(header.hasRemaining())
+                channel.write(header, header.position());
+            channel.force(true);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int idAt(int record) {
+        return buffer.getInt(recordStart(record) + ID);
+    }
+
+    @Override
+    public String nameAt(int record) {
+        return stringAt(buffer.getInt(recordStart(record) + NAME));
+    }
+
+    @Override
+    public int recordOf(int id) {
+        if(!sortedById) {
+            Integer record = recordsByIdIndex().get(id);
+            return record == null ? -1 : record;
+        }
+
+        // Binary search the IDs in the mapped records
+        int low = 0;
+        int high = size - 1;
+        while(low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = idAt(middle);
+            if(middleId < id)
+                low = middle + 1;
+            else if(middleId > id)
+                high = middle - 1;
+            else
+                return middle;
+        }
+
+        return -1;
+    }
+
+    @Override
+    public Part get(int record) {
+        return cache.get(record, this::read);
+    }
+
+    @Override
+    public Part read(int record) {
+        int start = recordStart(record);
+        byte type = buffer.get(start + TYPE);
+        int id = buffer.getInt(start + ID);
+        String name = stringAt(buffer.getInt(start + NAME));
+        double price = buffer.getDouble(start + PRICE);
+        int stock = buffer.getInt(start + STOCK);
+        int min = buffer.getInt(start + MIN);
+        int max = buffer.getInt(start + MAX);
+
+        if(type == InventoryFile.IN_HOUSE)
+            return new InHouse(id, name, price, stock, min, max, buffer.getInt(start + MACHINE_ID));
+        if(type == InventoryFile.OUTSOURCED)
+            return new Outsourced(id, name, price, stock, min, max, stringAt(buffer.getInt(start + COMPANY_NAME)));
+
+        throw new IllegalStateException("Unknown part type in part catalog record " + record + ": " + type);
+    }
+
+    @Override
+    public void scanRecord(int record, PartRowConsumer consumer) {
+        int start = recordStart(record);
+        consumer.accept(buffer.getInt(start + ID), buffer.getDouble(start + PRICE), buffer.getInt(start + STOCK),
+                        buffer.getInt(start + MIN), buffer.getInt(start + MAX));
+    }
+
+    /**
+     * Returns the byte position of a record in the mapped file.
+     *
+     * @param record The record number.
+     * @return The position of the record.
+     */
+    private int recordStart(int record) {
+        if(record < 0 || record >= size)
+            throw new IndexOutOfBoundsException("Part catalog record " + record + " of " + size);
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+
+    /**
+     * Decodes a string from the strings section.
+     *
+     * @param offset The offset of the string from the start of the strings section.
+     * @return The string.
+     */
+    private String stringAt(int offset) {
+        int start = stringsStart + offset;
+        byte[] bytes = new byte[buffer.getInt(start)];
+
+        // A duplicate has its own position, so strings can be read by several threads at once
+        ByteBuffer source = buffer.duplicate();
+        source.position(start + Integer.BYTES);
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the index of record numbers by ID, building it on first use.
+     *
+     * @return The record numbers by ID.
+     */
+    private synchronized IntHashMap<Integer> recordsByIdIndex() {
+        if(recordsById == null) {
+            recordsById = new IntHashMap<>();
+            for(int record = 0; record < size; record++)
+                recordsById.put(idAt(record), record);
+        }
+        return recordsById;
+    }
+
+    /**
+     * A channel that writes to consecutive positions of a section of a file, independent of the file's own position.
+     */
+    private static class SectionChannel implements WritableByteChannel {
+        private final FileChannel channel;
+        private long position;
+
+        private SectionChannel(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            int written = channel.write(source, position);
+            position += written;
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
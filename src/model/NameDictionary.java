@@ -0,0 +1,109 @@
+package model;
+
+// Java imports
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * <p>The NameDictionary class interns the names and company names of the Parts held in PartColumns. Each distinct
+ * string is stored once, as UTF-8 bytes in a single shared byte array, and is referred to by an int code. A name
+ * therefore costs its UTF-8 bytes and a few ints rather than a String object and its backing array, and a company
+ * name shared by thousands of Parts is only stored once.</p>
+ *
+ * <p>Codes are found by hashing the UTF-8 bytes into an open addressing table of codes. Strings are only ever added,
+ * so a code stays valid for the life of the dictionary. Every method is synchronized, since Part names can be changed
+ * through a PartColumns view while other threads read them.</p>
+ */
+class NameDictionary {
+    // The UTF-8 bytes of every string, one after another
+    private byte[] bytes = new byte[1024];
+    private int byteCount;
+
+    // The position in bytes of the start of each string, followed by the position after the last string
+    private int[] starts = new int[17];
+    private int count;
+
+    // Open addressing table of code + 1 for each string, by hash of its bytes. 0 marks an empty slot.
+    private int[] table = new int[32];
+
+    /**
+     * Returns the code of a string, adding the string to the dictionary if it is not in it yet.
+     *
+     * @param string The string.
+     * @return The code of the string.
+     */
+    synchronized int intern(String string) {
+        byte[] encoded = string.getBytes(StandardCharsets.UTF_8);
+        int mask = table.length - 1;
+        int slot = hash(encoded, 0, encoded.length) & mask;
+        while(table[slot] != 0) {
+            int code = table[slot] - 1;
+            if(Arrays.equals(bytes, starts[code], starts[code + 1], encoded, 0, encoded.length))
+                return code;
+            slot = (slot + 1) & mask;
+        }
+
+        // Add the string and keep the table at most half full
+        if(byteCount + encoded.length > bytes.length)
+            bytes = Arrays.copyOf(bytes, Math.max(byteCount + encoded.length, bytes.length * 2));
+        System.arraycopy(encoded, 0, bytes, byteCount, encoded.length);
+        byteCount += encoded.length;
+        if(count + 2 > starts.length)
+            starts = Arrays.copyOf(starts, starts.length * 2);
+        starts[count + 1] = byteCount;
+
+        int code = count++;
+        table[slot] = code + 1;
+        if(count * 2 > table.length)
+            rehash();
+        return code;
+    }
+
+    /**
+     * Returns the string with a code.
+     *
+     * @param code The code returned by intern.
+     * @return The string.
+     */
+    synchronized String get(int code) {
+        return new String(bytes, starts[code], starts[code + 1] - starts[code], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of distinct strings in the dictionary.
+     * @return The number of strings.
+     */
+    synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Doubles the size of the table and places every code in it again.
+     */
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for(int code = 0; code < count; code++) {
+            int slot = hash(bytes, starts[code], starts[code + 1]) & mask;
+            while(table[slot] != 0)
+                slot = (slot + 1) & mask;
+            table[slot] = code + 1;
+        }
+    }
+
+    /**
+     * Hashes a range of bytes, spreading the bits so that the low bits used to pick a slot depend on every byte.
+     *
+     * @param data The bytes.
+     * @param from The position of the first byte.
+     * @param to The position after the last byte.
+     * @return The hash.
+     */
+    private static int hash(byte[] data, int from, int to) {
+        int hash = 1;
+        for(int i = from; i < to; i++)
+            hash = 31 * hash + data[i];
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
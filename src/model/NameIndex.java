@@ -0,0 +1,280 @@
+package model;
+
+// Java imports
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+
+/**
+ * <p>The NameIndex class maps the exact names of Part or Product objects to the IDs of every object with that name,
+ * so that looking up a name takes one hash lookup however many objects are in inventory. Names do not have to be
+ * unique; the IDs sharing a name are kept in ascending order, so the first match for a name is always the object
+ * with the lowest ID rather than whichever object happens to come first in the inventory list.</p>
+ *
+ * <p>Names can also be looked up by a normalized key (see normalize), which ignores case, Unicode compatibility
+ * differences, and surrounding or repeated whitespace. The normalized keys are only built the first time they are
+ * used, and are maintained along with the exact names from then on.</p>
+ *
+ * <p>Like TrigramIndex, the index only stores IDs and looks the objects up when they are returned, so names from a
+ * MappedPartCatalog can be indexed without materializing every Part, and building the index after the whole
+ * inventory is replaced is deferred until it is first used. All methods are synchronized because lookups may run off
+ * the JavaFX Application Thread.</p>
+ *
+ * @param <T> The type of object indexed (Part or Product).
+ */
+class NameIndex<T> {
+    // Functions used to read the ID and name of an indexed object, and to look up an indexed object by its ID
+    private final ToIntFunction<T> idOf;
+    private final Function<T, String> nameOf;
+    private final IntFunction<T> lookup;
+
+    // The name each ID was indexed under, and the sorted IDs sharing each exact name
+    private final IntHashMap<String> names = new IntHashMap<>();
+    private final Map<String, int[]> idsByName = new HashMap<>();
+
+    // The sorted IDs sharing each normalized name, or null until the first normalized lookup
+    private Map<String, int[]> idsByNormalizedName;
+
+    // Indexes the objects waiting to be indexed, or null if the index is up to date
+    private Runnable deferredBuild;
+
+    /**
+     * The NameIndex class constructor.
+     *
+     * @param idOf A function returning the unique ID of an indexed object.
+     * @param nameOf A function returning the name of an indexed object.
+     * @param lookup A function returning the object with the supplied ID.
+     */
+    NameIndex(ToIntFunction<T> idOf, Function<T, String> nameOf, IntFunction<T> lookup) {
+        this.idOf = idOf;
+        this.nameOf = nameOf;
+        this.lookup = lookup;
+    }
+
+    /**
+     * Returns the normalized form of a name used by normalized lookups: Unicode NFKC normalized, trimmed, with each
+     * run of whitespace replaced by a single space, and lower cased.
+     *
+     * @param name The name to normalize.
+     * @return The normalized name.
+     */
+    static String normalize(String name) {
+        String normalized = Normalizer.normalize(name, Normalizer.Form.NFKC).strip();
+        StringBuilder key = new StringBuilder(normalized.length());
+        boolean space = false;
+
+        for(int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if(Character.isWhitespace(c)) {
+                space = true;
+            } else {
+                if(space)
+                    key.append(' ');
+                key.append(c);
+                space = false;
+            }
+        }
+
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Adds an object to the index. If an object with the same ID is already indexed then it is replaced.
+     *
+     * @param item The object to add to the index.
+     */
+    synchronized void add(T item) {
+        ensureBuilt();
+        addToIndex(idOf.applyAsInt(item), nameOf.apply(item));
+    }
+
+    /**
+     * Removes an object from the index using the name it was indexed under. Nothing happens if the object's ID is
+     * not indexed.
+     *
+     * @param item The object to remove from the index.
+     */
+    synchronized void remove(T item) {
+        ensureBuilt();
+        remove(idOf.applyAsInt(item));
+    }
+
+    /**
+     * Replaces the contents of the index with the supplied objects. The objects are not indexed until the index is
+     * next used, so the caller must not modify the collection afterwards.
+     *
+     * @param items The objects to be indexed.
+     */
+    synchronized void replaceAllDeferred(Collection<T> items) {
+        clear();
+        deferredBuild = () -> {
+            for(T item : items)
+                addToIndex(idOf.applyAsInt(item), nameOf.apply(item));
+        };
+    }
+
+    /**
+     * Replaces the contents of the index with the names of objects that are not held in memory. The names are not
+     * indexed until the index is next used.
+     *
+     * @param count The number of objects.
+     * @param idAt A function returning the ID of each object from 0 to count - 1.
+     * @param nameAt A function returning the name of each object from 0 to count - 1.
+     */
+    synchronized void replaceAllDeferred(int count, IntUnaryOperator idAt, IntFunction<String> nameAt) {
+        clear();
+        deferredBuild = () -> {
+            for(int i = 0; i < count; i++)
+                addToIndex(idAt.applyAsInt(i), nameAt.apply(i));
+        };
+    }
+
+    /**
+     * Indexes any objects whose indexing was deferred by replaceAllDeferred.
+     */
+    synchronized void ensureBuilt() {
+        if(deferredBuild == null)
+            return;
+
+        Runnable build = deferredBuild;
+        deferredBuild = null;
+        build.run();
+    }
+
+    /**
+     * Returns the object with the lowest ID whose name is exactly the supplied name.
+     *
+     * @param name The name to look up.
+     * @return The matching object with the lowest ID, or null if no object has the name.
+     */
+    synchronized T lookupFirst(String name) {
+        ensureBuilt();
+        int[] ids = idsByName.get(name);
+        return ids == null ? null : lookup.apply(ids[0]);
+    }
+
+    /**
+     * Returns every object whose name matches the supplied name, ordered by ascending ID.
+     *
+     * @param name The name to look up.
+     * @param normalized True to compare normalized names (see normalize), false to compare exact names.
+     * @return An unmodifiable list of the matching objects, which is empty if no object has the name.
+     */
+    synchronized List<T> lookupAll(String name, boolean normalized) {
+        ensureBuilt();
+        int[] ids = normalized ? normalizedIds().get(normalize(name)) : idsByName.get(name);
+        if(ids == null)
+            return Collections.emptyList();
+
+        List<T> matches = new ArrayList<>(ids.length);
+        for(int id : ids)
+            matches.add(lookup.apply(id));
+        return Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * Removes all objects from the index.
+     */
+    synchronized void clear() {
+        deferredBuild = null;
+        names.clear();
+        idsByName.clear();
+        idsByNormalizedName = null;
+    }
+
+    /**
+     * Returns the map of normalized names, building it from the indexed names the first time it is used.
+     *
+     * @return The sorted IDs sharing each normalized name.
+     */
+    private Map<String, int[]> normalizedIds() {
+        if(idsByNormalizedName == null) {
+            Map<String, int[]> normalizedIds = new HashMap<>();
+            names.forEach((id, name) -> normalizedIds.merge(normalize(name), new int[] {id},
+                                                            (ids, added) -> insert(ids, id)));
+            idsByNormalizedName = normalizedIds;
+        }
+        return idsByNormalizedName;
+    }
+
+    /**
+     * Adds an ID and name to the index without first building any deferred objects.
+     *
+     * @param id The ID of the object.
+     * @param name The name of the object.
+     */
+    private void addToIndex(int id, String name) {
+        remove(id);
+
+        names.put(id, name);
+        idsByName.merge(name, new int[] {id}, (ids, added) -> insert(ids, id));
+        if(idsByNormalizedName != null)
+            idsByNormalizedName.merge(normalize(name), new int[] {id}, (ids, added) -> insert(ids, id));
+    }
+
+    /**
+     * Removes the ID from the index using the name it was indexed under.
+     *
+     * @param id The ID of the object to remove.
+     */
+    private void remove(int id) {
+        String name = names.remove(id);
+        if(name == null)
+            return;
+
+        idsByName.computeIfPresent(name, (key, ids) -> delete(ids, id));
+        if(idsByNormalizedName != null)
+            idsByNormalizedName.computeIfPresent(normalize(name), (key, ids) -> delete(ids, id));
+    }
+
+    /**
+     * Returns a copy of a sorted ID array with an ID inserted in order. Most names are unique, so the arrays are
+     * usually a single ID and copying them is cheaper than keeping spare capacity for every name.
+     *
+     * @param ids The sorted IDs.
+     * @param id The ID to insert.
+     * @return The sorted IDs including the inserted ID.
+     */
+    private static int[] insert(int[] ids, int id) {
+        int position = Arrays.binarySearch(ids, id);
+        if(position >= 0)
+            return ids;
+
+        position = -position - 1;
+        int[] inserted = new int[ids.length + 1];
+        System.arraycopy(ids, 0, inserted, 0, position);
+        inserted[position] = id;
+        System.arraycopy(ids, position, inserted, position + 1, ids.length - position);
+        return inserted;
+    }
+
+    /**
+     * Returns a copy of a sorted ID array with an ID removed.
+     *
+     * @param ids The sorted IDs.
+     * @param id The ID to remove.
+     * @return The remaining IDs, or null if none remain so that the name is removed from the map.
+     */
+    private static int[] delete(int[] ids, int id) {
+        int position = Arrays.binarySearch(ids, id);
+        if(position < 0)
+            return ids;
+        if(ids.length == 1)
+            return null;
+
+        int[] remaining = new int[ids.length - 1];
+        System.arraycopy(ids, 0, remaining, 0, position);
+        System.arraycopy(ids, position + 1, remaining, position, remaining.length - position);
+        return remaining;
+    }
+}
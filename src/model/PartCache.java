@@ -0,0 +1,89 @@
+package model;
+
+// Java imports
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * <p>The PartCache class keeps the Part objects materialized from the records of a PartCatalog. The most recently
+ * used Parts are kept in a small LRU cache so that scrolling back and forth through a TableView does not materialize
+ * them again. Every other materialized Part is only weakly referenced, so a Part that is still referenced elsewhere
+ * (by a Product, a table selection, or search results) is always returned as the same object, and a Part that is
+ * not is garbage collected.</p>
+ */
+class PartCache {
+    private final int capacity;
+
+    // Recently used Parts by record number, least recently used first. Guarded by this.
+    private final Map<Integer, Part> recentParts;
+
+    // Every materialized Part that has not been garbage collected yet, by record number. Guarded by this.
+    private final IntHashMap<PartReference> liveParts = new IntHashMap<>();
+    private final ReferenceQueue<Part> collectedParts = new ReferenceQueue<>();
+
+    /**
+     * The PartCache class constructor.
+     *
+     * @param capacity The number of recently used Parts kept strongly referenced.
+     */
+    PartCache(int capacity) {
+        this.capacity = capacity;
+        this.recentParts = new LinkedHashMap<Integer, Part>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Part> eldest) {
+                return size() > PartCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the Part materialized for a record, materializing it if no object for the record is still referenced.
+     *
+     * @param record The record number.
+     * @param materialize The function creating the Part object for a record.
+     * @return The Part.
+     */
+    synchronized Part get(int record, IntFunction<Part> materialize) {
+        expungeCollectedParts();
+
+        Part part = recentParts.get(record);
+        if(part != null)
+            return part;
+
+        PartReference reference = liveParts.get(record);
+        part = reference == null ? null : reference.get();
+        if(part == null) {
+            part = materialize.apply(record);
+            liveParts.put(record, new PartReference(record, part, collectedParts));
+        }
+
+        recentParts.put(record, part);
+        return part;
+    }
+
+    /**
+     * Removes the entries of Parts that have been garbage collected from the live Parts index.
+     */
+    private void expungeCollectedParts() {
+        PartReference reference;
+        while((reference = (PartReference) collectedParts.poll()) != null) {
+            if(liveParts.get(reference.record) == reference)
+                liveParts.remove(reference.record);
+        }
+    }
+
+    /**
+     * A weak reference to a materialized Part that remembers the record the Part was read from.
+     */
+    private static class PartReference extends WeakReference<Part> {
+        private final int record;
+
+        private PartReference(int record, Part part, ReferenceQueue<Part> queue) {
+            super(part, queue);
+            this.record = record;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package model;
+
+/**
+ * <p>The PartCatalog interface is implemented by the stores that hold Parts as numbered records rather than as Part
+ * objects: the memory-mapped MappedPartCatalog and the in-heap PartColumns. A PartList backed by a catalog, and the
+ * Inventory's lookups by ID, read catalog Parts through this interface.</p>
+ *
+ * <p>Part objects are only created for a record when get or read is called. get always returns the same object for a
+ * record while that object is still referenced, so the identity checks made by Inventory keep working for catalog
+ * Parts. The accessors reading a single field of a record, and scan, never create a Part object.</p>
+ */
+interface PartCatalog {
+    /**
+     * Returns the number of records in the catalog.
+     * @return The number of records.
+     */
+    int size();
+
+    /**
+     * Returns the ID of the Part in a record without materializing the Part.
+     *
+     * @param record The record number.
+     * @return The Part ID.
+     */
+    int idAt(int record);
+
+    /**
+     * Returns the name of the Part in a record without materializing the Part.
+     *
+     * @param record The record number.
+     * @return The Part name.
+     */
+    String nameAt(int record);
+
+    /**
+     * Returns the number of the record holding the Part with the supplied ID. If several records hold the ID, the
+     * most recently added record is returned.
+     *
+     * @param id The Part ID.
+     * @return The record number, or -1 if no record holds the ID.
+     */
+    int recordOf(int id);
+
+    /**
+     * Returns the Part in a record, materializing it if it is not already in memory. While the returned object is
+     * referenced, the same object is returned for the record.
+     *
+     * @param record The record number.
+     * @return The Part.
+     */
+    Part get(int record);
+
+    /**
+     * Returns a new object holding the Part in a record, without caching it. Used to copy Parts out of the catalog
+     * where the identity of the returned object does not matter.
+     *
+     * @param record The record number.
+     * @return A new Part object.
+     */
+    Part read(int record);
+
+    /**
+     * Passes the ID, price, stock, min, and max of the Part in a record to a consumer without materializing the Part.
+     *
+     * @param record The record number.
+     * @param consumer The consumer.
+     */
+    void scanRecord(int record, PartRowConsumer consumer);
+
+    /**
+     * Passes the ID, price, stock, min, and max of the Parts in a range of records to a consumer, in record order,
+     * without materializing any Part.
+     *
+     * @param from The first record number.
+     * @param to The record number after the last record.
+     * @param consumer The consumer.
+     */
+    default void scan(int from, int to, PartRowConsumer consumer) {
+        for(int record = from; record < to; record++)
+            scanRecord(record, consumer);
+    }
+}
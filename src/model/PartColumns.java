@@ -0,0 +1,524 @@
+package model;
+
+// Java imports
+import java.util.Arrays;
+
+/**
+ * <p>The PartColumns class stores Parts on the heap as columns rather than as objects: one array each of IDs, prices,
+ * stock levels, mins, maxes, and machine IDs, indexed by row, with names and company names interned in a
+ * NameDictionary. A Part then takes about 30 bytes plus its name's UTF-8 bytes, rather than a Part object, a String,
+ * and the String's backing array spread across the heap, and a scan over the prices or stock levels of every Part
+ * (see scan) reads consecutive array elements instead of following a pointer to each Part.</p>
+ *
+ * <p>Part objects are created for a row only when get is called, as views whose getters and setters read and write
+ * the row's columns, and are kept in a PartCache so that the same view is returned for a row while it is referenced.
+ * The Inventory appends the Parts committed in bulk (see Inventory.addPartRows) as rows, and reads them through a
+ * PartList backed by the columns just like the records of a MappedPartCatalog.</p>
+ *
+ * <p>The columns can be layered over another catalog, normally a MappedPartCatalog loaded from a snapshot. The
+ * records of that catalog keep their record numbers, and the rows of the columns are numbered after them, so Parts
+ * can be appended to an inventory loaded from a read-only catalog.</p>
+ *
+ * <p>Rows are appended by one thread at a time (the Inventory appends them while holding its commit lock) and are
+ * never removed. Any thread may read the columns: a row is published by the volatile row count, and a reader always
+ * reads the row count before the columns. Writes through a view and appends are synchronized on the columns, so a
+ * write is never lost to the columns being copied as they grow.</p>
+ */
+class PartColumns implements PartCatalog {
+    // Number of materialized Parts kept in the LRU cache
+    private static final int CACHE_SIZE = 4096;
+
+    // The catalog whose records are numbered before the rows of the columns, or null
+    private final PartCatalog base;
+    private final int baseSize;
+
+    // The columns, indexed by row. machineIds holds the machine ID of an InHouse Part and the dictionary code of the
+    // company name of an Outsourced Part, told apart by types.
+    private int[] ids = new int[0];
+    private double[] prices = new double[0];
+    private int[] stocks = new int[0];
+    private int[] mins = new int[0];
+    private int[] maxes = new int[0];
+    private int[] machineIds = new int[0];
+    private int[] names = new int[0];
+    private byte[] types = new byte[0];
+    private volatile int rowCount;
+
+    // The names and company names of the rows
+    private final NameDictionary dictionary = new NameDictionary();
+
+    // True while the IDs of the rows are ascending, so rows can be found by binary search. Otherwise rows are found
+    // in rowsById, which is built on first use and guarded by this.
+    private volatile boolean sortedById = true;
+    private IntHashMap<Integer> rowsById;
+
+    // The views materialized for the rows
+    private final PartCache cache = new PartCache(CACHE_SIZE);
+
+    /**
+     * The PartColumns class constructor for columns holding no other records.
+     */
+    PartColumns() {
+        this(null);
+    }
+
+    /**
+     * The PartColumns class constructor for columns layered over another catalog.
+     *
+     * @param base The catalog whose records are numbered before the rows of the columns, or null.
+     */
+    PartColumns(PartCatalog base) {
+        this.base = base;
+        this.baseSize = base != null ? base.size() : 0;
+    }
+
+    /**
+     * Appends a row holding the values of a Part. The Part object itself is not kept.
+     *
+     * @param part The Part.
+     * @return The record number of the new row.
+     */
+    synchronized int add(Part part) {
+        int row = rowCount;
+        if(row == ids.length)
+            grow(Math.max(16, row + (row >> 1)));
+
+        int id = part.getId();
+        ids[row] = id;
+        prices[row] = part.getPrice();
+        stocks[row] = part.getStock();
+        mins[row] = part.getMin();
+        maxes[row] = part.getMax();
+        names[row] = dictionary.intern(part.getName());
+        if(part instanceof InHouse) {
+            types[row] = InventoryFile.IN_HOUSE;
+            machineIds[row] = ((InHouse) part).getMachineId();
+        } else if(part instanceof Outsourced) {
+            types[row] = InventoryFile.OUTSOURCED;
+            machineIds[row] = dictionary.intern(((Outsourced) part).getCompanyName());
+        } else {
+            throw new IllegalArgumentException("Unknown part type: " + part.getClass().getName());
+        }
+
+        if(row > 0 && ids[row - 1] >= id)
+            sortedById = false;
+        if(rowsById != null)
+            rowsById.put(id, row);
+
+        rowCount = row + 1;
+        return baseSize + row;
+    }
+
+    @Override
+    public int size() {
+        return baseSize + rowCount;
+    }
+
+    @Override
+    public int idAt(int record) {
+        if(record < baseSize)
+            return base.idAt(record);
+        int row = row(record);
+        return ids[row];
+    }
+
+    @Override
+    public String nameAt(int record) {
+        if(record < baseSize)
+            return base.nameAt(record);
+        int row = row(record);
+        return dictionary.get(names[row]);
+    }
+
+    /**
+     * Returns the price of the Part in a row of the columns without materializing the Part.
+     *
+     * @param record The record number of the row.
+     * @return The Part price.
+     */
+    double priceAt(int record) {
+        int row = row(record);
+        return prices[row];
+    }
+
+    /**
+     * Returns the stock level of the Part in a row of the columns without materializing the Part.
+     *
+     * @param record The record number of the row.
+     * @return The Part stock level.
+     */
+    int stockAt(int record) {
+        int row = row(record);
+        return stocks[row];
+    }
+
+    /**
+     * Returns the minimum stock level of the Part in a row of the columns without materializing the Part.
+     *
+     * @param record The record number of the row.
+     * @return The minimum stock level.
+     */
+    int minAt(int record) {
+        int row = row(record);
+        return mins[row];
+    }
+
+    /**
+     * Returns the maximum stock level of the Part in a row of the columns without materializing the Part.
+     *
+     * @param record The record number of the row.
+     * @return The maximum stock level.
+     */
+    int maxAt(int record) {
+        int row = row(record);
+        return maxes[row];
+    }
+
+    @Override
+    public int recordOf(int id) {
+        int rows = rowCount;
+        int row = -1;
+        if(sortedById) {
+            // Binary search the IDs of the rows
+            int low = 0;
+            int high = rows - 1;
+            int[] rowIds = ids;
+            while(low <= high) {
+                int middle = (low + high) >>> 1;
+                if(rowIds[middle] < id)
+                    low = middle + 1;
+                else if(rowIds[middle] > id)
+                    high = middle - 1;
+                else {
+                    row = middle;
+                    break;
+                }
+            }
+        } else {
+            Integer found = rowsByIdIndex().get(id);
+            row = found == null ? -1 : found;
+        }
+
+        // A row of the columns is more recent than any record of the base catalog
+        if(row >= 0)
+            return baseSize + row;
+        return base != null ? base.recordOf(id) : -1;
+    }
+
+    @Override
+    public Part get(int record) {
+        if(record < baseSize)
+            return base.get(record);
+        row(record);
+        return cache.get(record, this::view);
+    }
+
+    @Override
+    public Part read(int record) {
+        if(record < baseSize)
+            return base.read(record);
+
+        int row = row(record);
+        String name = dictionary.get(names[row]);
+        if(types[row] == InventoryFile.IN_HOUSE)
+            return new InHouse(ids[row], name, prices[row], stocks[row], mins[row], maxes[row], machineIds[row]);
+        return new Outsourced(ids[row], name, prices[row], stocks[row], mins[row], maxes[row],
+                              dictionary.get(machineIds[row]));
+    }
+
+    @Override
+    public void scanRecord(int record, PartRowConsumer consumer) {
+        if(record < baseSize) {
+            base.scanRecord(record, consumer);
+            return;
+        }
+
+        int row = row(record);
+        consumer.accept(ids[row], prices[row], stocks[row], mins[row], maxes[row]);
+    }
+
+    @Override
+    public void scan(int from, int to, PartRowConsumer consumer) {
+        if(from < baseSize) {
+            base.scan(from, Math.min(to, baseSize), consumer);
+            from = baseSize;
+        }
+        if(from >= to)
+            return;
+
+        // Read each column into a local once, so the loop only reads consecutive array elements
+        row(to - 1);
+        int[] rowIds = ids;
+        double[] rowPrices = prices;
+        int[] rowStocks = stocks;
+        int[] rowMins = mins;
+        int[] rowMaxes = maxes;
+        for(int row = from - baseSize; row < to - baseSize; row++)
+            consumer.accept(rowIds[row], rowPrices[row], rowStocks[row], rowMins[row], rowMaxes[row]);
+    }
+
+    /**
+     * Returns the row of the columns holding a record, reading the row count so that the columns read afterwards
+     * hold the row.
+     *
+     * @param record The record number.
+     * @return The row.
+     */
+    private int row(int record) {
+        int row = record - baseSize;
+        if(record < baseSize || row >= rowCount)
+            throw new IndexOutOfBoundsException("Part record " + record + " of " + size());
+        return row;
+    }
+
+    /**
+     * Creates the view of the Part in a row.
+     *
+     * @param record The record number of the row.
+     * @return The view.
+     */
+    private Part view(int record) {
+        int row = row(record);
+        return types[row] == InventoryFile.IN_HOUSE ? new InHouseRow(record) : new OutsourcedRow(record);
+    }
+
+    /**
+     * Copies every column to arrays of a new length.
+     *
+     * @param length The new length.
+     */
+    private void grow(int length) {
+        ids = Arrays.copyOf(ids, length);
+        prices = Arrays.copyOf(prices, length);
+        stocks = Arrays.copyOf(stocks, length);
+        mins = Arrays.copyOf(mins, length);
+        maxes = Arrays.copyOf(maxes, length);
+        machineIds = Arrays.copyOf(machineIds, length);
+        names = Arrays.copyOf(names, length);
+        types = Arrays.copyOf(types, length);
+    }
+
+    /**
+     * Returns the index of rows by ID, building it on first use.
+     *
+     * @return The rows by ID.
+     */
+    private synchronized IntHashMap<Integer> rowsByIdIndex() {
+        if(rowsById == null) {
+            rowsById = new IntHashMap<>();
+            for(int row = 0; row < rowCount; row++)
+                rowsById.put(ids[row], row);
+        }
+        return rowsById;
+    }
+
+    // Writes made through the views. Each is synchronized so it is not lost to the columns being copied by add.
+
+    private synchronized void setId(int record, int id) {
+        ids[row(record)] = id;
+        sortedById = false;
+        rowsById = null;
+    }
+
+    private synchronized void setName(int record, String name) {
+        names[row(record)] = dictionary.intern(name);
+    }
+
+    private synchronized void setPrice(int record, double price) {
+        prices[row(record)] = price;
+    }
+
+    private synchronized void setStock(int record, int stock) {
+        stocks[row(record)] = stock;
+    }
+
+    private synchronized void setMin(int record, int min) {
+        mins[row(record)] = min;
+    }
+
+    private synchronized void setMax(int record, int max) {
+        maxes[row(record)] = max;
+    }
+
+    private synchronized void setMachineId(int record, int machineId) {
+        machineIds[row(record)] = machineId;
+    }
+
+    private synchronized void setCompanyName(int record, String companyName) {
+        machineIds[row(record)] = dictionary.intern(companyName);
+    }
+
+    private int machineIdAt(int record) {
+        int row = row(record);
+        return machineIds[row];
+    }
+
+    private String companyNameAt(int record) {
+        int row = row(record);
+        return dictionary.get(machineIds[row]);
+    }
+
+    /**
+     * An InHouse Part whose fields are the columns of a row. The fields inherited from Part are not used.
+     */
+    private class InHouseRow extends InHouse {
+        private final int record;
+
+        private InHouseRow(int record) {
+            super(0, null, 0, 0, 0, 0, 0);
+            this.record = record;
+        }
+
+        @Override
+        public int getId() {
+            return idAt(record);
+        }
+
+        @Override
+        public void setId(int id) {
+            PartColumns.this.setId(record, id);
+        }
+
+        @Override
+        public String getName() {
+            return nameAt(record);
+        }
+
+        @Override
+        public void setName(String name) {
+            PartColumns.this.setName(record, name);
+        }
+
+        @Override
+        public double getPrice() {
+            return priceAt(record);
+        }
+
+        @Override
+        public void setPrice(double price) {
+            PartColumns.this.setPrice(record, price);
+        }
+
+        @Override
+        public int getStock() {
+            return stockAt(record);
+        }
+
+        @Override
+        public void setStock(int stock) {
+            PartColumns.this.setStock(record, stock);
+        }
+
+        @Override
+        public int getMin() {
+            return minAt(record);
+        }
+
+        @Override
+        public void setMin(int min) {
+            PartColumns.this.setMin(record, min);
+        }
+
+        @Override
+        public int getMax() {
+            return maxAt(record);
+        }
+
+        @Override
+        public void setMax(int max) {
+            PartColumns.this.setMax(record, max);
+        }
+
+        @Override
+        public int getMachineId() {
+            return machineIdAt(record);
+        }
+
+        @Override
+        public void setMachineId(int machineId) {
+            PartColumns.this.setMachineId(record, machineId);
+        }
+    }
+
+    /**
+     * An Outsourced Part whose fields are the columns of a row. The fields inherited from Part are not used.
+     */
+    private class OutsourcedRow extends Outsourced {
+        private final int record;
+
+        private OutsourcedRow(int record) {
+            super(0, null, 0, 0, 0, 0, null);
+            this.record = record;
+        }
+
+        @Override
+        public int getId() {
+            return idAt(record);
+        }
+
+        @Override
+        public void setId(int id) {
+            PartColumns.this.setId(record, id);
+        }
+
+        @Override
+        public String getName() {
+            return nameAt(record);
+        }
+
+        @Override
+        public void setName(String name) {
+            PartColumns.this.setName(record, name);
+        }
+
+        @Override
+        public double getPrice() {
+            return priceAt(record);
+        }
+
+        @Override
+        public void setPrice(double price) {
+            PartColumns.this.setPrice(record, price);
+        }
+
+        @Override
+        public int getStock() {
+            return stockAt(record);
+        }
+
+        @Override
+        public void setStock(int stock) {
+            PartColumns.this.setStock(record, stock);
+        }
+
+        @Override
+        public int getMin() {
+            return minAt(record);
+        }
+
+        @Override
+        public void setMin(int min) {
+            PartColumns.this.setMin(record, min);
+        }
+
+        @Override
+        public int getMax() {
+            return maxAt(record);
+        }
+
+        @Override
+        public void setMax(int max) {
+            PartColumns.this.setMax(record, max);
+        }
+
+        @Override
+        public String getCompanyName() {
+            return companyNameAt(record);
+        }
+
+        @Override
+        public void setCompanyName(String companyName) {
+            PartColumns.this.setCompanyName(record, companyName);
+        }
+    }
+}
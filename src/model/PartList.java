@@ -0,0 +1,480 @@
+package model;
+
+// JavaFX imports
+import javafx.collections.ListChangeListener;
+import javafx.collections.ModifiableObservableListBase;
+
+// Java imports
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>The PartList class is the ObservableList behind Inventory.getAllParts() and the Inventory's committed Part list.
+ * It holds ordinary Part objects, and can also be backed by a PartCatalog (a MappedPartCatalog or PartColumns), in
+ * which case each catalog Part is only materialized when get() is called for its position (for example when a
+ * TableView renders the row showing it).</p>
+ *
+ * <p>While no catalog Part has been removed and no Part inserted before the end of the list, position i simply holds
+ * catalog record i and the list takes no heap space per catalog Part. Parts added to the end are kept in a separate
+ * array. The first insertion or removal inside the catalog range switches the list to a table holding a record number
+ * or Part object for every position (12 bytes per Part), which still never materializes the catalog Parts. The
+ * Inventory removes Parts with swapRemove, which moves the last Part into the removed Part's position, so a removal
+ * only ever changes two positions.</p>
+ *
+ * <p>indexOf, contains and remove(Object) are overridden to compare Part IDs from the mapped records before
+ * materializing anything, because the inherited versions would materialize every Part in the list. forEachRow reads
+ * the numeric fields of every Part in the same way, scanning ranges of catalog records straight from the catalog.</p>
+ */
+class PartList extends ModifiableObservableListBase<Part> {
+    private static final Part[] NO_PARTS = new Part[0];
+
+    // The catalog backing the list, or null if every Part is held in memory
+    private PartCatalog catalog;
+
+    // Number of leading positions holding catalog records in order. Only used until the first insertion or removal
+    // inside the catalog range, after which it is 0.
+    private int catalogRows;
+
+    // Parts held in memory. Until the first insertion or removal inside the catalog range, this holds the Parts after
+    // the catalog records; afterwards it holds a Part (or null for a catalog record) for every position.
+    private Part[] parts = NO_PARTS;
+    private int partCount;
+
+    // Catalog record number for every position, used only once positions no longer map directly to records
+    private int[] records;
+
+    // Nesting depth of the batches started by beginBatch
+    private int batchDepth = 0;
+
+    @Override
+    public Part get(int index) {
+        checkIndex(index);
+
+        if(index < catalogRows)
+            return catalog.get(index);
+
+        Part part = parts[index - catalogRows];
+        return part != null ? part : catalog.get(records[index]);
+    }
+
+    @Override
+    public int size() {
+        return catalogRows + partCount;
+    }
+
+    /**
+     * Returns the Part at the supplied position without caching it if it comes from the catalog. The returned object
+     * may not be the object returned by get(), so this must only be used to copy Parts, for example to a file.
+     *
+     * @param index The position of the Part.
+     * @return The Part at the position.
+     */
+    Part readPart(int index) {
+        checkIndex(index);
+
+        if(index < catalogRows)
+            return catalog.read(index);
+
+        Part part = parts[index - catalogRows];
+        return part != null ? part : catalog.read(records[index]);
+    }
+
+    /**
+     * Replaces the contents of the list with every Part in a catalog, in a single change.
+     *
+     * @param partCatalog The catalog.
+     */
+    void setCatalog(PartCatalog partCatalog) {
+        replaceContents(partCatalog, partCatalog.size(), NO_PARTS, 0);
+    }
+
+    /**
+     * Appends a range of catalog records to the end of the list in a single change. The list switches to the supplied
+     * catalog, which must hold the records already in the list under the same record numbers (for example PartColumns
+     * layered over the list's current catalog). While the list still holds every record of its catalog in order,
+     * appending records only extends the leading catalog positions.
+     *
+     * @param partCatalog The catalog holding the records.
+     * @param from The first record number to append.
+     * @param to The record number after the last record to append.
+     */
+    void appendCatalogRecords(PartCatalog partCatalog, int from, int to) {
+        if(from >= to)
+            return;
+
+        int start = size();
+        beginChange();
+        try {
+            catalog = partCatalog;
+            if(records == null && partCount == 0 && catalogRows == from) {
+                catalogRows = to;
+            } else {
+                if(records == null)
+                    expandCatalogRows();
+                ensureCapacity(partCount + to - from);
+                for(int record = from; record < to; record++) {
+                    parts[partCount] = null;
+                    records[partCount++] = record;
+                }
+            }
+            modCount++;
+            nextAdd(start, size());
+        } finally {
+            endChange();
+        }
+    }
+
+    /**
+     * Passes the ID, price, stock, min, and max of every Part in the list to a consumer, in list order. Catalog Parts
+     * are read from the catalog without being materialized, a whole range of consecutive records at a time.
+     *
+     * @param consumer The consumer.
+     */
+    void forEachRow(PartRowConsumer consumer) {
+        if(catalogRows > 0)
+            catalog.scan(0, catalogRows, consumer);
+
+        int i = 0;
+        while(i < partCount) {
+            Part part = parts[i];
+            if(part != null) {
+                consumer.accept(part.getId(), part.getPrice(), part.getStock(), part.getMin(), part.getMax());
+                i++;
+                continue;
+            }
+
+            // Scan the run of consecutive records starting at this position in one call
+            int first = records[catalogRows + i];
+            int end = i + 1;
+            while(end < partCount && parts[end] == null && records[catalogRows + end] == first + (end - i))
+                end++;
+            catalog.scan(first, first + (end - i), consumer);
+            i = end;
+        }
+    }
+
+    @Override
+    public boolean setAll(Collection<? extends Part> newParts) {
+        Part[] array = newParts.toArray(NO_PARTS);
+        replaceContents(null, 0, array, array.length);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        replaceContents(null, 0, NO_PARTS, 0);
+    }
+
+    @Override
+    public int indexOf(Object object) {
+        if(!(object instanceof Part))
+            return -1;
+
+        Part part = (Part) object;
+        int id = part.getId();
+
+        // A catalog Part in the leading catalog positions is at the position of its record
+        if(catalog != null && catalogRows > 0) {
+            int record = catalog.recordOf(id);
+            if(record >= 0 && record < catalogRows && catalog.get(record) == part)
+                return record;
+        }
+
+        // Otherwise compare the Part objects held in memory, and the IDs of catalog records before materializing them
+        for(int i = 0; i < partCount; i++) {
+            Part held = parts[i];
+            int index = catalogRows + i;
+            if(held != null ? held == part : catalog.idAt(records[index]) == id && catalog.get(records[index]) == part)
+                return index;
+        }
+
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        return indexOf(object) >= 0;
+    }
+
+    @Override
+    public boolean remove(Object object) {
+        int index = indexOf(object);
+        if(index < 0)
+            return false;
+
+        remove(index);
+        return true;
+    }
+
+    /**
+     * Starts a batch of changes. Every change made to the list until the matching call to endBatch is reported to
+     * listeners as a single change. Batches may be nested.
+     */
+    void beginBatch() {
+        batchDepth++;
+        beginChange();
+    }
+
+    /**
+     * Ends a batch of changes started by beginBatch, reporting the batch to listeners if it is the outermost batch.
+     */
+    void endBatch() {
+        batchDepth--;
+        endChange();
+    }
+
+    /**
+     * Removes the Part at a position by moving the last Part in the list into its place, so that no other Part changes
+     * position. Listeners are passed the change as a replacement at the position and a removal at the end of the list.
+     *
+     * @param index The position of the Part to remove.
+     * @return The ID of the Part moved into the position, or -1 if the removed Part was the last Part in the list.
+     */
+    int swapRemove(int index) {
+        checkIndex(index);
+        int last = size() - 1;
+        Part removed = get(index);
+        Part moved = index < last ? get(last) : null;
+
+        beginChange();
+        try {
+            if(moved != null) {
+                if(index < catalogRows)
+                    expandCatalogRows();
+                parts[index - catalogRows] = parts[last - catalogRows];
+                if(records != null)
+                    records[index] = records[last];
+                nextSet(index, removed);
+            }
+
+            // The last catalog record can be dropped from the leading catalog positions without expanding them
+            if(last < catalogRows)
+                catalogRows--;
+            else
+                parts[--partCount] = null;
+            nextRemove(last, moved != null ? moved : removed);
+            modCount++;
+            releaseCatalogIfEmpty();
+        } finally {
+            endChange();
+        }
+        return moved != null ? moved.getId() : -1;
+    }
+
+    @Override
+    protected void doAdd(int index, Part part) {
+        if(index < catalogRows)
+            expandCatalogRows();
+
+        int position = index - catalogRows;
+        ensureCapacity(partCount + 1);
+        System.arraycopy(parts, position, parts, position + 1, partCount - position);
+        parts[position] = part;
+        if(records != null) {
+            System.arraycopy(records, index, records, index + 1, partCount - position);
+            records[index] = -1;
+        }
+        partCount++;
+    }
+
+    @Override
+    protected Part doSet(int index, Part part) {
+        Part replaced = get(index);
+        if(index < catalogRows)
+            expandCatalogRows();
+
+        parts[index - catalogRows] = part;
+        if(records != null)
+            records[index] = -1;
+        return replaced;
+    }
+
+    @Override
+    protected Part doRemove(int index) {
+        Part removed = get(index);
+        if(index < catalogRows)
+            expandCatalogRows();
+
+        int position = index - catalogRows;
+        System.arraycopy(parts, position + 1, parts, position, partCount - position - 1);
+        parts[--partCount] = null;
+        if(records != null)
+            System.arraycopy(records, index + 1, records, index, partCount - position);
+        releaseCatalogIfEmpty();
+        return removed;
+    }
+
+    /**
+     * Replaces the contents of the list and reports the replacement as a single change. The removed Parts are passed
+     * to listeners as a view over the old contents, so old catalog Parts are only materialized if a listener asks
+     * for them. Inside a batch the replacement has to be merged with the other changes of the batch, which copies
+     * every removed Part.
+     *
+     * @param newCatalog The new catalog, or null.
+     * @param newCatalogRows The number of leading positions holding catalog records in order.
+     * @param newParts The Parts held in memory after the catalog records.
+     * @param newPartCount The number of Parts held in memory.
+     */
+    private void replaceContents(PartCatalog newCatalog, int newCatalogRows, Part[] newParts, int newPartCount) {
+        List<Part> removed = new Contents(this);
+
+        catalog = newCatalog;
+        catalogRows = newCatalogRows;
+        parts = newParts;
+        partCount = newPartCount;
+        records = null;
+        modCount++;
+
+        if(batchDepth > 0) {
+            beginChange();
+            if(!removed.isEmpty())
+                nextRemove(0, removed);
+            if(size() > 0)
+                nextAdd(0, size());
+            endChange();
+        } else if(!removed.isEmpty() || size() > 0) {
+            // The change is fired directly because the change builder used by beginChange copies removed lists
+            fireChange(new Replacement(removed, size()));
+        }
+    }
+
+    /**
+     * Switches from leading catalog positions to a record number or Part object for every position.
+     */
+    private void expandCatalogRows() {
+        int size = size();
+        Part[] expandedParts = new Part[Math.max(size, 16)];
+        System.arraycopy(parts, 0, expandedParts, catalogRows, partCount);
+
+        records = new int[expandedParts.length];
+        for(int i = 0; i < catalogRows; i++)
+            records[i] = i;
+        Arrays.fill(records, catalogRows, size, -1);
+
+        parts = expandedParts;
+        partCount = size;
+        catalogRows = 0;
+    }
+
+    /**
+     * Stops using the catalog once every position has been removed, so a list emptied by deletions starts again
+     * without a catalog or record table.
+     */
+    private void releaseCatalogIfEmpty() {
+        if(size() == 0) {
+            catalog = null;
+            catalogRows = 0;
+            records = null;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if(capacity > parts.length) {
+            int newLength = Math.max(capacity, Math.max(16, parts.length + (parts.length >> 1)));
+            parts = Arrays.copyOf(parts, newLength);
+            if(records != null)
+                records = Arrays.copyOf(records, newLength);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if(index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    }
+
+    /**
+     * A change reporting that every Part in the list was replaced, whose removed list is a view that is only read if
+     * a listener asks for the removed Parts.
+     */
+    private class Replacement extends ListChangeListener.Change<Part> {
+        private final List<Part> removed;
+        private final int addedSize;
+        private boolean onChange;
+
+        private Replacement(List<Part> removed, int addedSize) {
+            super(PartList.this);
+            this.removed = removed;
+            this.addedSize = addedSize;
+        }
+
+        @Override
+        public boolean next() {
+            if(onChange)
+                return false;
+            onChange = true;
+            return true;
+        }
+
+        @Override
+        public void reset() {
+            onChange = false;
+        }
+
+        @Override
+        public int getFrom() {
+            checkState();
+            return 0;
+        }
+
+        @Override
+        public int getTo() {
+            checkState();
+            return addedSize;
+        }
+
+        @Override
+        public List<Part> getRemoved() {
+            checkState();
+            return removed;
+        }
+
+        @Override
+        protected int[] getPermutation() {
+            checkState();
+            return new int[0];
+        }
+
+        private void checkState() {
+            if(!onChange)
+                throw new IllegalStateException("next() must be called before inspecting the change");
+        }
+    }
+
+    /**
+     * A read-only view over the contents a PartList had when the view was created. Used to report the Parts removed
+     * when the contents of the list are replaced.
+     */
+    private static class Contents extends AbstractList<Part> {
+        private final PartCatalog catalog;
+        private final int catalogRows;
+        private final Part[] parts;
+        private final int partCount;
+        private final int[] records;
+
+        private Contents(PartList list) {
+            catalog = list.catalog;
+            catalogRows = list.catalogRows;
+            parts = list.parts;
+            partCount = list.partCount;
+            records = list.records;
+        }
+
+        @Override
+        public Part get(int index) {
+            if(index < 0 || index >= size())
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            if(index < catalogRows)
+                return catalog.get(index);
+
+            Part part = parts[index - catalogRows];
+            return part != null ? part : catalog.get(records[index]);
+        }
+
+        @Override
+        public int size() {
+            return catalogRows + partCount;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package model;
+
+/**
+ * The PartRowConsumer interface receives the numeric fields of each Part passed over by Inventory.forEachPartRow.
+ * The fields are passed as primitives, so a scan such as totalling the stock value of every Part neither boxes the
+ * values nor creates Part objects for Parts held in a catalog.
+ */
+@FunctionalInterface
+public interface PartRowConsumer {
+    /**
+     * Receives the fields of one Part.
+     *
+     * @param id The Part ID.
+     * @param price The Part price.
+     * @param stock The Part stock level.
+     * @param min The minimum stock level for the Part.
+     * @param max The maximum stock level for the Part.
+     */
+    void accept(int id, double price, int stock, int min, int max);
+}
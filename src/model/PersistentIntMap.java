@@ -0,0 +1,372 @@
+package model;
+
+// Java imports
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>The PersistentIntMap class is an immutable map keyed by primitive int values. A changed copy of a map shares
+ * every part of the original it did not change, so a change takes time and space proportional to the depth of the map
+ * rather than its size, and a thread holding an older copy keeps seeing exactly that copy without any locking. It is
+ * used by the InventorySnapshot to keep a copy of the Part and Product indexes for every committed change.</p>
+ *
+ * <p>The map is a radix tree over the bits of the key, five bits per level from the most significant bits used by
+ * any key down, so a map of a million sequential IDs is four levels deep and entries are visited in ascending
+ * (unsigned) key order. Each node holds a bitmap of the child positions in use and an array of just those children,
+ * so a sparse node does not take a full 32 element array.</p>
+ *
+ * <p>Changes are made through an Editor, which copies each node it changes the first time and changes its own copies
+ * in place after that, so a batch of changes (such as loading a whole inventory) copies each node once rather than
+ * once for every change. toMap ends the Editor's ownership of its nodes, so a published map is never changed.</p>
+ *
+ * @param <V> The type of value stored in the map.
+ */
+final class PersistentIntMap<V> {
+    // Number of key bits used by each level, and the number of children a node can have
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final Object[] NO_SLOTS = new Object[0];
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(null, 0, 0);
+
+    // The root node (null if the map is empty), the shift of the key bits it uses, and the number of entries
+    private final Node root;
+    private final int shift;
+    private final int size;
+
+    /**
+     * The PersistentIntMap class constructor.
+     *
+     * @param root The root node, or null for an empty map.
+     * @param shift The shift of the key bits used by the root node.
+     * @param size The number of entries.
+     */
+    private PersistentIntMap(Node root, int shift, int size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @param <V> The type of value stored in the map.
+     * @return The empty map.
+     */
+    @SuppressWarnings("unchecked")
+    static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     * @return The number of entries in the map.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value mapped to the supplied key, or null if the key is not in the map.
+     *
+     * @param key The key to look up.
+     * @return The value mapped to the key, or null if there is no mapping.
+     */
+    V get(int key) {
+        return find(root, shift, key);
+    }
+
+    /**
+     * Returns true if the map contains an entry for the supplied key.
+     *
+     * @param key The key to look up.
+     * @return True if the key is mapped to a value.
+     */
+    boolean containsKey(int key) {
+        return find(root, shift, key) != null;
+    }
+
+    /**
+     * Passes every entry in the map to the supplied action, in ascending unsigned key order.
+     *
+     * @param action The action to perform on each entry.
+     */
+    void forEach(IntHashMap.EntryConsumer<? super V> action) {
+        if(root != null)
+            forEach(root, shift, 0, action);
+    }
+
+    /**
+     * Returns an Editor starting from the contents of this map. The map itself is not changed.
+     * @return A new Editor.
+     */
+    Editor<V> edit() {
+        return new Editor<>(this);
+    }
+
+    /**
+     * Returns the value mapped to a key in the tree below a node.
+     *
+     * @param node The node, or null.
+     * @param shift The shift of the key bits used by the node.
+     * @param key The key to look up.
+     * @param <V> The type of value stored in the map.
+     * @return The value mapped to the key, or null if there is no mapping.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> V find(Node node, int shift, int key) {
+        if(node == null || !fits(key, shift))
+            return null;
+
+        for(int s = shift; ; s -= BITS) {
+            int bit = 1 << ((key >>> s) & MASK);
+            if((node.bitmap & bit) == 0)
+                return null;
+
+            Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+            if(s == 0)
+                return (V) slot;
+            node = (Node) slot;
+        }
+    }
+
+    /**
+     * Passes every entry in the tree below a node to an action, in ascending key order.
+     *
+     * @param node The node.
+     * @param shift The shift of the key bits used by the node.
+     * @param prefix The key bits above the node's level shared by every key below it.
+     * @param action The action to perform on each entry.
+     * @param <V> The type of value stored in the map.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> void forEach(Node node, int shift, int prefix, IntHashMap.EntryConsumer<? super V> action) {
+        int bitmap = node.bitmap;
+        for(int index = 0; bitmap != 0; index++) {
+            int position = Integer.numberOfTrailingZeros(bitmap);
+            bitmap &= bitmap - 1;
+
+            int key = prefix | (position << shift);
+            if(shift == 0)
+                action.accept(key, (V) node.slots[index]);
+            else
+                forEach((Node) node.slots[index], shift - BITS, key, action);
+        }
+    }
+
+    /**
+     * Returns true if a key can be held in a tree whose root uses the key bits at the supplied shift, which is the
+     * case when no key bit above that level is set.
+     *
+     * @param key The key.
+     * @param shift The shift of the key bits used by the root.
+     * @return True if the key fits under the root.
+     */
+    private static boolean fits(int key, int shift) {
+        return shift + BITS >= Integer.SIZE || (key >>> (shift + BITS)) == 0;
+    }
+
+    /**
+     * <p>The Editor class makes a series of changes to a PersistentIntMap and then returns the changed map from
+     * toMap. Nodes copied by the Editor belong to it and are changed in place until toMap is called; after that the
+     * Editor copies nodes again, so it may keep being used to make the changes for the next map.</p>
+     *
+     * <p>An Editor is not thread safe. The Inventory only uses its Editors while holding the commit lock.</p>
+     *
+     * @param <V> The type of value stored in the map.
+     */
+    static final class Editor<V> {
+        // Marks the nodes this Editor may change in place. Replaced by toMap.
+        private Object owner = new Object();
+
+        private Node root;
+        private int shift;
+        private int size;
+
+        /**
+         * The Editor class constructor.
+         * @param map The map the Editor starts from.
+         */
+        private Editor(PersistentIntMap<V> map) {
+            root = map.root;
+            shift = map.shift;
+            size = map.size;
+        }
+
+        /**
+         * Returns the number of entries in the edited map.
+         * @return The number of entries.
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * Returns the value mapped to the supplied key in the edited map.
+         *
+         * @param key The key to look up.
+         * @return The value mapped to the key, or null if there is no mapping.
+         */
+        V get(int key) {
+            return find(root, shift, key);
+        }
+
+        /**
+         * Maps the supplied key to the supplied value, replacing any existing mapping.
+         *
+         * @param key The key to map.
+         * @param value The value to map to the key. Cannot be null.
+         */
+        void put(int key, V value) {
+            Objects.requireNonNull(value);
+
+            if(root == null) {
+                root = new Node(owner, 0, NO_SLOTS);
+                shift = 0;
+            }
+
+            // Add levels above the root until the key fits. The keys already in the map have no bits set above the
+            // old root's level, so the old root becomes the first child of each new level.
+            while(!fits(key, shift)) {
+                root = new Node(owner, 1, new Object[] {root});
+                shift += BITS;
+            }
+
+            root = editable(root);
+            Node node = root;
+            for(int s = shift; ; s -= BITS) {
+                int bit = 1 << ((key >>> s) & MASK);
+                int index = Integer.bitCount(node.bitmap & (bit - 1));
+                boolean present = (node.bitmap & bit) != 0;
+
+                if(s == 0) {
+                    if(present) {
+                        node.slots[index] = value;
+                    } else {
+                        insert(node, bit, index, value);
+                        size++;
+                    }
+                    return;
+                }
+
+                Node child;
+                if(present) {
+                    child = editable((Node) node.slots[index]);
+                    node.slots[index] = child;
+                } else {
+                    child = new Node(owner, 0, NO_SLOTS);
+                    insert(node, bit, index, child);
+                }
+                node = child;
+            }
+        }
+
+        /**
+         * Removes the entry for the supplied key from the edited map.
+         * @param key The key to remove.
+         */
+        void remove(int key) {
+            // Check for the key first, so removing a missing key copies nothing
+            if(find(root, shift, key) == null)
+                return;
+
+            root = remove(root, shift, key);
+            size--;
+            if(root == null)
+                shift = 0;
+        }
+
+        /**
+         * Removes all entries from the edited map.
+         */
+        void clear() {
+            root = null;
+            shift = 0;
+            size = 0;
+        }
+
+        /**
+         * Returns the edited map. The Editor gives up its nodes to the map, so later changes copy them.
+         * @return The map holding every change made so far.
+         */
+        PersistentIntMap<V> toMap() {
+            owner = new Object();
+            return size == 0 ? empty() : new PersistentIntMap<>(root, shift, size);
+        }
+
+        /**
+         * Removes a key known to be in the tree below a node.
+         *
+         * @param node The node.
+         * @param shift The shift of the key bits used by the node.
+         * @param key The key to remove.
+         * @return The changed node, or null if the node is left with no children.
+         */
+        private Node remove(Node node, int shift, int key) {
+            node = editable(node);
+            int bit = 1 << ((key >>> shift) & MASK);
+            int index = Integer.bitCount(node.bitmap & (bit - 1));
+
+            if(shift > 0) {
+                Node child = remove((Node) node.slots[index], shift - BITS, key);
+                if(child != null) {
+                    node.slots[index] = child;
+                    return node;
+                }
+            }
+
+            int count = Integer.bitCount(node.bitmap);
+            System.arraycopy(node.slots, index + 1, node.slots, index, count - index - 1);
+            node.slots[count - 1] = null;
+            node.bitmap &= ~bit;
+            return node.bitmap == 0 ? null : node;
+        }
+
+        /**
+         * Returns a node this Editor may change in place: the node itself if the Editor created it, otherwise a copy.
+         *
+         * @param node The node.
+         * @return The node or its copy.
+         */
+        private Node editable(Node node) {
+            if(node.owner == owner)
+                return node;
+            return new Node(owner, node.bitmap, Arrays.copyOf(node.slots, Integer.bitCount(node.bitmap)));
+        }
+
+        /**
+         * Inserts a child into a node owned by this Editor, growing the node's array if it is full.
+         *
+         * @param node The node.
+         * @param bit The bitmap bit of the child's position.
+         * @param index The index in the array to insert the child at.
+         * @param child The child (a node, or a value at the lowest level).
+         */
+        private static void insert(Node node, int bit, int index, Object child) {
+            int count = Integer.bitCount(node.bitmap);
+            if(count == node.slots.length)
+                node.slots = Arrays.copyOf(node.slots, Math.min(MASK + 1, Math.max(2, count * 2)));
+
+            System.arraycopy(node.slots, index, node.slots, index + 1, count - index);
+            node.slots[index] = child;
+            node.bitmap |= bit;
+        }
+    }
+
+    /**
+     * A node of the tree: a bitmap of the child positions in use and an array holding the children at those
+     * positions in order, which may have unused space at the end. The children of a node at the lowest level are the
+     * values. Only changed by the Editor that owns it.
+     */
+    private static final class Node {
+        final Object owner;
+        int bitmap;
+        Object[] slots;
+
+        Node(Object owner, int bitmap, Object[] slots) {
+            this.owner = owner;
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+}
@@ -5,14 +5,46 @@ import javafx.collections.ObservableList;
 import javafx.collections.FXCollections;
 
 // Java imports
-import java.util.Iterator;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The Product class provides methods for creating Product objects and getting and setting properties of the
- * Product object instance.
+ * Product object instance. Each Part associated with a Product is held once, together with the quantity of it the
+ * Product needs.
+ *
+ * <p>The associations of a Product in inventory are changed while holding the Inventory commit lock, together with
+ * the Inventory's reverse association index, so a thread reading them under the lock (such as the Inventory
+ * publishing a snapshot, or a derived view adding up a bill of materials) never sees the associated Parts, their IDs
+ * and their quantities part way through a change. Whether the Product is in inventory is only checked once the lock is
+ * held, so a change made while the Product is being added to or deleted from inventory is never missed by the reverse
+ * association index.</p>
  */
 public class Product {
-    private ObservableList<Part> associatedParts;
+    // Number of associated Parts above which their positions are indexed by ID. Smaller bills of materials are
+    // searched by scanning the associated Part IDs, which is faster than hashing for a few Parts and takes no memory.
+    private static final int POSITION_INDEX_THRESHOLD = 8;
+
+    private static final Part[] NO_PARTS = new Part[0];
+    private static final int[] NO_PART_IDS = new int[0];
+
+    // The associated Parts, each held once however many of it the Product needs, and the ID and quantity of each at
+    // the same positions. The arrays may be longer than associatedPartCount; the entries past it are unused.
+    private Part[] associatedParts = NO_PARTS;
+    private int[] associatedPartIds = NO_PART_IDS;
+    private int[] associatedPartQuantities = NO_PART_IDS;
+    private int associatedPartCount;
+
+    // Unmodifiable live view of the associated Parts
+    private final List<Part> associatedPartsView = new AssociatedPartsView();
+
+    // Hash table of the positions of the associated Part IDs, only built once more than POSITION_INDEX_THRESHOLD Parts
+    // are associated. Each slot holds a position plus one, or 0 if the slot is empty, and is probed linearly from the
+    // slot picked by the hash of the ID, so the index takes a single int per slot rather than a boxed entry.
+    private int[] associatedPartPositions;
     private int id;
     private String name;
     private double price;
@@ -35,7 +67,6 @@ public class Product {
         this.stock = stock;
         this.min = min;
         this.max = max;
-        this.associatedParts = FXCollections.observableArrayList();
     }
 
     /** Sets the ID property of the Product object.
@@ -122,37 +153,115 @@ public class Product {
         return this.max;
     }
 
-    /** Inserts a Part object into the associatedParts ObservableList.
-     * @param part The Part object to insert into the associatedParts ObservableList.
+    /** Associates one of a Part with the Product. If the Part is already associated with the Product, the quantity
+     * of it the Product needs is increased by one.
+     * @param part The Part object to associate with the Product.
      */
     public void addAssociatedPart(Part part) {
-        associatedParts.add(part);
+        addAssociatedPart(part, 1);
+    }
+
+    /** <p>Associates a quantity of a Part with the Product. If a Part with the same ID is already associated with the
+     * Product, the quantity is added to the quantity the Product already needs and the Part already associated is
+     * kept.</p>
+     *
+     * @param part The Part object to associate with the Product.
+     * @param quantity The number of the Part needed to build one of the Product.
+     * @throws IllegalArgumentException If the quantity is less than 1.
+     */
+    public void addAssociatedPart(Part part, int quantity) {
+        if(quantity < 1)
+            throw new IllegalArgumentException("Associated part quantity must be at least 1: " + quantity);
+
+        ReentrantLock commitLock = lockIfInInventory();
+        try {
+            int position = positionOf(part.getId());
+            if(position >= 0) {
+                associatedPartQuantities[position] += quantity;
+            } else {
+                position = associatedPartCount;
+                if(position == associatedParts.length) {
+                    int capacity = Math.max(4, position * 2);
+                    associatedParts = Arrays.copyOf(associatedParts, capacity);
+                    associatedPartIds = Arrays.copyOf(associatedPartIds, capacity);
+                    associatedPartQuantities = Arrays.copyOf(associatedPartQuantities, capacity);
+                }
+                associatedParts[position] = part;
+                associatedPartIds[position] = part.getId();
+                associatedPartQuantities[position] = quantity;
+                associatedPartCount++;
+
+                // Keep the position table at most half full
+                if(associatedPartPositions != null && associatedPartCount * 2 <= associatedPartPositions.length)
+                    insertPosition(position);
+                else if(associatedPartCount > POSITION_INDEX_THRESHOLD)
+                    indexPositions();
+            }
+
+            // Keep the inventory's reverse association index up to date. Products that are not in inventory are not
+            // indexed.
+            if(commitLock != null)
+                Inventory.onPartAssociated(this, part);
+        } finally {
+            if(commitLock != null)
+                commitLock.unlock();
+        }
     }
 
-    /** Removes a Part object from the associatedParts ObservableList.
-     * @param selectedAssociatedPart The Part object to be removed from the associatedParts ObservableList.
+    /** Removes a Part object from the Product's associated Parts, whatever quantity of it the Product needs.
+     * @param selectedAssociatedPart The Part object to be removed from the associated Parts.
      * @return True if the removal was successful; false if the Part supplied in argument was not found.
      */
     public boolean deleteAssociatedPart(Part selectedAssociatedPart) {
-        Iterator<Part> iterator = associatedParts.iterator();
-
-        // Iterate through the Part objects in allParts using an Iterator to avoid a ConcurrentModificationException
-        // if a match is removed from the collection. If the Part object is the same object referenced in the supplied
-        // argument then remove it using the iterator and return true. Otherwise, if no matches
-        // found then return false.
-        while(iterator.hasNext()) {
-            Part lookupPart = iterator.next();
-            if(lookupPart == selectedAssociatedPart) {
-                iterator.remove();
-                return true;
+        // Find the Part by its ID. It is only removed if it is the same object that is associated with the Product.
+        if(selectedAssociatedPart == null)
+            return false;
+
+        ReentrantLock commitLock = lockIfInInventory();
+        try {
+            int position = positionOf(selectedAssociatedPart.getId());
+            if(position < 0 || associatedParts[position] != selectedAssociatedPart)
+                return false;
+
+            // Close the gap in the arrays. The Parts after it move down by one, so the position table is built again.
+            int moved = associatedPartCount - position - 1;
+            System.arraycopy(associatedParts, position + 1, associatedParts, position, moved);
+            System.arraycopy(associatedPartIds, position + 1, associatedPartIds, position, moved);
+            System.arraycopy(associatedPartQuantities, position + 1, associatedPartQuantities, position, moved);
+            associatedParts[--associatedPartCount] = null;
+            if(associatedPartPositions != null) {
+                if(associatedPartCount > POSITION_INDEX_THRESHOLD)
+                    indexPositions();
+                else
+                    associatedPartPositions = null;
             }
+
+            // Keep the inventory's reverse association index up to date
+            if(commitLock != null)
+                Inventory.onPartDissociated(this, selectedAssociatedPart);
+            return true;
+        } finally {
+            if(commitLock != null)
+                commitLock.unlock();
         }
+    }
+
+    /** Replaces the associated Part having the same ID as the supplied Part with the supplied Part, keeping its
+     * position and quantity. Used by Inventory.updatePart when a Part is replaced in inventory: the association itself
+     * does not change, so the reverse association index is not told.
+     * @param part The Part to hold in place of the associated Part with its ID.
+     * @return True if a Part with the ID was associated with the Product and has been replaced.
+     */
+    boolean replaceAssociatedPart(Part part) {
+        int position = positionOf(part.getId());
+        if(position < 0)
+            return false;
 
-        return false;
+        associatedParts[position] = part;
+        return true;
     }
 
-    /** <p>Returns an ObservableList containing references to all of the Part objects in the associatedParts
-     * ObservableList.</p>
+    /** <p>Returns an ObservableList containing references to all of the Part objects associated with the Product.</p>
      *
      * <p><b>RUNTIME ERROR: </b>This method originally returned a reference to the Product object's AssociatedParts
      * observable list. This became a problem when I used that list in the Product screen controller because removing
@@ -161,15 +270,158 @@ public class Product {
      * to commit their changes (and to give them the option to undo/cancel their actions using Cancel). The method was
      * modified to return a <i>copy</i> of the Product object's AssociatedParts list to avoid this problem.</p>
      *
-     * @return An ObservableList of all of the Part objects in the associatedParts ObservableList.
+     * <p>Callers that only read the associated Parts should use getAssociatedPartsView(), associatedPartCount(), or
+     * containsAssociatedPart() instead, which do not copy the list.</p>
+     *
+     * @return An ObservableList of all of the Part objects associated with the Product.
      */
     public ObservableList<Part> getAllAssociatedParts() {
-        ObservableList<Part> associatedPartsToReturn = FXCollections.observableArrayList();
+        // Copy each associated Part object reference into a new ObservableList
+        return FXCollections.observableArrayList(associatedPartsView);
+    }
+
+    /** <p>Returns an unmodifiable live view of the Product's associated Parts. The view reflects every later change to
+     * the Product's associated Parts and throws an UnsupportedOperationException if it is modified, so reading the
+     * associated Parts through it never copies them.</p>
+     *
+     * @return An unmodifiable view of the associated Parts.
+     */
+    public List<Part> getAssociatedPartsView() {
+        return associatedPartsView;
+    }
+
+    /** Returns the number of different Parts associated with the Product. A Part is counted once whatever quantity
+     * of it the Product needs.
+     * @return The number of associated Parts.
+     */
+    public int associatedPartCount() {
+        return associatedPartCount;
+    }
+
+    /** Returns true if a Part with the supplied ID is associated with the Product. Takes constant time however many
+     * Parts are associated with the Product.
+     * @param partId The Part ID to check for.
+     * @return True if a Part with the supplied ID is associated with the Product.
+     */
+    public boolean containsAssociatedPart(int partId) {
+        return positionOf(partId) >= 0;
+    }
+
+    /** Returns the quantity of a Part the Product needs.
+     * @param partId The Part ID.
+     * @return The number of the Part needed to build one of the Product, or 0 if it is not associated with the
+     * Product.
+     */
+    public int getAssociatedPartQuantity(int partId) {
+        int position = positionOf(partId);
+        return position < 0 ? 0 : associatedPartQuantities[position];
+    }
+
+    /** Returns the quantity the Product needs of the Part at a position in the associated Parts, as listed by
+     * getAssociatedPartsView() and getAllAssociatedParts().
+     * @param index The position of the Part.
+     * @return The number of the Part needed to build one of the Product.
+     * @throws IndexOutOfBoundsException If there is no associated Part at the position.
+     */
+    public int getAssociatedPartQuantityAt(int index) {
+        if(index < 0 || index >= associatedPartCount)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + associatedPartCount);
+        return associatedPartQuantities[index];
+    }
+
+    /**
+     * Returns a copy of the IDs of the associated Parts, in the order they are listed by getAssociatedPartsView().
+     * @return A new array of the associated Part IDs.
+     */
+    int[] copyAssociatedPartIds() {
+        return Arrays.copyOf(associatedPartIds, associatedPartCount);
+    }
+
+    /**
+     * Returns a copy of the quantities of the associated Parts, at the same positions as copyAssociatedPartIds().
+     * @return A new array of the associated Part quantities.
+     */
+    int[] copyAssociatedPartQuantities() {
+        return Arrays.copyOf(associatedPartQuantities, associatedPartCount);
+    }
+
+    /**
+     * Takes the Inventory commit lock and keeps it if the Product is in inventory, so its associations can be changed
+     * together with the Inventory's reverse association index. The Product is looked up while holding the lock, as
+     * it could otherwise be added to inventory between the lookup and the change.
+     *
+     * @return The commit lock, which the caller must release, or null if the Product is not in inventory.
+     */
+    private ReentrantLock lockIfInInventory() {
+        ReentrantLock commitLock = Inventory.getCommitLock();
+        commitLock.lock();
+        if(Inventory.lookupProduct(id) == this)
+            return commitLock;
+
+        commitLock.unlock();
+        return null;
+    }
 
-        // Copy each Part object reference in associatedParts into the associatedPartsToReturn ObservableList
-        for(Part partToAdd : associatedParts)
-            associatedPartsToReturn.add(partToAdd);
+    /**
+     * Returns the position of an associated Part ID in the associated Parts.
+     * @param partId The Part ID.
+     * @return The position, or -1 if no Part with the ID is associated with the Product.
+     */
+    private int positionOf(int partId) {
+        if(associatedPartPositions != null) {
+            int mask = associatedPartPositions.length - 1;
+            int slot = IntHashMap.mix(partId) & mask;
+            while(associatedPartPositions[slot] != 0) {
+                int position = associatedPartPositions[slot] - 1;
+                if(associatedPartIds[position] == partId)
+                    return position;
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        for(int position = 0; position < associatedPartCount; position++) {
+            if(associatedPartIds[position] == partId)
+                return position;
+        }
+        return -1;
+    }
+
+    /**
+     * Builds the position table for the associated Parts, with room for twice as many Parts as are associated.
+     */
+    private void indexPositions() {
+        associatedPartPositions = new int[Integer.highestOneBit(associatedPartCount * 4 - 1)];
+        for(int position = 0; position < associatedPartCount; position++)
+            insertPosition(position);
+    }
+
+    /**
+     * Adds the position of an associated Part ID to the position table.
+     * @param position The position.
+     */
+    private void insertPosition(int position) {
+        int mask = associatedPartPositions.length - 1;
+        int slot = IntHashMap.mix(associatedPartIds[position]) & mask;
+        while(associatedPartPositions[slot] != 0)
+            slot = (slot + 1) & mask;
+        associatedPartPositions[slot] = position + 1;
+    }
 
-        return associatedPartsToReturn;
+    /**
+     * Unmodifiable live view of the associated Parts, reading the associatedParts array directly.
+     */
+    private class AssociatedPartsView extends AbstractList<Part> implements RandomAccess {
+        @Override
+        public Part get(int index) {
+            if(index < 0 || index >= associatedPartCount)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + associatedPartCount);
+            return associatedParts[index];
+        }
+
+        @Override
+        public int size() {
+            return associatedPartCount;
+        }
     }
 }
\ No newline at end of file
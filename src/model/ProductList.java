@@ -0,0 +1,84 @@
+package model;
+
+// JavaFX imports
+import javafx.collections.ModifiableObservableListBase;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>The ProductList class is the ObservableList behind Inventory.getAllProducts() and the Inventory's committed
+ * Product list. It behaves like the list returned by FXCollections.observableArrayList(), and can also group any
+ * number of changes into a single change reported to listeners, so a bulk change to inventory only makes a bound
+ * TableView refresh once.</p>
+ */
+class ProductList extends ModifiableObservableListBase<Product> {
+    private final List<Product> products = new ArrayList<>();
+
+    @Override
+    public Product get(int index) {
+        return products.get(index);
+    }
+
+    @Override
+    public int size() {
+        return products.size();
+    }
+
+    /**
+     * Starts a batch of changes. Every change made to the list until the matching call to endBatch is reported to
+     * listeners as a single change. Batches may be nested.
+     */
+    void beginBatch() {
+        beginChange();
+    }
+
+    /**
+     * Ends a batch of changes started by beginBatch, reporting the batch to listeners if it is the outermost batch.
+     */
+    void endBatch() {
+        endChange();
+    }
+
+    /**
+     * Removes the Product at a position by moving the last Product in the list into its place, so that no other
+     * Product changes position, as PartList.swapRemove does.
+     *
+     * @param index The position of the Product to remove.
+     * @return The Product moved into the position, or null if the removed Product was the last Product in the list.
+     */
+    Product swapRemove(int index) {
+        Product removed = products.get(index);
+        int last = products.size() - 1;
+
+        beginChange();
+        try {
+            Product moved = products.remove(last);
+            if(index < last) {
+                products.set(index, moved);
+                nextSet(index, removed);
+            }
+            nextRemove(last, moved);
+            modCount++;
+            return index < last ? moved : null;
+        } finally {
+            endChange();
+        }
+    }
+
+    @Override
+    protected void doAdd(int index, Product product) {
+        products.add(index, product);
+    }
+
+    @Override
+    protected Product doSet(int index, Product product) {
+        return products.set(index, product);
+    }
+
+    @Override
+    protected Product doRemove(int index) {
+        return products.remove(index);
+    }
+}
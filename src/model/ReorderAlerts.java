@@ -0,0 +1,283 @@
+package model;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * <p>The ReorderAlerts class keeps track of the Parts and Products in inventory whose stock level is below their
+ * minimum (and so need reordering) or above their maximum. The Inventory updates the alerts as part of every change
+ * it commits, by passing the alerts each change before any registered InventoryListener, so the alerts are never
+ * rebuilt by scanning the inventory except when the whole inventory is replaced (for example when a snapshot is
+ * loaded). The alerts are returned by Inventory.getReorderAlerts.</p>
+ *
+ * <p>Each kind of alert is held as a set of IDs in a dense array, so adding or removing an alert takes constant time
+ * and listing the alerts takes time proportional to the number of alerts, however many Parts and Products are in
+ * inventory. The alerts follow the values of the objects committed to inventory: changing the stock level of a Part
+ * through its setters, without committing it through Inventory.updatePart, is not seen until the Part is next
+ * committed.</p>
+ *
+ * <p>Every method is synchronized, since the alerts are read by the JavaFX Application Thread and exporters while
+ * changes are committed on other threads.</p>
+ */
+public class ReorderAlerts {
+    // The IDs of the Parts and Products below their minimum and above their maximum stock level
+    private final IdSet partsBelowMin = new IdSet();
+    private final IdSet partsAboveMax = new IdSet();
+    private final IdSet productsBelowMin = new IdSet();
+    private final IdSet productsAboveMax = new IdSet();
+
+    // Updates the alerts for each change committed to inventory. Only registered by the Inventory, so the alerts
+    // cannot be changed by anyone holding a reference to them.
+    private final InventoryListener updater = new InventoryListener() {
+        @Override
+        public void partAdded(Part part) {
+            addPart(part.getId(), part.getStock(), part.getMin(), part.getMax());
+        }
+
+        @Override
+        public void partUpdated(Part oldPart, Part newPart) {
+            removePart(oldPart.getId());
+            addPart(newPart.getId(), newPart.getStock(), newPart.getMin(), newPart.getMax());
+        }
+
+        @Override
+        public void partDeleted(Part part) {
+            removePart(part.getId());
+        }
+
+        @Override
+        public void productAdded(Product product) {
+            addProduct(product);
+        }
+
+        @Override
+        public void productUpdated(Product oldProduct, Product newProduct) {
+            removeProduct(oldProduct.getId());
+            addProduct(newProduct);
+        }
+
+        @Override
+        public void productDeleted(Product product) {
+            removeProduct(product.getId());
+        }
+
+        @Override
+        public void inventoryReplaced() {
+            rebuild();
+        }
+    };
+
+    /**
+     * The ReorderAlerts class constructor.
+     */
+    ReorderAlerts() {
+    }
+
+    /**
+     * Returns the listener the Inventory passes every committed change to.
+     * @return The listener updating the alerts.
+     */
+    InventoryListener getUpdater() {
+        return updater;
+    }
+
+    /**
+     * Returns the Parts in inventory whose stock level is below their minimum, in no particular order.
+     * @return A new list of the Parts that need reordering.
+     */
+    public List<Part> getPartsBelowMin() {
+        return lookup(idsOf(partsBelowMin), Inventory::lookupPart);
+    }
+
+    /**
+     * Returns the Parts in inventory whose stock level is above their maximum, in no particular order.
+     * @return A new list of the overstocked Parts.
+     */
+    public List<Part> getPartsAboveMax() {
+        return lookup(idsOf(partsAboveMax), Inventory::lookupPart);
+    }
+
+    /**
+     * Returns the Products in inventory whose stock level is below their minimum, in no particular order.
+     * @return A new list of the Products that need reordering.
+     */
+    public List<Product> getProductsBelowMin() {
+        return lookup(idsOf(productsBelowMin), Inventory::lookupProduct);
+    }
+
+    /**
+     * Returns the Products in inventory whose stock level is above their maximum, in no particular order.
+     * @return A new list of the overstocked Products.
+     */
+    public List<Product> getProductsAboveMax() {
+        return lookup(idsOf(productsAboveMax), Inventory::lookupProduct);
+    }
+
+    /**
+     * Returns the IDs of the Parts in inventory whose stock level is below their minimum, without looking the Parts
+     * up. Useful for Parts held in a part catalog, which are only materialized when they are looked up.
+     * @return A new array of Part IDs, in no particular order.
+     */
+    public synchronized int[] getPartIdsBelowMin() {
+        return partsBelowMin.toArray();
+    }
+
+    /**
+     * Returns the IDs of the Parts in inventory whose stock level is above their maximum, without looking the Parts
+     * up.
+     * @return A new array of Part IDs, in no particular order.
+     */
+    public synchronized int[] getPartIdsAboveMax() {
+        return partsAboveMax.toArray();
+    }
+
+    /**
+     * Returns the total number of alerts: Parts and Products below their minimum or above their maximum stock level.
+     * @return The number of alerts.
+     */
+    public synchronized int getAlertCount() {
+        return partsBelowMin.size() + partsAboveMax.size() + productsBelowMin.size() + productsAboveMax.size();
+    }
+
+    /**
+     * Adds the alert for a Part, if it has one.
+     *
+     * @param id The Part ID.
+     * @param stock The Part stock level.
+     * @param min The minimum stock level for the Part.
+     * @param max The maximum stock level for the Part.
+     */
+    private synchronized void addPart(int id, int stock, int min, int max) {
+        if(stock < min)
+            partsBelowMin.add(id);
+        else if(stock > max)
+            partsAboveMax.add(id);
+    }
+
+    /**
+     * Removes the alert for a Part, if it has one.
+     *
+     * @param id The Part ID.
+     */
+    private synchronized void removePart(int id) {
+        partsBelowMin.remove(id);
+        partsAboveMax.remove(id);
+    }
+
+    /**
+     * Adds the alert for a Product, if it has one.
+     *
+     * @param product The Product.
+     */
+    private synchronized void addProduct(Product product) {
+        if(product.getStock() < product.getMin())
+            productsBelowMin.add(product.getId());
+        else if(product.getStock() > product.getMax())
+            productsAboveMax.add(product.getId());
+    }
+
+    /**
+     * Removes the alert for a Product, if it has one.
+     *
+     * @param id The Product ID.
+     */
+    private synchronized void removeProduct(int id) {
+        productsBelowMin.remove(id);
+        productsAboveMax.remove(id);
+    }
+
+    /**
+     * Rebuilds every alert from the contents of inventory after the whole inventory has been replaced. Parts are read
+     * with Inventory.forEachPartRow, so Parts held in a part catalog are not materialized. Called while the Inventory
+     * commit lock is held.
+     */
+    private synchronized void rebuild() {
+        partsBelowMin.clear();
+        partsAboveMax.clear();
+        productsBelowMin.clear();
+        productsAboveMax.clear();
+
+        Inventory.forEachPartRow((id, price, stock, min, max) -> addPart(id, stock, min, max));
+        for(Product product : Inventory.getProductList())
+            addProduct(product);
+    }
+
+    /**
+     * Copies the IDs in a set while holding the lock on the alerts.
+     *
+     * @param set The set.
+     * @return The IDs in the set.
+     */
+    private synchronized int[] idsOf(IdSet set) {
+        return set.toArray();
+    }
+
+    /**
+     * Looks up the objects with the supplied IDs, skipping any that have been deleted since the IDs were copied.
+     *
+     * @param ids The IDs.
+     * @param lookup The function looking up an object by ID.
+     * @param <T> The type of object.
+     * @return A new list of the objects.
+     */
+    private static <T> List<T> lookup(int[] ids, IntFunction<T> lookup) {
+        if(ids.length == 0)
+            return Collections.emptyList();
+
+        List<T> found = new ArrayList<>(ids.length);
+        for(int id : ids) {
+            T item = lookup.apply(id);
+            if(item != null)
+                found.add(item);
+        }
+        return found;
+    }
+
+    /**
+     * A set of IDs held in a dense array, with the position of each ID kept in a hash map so that an ID can be removed
+     * by moving the last ID into its place.
+     */
+    private static class IdSet {
+        private int[] ids = new int[16];
+        private int size;
+        private final IntHashMap<Integer> positions = new IntHashMap<>();
+
+        void add(int id) {
+            if(positions.containsKey(id))
+                return;
+            if(size == ids.length)
+                ids = Arrays.copyOf(ids, size * 2);
+            ids[size] = id;
+            positions.put(id, size++);
+        }
+
+        void remove(int id) {
+            Integer position = positions.remove(id);
+            if(position == null)
+                return;
+
+            int last = ids[--size];
+            if(position != size) {
+                ids[position] = last;
+                positions.put(last, position);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        void clear() {
+            size = 0;
+            positions.clear();
+        }
+    }
+}
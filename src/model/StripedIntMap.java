@@ -0,0 +1,129 @@
+package model;
+
+// Java imports
+import java.util.function.UnaryOperator;
+
+/**
+ * <p>The StripedIntMap class is a thread safe hash map keyed by primitive int values. The keys are spread over a
+ * fixed number of IntHashMap stripes, each guarded by its own lock, so threads reading or writing keys in different
+ * stripes never wait for each other and a lookup only ever holds one stripe lock for the length of an IntHashMap
+ * lookup.</p>
+ *
+ * <p>It is used by the Inventory for the indexes keyed by Part and Product ID, which are read from search threads,
+ * importers, and the JavaFX Application Thread while changes are being committed.</p>
+ *
+ * @param <V> The type of value stored in the map.
+ */
+class StripedIntMap<V> {
+    // Number of stripes (a power of two so a stripe can be chosen with a shift)
+    private static final int STRIPE_BITS = 4;
+
+    private final IntHashMap<V>[] stripes;
+
+    /**
+     * The StripedIntMap class constructor. Creates an empty map.
+     */
+    @SuppressWarnings("unchecked")
+    StripedIntMap() {
+        stripes = (IntHashMap<V>[]) new IntHashMap<?>[1 << STRIPE_BITS];
+        for(int i = 0; i < stripes.length; i++)
+            stripes[i] = new IntHashMap<>();
+    }
+
+    /**
+     * Returns the value mapped to the supplied key.
+     *
+     * @param key The key to look up.
+     * @return The mapped value, or null if the key is not in the map.
+     */
+    V get(int key) {
+        IntHashMap<V> stripe = stripeOf(key);
+        synchronized(stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    /**
+     * Returns true if the supplied key is in the map.
+     *
+     * @param key The key to look up.
+     * @return True if the key is mapped to a value.
+     */
+    boolean containsKey(int key) {
+        IntHashMap<V> stripe = stripeOf(key);
+        synchronized(stripe) {
+            return stripe.containsKey(key);
+        }
+    }
+
+    /**
+     * Maps the supplied key to the supplied value, replacing any existing mapping.
+     *
+     * @param key The key to map.
+     * @param value The value to map to the key. Cannot be null.
+     * @return The value previously mapped to the key, or null if there was no mapping.
+     */
+    V put(int key, V value) {
+        IntHashMap<V> stripe = stripeOf(key);
+        synchronized(stripe) {
+            return stripe.put(key, value);
+        }
+    }
+
+    /**
+     * Removes the entry for the supplied key from the map.
+     *
+     * @param key The key to remove.
+     * @return The value that was mapped to the key, or null if there was no mapping.
+     */
+    V remove(int key) {
+        IntHashMap<V> stripe = stripeOf(key);
+        synchronized(stripe) {
+            return stripe.remove(key);
+        }
+    }
+
+    /**
+     * Replaces the value mapped to the supplied key with the result of a function, while holding the key's stripe
+     * lock. The function may modify a mutable value in place, and no other thread can see the value until it returns.
+     *
+     * @param key The key to update.
+     * @param update A function returning the new value given the current value (or null if the key is not mapped).
+     *               If it returns null then the key is removed.
+     * @return The new value, or null if the key was removed.
+     */
+    V compute(int key, UnaryOperator<V> update) {
+        IntHashMap<V> stripe = stripeOf(key);
+        synchronized(stripe) {
+            V value = update.apply(stripe.get(key));
+            if(value == null)
+                stripe.remove(key);
+            else
+                stripe.put(key, value);
+            return value;
+        }
+    }
+
+    /**
+     * Removes all entries from the map. Each stripe is cleared in turn, so a thread adding entries at the same time
+     * may find some of its entries remain.
+     */
+    void clear() {
+        for(IntHashMap<V> stripe : stripes) {
+            synchronized(stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the stripe holding the supplied key. The key is multiplied by a large odd constant so that sequential
+     * IDs are spread over every stripe.
+     *
+     * @param key The key.
+     * @return The stripe for the key.
+     */
+    private IntHashMap<V> stripeOf(int key) {
+        return stripes[(key * 0x9E3779B9) >>> (Integer.SIZE - STRIPE_BITS)];
+    }
+}
@@ -0,0 +1,368 @@
+package model;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+
+/**
+ * <p>The TrigramIndex class is an inverted index over the lower case names of Part or Product objects that supports
+ * fast substring searches. Every run of three consecutive characters (a trigram) in a name is mapped to a posting
+ * list of the IDs of all objects whose name contains that trigram.</p>
+ *
+ * <p>A search for a string of three or more characters only has to look at the IDs found in the posting lists of the
+ * search string's own trigrams, starting with the shortest list. Each candidate is then verified against its stored
+ * lower case name, so the result is exactly the set of objects whose name contains the search string. Searches
+ * shorter than three characters fall back to checking every stored name, which still avoids lower casing every name
+ * again on each search.</p>
+ *
+ * <p>The index is maintained incrementally by the Inventory class as objects are added, updated, and deleted. When
+ * the whole inventory is replaced at once (for example when a snapshot is loaded at startup), building the index is
+ * deferred until it is first used so that it does not hold up loading. All methods are synchronized because searches
+ * run on a background thread while changes are committed to inventory, under the Inventory commit lock, on any
+ * thread.</p>
+ *
+ * <p>Names can also be indexed by ID alone (for Parts in a MappedPartCatalog). The index then only holds the lower
+ * case name, and matching objects are looked up by ID when they are returned, so indexing does not materialize every
+ * object.</p>
+ *
+ * @param <T> The type of object indexed (Part or Product).
+ */
+public class TrigramIndex<T> {
+    // Number of characters in each indexed gram
+    private static final int GRAM_LENGTH = 3;
+
+    // Functions used to read the ID and name of an indexed object, and to look up an object indexed by ID alone
+    private final ToIntFunction<T> idOf;
+    private final Function<T, String> nameOf;
+    private final IntFunction<T> lookup;
+
+    // Indexed objects (with their lower case names) by ID, the IDs of all indexed objects, and the trigram postings
+    private final IntHashMap<Entry<T>> entries = new IntHashMap<>();
+    private final Postings allIds = new Postings();
+    private final IntHashMap<Postings> postings = new IntHashMap<>();
+
+    // Indexes the objects waiting to be indexed, or null if the index is up to date
+    private Runnable deferredBuild;
+
+    /**
+     * The TrigramIndex class constructor.
+     *
+     * @param idOf A function returning the unique ID of an indexed object.
+     * @param nameOf A function returning the name of an indexed object.
+     * @param lookup A function returning the object with the supplied ID, used for objects indexed by ID alone.
+     */
+    TrigramIndex(ToIntFunction<T> idOf, Function<T, String> nameOf, IntFunction<T> lookup) {
+        this.idOf = idOf;
+        this.nameOf = nameOf;
+        this.lookup = lookup;
+    }
+
+    /**
+     * Adds an object to the index. If an object with the same ID is already indexed then it is replaced.
+     *
+     * @param item The object to add to the index.
+     */
+    synchronized void add(T item) {
+        ensureBuilt();
+        addToIndex(idOf.applyAsInt(item), item, nameOf.apply(item));
+    }
+
+    /**
+     * Adds an object to the index by ID alone, so that the index does not hold the object and looks it up by ID when
+     * it matches a search. If an object with the same ID is already indexed then it is replaced.
+     *
+     * @param id The ID of the object.
+     * @param name The name of the object.
+     */
+    synchronized void add(int id, String name) {
+        ensureBuilt();
+        addToIndex(id, null, name);
+    }
+
+    /**
+     * Adds an object to the index without first building any deferred objects.
+     *
+     * @param id The ID of the object.
+     * @param item The object, or null if it is indexed by ID alone.
+     * @param name The name of the object.
+     */
+    private void addToIndex(int id, T item, String name) {
+        remove(id);
+
+        String lowerName = name.toLowerCase();
+        entries.put(id, new Entry<>(item, lowerName));
+        allIds.add(id);
+
+        for(int i = 0; i + GRAM_LENGTH <= lowerName.length(); i++) {
+            int gram = gramAt(lowerName, i);
+            Postings gramPostings = postings.get(gram);
+            if(gramPostings == null) {
+                gramPostings = new Postings();
+                postings.put(gram, gramPostings);
+            }
+            gramPostings.add(id);
+        }
+    }
+
+    /**
+     * Removes an object from the index. Nothing happens if the object's ID is not indexed.
+     *
+     * @param item The object to remove from the index.
+     */
+    synchronized void remove(T item) {
+        ensureBuilt();
+        remove(idOf.applyAsInt(item));
+    }
+
+    /**
+     * Replaces the contents of the index with the supplied objects. The objects are not indexed until the index is
+     * next used (or ensureBuilt is called), so the caller must not modify the collection afterwards.
+     *
+     * @param items The objects to be indexed.
+     */
+    synchronized void replaceAllDeferred(Collection<T> items) {
+        clear();
+        deferredBuild = () -> {
+            for(T item : items)
+                addToIndex(idOf.applyAsInt(item), item, nameOf.apply(item));
+        };
+    }
+
+    /**
+     * Replaces the contents of the index with objects indexed by ID alone. The names are not indexed until the index
+     * is next used (or ensureBuilt is called), and matching objects are looked up by ID when they are returned.
+     *
+     * @param count The number of objects.
+     * @param idAt A function returning the ID of each object from 0 to count - 1.
+     * @param nameAt A function returning the name of each object from 0 to count - 1.
+     */
+    synchronized void replaceAllDeferred(int count, IntUnaryOperator idAt, IntFunction<String> nameAt) {
+        clear();
+        deferredBuild = () -> {
+            for(int i = 0; i < count; i++)
+                addToIndex(idAt.applyAsInt(i), null, nameAt.apply(i));
+        };
+    }
+
+    /**
+     * Indexes any objects whose indexing was deferred by replaceAllDeferred.
+     */
+    public synchronized void ensureBuilt() {
+        if(deferredBuild == null)
+            return;
+
+        Runnable build = deferredBuild;
+        deferredBuild = null;
+        build.run();
+    }
+
+    /**
+     * Removes all objects from the index.
+     */
+    synchronized void clear() {
+        deferredBuild = null;
+        entries.clear();
+        allIds.clear();
+        postings.clear();
+    }
+
+    /**
+     * Returns a list of all indexed objects whose name contains the search string, ignoring case. The list is
+     * ordered by ascending ID.
+     *
+     * @param searchString The string to search for.
+     * @return A list of the matching objects ordered by ID.
+     */
+    public synchronized List<T> search(String searchString) {
+        ensureBuilt();
+        String lowerSearch = searchString.toLowerCase();
+        List<T> matches = new ArrayList<>();
+
+        // Search strings too short to contain a trigram are checked against every name
+        if(lowerSearch.length() < GRAM_LENGTH) {
+            for(int i = 0; i < allIds.size(); i++)
+                addIfMatch(allIds.get(i), lowerSearch, matches);
+            return matches;
+        }
+
+        // Collect the posting list of each trigram in the search string. If any trigram is not indexed then no name
+        // can contain the search string.
+        int gramCount = lowerSearch.length() - GRAM_LENGTH + 1;
+        Postings[] gramPostings = new Postings[gramCount];
+        for(int i = 0; i < gramCount; i++) {
+            gramPostings[i] = postings.get(gramAt(lowerSearch, i));
+            if(gramPostings[i] == null)
+                return matches;
+        }
+
+        // Walk the shortest posting list and skip any ID missing from another list before verifying the name
+        Arrays.sort(gramPostings, (a, b) -> Integer.compare(a.size(), b.size()));
+        Postings shortest = gramPostings[0];
+        candidates:
+        for(int i = 0; i < shortest.size(); i++) {
+            int id = shortest.get(i);
+            for(int j = 1; j < gramPostings.length; j++)
+                if(!gramPostings[j].contains(id))
+                    continue candidates;
+            addIfMatch(id, lowerSearch, matches);
+        }
+
+        return matches;
+    }
+
+    /**
+     * Returns a list of the candidate objects whose name contains the search string, ignoring case. The candidates
+     * are checked against the lower case names stored in the index, so no name is lower cased again. This is used
+     * to narrow the results of a previous search when the search string is extended.
+     *
+     * @param candidates The objects to check, typically the results of a previous search.
+     * @param searchString The string to search for.
+     * @return A list of the candidates whose name contains the search string, in the order of the candidates.
+     */
+    public synchronized List<T> refine(List<T> candidates, String searchString) {
+        ensureBuilt();
+        String lowerSearch = searchString.toLowerCase();
+        List<T> matches = new ArrayList<>();
+
+        for(T candidate : candidates) {
+            int id = idOf.applyAsInt(candidate);
+            Entry<T> entry = entries.get(id);
+            if(entry != null && itemOf(id, entry) == candidate && entry.lowerName.contains(lowerSearch))
+                matches.add(candidate);
+        }
+
+        return matches;
+    }
+
+    /**
+     * Adds the object with the supplied ID to the list if its lower case name contains the search string.
+     *
+     * @param id The ID of the candidate object.
+     * @param lowerSearch The lower case search string.
+     * @param matches The list of matches to add to.
+     */
+    private void addIfMatch(int id, String lowerSearch, List<T> matches) {
+        Entry<T> entry = entries.get(id);
+        if(entry.lowerName.contains(lowerSearch)) {
+            T item = itemOf(id, entry);
+            if(item != null)
+                matches.add(item);
+        }
+    }
+
+    /**
+     * Returns the object of an index entry, looking it up by ID if it is indexed by ID alone.
+     *
+     * @param id The ID of the object.
+     * @param entry The index entry.
+     * @return The object, or null if an object indexed by ID alone could not be found.
+     */
+    private T itemOf(int id, Entry<T> entry) {
+        return entry.item != null ? entry.item : lookup.apply(id);
+    }
+
+    /**
+     * Removes the object with the supplied ID from the index using the lower case name stored when it was added.
+     *
+     * @param id The ID of the object to remove.
+     */
+    private void remove(int id) {
+        Entry<T> entry = entries.remove(id);
+        if(entry == null)
+            return;
+
+        allIds.remove(id);
+        for(int i = 0; i + GRAM_LENGTH <= entry.lowerName.length(); i++) {
+            int gram = gramAt(entry.lowerName, i);
+            Postings gramPostings = postings.get(gram);
+            if(gramPostings != null && gramPostings.remove(id) && gramPostings.size() == 0)
+                postings.remove(gram);
+        }
+    }
+
+    /**
+     * Packs the three characters starting at the supplied position into an int key. Characters above U+07FF share
+     * keys with other characters, which only adds candidates that are then rejected when their names are verified.
+     *
+     * @param text The text to read the trigram from.
+     * @param start The position of the first character of the trigram.
+     * @return The trigram key.
+     */
+    private static int gramAt(String text, int start) {
+        return ((text.charAt(start) & 0x7FF) << 22) |
+                ((text.charAt(start + 1) & 0x7FF) << 11) |
+                (text.charAt(start + 2) & 0x7FF);
+    }
+
+    /**
+     * An indexed object (or null if it is indexed by ID alone) together with its lower case name.
+     *
+     * @param <T> The type of object indexed.
+     */
+    private static class Entry<T> {
+        private final T item;
+        private final String lowerName;
+
+        private Entry(T item, String lowerName) {
+            this.item = item;
+            this.lowerName = lowerName;
+        }
+    }
+
+    /**
+     * A sorted, duplicate free list of IDs stored in a primitive int array. IDs are normally assigned in increasing
+     * order, so adding an ID is usually a simple append.
+     */
+    private static class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private int size() {
+            return size;
+        }
+
+        private int get(int index) {
+            return ids[index];
+        }
+
+        private boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void add(int id) {
+            // Append when the ID is larger than every stored ID (the common case)
+            int position = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if(position < 0)
+                position = -position - 1;
+            else if(position < size)
+                return;
+
+            if(size == ids.length)
+                ids = Arrays.copyOf(ids, size << 1);
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        private boolean remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if(position < 0)
+                return false;
+
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        private void clear() {
+            ids = new int[4];
+            size = 0;
+        }
+    }
+}
@@ -4,6 +4,7 @@ package view;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
 import javafx.stage.Stage;
@@ -14,8 +15,12 @@ import model.Product;
 import model.InHouse;
 import model.Outsourced;
 import model.Inventory;
+import model.InventoryJournal;
 
 // Java imports
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Optional;
 
 /**
@@ -42,6 +47,14 @@ import java.util.Optional;
  * @author Billy Daniel
  */
 public class Main extends Application {
+    // Snapshot file the inventory is loaded from at startup, and the journal recording every change made since the
+    // snapshot was saved
+    private static final Path INVENTORY_FILE = Paths.get("inventory.dat");
+    private static final Path JOURNAL_FILE = Paths.get("inventory.journal");
+
+    // The open journal, or null if the inventory files could not be loaded. Changes are then not saved, so the files
+    // are never overwritten.
+    private static InventoryJournal journal;
 
     /**
      * <p>JavaDoc located in <b>\Billy Daniel C482 PA\javadoc\</b></p>
@@ -60,6 +73,10 @@ public class Main extends Application {
      */
     @Override
     public void start(Stage primaryStage) throws Exception {
+        // Changes committed on other threads are replayed onto the lists shown in the tables on this thread
+        Inventory.bindListsToThread(Platform::isFxApplicationThread, Platform::runLater);
+        loadInventory();
+
         primaryStage.setScene(new Scene(FXMLLoader.load(getClass().getResource("..\\view\\MainScreen.fxml"))));
         primaryStage.setTitle("Inventory Management System");
 
@@ -80,6 +97,63 @@ public class Main extends Application {
         primaryStage.show();
     }
 
+    /**
+     * Closes the journal when the application exits, which compacts it into the snapshot file. The JavaFX runtime is
+     * shutting down at this point, so a failure is reported on the console rather than in an alert.
+     */
+    @Override
+    public void stop() {
+        if(journal == null)
+            return;
+
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Could not save inventory to " + INVENTORY_FILE.toAbsolutePath() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the inventory from the snapshot and journal files (if they exist) and opens the journal so every change
+     * is saved as it is made. Displays an error if the files could not be loaded, in which case the application starts
+     * with an empty inventory, changes made in the session are not saved, and the files are left untouched.
+     */
+    private void loadInventory() {
+        try {
+            journal = InventoryJournal.open(INVENTORY_FILE, JOURNAL_FILE);
+            journal.setFailureHandler(e -> Platform.runLater(() -> showJournalFailure(e)));
+
+            // Build the product search index in the background so the first search does not have to wait for it. The
+            // part index is left until the first part search, since indexing every part name would fill the heap with
+            // a large memory-mapped part catalog at startup.
+            Thread indexThread = new Thread(() -> Inventory.getProductNameIndex().ensureBuilt(), "inventory-index");
+            indexThread.setDaemon(true);
+            indexThread.start();
+        } catch (IOException e) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Inventory Management System");
+            alert.setHeaderText("Could not load inventory from " + INVENTORY_FILE.toAbsolutePath() + ".\n" + e.getMessage());
+            alert.setContentText("The inventory is empty. Changes made before the application is restarted will not be "
+                                 + "saved, and the inventory files are left as they are.");
+            alert.showAndWait();
+        }
+    }
+
+    /**
+     * Displays an error when changes could not be written to the journal. The journal stops writing after the error,
+     * and the changes made since are saved in the inventory file when the application closes.
+     *
+     * @param e The error writing the journal.
+     */
+    private static void showJournalFailure(IOException e) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Inventory Management System");
+        alert.setHeaderText("Could not save changes to " + JOURNAL_FILE.toAbsolutePath() + ".\n" + e.getMessage());
+        alert.setContentText("Changes are only saved to " + INVENTORY_FILE.toAbsolutePath() + " when the application "
+                             + "is closed, and will be lost if it stops before then.");
+        alert.showAndWait();
+    }
+
     /**
      * Populates data into the inventory for testing purposes.
      */
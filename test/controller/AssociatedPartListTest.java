@@ -0,0 +1,72 @@
+package controller;
+
+// Java imports
+import java.util.List;
+
+// JUnit imports
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Project imports
+import model.InHouse;
+import model.Part;
+import model.Product;
+
+/**
+ * Tests for AssociatedPartList, checking that Parts are held once with their quantities, that a quantity can be set
+ * directly, and that the Parts are copied to and from a Product unchanged.
+ */
+class AssociatedPartListTest {
+    @Test
+    void quantityIsAddedToAndSet() {
+        AssociatedPartList list = new AssociatedPartList();
+        Part bolt = new InHouse(1, "Bolt", 1, 1, 0, 10, 1);
+        list.addPart(bolt);
+        list.addPart(new InHouse(1, "Bolt", 1, 1, 0, 10, 1));
+
+        assertEquals(List.of(bolt), list.getParts());
+        assertSame(bolt, list.getParts().get(0));
+        assertEquals(2, list.getQuantity(bolt));
+
+        assertTrue(list.setQuantity(bolt, 5));
+        assertEquals(5, list.getQuantity(bolt));
+        assertFalse(list.setQuantity(new InHouse(2, "Nut", 1, 1, 0, 10, 1), 5));
+        assertThrows(IllegalArgumentException.class, () -> list.setQuantity(bolt, 0));
+        assertEquals(5, list.getQuantity(bolt));
+
+        assertTrue(list.removePart(bolt));
+        assertFalse(list.removePart(bolt));
+        assertTrue(list.getParts().isEmpty());
+        assertEquals(0, list.getQuantity(bolt));
+    }
+
+    @Test
+    void associationsAreCopiedToAndFromProduct() {
+        Part bolt = new InHouse(1, "Bolt", 1, 1, 0, 10, 1);
+        Part nut = new InHouse(2, "Nut", 1, 1, 0, 10, 1);
+        Product product = new Product(1, "Product", 1, 1, 0, 10);
+        product.addAssociatedPart(nut, 3);
+        product.addAssociatedPart(bolt, 2);
+
+        AssociatedPartList list = new AssociatedPartList();
+        list.copyFrom(product);
+        assertEquals(List.of(nut, bolt), list.getParts());
+        assertEquals(3, list.getQuantity(nut));
+        assertEquals(2, list.getQuantity(bolt));
+
+        list.addPart(bolt);
+        Product copy = new Product(1, "Product", 1, 1, 0, 10);
+        list.copyTo(copy);
+        assertEquals(List.of(nut, bolt), copy.getAssociatedPartsView());
+        assertEquals(3, copy.getAssociatedPartQuantity(nut.getId()));
+        assertEquals(3, copy.getAssociatedPartQuantity(bolt.getId()));
+
+        // The Product the list was copied from is not changed
+        assertEquals(2, product.getAssociatedPartQuantity(bolt.getId()));
+    }
+}
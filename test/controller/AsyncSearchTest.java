@@ -0,0 +1,110 @@
+package controller;
+
+// JavaFX imports
+import javafx.collections.ObservableList;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// JUnit imports
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Project imports
+import model.InHouse;
+import model.Inventory;
+import model.Part;
+
+/**
+ * Tests for AsyncSearch, checking that only the results or failure of the latest search are passed to the handlers,
+ * and only on the application thread. The test thread stands in for the JavaFX Application Thread: the handlers are
+ * queued for it rather than passed to Platform.runLater.
+ */
+class AsyncSearchTest {
+    private final BlockingQueue<Runnable> applicationThread = new LinkedBlockingQueue<>();
+    private final List<ObservableList<Part>> results = new ArrayList<>();
+    private final List<RuntimeException> failures = new ArrayList<>();
+    private final List<Part> parts = new ArrayList<>();
+    private AsyncSearch<Part> search;
+
+    @BeforeEach
+    void addParts() {
+        for(String name : new String[] {"Carriage bolt", "Hex nut"}) {
+            Part part = new InHouse(Inventory.generatePartID(), name, 1, 1, 0, 10, 1);
+            Inventory.addPart(part);
+            parts.add(part);
+        }
+        search = new AsyncSearch<>(InventorySearch.newPartSearchSession(), results::add, failures::add,
+                                   applicationThread::add);
+    }
+
+    @AfterEach
+    void deleteParts() {
+        for(Part part : parts)
+            Inventory.deletePart(part);
+    }
+
+    @Test
+    void onlyLatestSearchIsPublished() throws InterruptedException {
+        search.submit("bolt");
+        search.submit("nut");
+        runNextHandler();
+
+        assertEquals(List.of(List.of(parts.get(1))), results);
+        assertTrue(failures.isEmpty());
+        assertNull(applicationThread.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void failureIsReportedOnApplicationThread() throws InterruptedException {
+        // A null search string makes the session throw
+        search.submit(null);
+        runNextHandler();
+
+        assertEquals(1, failures.size());
+        assertInstanceOf(NullPointerException.class, failures.get(0));
+        assertTrue(results.isEmpty());
+
+        // The session starts again after a failure
+        search.submit("bolt");
+        runNextHandler();
+        assertEquals(List.of(List.of(parts.get(0))), results);
+    }
+
+    @Test
+    void overtakenFailureIsNotReported() throws InterruptedException {
+        search.submit(null);
+        Runnable failure = applicationThread.poll(5, TimeUnit.SECONDS);
+        assertNotNull(failure);
+
+        // A search submitted before the failure reaches the application thread replaces it
+        search.submit("nut");
+        failure.run();
+        assertTrue(failures.isEmpty());
+
+        runNextHandler();
+        assertEquals(List.of(List.of(parts.get(1))), results);
+        assertTrue(failures.isEmpty());
+    }
+
+    /**
+     * Waits for the next handler queued for the application thread and runs it on the test thread.
+     * @throws InterruptedException If the test thread is interrupted while waiting.
+     */
+    private void runNextHandler() throws InterruptedException {
+        Runnable handler = applicationThread.poll(5, TimeUnit.SECONDS);
+        assertNotNull(handler);
+        handler.run();
+    }
+}
@@ -0,0 +1,89 @@
+package controller;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.List;
+
+// JUnit imports
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Project imports
+import model.InHouse;
+import model.Inventory;
+import model.Part;
+
+/**
+ * Tests for the InventorySearch session, checking that narrowing its previous results as the search string grows
+ * finds the same Parts as a full search, and that a full search is made again when it cannot narrow them.
+ */
+class InventorySearchTest {
+    private final List<Part> parts = new ArrayList<>();
+
+    @BeforeEach
+    void addParts() {
+        for(String name : new String[] {"Carriage bolt", "Hex bolt", "Hex nut", "Bolt cutter", "Washer"})
+            addPart(name);
+    }
+
+    @AfterEach
+    void deleteParts() {
+        for(Part part : parts)
+            Inventory.deletePart(part);
+    }
+
+    @Test
+    void growingSearchStringNarrowsPreviousResults() {
+        InventorySearch.Session<Part> session = InventorySearch.newPartSearchSession();
+        for(String search : new String[] {"b", "bo", "bol", "bolt", "bolt ", "bolt c", "BOLT CU"})
+            assertEquals(InventorySearch.searchParts(search), session.search(search), "search \"" + search + "\"");
+        assertEquals(List.of(parts.get(3)), session.search("bolt cut"));
+    }
+
+    @Test
+    void changedSearchStringSearchesAgain() {
+        InventorySearch.Session<Part> session = InventorySearch.newPartSearchSession();
+        assertEquals(List.of(parts.get(1), parts.get(2)), session.search("hex"));
+
+        // Deleting a character, or replacing the search string, cannot narrow the previous results
+        assertEquals(List.of(parts.get(1), parts.get(2), parts.get(4)), session.search("he"));
+        assertEquals(List.of(parts.get(4)), session.search("wash"));
+        assertEquals(List.of(parts.get(0), parts.get(1), parts.get(3)), session.search("bolt"));
+    }
+
+    @Test
+    void inventoryChangeSearchesAgain() {
+        InventorySearch.Session<Part> session = InventorySearch.newPartSearchSession();
+        assertEquals(List.of(parts.get(1), parts.get(2)), session.search("hex"));
+
+        Part hexScrew = addPart("Hex screw");
+        assertEquals(List.of(parts.get(1), parts.get(2), hexScrew), session.search("hex "));
+    }
+
+    @Test
+    void idMatchIsFoundWhileNarrowing() {
+        InventorySearch.Session<Part> session = InventorySearch.newPartSearchSession();
+        Part bolt = parts.get(1);
+        String id = Integer.toString(bolt.getId());
+
+        // The ID match for a longer search string does not have to be among the previous results
+        session.search(id.substring(0, 1));
+        assertEquals(InventorySearch.searchParts(id), session.search(id));
+        assertEquals(bolt, session.search(id).get(0));
+    }
+
+    /**
+     * Adds a new Part with the supplied name to inventory, to be deleted after the test.
+     * @param name The Part name.
+     * @return The Part.
+     */
+    private Part addPart(String name) {
+        Part part = new InHouse(Inventory.generatePartID(), name, 1, 1, 0, 10, 1);
+        Inventory.addPart(part);
+        parts.add(part);
+        return part;
+    }
+}
@@ -0,0 +1,89 @@
+package controller;
+
+// JavaFX imports
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+// Java imports
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+// JUnit imports
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Project imports
+import model.InHouse;
+import model.Part;
+
+/**
+ * Tests for LiveSearchView, checking that objects added to the source while search results are shown are checked
+ * against the search query on their own, and for the queries InventorySearch provides for it. The view is not bound
+ * to a TableView, which cannot be created without a graphics toolkit, so the list it would show is checked instead.
+ */
+class LiveSearchViewTest {
+    @Test
+    void addedObjectsAreCheckedAgainstQuery() {
+        Part bolt = part(1, "Bolt");
+        Part nut = part(2, "Nut");
+        ObservableList<Part> source = FXCollections.observableArrayList(bolt, nut);
+        LiveSearchView<Part> view = new LiveSearchView<>(source);
+        assertSame(source, view.getItems());
+
+        // Count the objects tested against the query, so the search is known not to be run again
+        AtomicInteger tested = new AtomicInteger();
+        Predicate<Part> boltQuery = InventorySearch.partQuery("bolt");
+        view.showMatches(List.of(bolt), part -> {
+            tested.incrementAndGet();
+            return boltQuery.test(part);
+        });
+        assertEquals(List.of(bolt), view.getItems());
+
+        Part carriageBolt = part(3, "Carriage bolt");
+        source.addAll(carriageBolt, part(4, "Washer"));
+        assertEquals(List.of(bolt, carriageBolt), view.getItems());
+        assertEquals(2, tested.get());
+
+        // An updated object replaces the old one, and is only shown if it still matches
+        Part renamedBolt = part(1, "Hex bolt");
+        source.set(0, renamedBolt);
+        assertEquals(List.of(renamedBolt, carriageBolt), view.getItems());
+        source.set(2, part(3, "Carriage screw"));
+        assertEquals(List.of(renamedBolt), view.getItems());
+
+        // An object saved again as the same object is checked again
+        renamedBolt.setName("Hex screw");
+        source.set(0, renamedBolt);
+        assertTrue(view.getItems().isEmpty());
+        assertEquals(5, tested.get());
+
+        view.showAll();
+        assertSame(source, view.getItems());
+    }
+
+    @Test
+    void queryMatchesIdOrNameLikeSearch() {
+        Predicate<Part> query = InventorySearch.partQuery("12");
+        assertTrue(query.test(part(12, "Bolt")));
+        assertTrue(query.test(part(5, "M12 nut")));
+        assertFalse(query.test(part(120, "Bolt")));
+
+        assertTrue(InventorySearch.partQuery("BOL").test(part(1, "Carriage bolt")));
+        assertFalse(InventorySearch.partQuery("007").test(part(7, "Bolt")));
+    }
+
+    /**
+     * Returns a new Part with the supplied ID and name.
+     * @param id The Part ID.
+     * @param name The Part name.
+     * @return The Part.
+     */
+    private static Part part(int id, String name) {
+        return new InHouse(id, name, 1, 1, 0, 10, 1);
+    }
+}
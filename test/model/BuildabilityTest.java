@@ -0,0 +1,170 @@
+package model;
+
+// Java imports
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// JUnit imports
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for Buildability, checking that a remembered result is forgotten by each change that can affect it (a new
+ * stock level for an associated Part, an association added or removed, the Product replaced, or the whole inventory
+ * replaced) and kept by a change that cannot. A result asked for while a batch is being committed must not wait for
+ * the batch.
+ */
+class BuildabilityTest {
+    @BeforeEach
+    void emptyInventory() {
+        InventoryTestSupport.reset();
+    }
+
+    @AfterEach
+    void emptyInventoryAfterwards() {
+        InventoryTestSupport.reset();
+    }
+
+    @Test
+    void resultFollowsStockAndAssociationChanges() {
+        Part bolt = new InHouse(Inventory.generatePartID(), "Bolt", 1, 10, 0, 50, 1);
+        Part nut = new InHouse(Inventory.generatePartID(), "Nut", 1, 9, 0, 50, 1);
+        Product frame = new Product(Inventory.generateProductID(), "Frame", 40, 5, 1, 10);
+        Inventory.addPart(bolt);
+        Inventory.addPart(nut);
+        frame.addAssociatedPart(bolt, 2);
+        frame.addAssociatedPart(nut, 3);
+        Inventory.addProduct(frame);
+
+        Buildability buildability = Inventory.getBuildability();
+        assertEquals(3, buildability.getBuildableUnits(frame));
+        assertEquals(List.of(nut), buildability.getLimitingParts(frame));
+
+        // A new stock level for an associated Part is seen, and every Part covering the fewest units is limiting
+        Part restockedNut = new InHouse(nut.getId(), "Nut", 1, 15, 0, 50, 1);
+        Inventory.updatePart(restockedNut);
+        assertEquals(5, buildability.getBuildableUnits(frame));
+        assertEquals(List.of(bolt, restockedNut), buildability.getLimitingParts(frame));
+
+        // A change that keeps the stock level keeps the result
+        Inventory.updatePart(new InHouse(bolt.getId(), "Hex bolt", 2, 10, 0, 50, 4));
+        assertEquals(5, buildability.getBuildableUnits(frame));
+
+        frame.addAssociatedPart(restockedNut);
+        assertEquals(3, buildability.getBuildableUnits(frame));
+        assertEquals(List.of(restockedNut), buildability.getLimitingParts(frame));
+
+        frame.deleteAssociatedPart(restockedNut);
+        assertEquals(5, buildability.getBuildableUnits(frame));
+    }
+
+    @Test
+    void replacedProductIsRecounted() {
+        Part bolt = new InHouse(Inventory.generatePartID(), "Bolt", 1, 10, 0, 50, 1);
+        Part nut = new InHouse(Inventory.generatePartID(), "Nut", 1, -4, -10, 50, 1);
+        Product frame = new Product(Inventory.generateProductID(), "Frame", 40, 5, 1, 10);
+        Inventory.addPart(bolt);
+        Inventory.addPart(nut);
+        frame.addAssociatedPart(bolt, 5);
+        Inventory.addProduct(frame);
+        assertEquals(2, Inventory.getBuildability().getBuildableUnits(frame));
+
+        // A Part with negative stock covers no units
+        Product rebuilt = new Product(frame.getId(), "Frame", 40, 5, 1, 10);
+        rebuilt.addAssociatedPart(bolt, 1);
+        rebuilt.addAssociatedPart(nut, 1);
+        Inventory.updateProduct(rebuilt);
+        assertEquals(0, Inventory.getBuildability().getBuildableUnits(rebuilt));
+        assertEquals(List.of(nut), Inventory.getBuildability().getLimitingParts(rebuilt));
+
+        // The replaced Product, no longer in inventory, is worked out from its own Parts
+        assertEquals(2, Inventory.getBuildability().getBuildableUnits(frame));
+    }
+
+    @Test
+    void resultsAreForgottenWhenInventoryIsReplaced() {
+        Part bolt = new InHouse(7, "Bolt", 1, 10, 0, 50, 1);
+        Product frame = new Product(3, "Frame", 40, 5, 1, 10);
+        frame.addAssociatedPart(bolt, 5);
+        PartColumns columns = new PartColumns();
+        columns.add(bolt);
+        Inventory.replaceAll(columns, List.of(frame), 8, 4);
+        assertEquals(2, Inventory.getBuildability().getBuildableUnits(frame));
+
+        PartColumns restocked = new PartColumns();
+        restocked.add(new InHouse(7, "Bolt", 1, 30, 0, 50, 1));
+        Product reloaded = new Product(3, "Frame", 40, 5, 1, 10);
+        reloaded.addAssociatedPart(restocked.get(0), 5);
+        Inventory.replaceAll(restocked, List.of(reloaded), 8, 4);
+        assertEquals(6, Inventory.getBuildability().getBuildableUnits(reloaded));
+    }
+
+    @Test
+    void productWithoutPartsIsNotBuildable() {
+        Product product = new Product(Inventory.generateProductID(), "Frame", 40, 5, 1, 10);
+        Inventory.addProduct(product);
+
+        assertEquals(0, Inventory.getBuildability().getBuildableUnits(product));
+        assertEquals(List.of(), Inventory.getBuildability().getLimitingParts(product));
+    }
+
+    @Test
+    void partSavedAgainAsSameObjectIsRecounted() {
+        Part part = new InHouse(Inventory.generatePartID(), "Bolt", 2.50, 10, 0, 20, 1);
+        Product product = new Product(Inventory.generateProductID(), "Frame", 40, 5, 1, 10);
+        Inventory.addPart(part);
+        Inventory.addProduct(product);
+        product.addAssociatedPart(part, 3);
+        assertEquals(3, Inventory.getBuildability().getBuildableUnits(product));
+
+        part.setStock(7);
+        Inventory.updatePart(0, part);
+
+        assertEquals(2, Inventory.getBuildability().getBuildableUnits(product));
+        assertEquals(List.of(part), Inventory.getBuildability().getLimitingParts(product));
+    }
+
+    @Test
+    void resultDuringBatchDoesNotWaitAndIsNotRemembered() throws InterruptedException {
+        Part part = new InHouse(Inventory.generatePartID(), "Bolt", 2.50, 10, 0, 20, 1);
+        Product product = new Product(Inventory.generateProductID(), "Frame", 40, 5, 1, 10);
+        Inventory.addPart(part);
+        Inventory.addProduct(product);
+        product.addAssociatedPart(part, 2);
+
+        // Hold a batch open on another thread after it has changed the Part's stock level
+        CountDownLatch changed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread batch = new Thread(() -> Inventory.applyBatch(() -> {
+            Inventory.updatePart(new InHouse(part.getId(), "Bolt", 2.50, 4, 0, 20, 1));
+            changed.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        batch.start();
+        try {
+            assertTrue(changed.await(5, TimeUnit.SECONDS));
+
+            // The result is worked out from the snapshot published before the batch, without waiting for it
+            int units = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                                                  () -> Inventory.getBuildability().getBuildableUnits(product));
+            assertEquals(5, units);
+        } finally {
+            release.countDown();
+            batch.join();
+        }
+
+        // The result from before the batch was not remembered
+        assertEquals(2, Inventory.getBuildability().getBuildableUnits(product));
+    }
+}
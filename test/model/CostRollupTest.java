@@ -0,0 +1,124 @@
+package model;
+
+// Java imports
+import java.util.List;
+import java.util.Map;
+
+// JUnit imports
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for CostRollup, checking that a new Part price reprices every Product using the Part, that costs follow
+ * associations added and removed and Products replaced and deleted, that a Part saved again as the same object is
+ * repriced, and that the costs are rebuilt when the whole inventory is replaced.
+ */
+class CostRollupTest {
+    @BeforeEach
+    void emptyInventory() {
+        InventoryTestSupport.reset();
+    }
+
+    @AfterEach
+    void emptyInventoryAfterwards() {
+        InventoryTestSupport.reset();
+    }
+
+    @Test
+    void partPriceChangeRepricesEveryProductUsingIt() {
+        Part bolt = new InHouse(Inventory.generatePartID(), "Bolt", 0.10, 10, 0, 50, 1);
+        Part nut = new InHouse(Inventory.generatePartID(), "Nut", 1.25, 10, 0, 50, 1);
+        Inventory.addPart(bolt);
+        Inventory.addPart(nut);
+        Product frame = new Product(Inventory.generateProductID(), "Frame", 10, 1, 0, 10);
+        frame.addAssociatedPart(bolt, 3);
+        frame.addAssociatedPart(nut, 2);
+        Product wheel = new Product(Inventory.generateProductID(), "Wheel", 5, 1, 0, 10);
+        wheel.addAssociatedPart(bolt, 7);
+        Inventory.addProduct(frame);
+        Inventory.addProduct(wheel);
+
+        CostRollup costRollup = Inventory.getCostRollup();
+        assertEquals(2.80, costRollup.getMaterialCost(frame));
+        assertEquals(0.70, costRollup.getMaterialCost(wheel));
+        assertEquals(3.50, costRollup.getTotalMaterialCost());
+        assertEquals(11.50, costRollup.getTotalMargin());
+
+        Inventory.updatePart(new InHouse(bolt.getId(), "Bolt", 0.15, 10, 0, 50, 1));
+        assertEquals(2.95, costRollup.getMaterialCost(frame));
+        assertEquals(1.05, costRollup.getMaterialCost(wheel));
+        assertEquals(Map.of(frame.getId(), 7.05, wheel.getId(), 3.95), costRollup.getMargins());
+        assertEquals(4.00, costRollup.getTotalMaterialCost());
+
+        // A change that keeps the price keeps the costs
+        Inventory.updatePart(new InHouse(nut.getId(), "Hex nut", 1.25, 3, 0, 50, 2));
+        assertEquals(2.95, costRollup.getMaterialCost(frame));
+    }
+
+    @Test
+    void costFollowsAssociationAndProductChanges() {
+        Part bolt = new InHouse(Inventory.generatePartID(), "Bolt", 0.50, 10, 0, 50, 1);
+        Inventory.addPart(bolt);
+        Product frame = new Product(Inventory.generateProductID(), "Frame", 10, 1, 0, 10);
+        Inventory.addProduct(frame);
+        CostRollup costRollup = Inventory.getCostRollup();
+        assertEquals(0, costRollup.getMaterialCost(frame));
+
+        frame.addAssociatedPart(bolt, 4);
+        frame.addAssociatedPart(bolt);
+        assertEquals(2.50, costRollup.getMaterialCost(frame));
+        assertEquals(7.50, costRollup.getMargin(frame));
+
+        Product repriced = new Product(frame.getId(), "Frame", 12, 1, 0, 10);
+        repriced.addAssociatedPart(bolt, 2);
+        Inventory.updateProduct(repriced);
+        assertEquals(1.0, costRollup.getTotalMaterialCost());
+        assertEquals(11.0, costRollup.getTotalMargin());
+
+        repriced.deleteAssociatedPart(bolt);
+        assertEquals(0, costRollup.getMaterialCost(repriced));
+
+        // A Product that is no longer in inventory has its bill of materials added up
+        assertEquals(2.50, costRollup.getMaterialCost(frame));
+        Inventory.deleteProduct(repriced);
+        assertEquals(0, costRollup.getTotalMaterialCost());
+        assertEquals(Map.of(), costRollup.getMargins());
+    }
+
+    @Test
+    void costsAreRebuiltWhenInventoryIsReplaced() {
+        Inventory.addProduct(new Product(Inventory.generateProductID(), "Old", 100, 1, 0, 10));
+
+        PartColumns columns = new PartColumns();
+        columns.add(new InHouse(7, "Bolt", 0.25, 10, 0, 50, 1));
+        Product frame = new Product(3, "Frame", 10, 1, 0, 10);
+        frame.addAssociatedPart(columns.get(0), 6);
+        Inventory.replaceAll(columns, List.of(frame), 8, 4);
+
+        CostRollup costRollup = Inventory.getCostRollup();
+        assertEquals(1.50, costRollup.getMaterialCost(frame));
+        assertEquals(1.50, costRollup.getTotalMaterialCost());
+        assertEquals(Map.of(3, 8.50), costRollup.getMargins());
+    }
+
+    @Test
+    void partSavedAgainAsSameObjectIsRepriced() {
+        Part part = new InHouse(Inventory.generatePartID(), "Bolt", 2.50, 10, 0, 20, 1);
+        Product product = new Product(Inventory.generateProductID(), "Frame", 40, 5, 1, 10);
+        Inventory.addPart(part);
+        Inventory.addProduct(product);
+        product.addAssociatedPart(part, 3);
+        assertEquals(7.50, Inventory.getCostRollup().getMaterialCost(product));
+
+        part.setPrice(4);
+        Inventory.updatePart(0, part);
+        product.setPrice(50);
+        Inventory.updateProduct(0, product);
+
+        assertEquals(12.0, Inventory.getCostRollup().getMaterialCost(product));
+        assertEquals(38.0, Inventory.getCostRollup().getMargin(product));
+    }
+}
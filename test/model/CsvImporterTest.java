@@ -0,0 +1,202 @@
+package model;
+
+// Java imports
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// JUnit imports
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for CsvImporter, checking that Parts, Products and associations are imported from one or more files with the
+ * supplied or generated IDs, that associations can refer to rows earlier in the files and to items already in
+ * inventory whichever batch they fall in, and that rows whose IDs are in use or refer to missing items are reported
+ * by line and skipped. An import parsed on several threads must give the same inventory and report the same rows as
+ * one parsed on a single thread.
+ */
+class CsvImporterTest {
+    @TempDir
+    Path directory;
+
+    // The rows reported to the listener as "line: message", and the progress reported
+    private final List<String> rejections = new ArrayList<>();
+    private final List<long[]> progress = new ArrayList<>();
+    private final ImportListener listener = new ImportListener() {
+        @Override
+        public void progress(long bytesRead, long totalBytes, long rowsImported) {
+            progress.add(new long[] {bytesRead, totalBytes, rowsImported});
+        }
+
+        @Override
+        public void rowRejected(long lineNumber, String message) {
+            rejections.add(lineNumber + ": " + message);
+        }
+    };
+
+    @BeforeEach
+    @AfterEach
+    void reset() {
+        InventoryTestSupport.reset();
+    }
+
+    @Test
+    void rowsAreImportedWithSuppliedAndGeneratedIds() throws IOException {
+        Path path = write("parts.csv",
+                          "Type,ID,Name,Price,Inv,Min,Max,Machine ID or Company",
+                          "InHouse,,Bolt,0.25,100,10,500,3",
+                          "outsourced,20,\"Nut, \"\"hex\"\"\",0.10,40,5,200,\"Acme, Inc.\"\r",
+                          "InHouse,,Washer,0.05,10,0,50,1",
+                          "Product,,Frame,49.99,3,1,10",
+                          "Association,1,1,4",
+                          "Association,1,20",
+                          "Association,1,20,2");
+        CsvImporter.Result result = new CsvImporter(path, listener).importAll();
+
+        assertEquals(3, result.getPartsImported());
+        assertEquals(1, result.getProductsImported());
+        assertEquals(3, result.getAssociationsImported());
+        assertEquals(0, result.getRowsRejected());
+        assertTrue(rejections.isEmpty());
+
+        // Generated IDs are kept above a supplied ID
+        InHouse bolt = assertInstanceOf(InHouse.class, Inventory.lookupPart(1));
+        assertEquals(3, bolt.getMachineId());
+        Outsourced nut = assertInstanceOf(Outsourced.class, Inventory.lookupPart(20));
+        assertEquals("Nut, \"hex\"", nut.getName());
+        assertEquals("Acme, Inc.", nut.getCompanyName());
+        assertEquals(0.1, nut.getPrice());
+        assertEquals("Washer", Inventory.lookupPart(21).getName());
+
+        // Associating a Part again adds to its quantity
+        Product frame = Inventory.lookupProduct(1);
+        assertEquals(List.of(bolt, nut), frame.getAssociatedPartsView());
+        assertEquals(4, frame.getAssociatedPartQuantity(1));
+        assertEquals(3, frame.getAssociatedPartQuantity(20));
+
+        long[] last = progress.get(progress.size() - 1);
+        assertEquals(Files.size(path), last[0]);
+        assertEquals(Files.size(path), last[1]);
+        assertEquals(7, last[2]);
+    }
+
+    @Test
+    void associationsReferToEarlierFilesAndBatches() throws IOException {
+        Part spring = new InHouse(Inventory.generatePartID(), "Spring", 1, 1, 0, 10, 1);
+        Product wheel = new Product(Inventory.generateProductID(), "Wheel", 1, 1, 0, 10);
+        Inventory.addPart(spring);
+        Inventory.addProduct(wheel);
+
+        Path parts = write("parts.csv", "InHouse,10,Bolt,1,1,0,10,1", "InHouse,11,Nut,1,1,0,10,1");
+        Path products = write("products.csv",
+                              "Type,ID,Name,Price,Inv,Min,Max",
+                              "Product,30,Frame,1,1,0,10",
+                              "Association,30,10",
+                              "Association,30," + spring.getId() + ",2",
+                              "Association," + wheel.getId() + ",11,5");
+
+        // A batch of one row commits every row on its own
+        CsvImporter.Result result = new CsvImporter(List.of(parts, products), listener).setBatchSize(1).importAll();
+        assertEquals(3, result.getAssociationsImported());
+        assertTrue(rejections.isEmpty());
+
+        Product frame = Inventory.lookupProduct(30);
+        assertEquals(List.of(Inventory.lookupPart(10), spring), frame.getAssociatedPartsView());
+        assertEquals(2, frame.getAssociatedPartQuantity(spring.getId()));
+        assertSame(wheel, Inventory.lookupProduct(wheel.getId()));
+        assertEquals(5, wheel.getAssociatedPartQuantity(11));
+
+        // Progress is reported after each of the six batches and once more at the end
+        assertEquals(7, progress.size());
+    }
+
+    @Test
+    void rowsInUseOrReferringToMissingItemsAreRejected() throws IOException {
+        Inventory.addPart(new InHouse(5, "Bolt", 1, 1, 0, 10, 1));
+        Inventory.reserveIDs(5, 0);
+
+        Path path = write("parts.csv",
+                          "InHouse,5,Bolt,1,1,0,10,1",
+                          "InHouse,6,Nut,1,1,0,10,1",
+                          "Outsourced,6,Nut,1,1,0,10,Acme",
+                          "Product,2,Frame,1,1,0,10",
+                          "Product,2,Frame,1,1,0,10",
+                          "Association,3,6",
+                          "Association,2,7");
+        CsvImporter.Result result = new CsvImporter(path, listener).importAll();
+
+        assertEquals(1, result.getPartsImported());
+        assertEquals(1, result.getProductsImported());
+        assertEquals(0, result.getAssociationsImported());
+        assertEquals(5, result.getRowsRejected());
+        assertEquals(List.of("1: ID: Part ID 5 is already in use.",
+                             "3: ID: Part ID 6 is already in use.",
+                             "5: ID: Product ID 2 is already in use.",
+                             "6: Product ID: No Product has ID 3.",
+                             "7: Part ID: No Part has ID 7."), rejections);
+        assertEquals("Bolt", Inventory.lookupPart(5).getName());
+        assertInstanceOf(InHouse.class, Inventory.lookupPart(6));
+        assertNull(Inventory.lookupPart(7));
+    }
+
+    @Test
+    void parallelImportMatchesSequentialImport() throws IOException {
+        // Enough rows for the files to be read as several chunks, with a rejected row every so often
+        List<String> lines = new ArrayList<>();
+        for(int i = 1; i <= 30000; i++) {
+            if(i % 997 == 0)
+                lines.add("InHouse,,Bolt " + i + ",1,20,0,10," + i);
+            else if(i % 3 == 0)
+                lines.add("Product,,Product " + i + "," + i + ".25,1,0,10");
+            else if(i % 3 == 1)
+                lines.add("Outsourced,,\"Part, " + i + "\"," + i + ".5,1,0,10,Company " + i);
+            else
+                lines.add("Association," + (i / 3) + "," + (i - 1) + "," + (i % 7 + 1));
+        }
+        Path first = write("first.csv", lines.subList(0, 20000).toArray(new String[0]));
+        Path second = write("second.csv", lines.subList(20000, lines.size()).toArray(new String[0]));
+
+        CsvImporter.Result sequential = new CsvImporter(List.of(first, second), listener).setParallelism(1)
+                                                                                          .importAll();
+        Map<String, String> expected = InventorySnapshotTest.describeInventory();
+        int nextPartId = Inventory.getNextPartID();
+        List<String> expectedRejections = new ArrayList<>(rejections);
+        assertTrue(sequential.getRowsRejected() > 0);
+
+        InventoryTestSupport.reset();
+        rejections.clear();
+        CsvImporter.Result parallel = new CsvImporter(List.of(first, second), listener).setParallelism(4)
+                                                                                        .importAll();
+        assertEquals(expected, InventorySnapshotTest.describeInventory());
+        assertEquals(nextPartId, Inventory.getNextPartID());
+        assertEquals(expectedRejections, rejections);
+        assertEquals(sequential.getAssociationsImported(), parallel.getAssociationsImported());
+        assertEquals(sequential.getRowsRejected(), parallel.getRowsRejected());
+    }
+
+    /**
+     * Writes lines to a UTF-8 file in the test directory, each ending in a line feed.
+     * @param name The file name.
+     * @param lines The lines.
+     * @return The file.
+     * @throws IOException If the file could not be written.
+     */
+    private Path write(String name, String... lines) throws IOException {
+        Path path = directory.resolve(name);
+        Files.writeString(path, String.join("\n", lines) + "\n", StandardCharsets.UTF_8);
+        return path;
+    }
+}
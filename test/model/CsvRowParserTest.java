@@ -0,0 +1,117 @@
+package model;
+
+// Java imports
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// JUnit imports
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for CsvRowParser, checking that every row breaking a rule is rejected with the line it starts on and the
+ * message the screens would show, that a header row is only skipped at the start of a file, and that prices are
+ * parsed to the same double as Double.parseDouble.
+ */
+class CsvRowParserTest {
+    @Test
+    void rowsBreakingRulesAreRejected() {
+        CsvRowParser.Rows rows = parse(true, 10,
+                                       "InHouse,,Bolt,1,1,0,10",
+                                       "InHouse,,,1,1,0,10,1",
+                                       "InHouse,,Bolt,-1,1,0,10,1",
+                                       "InHouse,,Bolt,1,1.5,0,10,1",
+                                       "InHouse,,Bolt,1,1,5,2,1",
+                                       "InHouse,,Bolt,1,20,0,10,1",
+                                       "InHouse,,Bolt,1,1,0,10,-3",
+                                       "Outsourced,,Nut,1,1,0,10, ",
+                                       "Product,0,Frame,1,1,0,10",
+                                       "Association,1,2,0",
+                                       "Association,1,99999999999",
+                                       "Type,ID,Name",
+                                       "Widget,1",
+                                       "InHouse,,\"Bolt,1,1,0,10,1");
+
+        List<String> rejections = new ArrayList<>();
+        for(int row = 0; row < rows.size(); row++) {
+            assertEquals(CsvRowParser.Rows.REJECTED, rows.kind(row));
+            rejections.add(rows.lineNumber(row) + ": " + rows.rejection(row));
+        }
+        assertEquals(List.of("10: Expected 8 fields but found 7.",
+                             "11: Name: " + ItemValidation.EMPTY,
+                             "12: Price: " + ItemValidation.NOT_A_POSITIVE_NUMBER,
+                             "13: Inv: " + ItemValidation.NOT_A_POSITIVE_INT,
+                             "14: Max: Max must be greater than Min.",
+                             "15: Inv: Inv must be less than or equal to Max.",
+                             "16: Machine ID: " + ItemValidation.NOT_A_POSITIVE_INT,
+                             "17: Company Name: " + ItemValidation.EMPTY,
+                             "18: ID: " + ItemValidation.NOT_A_POSITIVE_INT,
+                             "19: Quantity: " + ItemValidation.NOT_A_POSITIVE_INT,
+                             "20: Part ID: " + ItemValidation.NOT_A_POSITIVE_INT,
+                             "21: Unknown row type: Type",
+                             "22: Unknown row type: Widget",
+                             "23: A quoted field is not closed before the end of the file."), rejections);
+    }
+
+    @Test
+    void headerIsSkippedAtStartOfFileAndLinesAreCounted() {
+        CsvRowParser.Rows rows = parse(true, 1,
+                                       " type ,ID,Name",
+                                       "InHouse,,\"Hex\nbolt\",1,1,0,10,1",
+                                       "",
+                                       "Product,7,Frame,2.5,1,0,10",
+                                       "association, 7 , 3 ");
+
+        assertEquals(3, rows.size());
+        assertEquals(CsvRowParser.Rows.PART, rows.kind(0));
+        assertEquals(2, rows.lineNumber(0));
+        assertEquals("Hex\nbolt", rows.part(0).getName());
+        assertEquals(0, rows.part(0).getId());
+
+        assertEquals(CsvRowParser.Rows.PRODUCT, rows.kind(1));
+        assertEquals(5, rows.lineNumber(1));
+        assertEquals(7, rows.product(1).getId());
+
+        assertEquals(CsvRowParser.Rows.ASSOCIATION, rows.kind(2));
+        assertEquals(6, rows.lineNumber(2));
+        assertEquals(7, rows.productId(2));
+        assertEquals(3, rows.partId(2));
+        assertEquals(1, rows.quantity(2));
+    }
+
+    @Test
+    void pricesMatchParseDouble() {
+        String[] prices = {"0", "12.50", "0.1", "+3", "1.5e3", "2E-2", "007.25", ".5", "5.", "0.30000000000000004",
+                           "123456789012345678901234.5", "1e-30", "9.999999999999999e22"};
+        List<String> lines = new ArrayList<>();
+        for(String price : prices)
+            lines.add("Product,," + price + "," + price + ",1,0,10");
+
+        CsvRowParser.Rows rows = parse(true, 1, lines.toArray(new String[0]));
+        assertEquals(prices.length, rows.size());
+        for(int row = 0; row < rows.size(); row++) {
+            assertEquals(CsvRowParser.Rows.PRODUCT, rows.kind(row), prices[row]);
+            assertEquals(Double.parseDouble(prices[row]), rows.product(row).getPrice(), prices[row]);
+        }
+
+        rows = parse(true, 1, "Product,,Frame,1e,1,0,10", "Product,,Frame,1.2.3,1,0,10", "Product,,Frame,-,1,0,10");
+        assertEquals(3, rows.size());
+        for(int row = 0; row < rows.size(); row++)
+            assertEquals("Price: " + ItemValidation.NOT_A_POSITIVE_NUMBER, rows.rejection(row));
+    }
+
+    /**
+     * Parses lines as a single chunk.
+     * @param startOfFile True if the chunk is the first of its file.
+     * @param firstLineNumber The line number of the first line.
+     * @param lines The lines, each ending in a line feed in the chunk.
+     * @return The parsed rows.
+     */
+    private static CsvRowParser.Rows parse(boolean startOfFile, long firstLineNumber, String... lines) {
+        byte[] data = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+        return new CsvRowParser().parse(new CsvChunkReader.Chunk(data, data.length, firstLineNumber, startOfFile,
+                                                                 data.length));
+    }
+}
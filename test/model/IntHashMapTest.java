@@ -0,0 +1,82 @@
+package model;
+
+// Java imports
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+// JUnit imports
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for IntHashMap, checking random changes against a HashMap. The keys are drawn from a small range so that
+ * removals often shift the entries of long probe runs back.
+ */
+class IntHashMapTest {
+    @Test
+    void randomChangesMatchHashMap() {
+        Random random = new Random(3);
+        IntHashMap<Integer> map = new IntHashMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+
+        for(int round = 0; round < 200_000; round++) {
+            int key = random.nextBoolean() ? random.nextInt(2048) : random.nextInt(64) * 1024;
+            switch(random.nextInt(5)) {
+                case 0:
+                case 1:
+                    assertEquals(expected.put(key, round), map.put(key, round));
+                    break;
+                case 2:
+                case 3:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                default:
+                    if(random.nextInt(10_000) == 0) {
+                        map.clear();
+                        expected.clear();
+                    }
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+
+        assertEquals(expected, contentsOf(map));
+        for(int key = 0; key < 64 * 1024; key++)
+            assertEquals(expected.get(key), map.get(key));
+    }
+
+    @Test
+    void removingEveryKeyEmptiesTheMap() {
+        IntHashMap<String> map = new IntHashMap<>();
+        for(int key = 0; key < 10_000; key++)
+            map.put(key * 31, "v" + key);
+        for(int key = 0; key < 10_000; key++)
+            assertEquals("v" + key, map.remove(key * 31));
+
+        assertEquals(0, map.size());
+        assertNull(map.get(0));
+        assertEquals(Map.of(), contentsOf(map));
+    }
+
+    @Test
+    void nullValuesAreRejected() {
+        assertThrows(NullPointerException.class, () -> new IntHashMap<String>().put(1, null));
+    }
+
+    /**
+     * Returns the entries of a map, checking that no key is visited twice.
+     * @param map The map.
+     * @return The entries.
+     */
+    private static <V> Map<Integer, V> contentsOf(IntHashMap<V> map) {
+        Map<Integer, V> contents = new HashMap<>();
+        map.forEach((key, value) -> assertNull(contents.put(key, value)));
+        assertEquals(map.size(), contents.size());
+        return contents;
+    }
+}
@@ -0,0 +1,69 @@
+package model;
+
+// Java imports
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+// JUnit imports
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for IntIntHashMap, checking random changes against a HashMap with keys drawn from the same colliding ranges as
+ * IntHashMapTest.
+ */
+class IntIntHashMapTest {
+    @Test
+    void randomChangesMatchHashMap() {
+        Random random = new Random(4);
+        IntIntHashMap map = new IntIntHashMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+
+        for(int round = 0; round < 200_000; round++) {
+            int key = random.nextBoolean() ? random.nextInt(2048) : random.nextInt(64) * 1024;
+            switch(random.nextInt(5)) {
+                case 0:
+                case 1:
+                    assertEquals(valueOf(expected.put(key, round)), map.put(key, round));
+                    break;
+                case 2:
+                case 3:
+                    assertEquals(valueOf(expected.remove(key)), map.remove(key));
+                    break;
+                default:
+                    if(random.nextInt(10_000) == 0) {
+                        map.clear();
+                        expected.clear();
+                    }
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(valueOf(expected.get(key)), map.get(key));
+        }
+
+        for(int key = 0; key < 64 * 1024; key++)
+            assertEquals(valueOf(expected.get(key)), map.get(key));
+    }
+
+    @Test
+    void zeroIsStoredAndNegativeValuesAreRejected() {
+        IntIntHashMap map = new IntIntHashMap();
+        map.put(7, 0);
+
+        assertEquals(0, map.get(7));
+        assertEquals(IntIntHashMap.NO_VALUE, map.get(8));
+        assertThrows(IllegalArgumentException.class, () -> map.put(8, -1));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Returns the value the map returns for a value from the HashMap.
+     * @param value The value from the HashMap, or null.
+     * @return The value, or NO_VALUE for null.
+     */
+    private static int valueOf(Integer value) {
+        return value != null ? value : IntIntHashMap.NO_VALUE;
+    }
+}
@@ -0,0 +1,147 @@
+package model;
+
+// JavaFX imports
+import javafx.collections.ListChangeListener;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// JUnit imports
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the bulk Inventory changes, checking that a batch, nested or not, reaches the Part list as a single list
+ * change once it ends while its changes are committed as it runs, that changes made before a batch fails are kept,
+ * and that deleteParts and deleteProducts skip exactly what deletePart and deleteProduct would refuse.
+ */
+class InventoryBatchTest {
+    private final AtomicInteger partListChanges = new AtomicInteger();
+    private final AtomicInteger productListChanges = new AtomicInteger();
+    private final ListChangeListener<Part> partListener = change -> partListChanges.incrementAndGet();
+    private final ListChangeListener<Product> productListener = change -> productListChanges.incrementAndGet();
+
+    @BeforeEach
+    void countListChanges() {
+        InventoryTestSupport.reset();
+        Inventory.getAllParts().addListener(partListener);
+        Inventory.getAllProducts().addListener(productListener);
+    }
+
+    @AfterEach
+    void reset() {
+        Inventory.getAllParts().removeListener(partListener);
+        Inventory.getAllProducts().removeListener(productListener);
+        InventoryTestSupport.reset();
+    }
+
+    @Test
+    void nestedBatchesReportOneChangeWhenOutermostEnds() {
+        Part bolt = newPart("Bolt");
+        Part nut = newPart("Nut");
+        Inventory.addPart(bolt);
+        partListChanges.set(0);
+
+        Part renamedBolt = new InHouse(bolt.getId(), "Hex bolt", 1, 1, 0, 10, 1);
+        Inventory.applyBatch(() -> {
+            Inventory.addPart(nut);
+            Inventory.applyBatch(() -> Inventory.updatePart(0, renamedBolt));
+
+            // The changes are committed as the batch runs, but the list has not received them yet
+            assertSame(renamedBolt, Inventory.lookupPart(bolt.getId()));
+            assertSame(nut, Inventory.lookupPart("Nut"));
+            assertEquals(List.of(bolt), Inventory.getAllParts());
+        });
+
+        assertEquals(List.of(renamedBolt, nut), Inventory.getAllParts());
+        assertEquals(1, partListChanges.get());
+    }
+
+    @Test
+    void changesBeforeFailedBatchAreKept() {
+        Part bolt = newPart("Bolt");
+        assertThrows(IllegalStateException.class, () -> Inventory.applyBatch(() -> {
+            Inventory.addPart(bolt);
+            throw new IllegalStateException();
+        }));
+
+        assertEquals(List.of(bolt), Inventory.getAllParts());
+        assertEquals(1, partListChanges.get());
+
+        // The commit lock is released, so another thread can commit
+        assertFalse(Inventory.getCommitLock().isLocked());
+    }
+
+    @Test
+    void bulkAddsReportOneChangeEach() {
+        List<Part> parts = List.of(newPart("Bolt"), newPart("Nut"), newPart("Washer"));
+        List<Product> products = List.of(newProduct("Frame"), newProduct("Wheel"));
+        Inventory.addParts(parts);
+        Inventory.addProducts(products);
+
+        assertEquals(parts, Inventory.getAllParts());
+        assertEquals(products, Inventory.getAllProducts());
+        assertEquals(1, partListChanges.get());
+        assertEquals(1, productListChanges.get());
+    }
+
+    @Test
+    void bulkDeletesSkipWhatSingleDeletesRefuse() {
+        List<Part> parts = new ArrayList<>();
+        for(String name : new String[] {"Bolt", "Nut", "Washer", "Spring", "Pin"})
+            parts.add(newPart(name));
+        Inventory.addParts(parts);
+        Product frame = newProduct("Frame");
+        frame.addAssociatedPart(parts.get(1), 2);
+        Product empty = newProduct("Empty");
+        Inventory.addProducts(List.of(frame, empty));
+        partListChanges.set(0);
+        productListChanges.set(0);
+
+        // An associated Part, a Part not in inventory, a stale copy and a repeated Part are skipped
+        Part stale = new InHouse(parts.get(2).getId(), "Washer", 1, 1, 0, 10, 1);
+        List<Part> selected = List.of(parts.get(0), parts.get(1), newPart("Other"), stale, parts.get(3),
+                                      parts.get(0));
+        assertEquals(2, Inventory.deleteParts(selected));
+        assertEquals(1, partListChanges.get());
+        assertNull(Inventory.lookupPart(parts.get(0).getId()));
+        assertNull(Inventory.lookupPart(parts.get(3).getId()));
+        assertEquals(new HashSet<>(List.of(parts.get(1), parts.get(2), parts.get(4))),
+                     new HashSet<>(Inventory.getAllParts()));
+        assertEquals(0, Inventory.deleteParts(List.of(parts.get(0))));
+        assertEquals(1, partListChanges.get());
+
+        // A Product with associated Parts is skipped
+        assertEquals(1, Inventory.deleteProducts(List.of(frame, empty)));
+        assertEquals(List.of(frame), Inventory.getAllProducts());
+        assertEquals(1, productListChanges.get());
+    }
+
+    /**
+     * Returns a new In-House Part with a generated ID.
+     * @param name The Part name.
+     * @return The Part.
+     */
+    private static Part newPart(String name) {
+        return new InHouse(Inventory.generatePartID(), name, 1, 1, 0, 10, 1);
+    }
+
+    /**
+     * Returns a new Product with a generated ID and no associated Parts.
+     * @param name The Product name.
+     * @return The Product.
+     */
+    private static Product newProduct(String name) {
+        return new Product(Inventory.generateProductID(), name, 1, 1, 0, 10);
+    }
+}
@@ -0,0 +1,81 @@
+package model;
+
+// Java imports
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+// JUnit imports
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Tests for InventoryExporter, checking that a CSV export larger than the write buffer imports back as the same
+ * inventory, and that JSON Lines are written with every string escaped and encoded as UTF-8.
+ */
+class InventoryExporterTest {
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    @AfterEach
+    void reset() {
+        InventoryTestSupport.reset();
+    }
+
+    @Test
+    void csvExportImportsBack() throws IOException {
+        Part bolt = new InHouse(Inventory.generatePartID(), "Bolt, \"hex\"", 0.1, 100, 10, 500, 3);
+        Part nut = new Outsourced(Inventory.generatePartID(), "Écrou 🔩", 12, 40, 5, 200, "Société\nGénérale");
+        Inventory.addPart(bolt);
+        Inventory.addPart(nut);
+        for(int i = 0; i < 2000; i++)
+            Inventory.addPart(new InHouse(Inventory.generatePartID(), "Part " + i, i + 0.25, 1, 0, 10, i));
+
+        Product frame = new Product(Inventory.generateProductID(), "Frame", 49.99, 3, 1, 10);
+        frame.addAssociatedPart(nut, 4);
+        frame.addAssociatedPart(bolt, 1);
+        Inventory.addProduct(frame);
+        Inventory.addProduct(new Product(Inventory.generateProductID(), "Empty", 5, 0, 0, 5));
+        Map<String, String> expected = InventorySnapshotTest.describeInventory();
+
+        Path path = directory.resolve("inventory.csv");
+        assertEquals(2002 + 2 + 2, InventoryExporter.export(path, InventoryExporter.Format.CSV));
+        assertFalse(Files.exists(directory.resolve("inventory.csv.tmp")));
+
+        InventoryTestSupport.reset();
+        CsvImporter.Result result = new CsvImporter(path, null).importAll();
+        assertEquals(0, result.getRowsRejected());
+        assertEquals(expected, InventorySnapshotTest.describeInventory());
+    }
+
+    @Test
+    void jsonLinesAreEscapedAndEncoded() throws IOException {
+        Part bolt = new InHouse(Inventory.generatePartID(), "Bolt \"M6\\1\"\t\u0001", 0.1, 100, 10, 500, 3);
+        Part nut = new Outsourced(Inventory.generatePartID(), "Écrou 🔩", 12, 40, 5, 200, "Acme");
+        Inventory.addPart(bolt);
+        Inventory.addPart(nut);
+        Product frame = new Product(Inventory.generateProductID(), "Frame\n", 49.99, 3, 1, 10);
+        frame.addAssociatedPart(nut, 4);
+        frame.addAssociatedPart(bolt, 1);
+        Inventory.addProduct(frame);
+
+        Path path = directory.resolve("inventory.jsonl");
+        assertEquals(3, InventoryExporter.export(path, InventoryExporter.Format.JSON_LINES));
+        assertEquals("{\"type\":\"InHouse\",\"id\":1,\"name\":\"Bolt \\\"M6\\\\1\\\"\\t\\u0001\",\"price\":0.1,"
+                             + "\"stock\":100,\"min\":10,\"max\":500,\"machineId\":3}\n"
+                             + "{\"type\":\"Outsourced\",\"id\":2,\"name\":\"Écrou 🔩\",\"price\":12.0,"
+                             + "\"stock\":40,\"min\":5,\"max\":200,\"companyName\":\"Acme\"}\n"
+                             + "{\"type\":\"Product\",\"id\":1,\"name\":\"Frame\\n\",\"price\":49.99,"
+                             + "\"stock\":3,\"min\":1,\"max\":10,\"associatedPartIds\":[2,1],"
+                             + "\"associatedPartQuantities\":[4,1]}\n",
+                     Files.readString(path, StandardCharsets.UTF_8));
+    }
+}
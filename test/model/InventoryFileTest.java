@@ -0,0 +1,127 @@
+package model;
+
+// Java imports
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// JUnit imports
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for InventoryFile, checking that loading a saved snapshot restores every Part, Product, association and next
+ * ID along with the journal sequence number, that the part catalog of an earlier snapshot is deleted by the next save,
+ * and that a file that is not a snapshot is rejected.
+ */
+class InventoryFileTest {
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    @AfterEach
+    void reset() {
+        InventoryTestSupport.reset();
+    }
+
+    @Test
+    void loadRestoresSavedInventory() throws IOException {
+        addItems();
+        Map<String, String> expected = InventorySnapshotTest.describeInventory();
+        int nextPartId = Inventory.getNextPartID();
+        int nextProductId = Inventory.getNextProductID();
+
+        Path path = directory.resolve("inventory.snapshot");
+        InventoryFile.save(path, 42);
+        InventoryTestSupport.reset();
+        assertEquals(42, InventoryFile.load(path));
+
+        assertEquals(expected, InventorySnapshotTest.describeInventory());
+        assertEquals(nextPartId, Inventory.getNextPartID());
+        assertEquals(nextProductId, Inventory.getNextProductID());
+
+        // The associated Parts of a loaded Product are the Parts in inventory
+        Product product = Inventory.getAllProducts().get(0);
+        for(Part part : product.getAssociatedPartsView())
+            assertSame(Inventory.lookupPart(part.getId()), part);
+    }
+
+    @Test
+    void savingLoadedInventoryReplacesItsCatalog() throws IOException {
+        addItems();
+        Path path = directory.resolve("inventory.snapshot");
+        InventoryFile.save(path);
+        InventoryFile.load(path);
+        List<Path> firstCatalogs = catalogFiles();
+        assertEquals(1, firstCatalogs.size());
+
+        // Change a Part held in the mapped catalog and save the loaded inventory over the snapshot it came from
+        Part part = Inventory.getAllParts().get(0);
+        Inventory.updatePart(new InHouse(part.getId(), "Renamed", 4.25, 7, 1, 12, 9));
+        Map<String, String> expected = InventorySnapshotTest.describeInventory();
+        InventoryFile.save(path);
+
+        List<Path> catalogs = catalogFiles();
+        assertEquals(1, catalogs.size());
+        assertNotEquals(firstCatalogs, catalogs);
+
+        InventoryTestSupport.reset();
+        assertEquals(0, InventoryFile.load(path));
+        assertEquals(expected, InventorySnapshotTest.describeInventory());
+    }
+
+    @Test
+    void fileThatIsNotSnapshotIsRejected() throws IOException {
+        Path path = directory.resolve("inventory.snapshot");
+        Files.writeString(path, "Not a snapshot");
+        IOException e = assertThrows(IOException.class, () -> InventoryFile.load(path));
+        assertTrue(e.getMessage().startsWith("Not an inventory snapshot file"));
+    }
+
+    /**
+     * Adds In-House and Outsourced Parts and two Products to inventory, leaving a gap in the Part IDs where a Part was
+     * deleted.
+     */
+    private static void addItems() {
+        Part bolt = new InHouse(Inventory.generatePartID(), "Bolt", 0.25, 100, 10, 500, 3);
+        Part deleted = new InHouse(Inventory.generatePartID(), "Deleted", 1, 1, 0, 10, 1);
+        Part nut = new Outsourced(Inventory.generatePartID(), "Écrou 一", 0.1, 40, 5, 200, "Société Générale");
+        Part spring = new Outsourced(Inventory.generatePartID(), "Spring", 1.75, 0, 0, 50, "Acme");
+        for(Part part : new Part[] {bolt, deleted, nut, spring})
+            Inventory.addPart(part);
+        Inventory.deletePart(deleted);
+
+        Product frame = new Product(Inventory.generateProductID(), "Frame", 49.99, 3, 1, 10);
+        frame.addAssociatedPart(nut, 4);
+        frame.addAssociatedPart(bolt, 4);
+        frame.addAssociatedPart(spring, 1);
+        Inventory.addProduct(frame);
+        Inventory.addProduct(new Product(Inventory.generateProductID(), "Empty", 5, 0, 0, 5));
+    }
+
+    /**
+     * Returns the part catalog files in the test directory.
+     * @return The catalog files.
+     * @throws IOException If the directory could not be read.
+     */
+    private List<Path> catalogFiles() throws IOException {
+        List<Path> catalogs = new ArrayList<>();
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.parts")) {
+            for(Path file : files)
+                catalogs.add(file);
+        }
+        return catalogs;
+    }
+}
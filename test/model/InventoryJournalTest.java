@@ -0,0 +1,306 @@
+package model;
+
+// Java imports
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// JUnit imports
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>Tests for InventoryJournal: the inventory is rebuilt exactly from a snapshot and the journal written after it,
+ * whether the journal was closed normally or the application stopped without closing it, and a journal that cannot be
+ * replayed leaves the inventory empty. The first error writing the journal is reported to its failure handler.</p>
+ *
+ * <p>A stop without closing is simulated by flushing the journal and copying its files to another directory (the
+ * "crash image") while it is still open. The copy is then opened on an empty inventory after the original journal has
+ * been closed.</p>
+ */
+class InventoryJournalTest {
+    private static final String SNAPSHOT = "inventory.dat";
+    private static final String JOURNAL = "inventory.journal";
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void emptyInventory() {
+        InventoryTestSupport.reset();
+    }
+
+    @AfterEach
+    void emptyInventoryAfterwards() {
+        InventoryTestSupport.reset();
+    }
+
+    @Test
+    void replayRestoresEveryChange() throws IOException {
+        Path running = Files.createDirectory(directory.resolve("running"));
+        Path crashed = Files.createDirectory(directory.resolve("crashed"));
+        Random random = new Random(21);
+
+        Map<String, String> expected;
+        try(InventoryJournal journal = open(running)) {
+            for(int change = 0; change < 600; change++)
+                InventoryTestSupport.randomChange(random);
+            journal.flush();
+            expected = InventorySnapshotTest.describeInventory();
+            copyFiles(running, crashed);
+        }
+
+        InventoryTestSupport.reset();
+        try(InventoryJournal ignored = open(crashed)) {
+            assertEquals(expected, InventorySnapshotTest.describeInventory());
+            assertEquals(expected, InventorySnapshotTest.describe(Inventory.getSnapshot()));
+        }
+    }
+
+    @Test
+    void replayAppliesJournalOnTopOfSnapshot() throws IOException {
+        Path running = Files.createDirectory(directory.resolve("running"));
+        Path crashed = Files.createDirectory(directory.resolve("crashed"));
+        Random random = new Random(22);
+
+        // Closing compacts the journal into the snapshot
+        Map<String, String> compacted;
+        try(InventoryJournal ignored = open(running)) {
+            for(int change = 0; change < 300; change++)
+                InventoryTestSupport.randomChange(random);
+            compacted = InventorySnapshotTest.describeInventory();
+        }
+        assertEquals(headerSize(), Files.size(running.resolve(JOURNAL)));
+
+        // Reopening loads the snapshot, and the changes made after it are only in the journal
+        InventoryTestSupport.reset();
+        Map<String, String> expected;
+        try(InventoryJournal journal = open(running)) {
+            assertEquals(compacted, InventorySnapshotTest.describeInventory());
+            for(int change = 0; change < 300; change++)
+                InventoryTestSupport.randomChange(random);
+            journal.flush();
+            expected = InventorySnapshotTest.describeInventory();
+            copyFiles(running, crashed);
+        }
+
+        InventoryTestSupport.reset();
+        try(InventoryJournal ignored = open(crashed)) {
+            assertEquals(expected, InventorySnapshotTest.describeInventory());
+        }
+    }
+
+    @Test
+    void tornRecordIsTruncated() throws IOException {
+        assertLastRecordDiscarded((journal, size) -> {
+            try(FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+                channel.truncate(size - 3);
+            }
+        });
+    }
+
+    @Test
+    void corruptRecordIsTruncated() throws IOException {
+        assertLastRecordDiscarded((journal, size) -> {
+            try(FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer lastByte = ByteBuffer.allocate(1);
+                channel.read(lastByte, size - 1);
+                lastByte.put(0, (byte) (lastByte.get(0) ^ 0x5A)).rewind();
+                channel.write(lastByte, size - 1);
+            }
+        });
+    }
+
+    @Test
+    void recordsAlreadyInSnapshotAreSkipped() throws IOException {
+        Path running = Files.createDirectory(directory.resolve("running"));
+        Path crashed = Files.createDirectory(directory.resolve("crashed"));
+        Random random = new Random(23);
+
+        // Keep the journal as it was before closing compacted it, then pair it with the compacted snapshot, as if
+        // the application had stopped between saving the snapshot and truncating the journal
+        Map<String, String> expected;
+        try(InventoryJournal journal = open(running)) {
+            for(int change = 0; change < 300; change++)
+                InventoryTestSupport.randomChange(random);
+            journal.flush();
+            expected = InventorySnapshotTest.describeInventory();
+            Files.copy(running.resolve(JOURNAL), crashed.resolve(JOURNAL));
+        }
+        Files.delete(running.resolve(JOURNAL));
+        copyFiles(running, crashed);
+
+        InventoryTestSupport.reset();
+        try(InventoryJournal ignored = open(crashed)) {
+            assertEquals(expected, InventorySnapshotTest.describeInventory());
+        }
+    }
+
+    @Test
+    void failedReplayLeavesInventoryEmpty() throws IOException {
+        Path running = Files.createDirectory(directory.resolve("running"));
+        Path crashed = Files.createDirectory(directory.resolve("crashed"));
+        Part bolt = new InHouse(Inventory.generatePartID(), "Bolt", 1, 1, 0, 10, 1);
+
+        // The snapshot holds the Part, and the journal adds another Part and then updates the one in the snapshot
+        try(InventoryJournal ignored = open(running)) {
+            Inventory.addPart(bolt);
+        }
+        try(InventoryJournal journal = open(running)) {
+            Inventory.addPart(new InHouse(Inventory.generatePartID(), "Nut", 1, 1, 0, 10, 1));
+            Inventory.updatePart(new InHouse(bolt.getId(), "Bolt", 2, 1, 0, 10, 1));
+            journal.flush();
+            Files.copy(running.resolve(JOURNAL), crashed.resolve(JOURNAL));
+        }
+
+        // Without the snapshot, the replay adds the second Part and then fails on the update
+        InventoryTestSupport.reset();
+        assertThrows(IOException.class, () -> open(crashed));
+        assertTrue(Inventory.getAllParts().isEmpty());
+        assertTrue(Inventory.getAllProducts().isEmpty());
+
+        // The failed journal does not record later changes
+        long size = Files.size(crashed.resolve(JOURNAL));
+        Inventory.addPart(new InHouse(Inventory.generatePartID(), "Washer", 1, 1, 0, 10, 1));
+        assertEquals(size, Files.size(crashed.resolve(JOURNAL)));
+        assertFalse(Files.exists(crashed.resolve(SNAPSHOT)));
+    }
+
+    @Test
+    void firstWriteFailureIsReported() throws IOException {
+        Path running = Files.createDirectory(directory.resolve("running"));
+        try(InventoryJournal journal = open(running)) {
+            List<IOException> reported = new ArrayList<>();
+            journal.setFailureHandler(reported::add);
+            assertNull(journal.getFailure());
+
+            IOException first = new IOException("Disk full");
+            journal.failed(first);
+            journal.failed(new IOException("Disk still full"));
+            assertEquals(List.of(first), reported);
+            assertSame(first, journal.getFailure());
+
+            // A handler set after the error is told about it straight away
+            List<IOException> reportedLater = new ArrayList<>();
+            journal.setFailureHandler(reportedLater::add);
+            assertEquals(List.of(first), reportedLater);
+        }
+    }
+
+    /**
+     * Damages the last record of a journal and checks that opening it replays every record before it, truncates the
+     * damaged record, and appends the records written after opening where they replay.
+     *
+     * @param damage Damages the journal, passed the journal file and its size.
+     * @throws IOException If a journal could not be read or written.
+     */
+    private void assertLastRecordDiscarded(JournalDamage damage) throws IOException {
+        Path running = Files.createDirectory(directory.resolve("running"));
+        Path crashed = Files.createDirectory(directory.resolve("crashed"));
+        Path reopened = Files.createDirectory(directory.resolve("reopened"));
+        Random random = new Random(24);
+
+        Map<String, String> expected;
+        long intactSize;
+        try(InventoryJournal journal = open(running)) {
+            for(int change = 0; change < 200; change++)
+                InventoryTestSupport.randomChange(random);
+            journal.flush();
+            expected = InventorySnapshotTest.describeInventory();
+            intactSize = Files.size(running.resolve(JOURNAL));
+
+            Inventory.addPart(InventoryTestSupport.newPart(random));
+            journal.flush();
+            copyFiles(running, crashed);
+        }
+        long size = Files.size(crashed.resolve(JOURNAL));
+        assertTrue(size > intactSize);
+        damage.apply(crashed.resolve(JOURNAL), size);
+
+        InventoryTestSupport.reset();
+        try(InventoryJournal journal = open(crashed)) {
+            assertEquals(expected, InventorySnapshotTest.describeInventory());
+            assertEquals(intactSize, Files.size(crashed.resolve(JOURNAL)));
+
+            // A change made after the damaged record was dropped must still be replayed
+            Inventory.addPart(InventoryTestSupport.newPart(random));
+            journal.flush();
+            expected = InventorySnapshotTest.describeInventory();
+            copyFiles(crashed, reopened);
+        }
+        assertNotEquals(intactSize, Files.size(reopened.resolve(JOURNAL)));
+
+        InventoryTestSupport.reset();
+        try(InventoryJournal ignored = open(reopened)) {
+            assertEquals(expected, InventorySnapshotTest.describeInventory());
+        }
+    }
+
+    /**
+     * Opens the snapshot and journal files in a directory.
+     * @param directory The directory.
+     * @return The open journal.
+     * @throws IOException If the files could not be read.
+     */
+    private static InventoryJournal open(Path directory) throws IOException {
+        return InventoryJournal.open(directory.resolve(SNAPSHOT), directory.resolve(JOURNAL));
+    }
+
+    /**
+     * Returns the size of an empty journal: the header written when the journal is created.
+     * @return The size in bytes.
+     * @throws IOException If the journal could not be created.
+     */
+    private long headerSize() throws IOException {
+        Path empty = Files.createDirectory(directory.resolve("empty"));
+        InventoryTestSupport.reset();
+        try(InventoryJournal ignored = open(empty)) {
+            return Files.size(empty.resolve(JOURNAL));
+        }
+    }
+
+    /**
+     * Copies every file in one directory to another, replacing files with the same name.
+     * @param from The directory to copy from.
+     * @param to The directory to copy to.
+     * @throws IOException If a file could not be copied.
+     */
+    private static void copyFiles(Path from, Path to) throws IOException {
+        try(Stream<Path> files = Files.list(from)) {
+            for(Path file : (Iterable<Path>) files::iterator)
+                Files.copy(file, to.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Damages a journal file.
+     */
+    private interface JournalDamage {
+        /**
+         * Damages a journal file.
+         * @param journal The journal file.
+         * @param size The size of the journal file.
+         * @throws IOException If the file could not be changed.
+         */
+        void apply(Path journal, long size) throws IOException;
+    }
+}
@@ -0,0 +1,159 @@
+package model;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.List;
+
+// JUnit imports
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests for the position index Inventory uses to update and delete Parts and Products without searching its lists,
+ * checking after each change that every position held is the position of the item in the lists.
+ */
+class InventoryPositionTest {
+    @BeforeEach
+    void emptyInventory() {
+        InventoryTestSupport.reset();
+    }
+
+    @AfterEach
+    void emptyInventoryAfterwards() {
+        InventoryTestSupport.reset();
+    }
+
+    @Test
+    void deletedPartIsReplacedByLastPart() {
+        List<Part> parts = addParts(5);
+
+        Inventory.deletePart(parts.get(1));
+
+        assertEquals(List.of(parts.get(0), parts.get(4), parts.get(2), parts.get(3)), Inventory.getAllParts());
+        assertPositionsMatchLists();
+    }
+
+    @Test
+    void partIsUpdatedInPlaceById() {
+        List<Part> parts = addParts(5);
+        Inventory.deletePart(parts.get(0));
+
+        Part replacement = InventoryTestSupport.copyOf(parts.get(4), parts.get(4).getId());
+        Inventory.updatePart(replacement);
+
+        assertSame(replacement, Inventory.getAllParts().get(0));
+        assertEquals(4, Inventory.getAllParts().size());
+        assertPositionsMatchLists();
+    }
+
+    @Test
+    void updatingDeletedPartAddsItToTheEnd() {
+        List<Part> parts = addParts(3);
+        Inventory.deletePart(parts.get(0));
+
+        Inventory.updatePart(parts.get(0));
+
+        assertSame(parts.get(0), Inventory.getAllParts().get(2));
+        assertPositionsMatchLists();
+    }
+
+    @Test
+    void catalogRowsKeepExactPositions() {
+        // Rows at the position of their record, then rows appended after a Part held in memory
+        List<Part> rows = newParts(10);
+        Inventory.addPartRows(rows);
+        Part held = addParts(1).get(0);
+        List<Part> laterRows = newParts(3);
+        Inventory.addPartRows(laterRows);
+        assertPositionsMatchLists();
+
+        // Move the last row to the start, then delete rows from both ranges, one of them twice
+        Inventory.deletePart(Inventory.lookupPart(rows.get(0).getId()));
+        assertEquals(laterRows.get(2).getId(), Inventory.getAllParts().get(0).getId());
+        assertPositionsMatchLists();
+
+        List<Part> deleted = new ArrayList<>();
+        for(int id : new int[] {rows.get(3).getId(), laterRows.get(0).getId(), rows.get(3).getId(), held.getId()})
+            deleted.add(Inventory.lookupPart(id));
+        assertEquals(3, Inventory.deleteParts(deleted));
+        assertEquals(10, Inventory.getAllParts().size());
+        assertPositionsMatchLists();
+
+        // Replace a row that has been moved
+        Part moved = Inventory.getAllParts().get(0);
+        Inventory.updatePart(InventoryTestSupport.copyOf(moved, moved.getId()));
+        assertPositionsMatchLists();
+    }
+
+    @Test
+    void deletedProductsAreReplacedByLastProducts() {
+        List<Product> products = new ArrayList<>();
+        for(int i = 0; i < 6; i++) {
+            Product product = new Product(Inventory.generateProductID(), "Product " + i, 1, 1, 0, 10);
+            Inventory.addProduct(product);
+            products.add(product);
+        }
+
+        assertEquals(2, Inventory.deleteProducts(List.of(products.get(0), products.get(0), products.get(2))));
+        assertEquals(List.of(products.get(5), products.get(1), products.get(4), products.get(3)),
+                     Inventory.getAllProducts());
+        assertPositionsMatchLists();
+
+        Product replacement = new Product(products.get(4).getId(), "Replacement", 2, 1, 0, 10);
+        Inventory.updateProduct(replacement);
+        assertSame(replacement, Inventory.getAllProducts().get(2));
+
+        Inventory.deleteProduct(products.get(5));
+        assertEquals(List.of(products.get(3), products.get(1), replacement), Inventory.getAllProducts());
+        assertPositionsMatchLists();
+    }
+
+    /**
+     * Adds Parts to the end of inventory.
+     * @param count The number of Parts to add.
+     * @return The Parts, in the order they were added.
+     */
+    private static List<Part> addParts(int count) {
+        List<Part> parts = newParts(count);
+        for(Part part : parts)
+            Inventory.addPart(part);
+        return parts;
+    }
+
+    /**
+     * Returns new Parts with generated IDs.
+     * @param count The number of Parts.
+     * @return The Parts.
+     */
+    private static List<Part> newParts(int count) {
+        List<Part> parts = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            int id = Inventory.generatePartID();
+            parts.add(new InHouse(id, "Part " + id, 1, 1, 0, 10, 1));
+        }
+        return parts;
+    }
+
+    /**
+     * Checks that the committed lists and the lists shown hold the same items, and that the position held for each
+     * item is its position in them.
+     */
+    private static void assertPositionsMatchLists() {
+        PartList committedParts = Inventory.getPartList();
+        assertEquals(committedParts.size(), Inventory.getAllParts().size());
+        for(int i = 0; i < committedParts.size(); i++) {
+            Part part = committedParts.get(i);
+            assertSame(part, Inventory.getAllParts().get(i));
+            assertEquals(i, Inventory.partPosition(part.getId()), "part " + part.getId());
+        }
+
+        List<Product> committedProducts = Inventory.getProductList();
+        assertEquals(committedProducts, Inventory.getAllProducts());
+        for(int i = 0; i < committedProducts.size(); i++)
+            assertEquals(i, Inventory.productPosition(committedProducts.get(i).getId()));
+    }
+}
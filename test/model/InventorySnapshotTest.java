@@ -0,0 +1,201 @@
+package model;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+// JUnit imports
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the snapshots the Inventory publishes: each one matches the inventory when it is published, and stays
+ * exactly as it was however the inventory changes after it.
+ */
+class InventorySnapshotTest {
+    @BeforeEach
+    void emptyInventory() {
+        InventoryTestSupport.reset();
+    }
+
+    @AfterEach
+    void emptyInventoryAfterwards() {
+        InventoryTestSupport.reset();
+    }
+
+    @Test
+    void snapshotMatchesInventoryAfterEachChange() {
+        Random random = new Random(11);
+        for(int change = 0; change < 1500; change++) {
+            InventoryTestSupport.randomChange(random);
+            assertEquals(describeInventory(), describe(Inventory.getSnapshot()), "after change " + change);
+        }
+    }
+
+    @Test
+    void snapshotIsUnchangedByLaterChanges() {
+        Random random = new Random(12);
+        List<InventorySnapshot> snapshots = new ArrayList<>();
+        List<Map<String, String>> structures = new ArrayList<>();
+
+        for(int change = 0; change < 1500; change++) {
+            InventoryTestSupport.randomChange(random);
+            if(change % 25 == 0) {
+                InventorySnapshot snapshot = Inventory.getSnapshot();
+                snapshots.add(snapshot);
+                structures.add(describeStructure(snapshot));
+            }
+        }
+
+        // Parts and Products saved again as the same object are seen with their new values by every snapshot
+        // holding them, so only the IDs and associations each snapshot holds are compared
+        for(int i = 0; i < snapshots.size(); i++)
+            assertEquals(structures.get(i), describeStructure(snapshots.get(i)), "snapshot " + i);
+    }
+
+    @Test
+    void deletedItemsStayInOlderSnapshots() {
+        Part part = new InHouse(Inventory.generatePartID(), "Bolt", 0.25, 100, 10, 500, 1);
+        Product product = new Product(Inventory.generateProductID(), "Frame", 40, 5, 1, 10);
+        Inventory.addPart(part);
+        Inventory.addProduct(product);
+        product.addAssociatedPart(part, 4);
+        InventorySnapshot before = Inventory.getSnapshot();
+
+        product.deleteAssociatedPart(part);
+        Inventory.deleteProduct(product);
+        Inventory.deletePart(part);
+        InventorySnapshot after = Inventory.getSnapshot();
+
+        assertSame(part, before.lookupPart(part.getId()));
+        assertSame(product, before.lookupProduct(product.getId()));
+        InventorySnapshot.ProductRecord record = before.getProductRecord(product.getId());
+        assertEquals(1, record.getAssociatedPartCount());
+        assertEquals(part.getId(), record.getAssociatedPartId(0));
+        assertEquals(4, record.getAssociatedPartQuantity(0));
+
+        assertNull(after.lookupPart(part.getId()));
+        assertNull(after.lookupProduct(product.getId()));
+        assertEquals(0, after.getPartCount());
+        assertEquals(0, after.getProductCount());
+        assertTrue(after.getVersion() > before.getVersion());
+    }
+
+    @Test
+    void batchIsPublishedWhenItEnds() {
+        Random random = new Random(13);
+        InventorySnapshot before = Inventory.getSnapshot();
+        Part[] added = new Part[1];
+
+        Inventory.applyBatch(() -> {
+            added[0] = InventoryTestSupport.newPart(random);
+            Inventory.addPart(added[0]);
+            Product product = InventoryTestSupport.newProduct(random);
+            Inventory.addProduct(product);
+            product.addAssociatedPart(added[0], 2);
+
+            // Nothing in the batch is published until it ends
+            assertSame(before, Inventory.getSnapshot());
+        });
+
+        InventorySnapshot after = Inventory.getSnapshot();
+        assertNotNull(after.lookupPart(added[0].getId()));
+        assertEquals(describeInventory(), describe(after));
+    }
+
+    /**
+     * Returns a description of every Part and Product in a snapshot with their values and associations, keyed by
+     * "part ID" and "product ID".
+     * @param snapshot The snapshot.
+     * @return The description.
+     */
+    static Map<String, String> describe(InventorySnapshot snapshot) {
+        Map<String, String> description = new TreeMap<>();
+        snapshot.forEachPartRow((id, price, stock, min, max) ->
+                description.put("part " + id, describePart(snapshot.lookupPart(id), price, stock, min, max)));
+        snapshot.forEachProduct(record -> description.put("product " + record.getProduct().getId(),
+                                                          describeProduct(record.getProduct()) + describe(record)));
+        assertEquals(snapshot.getPartCount() + snapshot.getProductCount(), description.size());
+        return description;
+    }
+
+    /**
+     * Returns a description of every Part and Product in inventory in the same form as describe, checking that no
+     * ID is held twice.
+     * @return The description.
+     */
+    static Map<String, String> describeInventory() {
+        Map<String, String> description = new TreeMap<>();
+        for(Part part : Inventory.getAllParts())
+            assertNull(description.put("part " + part.getId(), describePart(part, part.getPrice(), part.getStock(),
+                                                                             part.getMin(), part.getMax())));
+        for(Product product : Inventory.getAllProducts()) {
+            StringBuilder associations = new StringBuilder();
+            for(int i = 0; i < product.associatedPartCount(); i++)
+                associations.append(' ').append(product.getAssociatedPartsView().get(i).getId())
+                            .append('x').append(product.getAssociatedPartQuantityAt(i));
+            assertNull(description.put("product " + product.getId(), describeProduct(product) + associations));
+        }
+        return description;
+    }
+
+    /**
+     * Returns the IDs of the Parts in a snapshot and the IDs and associations of its Products.
+     * @param snapshot The snapshot.
+     * @return The description.
+     */
+    private static Map<String, String> describeStructure(InventorySnapshot snapshot) {
+        Map<String, String> structure = new TreeMap<>();
+        snapshot.forEachPartRow((id, price, stock, min, max) -> structure.put("part " + id, ""));
+        snapshot.forEachProduct(record -> structure.put("product " + record.getProduct().getId(), describe(record)));
+        return structure;
+    }
+
+    /**
+     * Returns a description of a Part's values.
+     * @param part The Part, for its name and type.
+     * @param price The price.
+     * @param stock The stock level.
+     * @param min The minimum stock level.
+     * @param max The maximum stock level.
+     * @return The description.
+     */
+    private static String describePart(Part part, double price, int stock, int min, int max) {
+        String supplier = part instanceof InHouse ? "machine " + ((InHouse) part).getMachineId() :
+                "company " + ((Outsourced) part).getCompanyName();
+        return part.getName() + " " + price + " " + stock + " " + min + " " + max + " " + supplier;
+    }
+
+    /**
+     * Returns a description of a Product's values.
+     * @param product The Product.
+     * @return The description.
+     */
+    private static String describeProduct(Product product) {
+        return product.getName() + " " + product.getPrice() + " " + product.getStock() + " " + product.getMin() +
+                " " + product.getMax();
+    }
+
+    /**
+     * Returns a description of the associations in a Product's record.
+     * @param record The record.
+     * @return The ID and quantity of each associated Part.
+     */
+    private static String describe(InventorySnapshot.ProductRecord record) {
+        StringBuilder associations = new StringBuilder();
+        for(int i = 0; i < record.getAssociatedPartCount(); i++)
+            associations.append(' ').append(record.getAssociatedPartId(i)).append('x')
+                        .append(record.getAssociatedPartQuantity(i));
+        return associations.toString();
+    }
+}
@@ -0,0 +1,186 @@
+package model;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>Helpers shared by the tests that use the static Inventory: emptying it before each test, and making random
+ * changes to it through the same methods the screens, the importer and the journal use.</p>
+ *
+ * <p>The random changes include saving a Part or Product again as the same object after changing it through its
+ * setters, which is how the Modify screens save an edited item, so the views that follow the inventory are checked
+ * against it as well as against new objects replacing old ones.</p>
+ */
+final class InventoryTestSupport {
+    private static final String[] COMPANIES = {"Acme", "Globex", "Initech"};
+
+    /**
+     * The InventoryTestSupport class constructor. Not used, since the class only holds static helpers.
+     */
+    private InventoryTestSupport() {
+    }
+
+    /**
+     * Empties the inventory, leaving it with an empty part catalog and no Products.
+     */
+    static void reset() {
+        Inventory.replaceAll(new PartColumns(), Collections.emptyList(), 1, 1);
+    }
+
+    /**
+     * Returns a new Part with a generated ID and random values.
+     * @param random The random number generator.
+     * @return The Part.
+     */
+    static Part newPart(Random random) {
+        int id = Inventory.generatePartID();
+        if(random.nextBoolean())
+            return new InHouse(id, "Part " + id, randomPrice(random), random.nextInt(30), random.nextInt(8),
+                               10 + random.nextInt(10), 1 + random.nextInt(4));
+        return new Outsourced(id, "Part " + id, randomPrice(random), random.nextInt(30), random.nextInt(8),
+                              10 + random.nextInt(10), COMPANIES[random.nextInt(COMPANIES.length)]);
+    }
+
+    /**
+     * Returns a new Product with a generated ID and random values, without any associated Parts.
+     * @param random The random number generator.
+     * @return The Product.
+     */
+    static Product newProduct(Random random) {
+        int id = Inventory.generateProductID();
+        return new Product(id, "Product " + id, randomPrice(random), random.nextInt(30), random.nextInt(8),
+                           10 + random.nextInt(10));
+    }
+
+    /**
+     * Makes one random change to the inventory.
+     * @param random The random number generator.
+     */
+    static void randomChange(Random random) {
+        List<Part> parts = Inventory.getAllParts();
+        List<Product> products = Inventory.getAllProducts();
+        int operation = random.nextInt(14);
+
+        // Changes to existing items fall back to adding an item while the inventory is nearly empty
+        if(operation >= 3 && operation < 7 && parts.isEmpty())
+            operation = 0;
+        if(operation >= 8 && products.isEmpty())
+            operation = 7;
+
+        switch(operation) {
+            case 0:
+            case 1:
+                Inventory.addPart(newPart(random));
+                break;
+            case 2:
+                List<Part> rows = new ArrayList<>();
+                for(int i = random.nextInt(4); i >= 0; i--)
+                    rows.add(newPart(random));
+                Inventory.addPartRows(rows);
+                break;
+            case 3: {
+                // Replace a Part with a new object, possibly of the other type
+                int index = random.nextInt(parts.size());
+                Part replacement = newPart(random);
+                Inventory.updatePart(index, copyOf(replacement, parts.get(index).getId()));
+                break;
+            }
+            case 4: {
+                // Save a Part again as the same object after changing it, as the Modify Part screen does
+                int index = random.nextInt(parts.size());
+                Part part = parts.get(index);
+                part.setPrice(randomPrice(random));
+                part.setStock(random.nextInt(30));
+                part.setMin(random.nextInt(8));
+                if(part instanceof InHouse)
+                    ((InHouse) part).setMachineId(1 + random.nextInt(4));
+                else
+                    ((Outsourced) part).setCompanyName(COMPANIES[random.nextInt(COMPANIES.length)]);
+                Inventory.updatePart(index, part);
+                break;
+            }
+            case 5:
+                Inventory.deletePart(parts.get(random.nextInt(parts.size())));
+                break;
+            case 6: {
+                List<Part> deleted = new ArrayList<>();
+                for(int i = random.nextInt(4); i >= 0; i--)
+                    deleted.add(parts.get(random.nextInt(parts.size())));
+                Inventory.deleteParts(deleted);
+                break;
+            }
+            case 7: {
+                // Add a Product, sometimes with Parts associated before it is added
+                Product product = newProduct(random);
+                if(!parts.isEmpty()) {
+                    for(int i = random.nextInt(3); i > 0; i--)
+                        product.addAssociatedPart(parts.get(random.nextInt(parts.size())), 1 + random.nextInt(3));
+                }
+                Inventory.addProduct(product);
+                break;
+            }
+            case 8:
+            case 9:
+                if(!parts.isEmpty())
+                    products.get(random.nextInt(products.size()))
+                            .addAssociatedPart(parts.get(random.nextInt(parts.size())), 1 + random.nextInt(3));
+                break;
+            case 10: {
+                Product product = products.get(random.nextInt(products.size()));
+                if(product.associatedPartCount() > 0)
+                    product.deleteAssociatedPart(product.getAssociatedPartsView()
+                                                        .get(random.nextInt(product.associatedPartCount())));
+                break;
+            }
+            case 11: {
+                // Replace a Product with a new object holding the same associations
+                int index = random.nextInt(products.size());
+                Product product = products.get(index);
+                Product replacement = newProduct(random);
+                replacement.setId(product.getId());
+                for(int i = 0; i < product.associatedPartCount(); i++)
+                    replacement.addAssociatedPart(product.getAssociatedPartsView().get(i),
+                                                  product.getAssociatedPartQuantityAt(i));
+                Inventory.updateProduct(index, replacement);
+                break;
+            }
+            case 12: {
+                // Save a Product again as the same object after changing it, as the Modify Product screen does
+                int index = random.nextInt(products.size());
+                Product product = products.get(index);
+                product.setPrice(randomPrice(random));
+                product.setStock(random.nextInt(30));
+                Inventory.updateProduct(index, product);
+                break;
+            }
+            default:
+                Inventory.deleteProduct(products.get(random.nextInt(products.size())));
+        }
+    }
+
+    /**
+     * Returns a copy of a Part with a different ID.
+     * @param part The Part to copy.
+     * @param id The ID of the copy.
+     * @return The copy.
+     */
+    static Part copyOf(Part part, int id) {
+        if(part instanceof InHouse)
+            return new InHouse(id, part.getName(), part.getPrice(), part.getStock(), part.getMin(), part.getMax(),
+                               ((InHouse) part).getMachineId());
+        return new Outsourced(id, part.getName(), part.getPrice(), part.getStock(), part.getMin(), part.getMax(),
+                              ((Outsourced) part).getCompanyName());
+    }
+
+    /**
+     * Returns a random price with cents, some of them not exactly representable as a double.
+     * @param random The random number generator.
+     * @return The price.
+     */
+    private static double randomPrice(Random random) {
+        return random.nextInt(10_000) / 100.0;
+    }
+}
@@ -0,0 +1,121 @@
+package model;
+
+// JavaFX imports
+import javafx.collections.ListChangeListener;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// JUnit imports
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for using Inventory from several threads: Parts added at the same time on different threads all get their
+ * own IDs and are all committed, and once the lists are bound to a thread, changes committed on other threads reach
+ * getAllParts() only when that thread runs the queued task, in commit order and as a single list change. The test
+ * thread stands in for the JavaFX Application Thread.
+ */
+class InventoryThreadingTest {
+    private static final int THREADS = 4;
+    private static final int PARTS_PER_THREAD = 250;
+
+    @BeforeEach
+    void reset() {
+        InventoryTestSupport.reset();
+    }
+
+    @AfterEach
+    void unbindAndReset() {
+        Inventory.bindListsToThread(() -> true, Runnable::run);
+        InventoryTestSupport.reset();
+    }
+
+    @Test
+    void partsAddedOnSeveralThreadsAreAllCommitted() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<Part>>> futures = new ArrayList<>();
+        try {
+            for(int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    List<Part> added = new ArrayList<>();
+                    for(int i = 0; i < PARTS_PER_THREAD; i++) {
+                        Part part = new InHouse(Inventory.generatePartID(), "Part", 1, 1, 0, 10, 1);
+                        Inventory.addPart(part);
+                        added.add(part);
+                    }
+                    return added;
+                }));
+            }
+
+            Set<Integer> ids = new HashSet<>();
+            for(Future<List<Part>> future : futures) {
+                for(Part part : future.get()) {
+                    assertTrue(ids.add(part.getId()), "ID " + part.getId() + " generated twice");
+                    assertSame(part, Inventory.lookupPart(part.getId()));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(THREADS * PARTS_PER_THREAD, Inventory.getAllParts().size());
+        assertEquals(THREADS * PARTS_PER_THREAD, Inventory.lookupParts("Part").size());
+    }
+
+    @Test
+    void changesFromOtherThreadsWaitForListThread() throws Exception {
+        Thread listThread = Thread.currentThread();
+        BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+        Inventory.bindListsToThread(() -> Thread.currentThread() == listThread, tasks::add);
+
+        List<ListChangeListener.Change<? extends Part>> changes = new ArrayList<>();
+        Inventory.getAllParts().addListener((ListChangeListener<Part>) changes::add);
+
+        Part bolt = new InHouse(Inventory.generatePartID(), "Bolt", 1, 1, 0, 10, 1);
+        Part nut = new InHouse(Inventory.generatePartID(), "Nut", 1, 1, 0, 10, 1);
+        Thread writer = new Thread(() -> {
+            Inventory.addPart(bolt);
+            Inventory.addPart(nut);
+        });
+        writer.start();
+        writer.join();
+
+        // The Parts are committed, but the list is only changed by the task queued for the list thread
+        assertSame(nut, Inventory.lookupPart(nut.getId()));
+        assertTrue(Inventory.getAllParts().isEmpty());
+        assertTrue(changes.isEmpty());
+        assertEquals(1, tasks.size());
+
+        tasks.take().run();
+        assertEquals(List.of(bolt, nut), Inventory.getAllParts());
+        assertEquals(1, changes.size());
+        assertNull(tasks.poll());
+
+        // A change committed on the list thread is applied at once, after any changes still queued
+        Part washer = new InHouse(Inventory.generatePartID(), "Washer", 1, 1, 0, 10, 1);
+        Thread deleter = new Thread(() -> Inventory.deletePart(bolt));
+        deleter.start();
+        deleter.join();
+        Inventory.addPart(washer);
+        assertEquals(List.of(nut, washer), Inventory.getAllParts());
+
+        // The task queued for the delete finds nothing left to apply
+        tasks.take().run();
+        assertEquals(List.of(nut, washer), Inventory.getAllParts());
+    }
+}
@@ -0,0 +1,113 @@
+package model;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// JUnit imports
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for InventoryValuation, checking the totals for all Parts, all Products, each supplier and each machine as
+ * items are added, updated, saved again after changing them through their setters, and deleted, that the totals do
+ * not drift, and that they are rebuilt when the whole inventory is replaced.
+ */
+class InventoryValuationTest {
+    @BeforeEach
+    void emptyInventory() {
+        InventoryTestSupport.reset();
+    }
+
+    @AfterEach
+    void emptyInventoryAfterwards() {
+        InventoryTestSupport.reset();
+    }
+
+    @Test
+    void totalsFollowAddedUpdatedAndDeletedItems() {
+        InHouse bolt = new InHouse(Inventory.generatePartID(), "Bolt", 0.10, 3, 0, 10, 3);
+        Outsourced nut = new Outsourced(Inventory.generatePartID(), "Nut", 1.25, 4, 0, 10, "Acme");
+        Product frame = new Product(Inventory.generateProductID(), "Frame", 19.99, 2, 0, 10);
+        Inventory.addPart(bolt);
+        Inventory.addPart(nut);
+        Inventory.addProduct(frame);
+
+        InventoryValuation valuation = Inventory.getValuation();
+        assertEquals(5.30, valuation.getPartStockValue());
+        assertEquals(Map.of(3, 0.30), valuation.getMachineStockValues());
+        assertEquals(Map.of("Acme", 5.0), valuation.getSupplierStockValues());
+        assertEquals(39.98, valuation.getProductStockValue());
+
+        // Moving the only Part counted for a machine to another machine removes the old machine's total
+        Inventory.updatePart(new InHouse(bolt.getId(), "Bolt", 0.10, 5, 0, 10, 4));
+        assertEquals(Map.of(4, 0.50), valuation.getMachineStockValues());
+        assertEquals(0, valuation.getMachineStockValue(3));
+        assertEquals(5.50, valuation.getPartStockValue());
+
+        Inventory.deletePart(nut);
+        Inventory.deleteProduct(frame);
+        assertEquals(Map.of(), valuation.getSupplierStockValues());
+        assertEquals(0.50, valuation.getPartStockValue());
+        assertEquals(0, valuation.getProductStockValue());
+    }
+
+    @Test
+    void totalsDoNotDriftAsPartsComeAndGo() {
+        // 0.1 has no exact double, so a total kept in dollars would drift as the values are added and subtracted
+        List<Part> parts = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            Part part = new Outsourced(Inventory.generatePartID(), "Washer", 0.1, 1, 0, 10, "Acme");
+            Inventory.addPart(part);
+            parts.add(part);
+        }
+        assertEquals(100.0, Inventory.getValuation().getPartStockValue());
+
+        Inventory.deleteParts(parts.subList(1, parts.size()));
+        assertEquals(0.1, Inventory.getValuation().getPartStockValue());
+        assertEquals(Map.of("Acme", 0.1), Inventory.getValuation().getSupplierStockValues());
+    }
+
+    @Test
+    void totalsAreRebuiltWhenInventoryIsReplaced() {
+        Inventory.addPart(new InHouse(Inventory.generatePartID(), "Bolt", 100, 1, 0, 10, 1));
+
+        // The Parts of the new inventory are only held as rows of the columns
+        PartColumns columns = new PartColumns();
+        columns.add(new InHouse(7, "Nut", 0.5, 4, 0, 10, 2));
+        columns.add(new Outsourced(8, "Washer", 0.25, 8, 0, 10, "Globex"));
+        columns.add(new Outsourced(9, "Pin", 1, 3, 0, 10, "Globex"));
+        Inventory.replaceAll(columns, List.of(new Product(4, "Frame", 12.5, 2, 0, 10)), 10, 5);
+
+        InventoryValuation valuation = Inventory.getValuation();
+        assertEquals(7.0, valuation.getPartStockValue());
+        assertEquals(Map.of(2, 2.0), valuation.getMachineStockValues());
+        assertEquals(Map.of("Globex", 5.0), valuation.getSupplierStockValues());
+        assertEquals(25.0, valuation.getProductStockValue());
+    }
+
+    @Test
+    void partSavedAgainAsSameObjectIsRevalued() {
+        Outsourced part = new Outsourced(Inventory.generatePartID(), "Bolt", 2.50, 10, 0, 20, "Acme");
+        Product product = new Product(Inventory.generateProductID(), "Frame", 40, 5, 1, 10);
+        Inventory.addPart(part);
+        Inventory.addProduct(product);
+
+        part.setPrice(4);
+        part.setStock(7);
+        part.setCompanyName("Globex");
+        Inventory.updatePart(0, part);
+        product.setStock(2);
+        Inventory.updateProduct(0, product);
+
+        InventoryValuation valuation = Inventory.getValuation();
+        assertEquals(28.0, valuation.getPartStockValue());
+        assertEquals(Map.of("Globex", 28.0), valuation.getSupplierStockValues());
+        assertEquals(0, valuation.getSupplierStockValue("Acme"));
+        assertEquals(80.0, valuation.getProductStockValue());
+    }
+}
@@ -0,0 +1,110 @@
+package model;
+
+// Java imports
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// JUnit imports
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for MappedPartCatalog, checking that every field of the written Parts is read back from the mapped file, that
+ * records are found by ID whether or not they were written in ID order, and that a file that is not a whole catalog
+ * is rejected.
+ */
+class MappedPartCatalogTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void writtenPartsAreReadBack() throws IOException {
+        List<Part> parts = List.of(new InHouse(2, "Bolt", 0.25, 100, 10, 500, 7),
+                                   new Outsourced(5, "Écrou 一", 0.1, 40, 5, 200, "Société Générale"),
+                                   new Outsourced(9, "", 1.75, 0, 0, 50, ""));
+        MappedPartCatalog catalog = writeAndOpen(parts);
+
+        assertEquals(parts.size(), catalog.size());
+        for(int record = 0; record < parts.size(); record++) {
+            Part part = parts.get(record);
+            assertEquals(part.getId(), catalog.idAt(record));
+            assertEquals(part.getName(), catalog.nameAt(record));
+            assertEquals(describe(part), describe(catalog.read(record)));
+            assertEquals(record, catalog.recordOf(part.getId()));
+        }
+
+        // get returns the same object for a record, and read a new one
+        Part nut = catalog.get(1);
+        assertSame(nut, catalog.get(1));
+        assertNotSame(nut, catalog.read(1));
+
+        List<String> rows = new ArrayList<>();
+        catalog.scan(0, catalog.size(), (id, price, stock, min, max) ->
+                rows.add(id + " " + price + " " + stock + " " + min + " " + max));
+        assertEquals(List.of("2 0.25 100 10 500", "5 0.1 40 5 200", "9 1.75 0 0 50"), rows);
+
+        assertEquals(-1, catalog.recordOf(1));
+        assertEquals(-1, catalog.recordOf(6));
+        assertEquals(-1, catalog.recordOf(10));
+        assertThrows(IndexOutOfBoundsException.class, () -> catalog.idAt(3));
+    }
+
+    @Test
+    void recordsOutOfIdOrderAreFoundById() throws IOException {
+        List<Part> parts = new ArrayList<>();
+        for(int id : new int[] {30, 4, 17, 8})
+            parts.add(new InHouse(id, "Part " + id, 1, 1, 0, 10, 1));
+        MappedPartCatalog catalog = writeAndOpen(parts);
+
+        for(int record = 0; record < parts.size(); record++)
+            assertEquals(record, catalog.recordOf(parts.get(record).getId()));
+        assertEquals(-1, catalog.recordOf(5));
+    }
+
+    @Test
+    void fileThatIsNotWholeCatalogIsRejected() throws IOException {
+        Path path = directory.resolve("parts");
+        Files.write(path, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> MappedPartCatalog.open(path));
+
+        // A catalog cut off part way through its records
+        List<Part> parts = List.of(new InHouse(1, "Bolt", 1, 1, 0, 10, 1), new InHouse(2, "Nut", 1, 1, 0, 10, 1));
+        MappedPartCatalog.write(path, parts.size(), parts::get);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, 40));
+        assertThrows(IOException.class, () -> MappedPartCatalog.open(path));
+    }
+
+    /**
+     * Writes Parts to a catalog file in the test directory and maps it.
+     * @param parts The Parts, in record order.
+     * @return The catalog.
+     * @throws IOException If the catalog could not be written or mapped.
+     */
+    private MappedPartCatalog writeAndOpen(List<Part> parts) throws IOException {
+        Path path = directory.resolve("inventory.parts");
+        MappedPartCatalog.write(path, parts.size(), parts::get);
+        return MappedPartCatalog.open(path);
+    }
+
+    /**
+     * Returns a description of every field of a Part.
+     * @param part The Part.
+     * @return The description.
+     */
+    private static String describe(Part part) {
+        String supplier = part instanceof InHouse ? "machine " + ((InHouse) part).getMachineId() :
+                "company " + ((Outsourced) part).getCompanyName();
+        return part.getId() + " " + part.getName() + " " + part.getPrice() + " " + part.getStock() + " "
+                + part.getMin() + " " + part.getMax() + " " + supplier;
+    }
+}
@@ -0,0 +1,130 @@
+package model;
+
+// Java imports
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// JUnit imports
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for NameIndex and the Inventory name lookups built on it, checking that shared names are returned in ID
+ * order whatever order they were added in, that renamed and removed objects are no longer found under their old
+ * names, and that normalized lookups ignore case, compatibility forms and whitespace.
+ */
+class NameIndexTest {
+    @BeforeEach
+    @AfterEach
+    void reset() {
+        InventoryTestSupport.reset();
+    }
+
+    @Test
+    void sharedNamesAreReturnedInIdOrder() {
+        Map<Integer, Part> parts = new HashMap<>();
+        NameIndex<Part> index = newIndex(parts);
+        for(int id : new int[] {7, 3, 5})
+            index.add(put(parts, id, "Bolt"));
+        index.add(put(parts, 1, "bolt"));
+
+        assertSame(parts.get(3), index.lookupFirst("Bolt"));
+        assertEquals(List.of(parts.get(3), parts.get(5), parts.get(7)), index.lookupAll("Bolt", false));
+        assertNull(index.lookupFirst("Nut"));
+        assertTrue(index.lookupAll("Nut", false).isEmpty());
+
+        // A renamed object is found under its new name only
+        index.add(put(parts, 3, "Hex bolt"));
+        assertSame(parts.get(5), index.lookupFirst("Bolt"));
+        assertEquals(List.of(parts.get(3)), index.lookupAll("Hex bolt", false));
+
+        index.remove(parts.get(5));
+        index.remove(parts.get(7));
+        assertNull(index.lookupFirst("Bolt"));
+    }
+
+    @Test
+    void normalizedLookupIgnoresCaseCompatibilityFormsAndWhitespace() {
+        Map<Integer, Part> parts = new HashMap<>();
+        NameIndex<Part> index = newIndex(parts);
+        index.add(put(parts, 2, "Hex  Bolt "));
+        index.add(put(parts, 1, "ＨＥＸ bolt"));
+        index.add(put(parts, 4, "Hex nut"));
+
+        assertEquals(List.of(parts.get(1), parts.get(2)), index.lookupAll(" hex\tbolt", true));
+        assertTrue(index.lookupAll("hex bolt", false).isEmpty());
+
+        // Normalized names are kept up to date once built
+        index.add(put(parts, 3, "HEX BOLT"));
+        index.remove(parts.get(1));
+        assertEquals(List.of(parts.get(2), parts.get(3)), index.lookupAll("hex bolt", true));
+    }
+
+    @Test
+    void deferredNamesAreIndexedOnFirstLookup() {
+        Map<Integer, Part> parts = new HashMap<>();
+        NameIndex<Part> index = newIndex(parts);
+        index.add(put(parts, 9, "Washer"));
+
+        int[] ids = {6, 2};
+        put(parts, 6, "Spring");
+        put(parts, 2, "Spring");
+        index.replaceAllDeferred(ids.length, i -> ids[i], i -> parts.get(ids[i]).getName());
+        assertNull(index.lookupFirst("Washer"));
+        assertEquals(List.of(parts.get(2), parts.get(6)), index.lookupAll("spring", true));
+    }
+
+    @Test
+    void inventoryLookupsFollowChanges() {
+        Part nut = new InHouse(Inventory.generatePartID(), "Nut", 1, 1, 0, 10, 1);
+        Part bolt = new InHouse(Inventory.generatePartID(), "Bolt", 1, 1, 0, 10, 1);
+        Inventory.addPart(bolt);
+        Inventory.addPart(nut);
+        assertSame(bolt, Inventory.lookupPart("Bolt"));
+
+        // The Part with the lowest ID is returned, not the Part first in the list
+        Part nutRenamed = new InHouse(nut.getId(), "Bolt", 1, 1, 0, 10, 1);
+        Inventory.updatePart(nutRenamed);
+        assertSame(nutRenamed, Inventory.lookupPart("Bolt"));
+        assertEquals(List.of(nutRenamed, bolt), Inventory.lookupParts("Bolt"));
+        assertNull(Inventory.lookupPart("Nut"));
+
+        Inventory.deletePart(nutRenamed);
+        assertEquals(List.of(bolt), Inventory.lookupParts("bolt", true));
+
+        Product product = new Product(Inventory.generateProductID(), "Frame", 1, 1, 0, 10);
+        Inventory.addProduct(product);
+        assertSame(product, Inventory.lookupProduct("Frame"));
+        Inventory.deleteProduct(product);
+        assertNull(Inventory.lookupProduct("Frame"));
+    }
+
+    /**
+     * Returns a new index over Parts, looking Parts up by ID in the supplied map.
+     * @param parts The Parts by ID.
+     * @return The index.
+     */
+    private static NameIndex<Part> newIndex(Map<Integer, Part> parts) {
+        return new NameIndex<>(Part::getId, Part::getName, parts::get);
+    }
+
+    /**
+     * Puts a new Part with the supplied ID and name in a map, replacing any Part with the same ID.
+     * @param parts The Parts by ID.
+     * @param id The Part ID.
+     * @param name The Part name.
+     * @return The Part.
+     */
+    private static Part put(Map<Integer, Part> parts, int id, String name) {
+        Part part = new InHouse(id, name, 1, 1, 0, 10, 1);
+        parts.put(id, part);
+        return part;
+    }
+}
@@ -0,0 +1,132 @@
+package model;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.List;
+
+// JUnit imports
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for PartColumns, checking that the values of each Part are held in its row and read back by the accessors,
+ * scans, and views, that writes through a view change the row, that rows are found by ID in and out of ID order and
+ * after the records of a base catalog, and that Parts committed as rows are looked up in inventory as views.
+ */
+class PartColumnsTest {
+    @BeforeEach
+    @AfterEach
+    void reset() {
+        InventoryTestSupport.reset();
+    }
+
+    @Test
+    void rowsHoldPartValues() {
+        PartColumns columns = new PartColumns();
+        assertEquals(0, columns.add(new InHouse(3, "Bolt", 0.25, 100, 10, 500, 7)));
+        assertEquals(1, columns.add(new Outsourced(8, "Écrou", 0.1, 40, 5, 200, "Acme")));
+        assertEquals(2, columns.size());
+
+        assertEquals(8, columns.idAt(1));
+        assertEquals("Écrou", columns.nameAt(1));
+        assertEquals(List.of("3 0.25 100 10 500", "8 0.1 40 5 200"), scan(columns));
+
+        // A view is kept for its row while referenced, and writes through it change the row
+        InHouse bolt = assertInstanceOf(InHouse.class, columns.get(0));
+        assertSame(bolt, columns.get(0));
+        assertEquals(7, bolt.getMachineId());
+        bolt.setName("Hex bolt");
+        bolt.setStock(90);
+        bolt.setMachineId(9);
+        assertEquals("Hex bolt", columns.nameAt(0));
+        assertEquals(List.of("3 0.25 90 10 500", "8 0.1 40 5 200"), scan(columns));
+
+        Outsourced nut = assertInstanceOf(Outsourced.class, columns.read(1));
+        assertNotSame(nut, columns.read(1));
+        assertEquals("Acme", nut.getCompanyName());
+        assertEquals(9, ((InHouse) columns.read(0)).getMachineId());
+        assertThrows(IndexOutOfBoundsException.class, () -> columns.idAt(2));
+    }
+
+    @Test
+    void rowsAreFoundById() {
+        PartColumns columns = new PartColumns();
+        for(int id : new int[] {2, 4, 6})
+            columns.add(part(id, "Part " + id));
+        assertEquals(1, columns.recordOf(4));
+        assertEquals(-1, columns.recordOf(5));
+
+        // Once a row is out of ID order, and for an ID added again, the most recent row is found
+        columns.add(part(1, "Part 1"));
+        columns.add(part(4, "Part 4 again"));
+        assertEquals(3, columns.recordOf(1));
+        assertEquals(4, columns.recordOf(4));
+        assertEquals(2, columns.recordOf(6));
+        assertEquals(-1, columns.recordOf(5));
+    }
+
+    @Test
+    void rowsAreNumberedAfterBaseRecords() {
+        PartColumns base = new PartColumns();
+        base.add(part(1, "Bolt"));
+        base.add(part(2, "Nut"));
+
+        PartColumns columns = new PartColumns(base);
+        assertEquals(2, columns.add(part(5, "Washer")));
+        assertEquals(3, columns.add(part(2, "Nut again")));
+        assertEquals(4, columns.size());
+
+        assertSame(base.get(0), columns.get(0));
+        assertEquals("Washer", columns.nameAt(2));
+        assertEquals(0, columns.recordOf(1));
+        assertEquals(3, columns.recordOf(2));
+        assertEquals(List.of("1 1.0 1 0 10", "2 1.0 1 0 10", "5 1.0 1 0 10", "2 1.0 1 0 10"), scan(columns));
+    }
+
+    @Test
+    void partRowsAreLookedUpAsViews() {
+        Part bolt = part(Inventory.generatePartID(), "Bolt");
+        Part nut = part(Inventory.generatePartID(), "Nut");
+        Inventory.addPartRows(List.of(bolt, nut));
+
+        // The Parts committed are not kept, only their values
+        Part storedNut = Inventory.lookupPart(nut.getId());
+        assertNotSame(nut, storedNut);
+        assertEquals("Nut", storedNut.getName());
+        assertSame(storedNut, Inventory.getAllParts().get(1));
+        assertSame(storedNut, Inventory.lookupPart("Nut"));
+
+        List<Integer> ids = new ArrayList<>();
+        Inventory.forEachPartRow((id, price, stock, min, max) -> ids.add(id));
+        assertEquals(List.of(bolt.getId(), nut.getId()), ids);
+    }
+
+    /**
+     * Returns the ID, price, stock, min and max of every record of a catalog, read by a scan.
+     * @param catalog The catalog.
+     * @return A description of each record.
+     */
+    private static List<String> scan(PartCatalog catalog) {
+        List<String> rows = new ArrayList<>();
+        catalog.scan(0, catalog.size(), (id, price, stock, min, max) ->
+                rows.add(id + " " + price + " " + stock + " " + min + " " + max));
+        return rows;
+    }
+
+    /**
+     * Returns a new In-House Part with the supplied ID and name.
+     * @param id The Part ID.
+     * @param name The Part name.
+     * @return The Part.
+     */
+    private static Part part(int id, String name) {
+        return new InHouse(id, name, 1, 1, 0, 10, 1);
+    }
+}
@@ -0,0 +1,200 @@
+package model;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+// JUnit imports
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for PersistentIntMap, checking random changes against a TreeMap and checking that every map published stays
+ * exactly as it was while later copies are changed.
+ */
+class PersistentIntMapTest {
+    // Orders keys the way the map visits them
+    private static final Comparator<Integer> UNSIGNED = Integer::compareUnsigned;
+
+    @Test
+    void emptyMapHasNoEntries() {
+        PersistentIntMap<String> map = PersistentIntMap.empty();
+
+        assertEquals(0, map.size());
+        assertNull(map.get(0));
+        assertFalse(map.containsKey(-1));
+        assertEquals(new TreeMap<Integer, String>(UNSIGNED), contentsOf(map));
+    }
+
+    @Test
+    void randomChangesMatchTreeMap() {
+        Random random = new Random(42);
+        PersistentIntMap<String> map = PersistentIntMap.empty();
+        TreeMap<Integer, String> expected = new TreeMap<>(UNSIGNED);
+
+        // Keep every tenth version to check that later changes never show through
+        List<PersistentIntMap<String>> versions = new ArrayList<>();
+        List<Map<Integer, String>> expectedVersions = new ArrayList<>();
+
+        for(int round = 0; round < 2000; round++) {
+            PersistentIntMap.Editor<String> editor = map.edit();
+            int changes = 1 + random.nextInt(20);
+            for(int change = 0; change < changes; change++) {
+                int key = randomKey(random);
+                if(random.nextInt(3) == 0) {
+                    editor.remove(key);
+                    expected.remove(key);
+                } else {
+                    String value = round + "/" + change;
+                    editor.put(key, value);
+                    expected.put(key, value);
+                }
+                assertEquals(expected.size(), editor.size());
+                assertEquals(expected.get(key), editor.get(key));
+            }
+            map = editor.toMap();
+
+            if(round % 10 == 0) {
+                versions.add(map);
+                expectedVersions.add(new TreeMap<>(expected));
+            }
+            if(random.nextInt(500) == 0) {
+                map = clear(map);
+                expected.clear();
+            }
+        }
+
+        assertEquals(expected, contentsOf(map));
+        for(int version = 0; version < versions.size(); version++)
+            assertEquals(expectedVersions.get(version), contentsOf(versions.get(version)));
+    }
+
+    @Test
+    void lookupsMatchContents() {
+        Random random = new Random(7);
+        PersistentIntMap.Editor<Integer> editor = PersistentIntMap.<Integer>empty().edit();
+        TreeMap<Integer, Integer> expected = new TreeMap<>(UNSIGNED);
+        for(int i = 0; i < 5000; i++) {
+            int key = randomKey(random);
+            editor.put(key, i);
+            expected.put(key, i);
+        }
+        PersistentIntMap<Integer> map = editor.toMap();
+
+        for(int i = 0; i < 5000; i++) {
+            int key = randomKey(random);
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        for(Map.Entry<Integer, Integer> entry : expected.entrySet())
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+    }
+
+    @Test
+    void editorLeavesPublishedMapUnchanged() {
+        PersistentIntMap.Editor<String> editor = PersistentIntMap.<String>empty().edit();
+        for(int key = 0; key < 100; key++)
+            editor.put(key, "a" + key);
+        PersistentIntMap<String> published = editor.toMap();
+
+        // Changes made by the same editor after toMap must copy the nodes the published map holds
+        for(int key = 0; key < 100; key += 2)
+            editor.put(key, "b" + key);
+        for(int key = 1; key < 100; key += 2)
+            editor.remove(key);
+        editor.put(Integer.MIN_VALUE, "min");
+        PersistentIntMap<String> changed = editor.toMap();
+
+        assertEquals(100, published.size());
+        for(int key = 0; key < 100; key++)
+            assertEquals("a" + key, published.get(key));
+        assertNull(published.get(Integer.MIN_VALUE));
+
+        assertEquals(51, changed.size());
+        assertEquals("b0", changed.get(0));
+        assertNull(changed.get(1));
+        assertEquals("min", changed.get(Integer.MIN_VALUE));
+    }
+
+    @Test
+    void entriesAreVisitedInUnsignedKeyOrder() {
+        int[] keys = {-1, 0, 1, Integer.MAX_VALUE, Integer.MIN_VALUE, 31, 32, 1 << 20, -(1 << 20)};
+        PersistentIntMap.Editor<Integer> editor = PersistentIntMap.<Integer>empty().edit();
+        for(int key : keys)
+            editor.put(key, key);
+
+        List<Integer> visited = new ArrayList<>();
+        editor.toMap().forEach((key, value) -> {
+            assertEquals(key, (int) value);
+            visited.add(key);
+        });
+
+        List<Integer> sorted = new ArrayList<>(visited);
+        sorted.sort(UNSIGNED);
+        assertEquals(sorted, visited);
+        assertEquals(keys.length, visited.size());
+    }
+
+    @Test
+    void removingEveryKeyEmptiesTheMap() {
+        PersistentIntMap.Editor<String> editor = PersistentIntMap.<String>empty().edit();
+        for(int key = -500; key < 500; key++)
+            editor.put(key * 7919, "v");
+        for(int key = -500; key < 500; key++)
+            editor.remove(key * 7919);
+        PersistentIntMap<String> map = editor.toMap();
+
+        assertEquals(0, map.size());
+        assertTrue(contentsOf(map).isEmpty());
+    }
+
+    /**
+     * Returns a random key, mostly small sequential IDs like the inventory uses with some spread over every int.
+     * @param random The random number generator.
+     * @return The key.
+     */
+    private static int randomKey(Random random) {
+        switch(random.nextInt(4)) {
+            case 0:
+                return random.nextInt();
+            case 1:
+                return -random.nextInt(64);
+            default:
+                return random.nextInt(4096);
+        }
+    }
+
+    /**
+     * Returns a copy of a map with every entry removed through an editor.
+     * @param map The map.
+     * @return The empty copy.
+     */
+    private static <V> PersistentIntMap<V> clear(PersistentIntMap<V> map) {
+        PersistentIntMap.Editor<V> editor = map.edit();
+        editor.clear();
+        return editor.toMap();
+    }
+
+    /**
+     * Returns the entries of a map in the order forEach visits them, checking that the order is ascending.
+     * @param map The map.
+     * @return The entries, in unsigned key order.
+     */
+    private static <V> TreeMap<Integer, V> contentsOf(PersistentIntMap<V> map) {
+        TreeMap<Integer, V> contents = new TreeMap<>(UNSIGNED);
+        map.forEach((key, value) -> {
+            assertTrue(contents.isEmpty() || Integer.compareUnsigned(contents.lastKey(), key) < 0);
+            contents.put(key, value);
+        });
+        assertEquals(map.size(), contents.size());
+        return contents;
+    }
+}
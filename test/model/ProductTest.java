@@ -0,0 +1,215 @@
+package model;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+// JUnit imports
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the associated Parts of a Product and the quantity of each, checking random changes against a
+ * LinkedHashMap, and checking that the associations of a Product in inventory are only changed under the Inventory
+ * commit lock, looking the Product up only once the lock is held. Enough Parts are used for the position table to be
+ * built, grown and dropped again.
+ */
+class ProductTest {
+    @BeforeEach
+    void emptyInventory() {
+        InventoryTestSupport.reset();
+    }
+
+    @AfterEach
+    void emptyInventoryAfterwards() {
+        InventoryTestSupport.reset();
+    }
+
+    @Test
+    void randomAssociationsMatchLinkedHashMap() {
+        Random random = new Random(41);
+        List<Part> parts = new ArrayList<>();
+        for(int id = 1; id <= 40; id++)
+            parts.add(new InHouse(id * 37, "Part " + id, 1, 1, 0, 10, 1));
+
+        for(int productRun = 0; productRun < 20; productRun++) {
+            Product product = new Product(0, "Product", 1, 1, 0, 10);
+            Map<Integer, Integer> expected = new LinkedHashMap<>();
+            Map<Integer, Part> associated = new LinkedHashMap<>();
+
+            for(int change = 0; change < 2000; change++) {
+                Part part = parts.get(random.nextInt(random.nextBoolean() ? 12 : parts.size()));
+                if(random.nextInt(5) < 3) {
+                    int quantity = 1 + random.nextInt(4);
+                    product.addAssociatedPart(part, quantity);
+                    expected.merge(part.getId(), quantity, Integer::sum);
+                    associated.putIfAbsent(part.getId(), part);
+                } else {
+                    assertEquals(expected.remove(part.getId()) != null, product.deleteAssociatedPart(part));
+                    associated.remove(part.getId());
+                }
+                assertAssociations(expected, associated, product);
+            }
+        }
+    }
+
+    @Test
+    void partWithSameIdIsNotRemoved() {
+        Product product = new Product(0, "Product", 1, 1, 0, 10);
+        Part part = new InHouse(5, "Bolt", 1, 1, 0, 10, 1);
+        product.addAssociatedPart(part, 2);
+
+        assertFalse(product.deleteAssociatedPart(new InHouse(5, "Bolt", 1, 1, 0, 10, 1)));
+        assertEquals(2, product.getAssociatedPartQuantity(5));
+        assertThrows(IllegalArgumentException.class, () -> product.addAssociatedPart(part, 0));
+    }
+
+    @Test
+    void productInInventoryIsChangedUnderCommitLock() throws InterruptedException {
+        List<Part> parts = new ArrayList<>();
+        for(int i = 0; i < 20; i++) {
+            Part part = new InHouse(Inventory.generatePartID(), "Part " + i, 1, 1, 0, 10, 1);
+            Inventory.addPart(part);
+            parts.add(part);
+        }
+        Product product = new Product(Inventory.generateProductID(), "Product", 1, 1, 0, 10);
+        Inventory.addProduct(product);
+
+        // Change the associations on another thread while this thread checks them under the commit lock
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                Random random = new Random(42);
+                for(int change = 0; change < 50_000; change++) {
+                    Part part = parts.get(random.nextInt(parts.size()));
+                    if(random.nextBoolean())
+                        product.addAssociatedPart(part, 1 + random.nextInt(3));
+                    else
+                        product.deleteAssociatedPart(part);
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+
+        ReentrantLock commitLock = Inventory.getCommitLock();
+        while(writer.isAlive()) {
+            commitLock.lock();
+            try {
+                int[] ids = product.copyAssociatedPartIds();
+                int[] quantities = product.copyAssociatedPartQuantities();
+                assertEquals(ids.length, product.associatedPartCount());
+                assertEquals(ids.length, quantities.length);
+                for(int i = 0; i < ids.length; i++) {
+                    assertEquals(ids[i], product.getAssociatedPartsView().get(i).getId());
+                    assertEquals(quantities[i], product.getAssociatedPartQuantity(ids[i]));
+                    assertTrue(quantities[i] > 0);
+                }
+            } finally {
+                commitLock.unlock();
+            }
+        }
+        writer.join();
+        assertNull(failure.get());
+
+        // The snapshot published after the last change holds the final associations
+        InventorySnapshot.ProductRecord record = Inventory.getSnapshot().getProductRecord(product.getId());
+        assertEquals(product.associatedPartCount(), record.getAssociatedPartCount());
+        for(int i = 0; i < record.getAssociatedPartCount(); i++) {
+            assertEquals(product.getAssociatedPartsView().get(i).getId(), record.getAssociatedPartId(i));
+            assertEquals(product.getAssociatedPartQuantityAt(i), record.getAssociatedPartQuantity(i));
+        }
+    }
+
+    @Test
+    void changeWaitingForLockSeesProductAddedMeanwhile() throws InterruptedException {
+        Part part = new InHouse(Inventory.generatePartID(), "Bolt", 1, 1, 0, 10, 1);
+        Inventory.addPart(part);
+        Product product = new Product(Inventory.generateProductID(), "Product", 1, 1, 0, 10);
+
+        // Hold the commit lock while another thread associates the Part. The change must wait for the lock even though
+        // the Product is not in inventory yet, and then find the Product added to inventory in the meantime.
+        ReentrantLock commitLock = Inventory.getCommitLock();
+        Thread writer = new Thread(() -> product.addAssociatedPart(part, 1));
+        commitLock.lock();
+        try {
+            writer.start();
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while(!commitLock.hasQueuedThread(writer) && writer.isAlive() && System.nanoTime() < deadline)
+                Thread.onSpinWait();
+            assertTrue(commitLock.hasQueuedThread(writer));
+            Inventory.addProduct(product);
+        } finally {
+            commitLock.unlock();
+        }
+        writer.join();
+
+        assertEquals(1, product.getAssociatedPartQuantity(part.getId()));
+        assertTrue(Inventory.isPartAssociated(part));
+    }
+
+    @Test
+    void productOutsideInventoryIsNotIndexed() {
+        Part part = new InHouse(Inventory.generatePartID(), "Bolt", 1, 1, 0, 10, 1);
+        Inventory.addPart(part);
+        Product product = new Product(Inventory.generateProductID(), "Product", 1, 1, 0, 10);
+
+        product.addAssociatedPart(part, 2);
+        assertFalse(Inventory.isPartAssociated(part));
+        assertFalse(Inventory.getCommitLock().isHeldByCurrentThread());
+
+        Inventory.addProduct(product);
+        assertTrue(Inventory.isPartAssociated(part));
+        assertTrue(product.deleteAssociatedPart(part));
+        assertFalse(Inventory.isPartAssociated(part));
+        assertFalse(Inventory.getCommitLock().isHeldByCurrentThread());
+    }
+
+    /**
+     * Checks every way of reading a Product's associations against the expected Parts and quantities.
+     * @param expected The expected quantity of each associated Part ID, in the order the Parts were associated.
+     * @param associated The expected Part for each associated Part ID.
+     * @param product The Product.
+     */
+    private static void assertAssociations(Map<Integer, Integer> expected, Map<Integer, Part> associated,
+                                           Product product) {
+        assertEquals(expected.size(), product.associatedPartCount());
+        assertArrayEquals(expected.keySet().stream().mapToInt(Integer::intValue).toArray(),
+                          product.copyAssociatedPartIds());
+        assertArrayEquals(expected.values().stream().mapToInt(Integer::intValue).toArray(),
+                          product.copyAssociatedPartQuantities());
+
+        int index = 0;
+        for(Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertSame(associated.get(entry.getKey()), product.getAssociatedPartsView().get(index));
+            assertEquals(entry.getValue(), product.getAssociatedPartQuantityAt(index));
+            assertEquals(entry.getValue(), product.getAssociatedPartQuantity(entry.getKey()));
+            assertTrue(product.containsAssociatedPart(entry.getKey()));
+            index++;
+        }
+
+        // IDs that are not associated, including ones that share a slot in the position table with associated IDs
+        for(int id = 0; id < 41 * 37; id += 37) {
+            if(!expected.containsKey(id)) {
+                assertFalse(product.containsAssociatedPart(id));
+                assertEquals(0, product.getAssociatedPartQuantity(id));
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package model;
+
+// Java imports
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+// JUnit imports
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for ReorderAlerts, checking that a Part or Product gains, changes, and loses its alert as it is added,
+ * updated, saved again after changing it through its setters, and deleted, and that the alerts are rebuilt when the
+ * whole inventory is replaced.
+ */
+class ReorderAlertsTest {
+    private final ReorderAlerts alerts = Inventory.getReorderAlerts();
+
+    @BeforeEach
+    void emptyInventory() {
+        InventoryTestSupport.reset();
+    }
+
+    @AfterEach
+    void emptyInventoryAfterwards() {
+        InventoryTestSupport.reset();
+    }
+
+    @Test
+    void partAlertFollowsPartChanges() {
+        Part bolt = new InHouse(Inventory.generatePartID(), "Bolt", 1, 2, 5, 10, 1);
+        Inventory.addPart(bolt);
+        Inventory.addPart(new InHouse(Inventory.generatePartID(), "Nut", 1, 5, 5, 10, 1));
+        assertPartAlerts(Set.of(bolt.getId()), Set.of());
+        assertEquals(List.of(bolt), alerts.getPartsBelowMin());
+
+        Inventory.updatePart(new InHouse(bolt.getId(), "Bolt", 1, 12, 5, 10, 1));
+        assertPartAlerts(Set.of(), Set.of(bolt.getId()));
+
+        // A change made through the setters is only seen once the Part is saved again
+        Part overstocked = Inventory.lookupPart(bolt.getId());
+        overstocked.setStock(7);
+        assertPartAlerts(Set.of(), Set.of(bolt.getId()));
+        Inventory.updatePart(overstocked);
+        assertPartAlerts(Set.of(), Set.of());
+
+        overstocked.setMin(8);
+        Inventory.updatePart(overstocked);
+        assertPartAlerts(Set.of(bolt.getId()), Set.of());
+
+        Inventory.deletePart(overstocked);
+        assertPartAlerts(Set.of(), Set.of());
+        assertEquals(0, alerts.getAlertCount());
+    }
+
+    @Test
+    void productAlertFollowsProductChanges() {
+        Product frame = new Product(Inventory.generateProductID(), "Frame", 1, 0, 1, 10);
+        Product wheel = new Product(Inventory.generateProductID(), "Wheel", 1, 11, 1, 10);
+        Inventory.addProduct(frame);
+        Inventory.addProduct(wheel);
+        assertEquals(List.of(frame), alerts.getProductsBelowMin());
+        assertEquals(List.of(wheel), alerts.getProductsAboveMax());
+        assertEquals(2, alerts.getAlertCount());
+
+        Product restocked = new Product(frame.getId(), "Frame", 1, 1, 1, 10);
+        Inventory.updateProduct(restocked);
+        wheel.setStock(0);
+        Inventory.updateProduct(wheel);
+        assertEquals(List.of(wheel), alerts.getProductsBelowMin());
+        assertEquals(List.of(), alerts.getProductsAboveMax());
+
+        Inventory.deleteProduct(wheel);
+        assertEquals(List.of(), alerts.getProductsBelowMin());
+        assertEquals(0, alerts.getAlertCount());
+    }
+
+    @Test
+    void alertsAreRebuiltWhenInventoryIsReplaced() {
+        Inventory.addPart(new InHouse(Inventory.generatePartID(), "Bolt", 1, 0, 5, 10, 1));
+
+        // The Parts of the new inventory are only held as rows of the columns
+        PartColumns columns = new PartColumns();
+        columns.add(new InHouse(7, "Nut", 1, 1, 2, 10, 1));
+        columns.add(new Outsourced(8, "Washer", 1, 20, 0, 10, "Acme"));
+        columns.add(new InHouse(9, "Pin", 1, 5, 0, 10, 1));
+        Product frame = new Product(4, "Frame", 1, 0, 1, 10);
+        Inventory.replaceAll(columns, List.of(frame), 10, 5);
+
+        assertPartAlerts(Set.of(7), Set.of(8));
+        assertEquals(List.of(frame), alerts.getProductsBelowMin());
+        assertEquals(3, alerts.getAlertCount());
+    }
+
+    /**
+     * Checks the IDs of the Parts below their minimum and above their maximum stock level.
+     * @param belowMin The IDs of the Parts expected below their minimum.
+     * @param aboveMax The IDs of the Parts expected above their maximum.
+     */
+    private void assertPartAlerts(Set<Integer> belowMin, Set<Integer> aboveMax) {
+        assertEquals(belowMin, idsOf(alerts.getPartIdsBelowMin()));
+        assertEquals(aboveMax, idsOf(alerts.getPartIdsAboveMax()));
+    }
+
+    /**
+     * Returns a set of IDs.
+     * @param ids The IDs.
+     * @return The IDs, checking that none is listed twice.
+     */
+    private static Set<Integer> idsOf(int[] ids) {
+        Set<Integer> set = new TreeSet<>();
+        for(int id : ids)
+            set.add(id);
+        assertEquals(ids.length, set.size());
+        return set;
+    }
+}
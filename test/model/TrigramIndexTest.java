@@ -0,0 +1,134 @@
+package model;
+
+// Java imports
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+// JUnit imports
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for TrigramIndex, checking its searches against the names that contain the search string, including search
+ * strings too short to hold a trigram and characters sharing trigram keys, and checking that replaced and removed
+ * names are no longer found.
+ */
+class TrigramIndexTest {
+    @Test
+    void searchFindsExactlyTheNamesContainingSearchString() {
+        Random random = new Random(3);
+        // U+4861 shares its trigram key bits with 'a', so candidates holding it must be rejected by their names
+        String alphabet = "abcAB é\u4861\u4e00";
+        Map<Integer, Part> parts = new TreeMap<>();
+        TrigramIndex<Part> index = newIndex(parts);
+
+        // Add the Parts out of ID order, so the results have to be put in ID order by the index
+        for(int i = 0; i < 400; i++) {
+            int id = 1 + random.nextInt(1000);
+            Part part = part(id, randomText(random, alphabet, 1 + random.nextInt(10)));
+            parts.put(id, part);
+            index.add(part);
+        }
+
+        for(int i = 0; i < 300; i++) {
+            String search = randomText(random, alphabet, 1 + random.nextInt(4));
+            assertEquals(expectedMatches(parts, search), index.search(search), "search \"" + search + "\"");
+        }
+    }
+
+    @Test
+    void replacedAndRemovedNamesAreNotFound() {
+        Map<Integer, Part> parts = new TreeMap<>();
+        TrigramIndex<Part> index = newIndex(parts);
+        Part bolt = part(1, "Hex Bolt");
+        Part nut = part(2, "Hex nut");
+        index.add(bolt);
+        index.add(nut);
+        assertEquals(List.of(bolt, nut), index.search("HEX"));
+        assertEquals(List.of(bolt, nut), index.search("x"));
+
+        Part screw = part(1, "Wood screw");
+        index.add(screw);
+        assertEquals(List.of(nut), index.search("hex"));
+        assertEquals(List.of(), index.search("bolt"));
+        assertEquals(List.of(screw), index.search("screw"));
+
+        index.remove(nut);
+        assertEquals(List.of(), index.search("hex"));
+        assertEquals(List.of(screw), index.search("o"));
+    }
+
+    @Test
+    void namesIndexedByIdAreLookedUp() {
+        Map<Integer, Part> parts = new HashMap<>();
+        parts.put(5, part(5, "Spring washer"));
+        parts.put(9, part(9, "Flat washer"));
+        TrigramIndex<Part> index = newIndex(parts);
+
+        // Indexing is deferred until the first search, and the matches are looked up by ID
+        int[] ids = {9, 5};
+        index.replaceAllDeferred(ids.length, i -> ids[i], i -> parts.get(ids[i]).getName());
+        List<Part> washers = index.search("washer");
+        assertEquals(List.of(parts.get(5), parts.get(9)), washers);
+
+        // A candidate that is not the object looked up for its ID is dropped when the results are refined
+        parts.put(9, part(9, "Flat washer"));
+        assertEquals(List.of(parts.get(5)), index.refine(washers, "washer"));
+        assertEquals(List.of(parts.get(5)), index.refine(washers, "spring"));
+        assertTrue(index.refine(washers, "nut").isEmpty());
+    }
+
+    /**
+     * Returns a new index over Parts, looking Parts indexed by ID alone up in the supplied map.
+     * @param parts The Parts by ID.
+     * @return The index.
+     */
+    private static TrigramIndex<Part> newIndex(Map<Integer, Part> parts) {
+        return new TrigramIndex<>(Part::getId, Part::getName, parts::get);
+    }
+
+    /**
+     * Returns the Parts whose names contain the search string, ignoring case, in ID order.
+     * @param parts The Parts by ID, in ID order.
+     * @param search The search string.
+     * @return The matching Parts.
+     */
+    private static List<Part> expectedMatches(Map<Integer, Part> parts, String search) {
+        List<Part> matches = new ArrayList<>();
+        for(Part part : parts.values()) {
+            if(part.getName().toLowerCase().contains(search.toLowerCase()))
+                matches.add(part);
+        }
+        return matches;
+    }
+
+    /**
+     * Returns a random string of characters from an alphabet.
+     * @param random The random number generator.
+     * @param alphabet The characters to choose from.
+     * @param length The length of the string.
+     * @return The string.
+     */
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for(int i = 0; i < length; i++)
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return text.toString();
+    }
+
+    /**
+     * Returns a new Part with the supplied ID and name.
+     * @param id The Part ID.
+     * @param name The Part name.
+     * @return The Part.
+     */
+    private static Part part(int id, String name) {
+        return new InHouse(id, name, 1, 1, 0, 10, 1);
+    }
+}